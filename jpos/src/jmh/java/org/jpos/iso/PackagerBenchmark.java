@@ -0,0 +1,141 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.iso;
+
+import org.jpos.iso.packager.GenericPackager;
+import org.jpos.iso.packager.ISO87APackager;
+import org.jpos.iso.packager.ISO87BPackager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pack/unpack throughput of the most commonly used packagers.
+ *
+ * <p>Run with {@code gradle jmh -PjmhInclude=PackagerBenchmark}; the {@code gc}
+ * profiler is enabled by the build so {@code gc.alloc.rate.norm} reports
+ * bytes allocated per pack or unpack.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PackagerBenchmark {
+    @Param({ "ISO87A", "ISO87B", "CMF" })
+    public String packagerName;
+
+    private ISOPackager packager;
+    private ISOMsg msg;
+    private byte[] image;
+    private ByteBuffer buffer;
+    private ByteBuffer imageBuffer;
+
+    @Setup
+    public void setup() throws ISOException {
+        switch (packagerName) {
+            case "ISO87A" -> {
+                packager = new ISO87APackager();
+                msg = iso87Msg();
+            }
+            case "ISO87B" -> {
+                packager = new ISO87BPackager();
+                msg = iso87Msg();
+            }
+            case "CMF" -> {
+                packager = new GenericPackager("jar:packager/cmf.xml");
+                msg = cmfMsg();
+            }
+            default -> throw new IllegalArgumentException(packagerName);
+        }
+        msg.setPackager(packager);
+        image = msg.pack();
+        buffer = ByteBuffer.allocateDirect(4096);
+        imageBuffer = ByteBuffer.wrap(image);
+    }
+
+    @Benchmark
+    public byte[] pack() throws ISOException {
+        return packager.pack(msg);
+    }
+
+    @Benchmark
+    public ISOMsg unpack() throws ISOException {
+        ISOMsg m = new ISOMsg();
+        packager.unpack(m, image);
+        return m;
+    }
+
+    @Benchmark
+    public int packBuffer() throws ISOException {
+        buffer.clear();
+        return packager.pack(msg, buffer);
+    }
+
+    @Benchmark
+    public ISOMsg unpackBuffer() throws ISOException {
+        imageBuffer.clear();
+        ISOMsg m = new ISOMsg();
+        packager.unpack(m, imageBuffer);
+        return m;
+    }
+
+    private static ISOMsg iso87Msg() throws ISOException {
+        ISOMsg m = new ISOMsg("0200");
+        m.set(2, "4111111111111111");
+        m.set(3, "000000");
+        m.set(4, "000000010000");
+        m.set(7, "1018153108");
+        m.set(11, "000001");
+        m.set(12, "153108");
+        m.set(13, "1018");
+        m.set(14, "2912");
+        m.set(22, "051");
+        m.set(25, "00");
+        m.set(32, "123456");
+        m.set(35, "4111111111111111=29121011000012345678");
+        m.set(37, "000000000001");
+        m.set(41, "29110001");
+        m.set(42, "001001001001001");
+        m.set(43, "jPOS Benchmark         Montevideo    UY");
+        m.set(49, "858");
+        m.set(52, ISOUtil.hex2byte("0123456789ABCDEF"));
+        return m;
+    }
+
+    private static ISOMsg cmfMsg() throws ISOException {
+        ISOMsg m = new ISOMsg("2100");
+        m.set(2, "4111111111111111");
+        m.set(3, "000000");
+        m.set(7, "1018153108");
+        m.set(11, "000000000001");
+        m.set(12, "20261018153108");
+        m.set(14, "2912");
+        m.set(22, ISOUtil.hex2byte("A1000000000000000000000000000000"));
+        m.set(32, "123456");
+        m.set(35, "4111111111111111=29121011000012345678");
+        m.set(37, "000000000001");
+        m.set(41, "29110001");
+        m.set(42, "001001001001001");
+        m.set("43.2", "jPOS Benchmark");
+        m.set("43.4", "Montevideo");
+        m.set("43.5", "MV");
+        m.set("43.7", "UY");
+        return m;
+    }
+}
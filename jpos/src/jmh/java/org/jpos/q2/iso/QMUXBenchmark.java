@@ -0,0 +1,116 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.q2.iso;
+
+import org.jpos.iso.*;
+import org.jpos.q2.Q2;
+import org.jpos.util.LogEvent;
+import org.jpos.util.NameRegistrar;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link QMUX#request(ISOMsg, long)} round trips over a {@link org.jpos.iso.channel.LoopbackChannel}.
+ *
+ * <p>A {@link ChannelAdaptor} wraps a loopback channel whose incoming filter turns
+ * every request into a response, so the measured path is QMUX correlation plus
+ * the ChannelAdaptor sender/receiver hand-off through the space, without any
+ * network I/O. {@code correlation} selects QMUX's space-based or direct correlation table.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QMUXBenchmark {
+    @Param({ "space", "direct" })
+    public String correlation;
+
+    private Q2 q2;
+    private Path deployDir;
+    private MUX mux;
+    private final AtomicLong stan = new AtomicLong();
+
+    /** Incoming filter that turns the looped-back request into its response. */
+    public static class ResponseFilter implements ISOFilter {
+        @Override
+        public ISOMsg filter(ISOChannel channel, ISOMsg m, LogEvent evt) throws VetoException {
+            try {
+                m.setResponseMTI();
+                m.set(39, "00");
+            } catch (ISOException e) {
+                throw new VetoException(e);
+            }
+            return m;
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        deployDir = Files.createTempDirectory("jpos-jmh-qmux");
+        Files.writeString(deployDir.resolve("10_channel.xml"), """
+          <channel-adaptor name="bench-channel" class="org.jpos.q2.iso.ChannelAdaptor">
+            <channel class="org.jpos.iso.channel.LoopbackChannel">
+              <filter class="org.jpos.q2.iso.QMUXBenchmark$ResponseFilter" direction="incoming" />
+            </channel>
+            <in>bench-send</in>
+            <out>bench-receive</out>
+            <reconnect-delay>1000</reconnect-delay>
+          </channel-adaptor>
+          """);
+        Files.writeString(deployDir.resolve("20_mux.xml"), """
+          <mux name="bench" class="org.jpos.q2.iso.QMUX">
+            <in>bench-receive</in>
+            <out>bench-send</out>
+            <ready>bench-channel.ready</ready>
+            <property name="correlation" value="%s" />
+          </mux>
+          """.formatted(correlation));
+        q2 = new Q2(deployDir.toString());
+        q2.start();
+        q2.ready(10000L);
+        mux = NameRegistrar.get("mux.bench", 10000L);
+        for (int i=0; i<100 && !mux.isConnected(); i++)
+            ISOUtil.sleep(100L);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        q2.shutdown(true);
+        try (var files = Files.walk(deployDir)) {
+            files.sorted(java.util.Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ISOMsg request() throws ISOException {
+        ISOMsg m = new ISOMsg("0800");
+        m.set(11, ISOUtil.zeropad(stan.incrementAndGet() % 1000000L, 6));
+        m.set(41, "29110001");
+        m.set(70, "301");
+        ISOMsg r = mux.request(m, 5000L);
+        if (r == null)
+            throw new IllegalStateException("no response for " + m.getString(11));
+        return r;
+    }
+}
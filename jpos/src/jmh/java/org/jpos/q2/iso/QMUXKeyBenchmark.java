@@ -0,0 +1,109 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.q2.iso;
+
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QMUX correlation key extraction.
+ *
+ * <p>{@code legacy} is the {@code StringBuilder} based {@code getKey} QMUX used before keys
+ * were compiled, {@code string} renders the same key through {@link QMUXKey}, and
+ * {@code hash} is what {@code direct} correlation does per request and response
+ * (render into a pooled buffer and hash it). Run with {@code -prof gc} to
+ * compare allocation rates.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QMUXKeyBenchmark {
+    private static final String OUT = "bench-send";
+    private static final String[] MTI_MAPPING = { "0123456789", "0123456789", "0022446689" };
+    private static final String[] KEY = { "41", "11" };
+
+    private QMUXKey keys;
+    private ISOMsg m;
+
+    @Setup
+    public void setup() {
+        keys = new QMUXKey(MTI_MAPPING, false, KEY, Map.of());
+        m = new ISOMsg("0210");
+        m.set(3, "000000");
+        m.set(11, "4711");
+        m.set(39, "00");
+        m.set(41, "29110001");
+    }
+
+    @Benchmark
+    public String legacy() throws ISOException {
+        StringBuilder sb = new StringBuilder(OUT);
+        sb.append('.');
+        String mti = m.getMTI();
+        StringBuilder mapped = new StringBuilder();
+        for (int i=0; i<MTI_MAPPING.length; i++) {
+            int c = mti.charAt(i) - '0';
+            if (c >= 0 && c < 10)
+                mapped.append(MTI_MAPPING[i].charAt(c));
+        }
+        sb.append(mapped);
+        mti.substring(0, 2); // mtiKey lookup prefix
+        for (String f : KEY) {
+            String v = m.getString(f);
+            if (v != null) {
+                if ("11".equals(f)) {
+                    String vt = v.trim();
+                    if (vt.length() < 6)
+                        v = ISOUtil.zeropad(vt, 6);
+                }
+                if ("41".equals(f))
+                    v = ISOUtil.zeropad(v.trim(), 16);
+                sb.append(v);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String string() throws ISOException {
+        QMUXKey.Buffer b = keys.acquire();
+        try {
+            keys.write(m, b);
+            return b.toString(OUT);
+        } finally {
+            keys.release(b);
+        }
+    }
+
+    @Benchmark
+    public long hash() throws ISOException {
+        QMUXKey.Buffer b = keys.acquire();
+        try {
+            keys.write(m, b);
+            return b.hash();
+        } finally {
+            keys.release(b);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.space;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TSpace} vs {@link LSpace} vs {@link CSpace} ({@code transient})
+ * {@code out}/{@code in} throughput under contention.
+ *
+ * <p>{@code outIn} has every thread write and then take an entry on its own key
+ * (or on a shared key when {@code keys=1}), which exercises the space monitor and
+ * the wakeup path. {@code leasedOutIn} does the same with leased entries, the way
+ * QMUX stores pending requests. The {@code queue} group runs dedicated producers and consumers
+ * over a single key, the way a TransactionManager input queue is used
+ * (producers back off once the queue is {@code MAX_DEPTH} deep).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SpaceBenchmark {
+    @Param({ "tspace", "lspace", "transient" })
+    public String scheme;
+
+    @Param({ "1", "16" })
+    public int keys;
+
+    private LocalSpace<String,Object> sp;
+    private String[] keyNames;
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private static final Object VALUE = new Object();
+    private static final int MAX_DEPTH = 10_000;
+
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        String key;
+
+        @Setup
+        public void setup(SpaceBenchmark b) {
+            key = b.keyNames[b.threadIds.getAndIncrement() % b.keyNames.length];
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        sp = switch (scheme) {
+            case SpaceFactory.TSPACE -> new TSpace<>();
+            case SpaceFactory.LSPACE -> new LSpace<>();
+            case SpaceFactory.TRANSIENT -> new CSpace<>();
+            default -> throw new IllegalArgumentException(scheme);
+        };
+        keyNames = new String[keys];
+        for (int i=0; i<keys; i++)
+            keyNames[i] = "BENCH." + i;
+    }
+
+    @TearDown
+    public void tearDown() {
+        sp.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object outIn(ThreadKey k) {
+        sp.out(k.key, VALUE);
+        return sp.in(k.key);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object leasedOutIn(ThreadKey k) {
+        sp.out(k.key, VALUE, 60_000L);
+        return sp.in(k.key);
+    }
+
+    @Benchmark
+    @Group("queue")
+    @GroupThreads(4)
+    public void producer() {
+        if (sp.size(keyNames[0]) < MAX_DEPTH)
+            sp.out(keyNames[0], VALUE);
+    }
+
+    @Benchmark
+    @Group("queue")
+    @GroupThreads(4)
+    public Object consumer() {
+        return sp.in(keyNames[0], 100L);
+    }
+}
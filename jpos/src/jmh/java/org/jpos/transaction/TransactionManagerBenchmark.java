@@ -0,0 +1,117 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import org.jpos.q2.Q2;
+import org.jpos.space.Space;
+import org.jpos.space.SpaceFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link TransactionManager} throughput with no-op participants.
+ *
+ * <p>Each invocation queues a fresh {@link Context} and waits until the last
+ * participant flags it as done, so the numbers cover queueing, session hand-off,
+ * prepare/commit dispatch, profiling and the per-transaction bookkeeping done
+ * by the TransactionManager itself.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionManagerBenchmark {
+    private static final String QUEUE = "JMH.TXNMGR";
+    private static final String DONE  = "DONE";
+
+    @Param({ "4", "32" })
+    public int sessions;
+
+    @Param({ "5" })
+    public int participants;
+
+    private Q2 q2;
+    private Path deployDir;
+    private Space<String,Context> sp;
+
+    /** Participant that does nothing and does not join the commit phase. */
+    public static class NoOp implements TransactionParticipant {
+        @Override
+        public int prepare(long id, Serializable context) {
+            return PREPARED | NO_JOIN | READONLY;
+        }
+    }
+
+    /** Last participant, signals the waiting benchmark thread. */
+    public static class Done implements TransactionParticipant {
+        @Override
+        public int prepare(long id, Serializable context) {
+            return PREPARED | READONLY;
+        }
+        @Override
+        public void commit(long id, Serializable context) {
+            ((Context) context).put(DONE, Boolean.TRUE);
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        deployDir = Files.createTempDirectory("jpos-jmh-txnmgr");
+        StringBuilder sb = new StringBuilder();
+        sb.append("<txnmgr name=\"bench\" class=\"org.jpos.transaction.TransactionManager\">\n");
+        sb.append(" <property name=\"queue\" value=\"").append(QUEUE).append("\" />\n");
+        sb.append(" <property name=\"sessions\" value=\"").append(sessions).append("\" />\n");
+        sb.append(" <property name=\"input-space\" value=\"lspace:jmh\" />\n");
+        for (int i=0; i<participants; i++)
+            sb.append(" <participant class=\"org.jpos.transaction.TransactionManagerBenchmark$NoOp\" />\n");
+        sb.append(" <participant class=\"org.jpos.transaction.TransactionManagerBenchmark$Done\" />\n");
+        sb.append("</txnmgr>\n");
+        Files.writeString(deployDir.resolve("10_txnmgr.xml"), sb.toString());
+
+        sp = SpaceFactory.getSpace("lspace:jmh");
+        q2 = new Q2(deployDir.toString());
+        q2.start();
+        q2.ready(10000L);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        q2.shutdown(true);
+        try (var files = Files.walk(deployDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object transaction() {
+        Context ctx = new Context();
+        sp.out(QUEUE, ctx);
+        Object done = ctx.get(DONE, 10000L);
+        if (done == null)
+            throw new IllegalStateException("transaction did not complete");
+        return done;
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.jpos.iso;
 
+import java.nio.ByteBuffer;
 
 /**
  * Implements ASCII Interpreter. Strings are converted to and from ASCII bytes.
@@ -64,6 +65,31 @@ public class AsciiInterpreter implements Interpreter
 	 * (non-Javadoc)
 	 *
      */
+    @Override
+    public void interpret(String data, ByteBuffer buf) {
+        int len = data.length();
+        for (int i=0; i<len; i++) {
+            char c = data.charAt(i);
+            buf.put(c < 0x100 ? (byte) c : (byte) '?');
+        }
+    }
+
+    @Override
+    public String uninterpret(ByteBuffer buf, int length) throws ISOException {
+        if (buf.remaining() < length)
+            throw new ISOException(
+                String.format("Required %d but just got %d bytes", length, buf.remaining())
+            );
+        if (buf.hasArray()) {
+            String s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, ISOUtil.CHARSET);
+            buf.position(buf.position() + length);
+            return s;
+        }
+        byte[] ret = new byte[length];
+        buf.get(ret);
+        return new String(ret, ISOUtil.CHARSET);
+    }
+
     @Override
     public int getPackedLength(int nDataUnits)
     {
@@ -18,6 +18,8 @@
 
 package org.jpos.iso;
 
+import java.nio.ByteBuffer;
+
 /**
  * AsciiPrefixer constructs a prefix for ASCII messages.
  * 
@@ -103,6 +105,40 @@ public class AsciiPrefixer implements Prefixer
         return len;
     }
 
+    @Override
+    public void encodeLength(int length, ByteBuffer buf) throws ISOException
+    {
+        int pos = buf.position();
+        if (buf.remaining() < nDigits)
+            throw new ISOException("buffer overflow encoding len " + length);
+        int n = length;
+        for (int i = nDigits - 1; i >= 0; i--)
+        {
+            buf.put(pos + i, (byte)(n % 10 + '0'));
+            n /= 10;
+        }
+        if (n != 0)
+        {
+            throw new ISOException("invalid len "+ length + ". Prefixing digits = " + nDigits);
+        }
+        buf.position(pos + nDigits);
+    }
+
+    @Override
+    public int decodeLength(ByteBuffer buf) throws ISOException {
+        int len = 0;
+        for (int i = 0; i < nDigits; i++)
+        {
+            byte d = buf.get();
+            if(d < '0' || d > '9')
+            {
+                throw new ISOException("Invalid character found. Expected digit.");
+            }
+            len = len * 10 + d - (byte)'0';
+        }
+        return len;
+    }
+
     @Override
     public int getPackedLength()
     {
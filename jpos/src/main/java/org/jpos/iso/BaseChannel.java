@@ -36,6 +36,8 @@ import javax.net.ssl.SSLSocket;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -128,6 +130,11 @@ public abstract class BaseChannel extends Observable
     private boolean logConnections = true;
 
     private ISOMsgMetrics isoMsgMetrics;
+    private ISOMsgPool msgPool;
+    private int sendQueueSize;
+    private int sendBatchSize = 64;
+    private long sendFlushDelay;
+    private volatile AsyncSender asyncSender;
 
     private final UUID uuid;
 
@@ -309,11 +316,17 @@ public abstract class BaseChannel extends Observable
         } finally {
             serverInLock.unlock();
         }
+        AsyncSender previous = asyncSender;
+        if (previous != null) {
+            asyncSender = null;
+            previous.stop(); // flushes to the previous stream, needs serverOutLock
+        }
         serverOutLock.lock();
         try {
             serverOut = new DataOutputStream(
-              new BufferedOutputStream(socket.getOutputStream(), 2048)
+              new BufferedOutputStream(socket.getOutputStream(), sendQueueSize > 0 ? 32768 : 2048)
             );
+            asyncSender = sendQueueSize > 0 ? new AsyncSender() : null;
         } finally {
             serverOutLock.unlock();
         }
@@ -757,7 +770,10 @@ public abstract class BaseChannel extends Observable
             m.setPackager (p); // and could have dropped packager as well
             byte[] b = pack(m);
 
-            if (serverOutLock.tryLock(sendTimeout, TimeUnit.MILLISECONDS)) {
+            AsyncSender sender = asyncSender;
+            if (sender != null) {
+                sender.enqueue (m, b);
+            } else if (serverOutLock.tryLock(sendTimeout, TimeUnit.MILLISECONDS)) {
                 try  {
                     sendMessageLength(b.length + getHeaderLength(m));
                     sendMessageHeader(m, b.length);
@@ -867,7 +883,45 @@ public abstract class BaseChannel extends Observable
      * @return newly created ISOMsg
      */
     protected ISOMsg createMsg () {
-        return createISOMsg();
+        return msgPool != null ? msgPool.acquire() : createISOMsg();
+    }
+    /**
+     * Enables asynchronous, coalesced sends.
+     * <p>
+     * When {@code queueSize} is positive, {@link #send(ISOMsg)} packs the message and
+     * places it in a bounded queue. A single writer per connection drains that queue,
+     * writing up to {@code batchSize} messages into the (enlarged) output buffer before
+     * flushing, so bursts of messages are coalesced into few socket writes. When the
+     * queue runs empty, the writer waits up to {@code flushDelay} microseconds for
+     * further messages before flushing. Takes effect on the next connection.
+     * <p>
+     * Because the actual write happens after {@code send} returns, I/O errors are
+     * logged and cause the channel to disconnect instead of being thrown to the caller.
+     *
+     * @param queueSize capacity of the send queue, 0 for synchronous sends (default)
+     * @param batchSize maximum number of messages written per flush
+     * @param flushDelay microseconds to wait for further messages before flushing
+     */
+    public void setSendQueue (int queueSize, int batchSize, long flushDelay) {
+        this.sendQueueSize = Math.max (queueSize, 0);
+        this.sendBatchSize = Math.max (batchSize, 1);
+        this.sendFlushDelay = Math.max (flushDelay, 0L);
+    }
+    /**
+     * Sets the pool used to recycle received messages.
+     * <p>
+     * When a pool is set, {@link #receive()} hands out pooled messages that the
+     * last consumer should return by calling {@link ISOMsg#release()}.
+     * @param msgPool message pool, or null to disable recycling
+     */
+    public void setMessagePool (ISOMsgPool msgPool) {
+        this.msgPool = msgPool;
+    }
+    /**
+     * @return the pool used to recycle received messages, or null
+     */
+    public ISOMsgPool getMessagePool () {
+        return msgPool;
     }
     /** Creates a new ISOMsg instance; may be overridden to return a subclass.
      * @return a new ISOMsg
@@ -1018,6 +1072,11 @@ public abstract class BaseChannel extends Observable
 
         try {
             usable = false;
+            AsyncSender sender = asyncSender;
+            if (sender != null) {
+                asyncSender = null;
+                sender.stop();
+            }
             setChanged();
             notifyObservers();
             closeSocket();
@@ -1027,11 +1086,16 @@ public abstract class BaseChannel extends Observable
                 } catch (IOException ex) { evt.addMessage (ex); }
                 serverIn  = null;
             }
-            if (serverOut != null) {
-                try {
-                    serverOut.close();
-                } catch (IOException ex) { evt.addMessage (ex); }
-                serverOut = null;
+            serverOutLock.lock(); // closed socket releases a writer blocked on it
+            try {
+                if (serverOut != null) {
+                    try {
+                        serverOut.close();
+                    } catch (IOException ex) { evt.addMessage (ex); }
+                    serverOut = null;
+                }
+            } finally {
+                serverOutLock.unlock();
             }
         } catch (IOException e) {
             evt.addMessage (e);
@@ -1280,6 +1344,14 @@ public abstract class BaseChannel extends Observable
         roundRobin = cfg.getBoolean ("round-robin", false);
         debugIsoError = cfg.getBoolean ("debug-iso-error", true);
         logConnections = cfg.getBoolean ("log-connections", true);
+        setSendQueue (
+          cfg.getInt ("send-queue-size", 0),
+          cfg.getInt ("send-batch-size", sendBatchSize),
+          cfg.getLong ("send-flush-delay", 0L)
+        );
+        int poolSize = cfg.getInt ("message-pool-size", 0);
+        if (poolSize > 0)
+            setMessagePool (new ISOMsgPool (this::createISOMsg, poolSize, cfg.getBoolean ("message-pool-debug", false)));
         if (socketFactory != this && socketFactory instanceof Configurable)
             ((Configurable)socketFactory).setConfiguration (cfg);
         try {
@@ -1440,6 +1512,7 @@ public abstract class BaseChannel extends Observable
             channel.serverOut = null;
             channel.usable = false;
             channel.socket = null;
+            channel.asyncSender = null;
             return channel;
         } catch (CloneNotSupportedException e) {
             throw new InternalError();
@@ -1470,6 +1543,104 @@ public abstract class BaseChannel extends Observable
             isoMsgMetrics.recordMessage(m, MeterInfo.ISOMSG_OUT);
         }
     }
+    private record PendingSend (ISOMsg m, byte[] b) { }
+
+    /**
+     * Single writer draining the send queue of a connection.
+     *
+     * <p>{@link #stop()} stops accepting new messages and gives the writer up to
+     * {@code send-timeout} to flush the ones already accepted by {@code send},
+     * so that i.e. a response sent right before a disconnect is not lost.</p>
+     */
+    private class AsyncSender implements Runnable {
+        private static final PendingSend STOP = new PendingSend (null, null);
+        private final BlockingQueue<PendingSend> queue = new ArrayBlockingQueue<> (sendQueueSize);
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        AsyncSender () {
+            thread = Thread.ofVirtual().name ("channel-sender-" + getName()).start (this);
+        }
+
+        void enqueue (ISOMsg m, byte[] b) throws IOException, InterruptedException {
+            if (!running || !queue.offer (new PendingSend (m, b), sendTimeout, TimeUnit.MILLISECONDS))
+                throw new IOException ("send queue full or closed");
+        }
+
+        void stop () {
+            running = false;
+            queue.offer (STOP); // wake up an idle writer
+            if (Thread.currentThread() == thread)
+                return; // writer disconnecting after an I/O error
+            try {
+                thread.join (sendTimeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive())
+                thread.interrupt();
+        }
+
+        private PendingSend next (long timeout, TimeUnit unit) throws InterruptedException {
+            PendingSend ps = timeout > 0L ? queue.poll (timeout, unit) : queue.poll();
+            return ps == STOP ? queue.poll() : ps;
+        }
+
+        private long pending () {
+            return queue.stream().filter (ps -> ps != STOP).count();
+        }
+
+        @Override
+        public void run () {
+            List<ISOMsg> sent = new ArrayList<>(sendBatchSize);
+            try {
+                while (running || pending() > 0) {
+                    PendingSend ps = next (running ? 1L : 0L, TimeUnit.SECONDS);
+                    if (ps == null)
+                        continue;
+                    serverOutLock.lock();
+                    try {
+                        while (ps != null) {
+                            sendMessageLength (ps.b().length + getHeaderLength (ps.m()));
+                            sendMessageHeader (ps.m(), ps.b().length);
+                            sendMessage (ps.b(), 0, ps.b().length);
+                            sendMessageTrailer (ps.m(), ps.b());
+                            cnt[TX]++;
+                            sent.add (ps.m());
+                            if (sent.size() >= sendBatchSize)
+                                break;
+                            ps = next (running ? sendFlushDelay : 0L, TimeUnit.MICROSECONDS);
+                        }
+                        serverOut.flush();
+                    } finally {
+                        serverOutLock.unlock();
+                    }
+                    for (ISOMsg m : sent)
+                        incrementMsgOutCounter (m);
+                    sent.clear();
+                }
+            } catch (InterruptedException e) {
+                long dropped = sent.size() + pending();
+                if (dropped > 0)
+                    Logger.log (new LogEvent (BaseChannel.this, "async-send")
+                      .withTraceId (getSocketUUID())
+                      .add ("send queue not flushed in " + sendTimeout + "ms, dropped=" + dropped)
+                    );
+            } catch (Exception e) {
+                Logger.log (new LogEvent (BaseChannel.this, "async-send")
+                  .withTraceId (getSocketUUID())
+                  .add (e)
+                  .add ("dropped=" + (sent.size() + pending()))
+                );
+                if (running) {
+                    try {
+                        disconnect();
+                    } catch (IOException ignored) { }
+                }
+            }
+        }
+    }
+
     private void applyTags (LogEvent evt, ISOMsg m) {
         if (m.hasField(3)) {
             String f3 = m.getString(3);
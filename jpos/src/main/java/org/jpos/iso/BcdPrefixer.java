@@ -18,6 +18,8 @@
 
 package org.jpos.iso;
 
+import java.nio.ByteBuffer;
+
 /**
  * BcdPrefixer constructs a prefix storing the length in BCD.
  * 
@@ -88,6 +90,31 @@ public class BcdPrefixer implements Prefixer
         return len;
     }
 
+    @Override
+    public void encodeLength(int length, ByteBuffer buf)
+    {
+        int pos = buf.position();
+        int lenLen = getPackedLength();
+        for (int i = lenLen - 1; i >= 0; i--) {
+            int twoDigits = length % 100;
+            length /= 100;
+            buf.put(pos + i, (byte)((twoDigits / 10 << 4) + twoDigits % 10));
+        }
+        buf.position(pos + lenLen);
+    }
+
+    @Override
+    public int decodeLength(ByteBuffer buf)
+    {
+        int len = 0;
+        for (int i = 0; i < (nDigits + 1) / 2; i++)
+        {
+            byte b = buf.get();
+            len = 100 * len + ((b & 0xF0) >> 4) * 10 + (b & 0x0F);
+        }
+        return len;
+    }
+
     @Override
     public int getPackedLength()
     {
@@ -18,6 +18,11 @@
 
 package org.jpos.iso;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * This interface supports the encoding and decoding of binary data. Common
  * implementations are literal or no conversion, ASCII Hex, EBCDIC Hex and BCD.
@@ -59,4 +64,49 @@ public interface BinaryInterpreter
 	 * @return the packed length required to represent nBytes
 	 */
     int getPackedLength(int nBytes);
-}
\ No newline at end of file
+
+    /**
+     * Interprets {@code data} into {@code buf} at its current position, advancing it.
+     * @param data the data to be interpreted
+     * @param buf the target buffer
+     * @throws BufferOverflowException if {@code buf} has not enough room
+     */
+    default void interpret(byte[] data, ByteBuffer buf) {
+        int len = getPackedLength(data.length);
+        if (buf.remaining() < len)
+            throw new BufferOverflowException();
+        if (buf.hasArray()) {
+            int offset = buf.arrayOffset() + buf.position();
+            Arrays.fill(buf.array(), offset, offset + len, (byte) 0); // some interpreters OR nibbles in place
+            interpret(data, buf.array(), offset);
+            buf.position(buf.position() + len);
+        } else {
+            byte[] b = new byte[len];
+            interpret(data, b, 0);
+            buf.put(b);
+        }
+    }
+
+    /**
+     * Reads {@code length} bytes worth of interpreted data from {@code buf}, advancing it.
+     * @param buf the buffer holding the interpreted data
+     * @param length the number of binary bytes to uninterpret
+     * @return the uninterpreted data
+     * @throws BufferUnderflowException if {@code buf} holds less than the required bytes
+     */
+    default byte[] uninterpret(ByteBuffer buf, int length) {
+        int len = getPackedLength(length);
+        if (buf.remaining() < len)
+            throw new BufferUnderflowException();
+        byte[] d;
+        if (buf.hasArray()) {
+            d = uninterpret(buf.array(), buf.arrayOffset() + buf.position(), length);
+        } else {
+            byte[] b = new byte[len];
+            buf.get(buf.position(), b);
+            d = uninterpret(b, 0, length);
+        }
+        buf.position(buf.position() + len);
+        return d;
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.jpos.iso;
 
+import java.nio.ByteBuffer;
+
 /**
  * BinaryPrefixer constructs a prefix storing the length in binary.
  * 
@@ -73,6 +75,24 @@ public class BinaryPrefixer implements Prefixer
     }
 
 
+    @Override
+    public void encodeLength(int length, ByteBuffer buf)
+    {
+        for (int i = (nBytes - 1) * 8; i >= 0; i -= 8)
+            buf.put((byte)(length >> i & 0xFF));
+    }
+
+    @Override
+    public int decodeLength(ByteBuffer buf)
+    {
+        int len = 0;
+        for (int i = 0; i < nBytes; i++)
+        {
+            len = 256 * len + (buf.get() & 0xFF);
+        }
+        return len;
+    }
+
     @Override
     public int getPackedLength()
     {
@@ -25,6 +25,10 @@ import org.jpos.util.Logger;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Map;
@@ -143,43 +147,11 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
                 v.add (b);
             }
 
-            BitSet bmap12= null;                            // will store primary and secondary part of bitmap
             BitSet bmap3= null;                             // will store tertiary part of bitmap
             if (emitBitMap())
-            {   // The ISOComponent stores a single bitmap in field -1, which could be up to
-                // 192 bits long. If we have a thirdBitmapField, we may need to split the full
-                // bitmap into 1 & 2 at the beginning (16 bytes), and 3rd inside the Data Element
+            {
                 c = (ISOComponent) fields.get (-1);
-                bmap12= (BitSet)c.getValue();               // the full bitmap (up to 192 bits long)
-
-                if (thirdBitmapField >= 0 &&                // we may need to split it!
-                    fld[thirdBitmapField] instanceof ISOBitMapPackager)
-                {
-                    if (bmap12.length() - 1 > 128)          // some bits are set in the high part (3rd bitmap)
-                    {
-                        bmap3= bmap12.get(128, 193);        // new bitmap, with the high 3rd bitmap (use 128 as dummy bit0)
-                        bmap3.clear(0);                     // don't really need to clear dummy bit0 I guess...
-                        bmap12.set(thirdBitmapField);       // indicate presence of field that will hold the 3rd bitmap
-                        bmap12.clear(129, 193);             // clear high part, so that the field's pack() method will not use it
-
-                        // Now create add-hoc ISOBitMap in position thirdBitmapField to hold 3rd bitmap
-                        ISOBitMap bmField= new ISOBitMap(thirdBitmapField);
-                        bmField.setValue(bmap3);
-                        m.set(bmField);
-                        fields.put(thirdBitmapField, bmField);    // fields is a clone of m's inner map, so we store it here as well
-
-                        // bit65 should only be set if there's a data-containing DE-65 (which should't happen!)
-                        bmap12.set(65, fields.get(65) == null ? false : true);
-                    }
-                    else
-                    {   // else: No bits/fields above 128 in this message.
-                        // In case there's an old (residual/garbage) field `thirdBitmapField` in the message
-                        // we need to clear the bit and the data
-                        m.unset(thirdBitmapField);                // remove from ISOMsg
-                        bmap12.clear(thirdBitmapField);           // remove from inner bitmap
-                        fields.remove(thirdBitmapField);          // remove from fields clone
-                    }
-                }
+                bmap3 = splitThirdBitMap (m, fields, (BitSet) c.getValue());
                 // now will emit the 1st and 2nd bitmaps, and the loop below will take care of 3rd
                 // when emitting field `thirdBitmapField`
                 b = getBitMapfieldPackager().pack(c);
@@ -240,6 +212,144 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
         }
     }
 
+    /**
+     * Packs {@code m} straight into {@code buf}, without the per-field arrays and
+     * final concatenation done by {@link #pack(ISOComponent)}.
+     * <p>
+     * Field packagers that support it (i.e. {@link ISOStringFieldPackager} and
+     * {@link ISOBinaryFieldPackager} based ones) encode in place; the rest are
+     * copied in.
+     *
+     * @param   m   the Component to pack
+     * @param   buf target buffer, written from its current position
+     * @return      number of bytes written
+     * @exception ISOException if the component cannot be packed or doesn't fit in
+     * {@code buf}; in that case {@code buf}'s position is left unchanged
+     */
+    @Override
+    public int pack (ISOComponent m, ByteBuffer buf) throws ISOException
+    {
+        if (!BUFFER_SUPPORT.get(getClass())[0])
+            return ISOPackager.super.pack (m, buf);
+
+        LogEvent evt = null;
+        if (logger != null)
+            evt = new LogEvent (this, "pack");
+
+        int start = buf.position();
+        try {
+            if (m.getComposite() != m)
+                throw new ISOException ("Can't call packager on non Composite");
+
+            Map fields = m.getChildren();
+            ISOComponent c = (ISOComponent) fields.get (0);
+            int first = getFirstField();
+
+            if (m instanceof ISOMsg && headerLength>0)
+            {
+                byte[] hdr= ((ISOMsg) m).getHeader();
+                if (hdr != null)
+                    buf.put (hdr);
+            }
+
+            if (first > 0 && c != null)
+                fld[0].pack(c, buf);
+
+            BitSet bmap3= null;
+            if (emitBitMap())
+            {
+                c = (ISOComponent) fields.get (-1);
+                bmap3 = splitThirdBitMap (m, fields, (BitSet) c.getValue());
+                getBitMapfieldPackager().pack(c, buf);
+            }
+
+            int tmpMaxField=Math.min (m.getMaxField(), (bmap3 != null || fld.length > 129) ? 192 : 128);
+
+            for (int i=first; i<=tmpMaxField; i++) {
+                if ((c=(ISOComponent) fields.get (i)) != null)
+                {
+                    try {
+                        ISOFieldPackager fp = fld[i];
+                        if (fp == null)
+                            throw new ISOException ("null field "+i+" packager");
+                        fp.pack(c, buf);
+                    } catch (ISOException e) {
+                        if (evt != null) {
+                            evt.addMessage ("error packing field "+i);
+                            evt.addMessage (c);
+                            evt.addMessage (e);
+                        }
+                        throw new ISOException("error packing field "+i, e);
+                    }
+                }
+            }
+            if (evt != null) {
+                byte[] d = new byte[buf.position() - start];
+                buf.get (start, d);
+                evt.addMessage (ISOUtil.hexString (d));
+            }
+            return buf.position() - start;
+        } catch (ISOException e) {
+            buf.position (start);
+            if (evt != null)
+                evt.addMessage (e);
+            throw e;
+        } catch (BufferOverflowException e) {
+            buf.position (start);
+            ISOException ex = new ISOException ("buffer overflow", e);
+            if (evt != null)
+                evt.addMessage (ex);
+            throw ex;
+        } finally {
+            if (evt != null)
+                Logger.log(evt);
+        }
+    }
+
+    /**
+     * The ISOComponent stores a single bitmap in field -1, which could be up to
+     * 192 bits long. If we have a thirdBitmapField, we may need to split the full
+     * bitmap into 1 &amp; 2 at the beginning (16 bytes), and 3rd inside the Data Element.
+     *
+     * @param m the message being packed
+     * @param fields clone of {@code m}'s fields, updated along with {@code m}
+     * @param bmap12 the full bitmap (up to 192 bits long), left holding the primary and secondary part
+     * @return the tertiary part of the bitmap, or {@code null} if it goes contiguous or is not present
+     * @throws ISOException if {@code m} can't be updated
+     */
+    private BitSet splitThirdBitMap (ISOComponent m, Map fields, BitSet bmap12) throws ISOException {
+        BitSet bmap3 = null;
+        if (thirdBitmapField >= 0 &&                // we may need to split it!
+            fld[thirdBitmapField] instanceof ISOBitMapPackager)
+        {
+            if (bmap12.length() - 1 > 128)          // some bits are set in the high part (3rd bitmap)
+            {
+                bmap3= bmap12.get(128, 193);        // new bitmap, with the high 3rd bitmap (use 128 as dummy bit0)
+                bmap3.clear(0);                     // don't really need to clear dummy bit0 I guess...
+                bmap12.set(thirdBitmapField);       // indicate presence of field that will hold the 3rd bitmap
+                bmap12.clear(129, 193);             // clear high part, so that the field's pack() method will not use it
+
+                // Now create add-hoc ISOBitMap in position thirdBitmapField to hold 3rd bitmap
+                ISOBitMap bmField= new ISOBitMap(thirdBitmapField);
+                bmField.setValue(bmap3);
+                m.set(bmField);
+                fields.put(thirdBitmapField, bmField);    // fields is a clone of m's inner map, so we store it here as well
+
+                // bit65 should only be set if there's a data-containing DE-65 (which should't happen!)
+                bmap12.set(65, fields.get(65) == null ? false : true);
+            }
+            else
+            {   // else: No bits/fields above 128 in this message.
+                // In case there's an old (residual/garbage) field `thirdBitmapField` in the message
+                // we need to clear the bit and the data
+                m.unset(thirdBitmapField);                // remove from ISOMsg
+                bmap12.clear(thirdBitmapField);           // remove from inner bitmap
+                fields.remove(thirdBitmapField);          // remove from fields clone
+            }
+        }
+        return bmap3;
+    }
+
     /**
      * @param   m   the Container of this message
      * @param   b   ISO message image
@@ -248,21 +358,55 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
      */
     @Override
     public int unpack (ISOComponent m, byte[] b) throws ISOException {
+        return unpackBuffer (m, ByteBuffer.wrap (b));
+    }
+
+    /**
+     * Unpacks the message image held in {@code buf} (from its position up to its
+     * limit), advancing its position by the number of consumed bytes.
+     * <p>
+     * Heap buffers are read in place. Direct buffers are copied once, as field
+     * packagers without ByteBuffer support would otherwise have to copy the
+     * remaining image field by field.
+     *
+     * @param   m   the Container of this message
+     * @param   buf ISO message image
+     * @return      consumed bytes
+     * @exception ISOException if the message image cannot be unpacked
+     */
+    @Override
+    public int unpack (ISOComponent m, ByteBuffer buf) throws ISOException {
+        if (!buf.hasArray() || !BUFFER_SUPPORT.get(getClass())[1])
+            return ISOPackager.super.unpack (m, buf);
+        return unpackBuffer (m, buf);
+    }
+
+    private int unpackBuffer (ISOComponent m, ByteBuffer buf) throws ISOException {
         LogEvent evt = logger != null ? new LogEvent (this, "unpack") : null;
+        int start = buf.position();
+        int length = buf.remaining();
         int consumed = 0;
 
         try {
             if (m.getComposite() != m)
                 throw new ISOException ("Can't call packager on non Composite");
-            if (evt != null)  // save a few CPU cycle if no logger available
-                evt.addMessage (ISOUtil.hexString (b));
-
+            if (evt != null) { // save a few CPU cycle if no logger available
+                byte[] d = new byte[length];
+                buf.get (start, d);
+                evt.addMessage (ISOUtil.hexString (d));
+            }
 
             // if ISOMsg and headerLength defined
             if (m instanceof ISOMsg /*&& ((ISOMsg) m).getHeader()==null*/ && headerLength>0)
             {
                 byte[] h = new byte[headerLength];
-                System.arraycopy(b, 0, h, 0, headerLength);
+                try {
+                    buf.get (h);
+                } catch (BufferUnderflowException e) {
+                    throw new ISOException (
+                      "header length " + headerLength + " exceeds remaining " + buf.remaining() + " bytes", e
+                    );
+                }
                 ((ISOMsg) m).setHeader(h);
                 consumed += headerLength;
             }
@@ -270,7 +414,7 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
             if (!(fld[0] == null) && !(fld[0] instanceof ISOBitMapPackager))
             {
                 ISOComponent mti = fld[0].createComponent(0);
-                consumed  += fld[0].unpack(mti, b, consumed);
+                consumed  += fld[0].unpack(mti, buf);
                 m.set (mti);
             }
 
@@ -280,7 +424,7 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
 
             if (emitBitMap()) {
                 ISOBitMap bitmap = new ISOBitMap (-1);
-                consumed += getBitMapfieldPackager().unpack(bitmap,b,consumed);
+                consumed += getBitMapfieldPackager().unpack(bitmap,buf);
                 bmap = (BitSet) bitmap.getValue();
                 bmapBytes= (bmap.length()-1 + 63) >> 6 << 3;
                 if (evt != null)
@@ -308,7 +452,7 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
                             throw new ISOException ("field packager '" + i + "' is null");
 
                         ISOComponent c = fld[i].createComponent(i);
-                        consumed += fld[i].unpack (c, b, consumed);
+                        consumed += fld[i].unpack (c, buf);
                         if (evt != null)
                             fieldUnpackLogger(evt, i, c, fld[i], logFieldName);
                         m.set(c);
@@ -351,8 +495,8 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
                 }
             } // for each field
 
-            if (evt != null && b.length != consumed) {
-                evt.addMessage ("WARNING: unpack len=" +b.length +" consumed=" +consumed);
+            if (evt != null && length != consumed) {
+                evt.addMessage ("WARNING: unpack len=" +length +" consumed=" +consumed);
             }
 
             return consumed;
@@ -363,7 +507,9 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
         } catch (Exception e) {
             if (evt != null)
                 evt.addMessage (e);
-            throw new ISOException (e.getMessage() + " consumed=" + consumed);
+            throw new ISOException (
+              (e.getMessage() != null ? e.getMessage() : e.toString()) + " consumed=" + consumed, e
+            );
         } finally {
             if (evt != null)
                 Logger.log (evt);
@@ -571,4 +717,31 @@ public abstract class ISOBasePackager implements ISOPackager, LogSource {
     public String getDescription () {
         return getClass().getName();
     }
+
+    /**
+     * Subclasses that customize {@link #pack(ISOComponent)} or {@link #unpack(ISOComponent, byte[])}
+     * without providing ByteBuffer counterparts get the array based fallbacks of {@link ISOPackager}.
+     */
+    private static final ClassValue<boolean[]> BUFFER_SUPPORT = new ClassValue<>() {
+        @Override
+        protected boolean[] computeValue(Class<?> type) {
+            try {
+                return new boolean[] {
+                  isAtOrBelow (
+                    type.getMethod("pack", ISOComponent.class, ByteBuffer.class),
+                    type.getMethod("pack", ISOComponent.class)
+                  ),
+                  isAtOrBelow (
+                    type.getMethod("unpack", ISOComponent.class, ByteBuffer.class),
+                    type.getMethod("unpack", ISOComponent.class, byte[].class)
+                  )
+                };
+            } catch (NoSuchMethodException e) {
+                return new boolean[] { false, false };
+            }
+        }
+        private boolean isAtOrBelow (Method bufferMethod, Method arrayMethod) {
+            return arrayMethod.getDeclaringClass().isAssignableFrom(bufferMethod.getDeclaringClass());
+        }
+    };
 }
@@ -23,6 +23,7 @@ import org.xml.sax.Attributes;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Marker interface for {@link org.jpos.iso.ISOFieldPackager} implementations that handle binary fields.
@@ -155,6 +156,66 @@ public class ISOBinaryFieldPackager extends ISOFieldPackager implements GenericP
         }
     }
 
+    /**
+     * Packs the component straight into {@code buf}.
+     * @param c   The component to pack.
+     * @param buf The target buffer.
+     * @return The number of bytes written.
+     * @throws ISOException on packing error; {@code buf}'s position is left unchanged
+     */
+    @Override
+    public int pack(ISOComponent c, ByteBuffer buf) throws ISOException
+    {
+        if (!canPackDirect())
+            return super.pack(c, buf);
+        int pos = buf.position();
+        try
+        {
+            byte[] data = c.getBytes();
+            if (prefixer.getPackedLength() == 0 && data.length != getLength()) {
+                throw new ISOException("Binary data length not the same as the packager length (" + data.length + "/" + getLength() + ")");
+            }
+            prefixer.encodeLength(data.length, buf);
+            interpreter.interpret(data, buf);
+            return buf.position() - pos;
+        } catch(Exception e) {
+            buf.position(pos);
+            throw new ISOException(makeExceptionMessage(c, "packing"), e);
+        }
+    }
+
+    /**
+     * Unpacks the component from {@code buf}, reading it in place.
+     * @param c   The component to unpack into.
+     * @param buf The buffer to unpack, starting at its current position.
+     * @return The number of bytes consumed unpacking the component.
+     * @throws ISOException on unpacking error; {@code buf}'s position is left unchanged
+     */
+    @Override
+    public int unpack(ISOComponent c, ByteBuffer buf) throws ISOException
+    {
+        if (!canUnpackDirect())
+            return super.unpack(c, buf);
+        int pos = buf.position();
+        try
+        {
+            int len = prefixer.decodeLength(buf);
+            if (len == -1) {
+                // The prefixer doesn't know how long the field is, so use
+                // maxLength instead
+                len = getLength();
+            }
+            else if (getLength() > 0 && len > getLength())
+                throw new ISOException("Field length " + len + " too long. Max: " + getLength());
+            c.setValue(interpreter.uninterpret(buf, len));
+            return buf.position() - pos;
+        } catch(Exception e)
+        {
+            buf.position(pos);
+            throw new ISOException(makeExceptionMessage(c, "unpacking"), e);
+        }
+    }
+
     /** Unpack from an input stream */
     public void unpack (ISOComponent c, InputStream in) 
         throws IOException, ISOException
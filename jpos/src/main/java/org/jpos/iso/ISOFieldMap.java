@@ -0,0 +1,365 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Field storage for {@link ISOMsg} backed by a dense component array and a
+ * {@code long[]} presence bitmap.
+ *
+ * <p>ISO-8583 field numbers are small and bounded (0-192 with a tertiary bitmap),
+ * so lookups, updates and removals are plain array accesses, the highest field
+ * and the next present field are found with a few word operations, and iteration
+ * is always in ascending field order, matching the {@link TreeMap} based storage.
+ * The array grows on demand up to {@value #MAX_ARRAY_FIELDS} slots; other field
+ * numbers (including negative ones other than the {@code -1} bitmap) are kept in
+ * a small overflow tree.</p>
+ *
+ * <p>Null values are not stored; putting a null value removes the mapping.</p>
+ *
+ * @see ISOMsg#setArrayStorage(boolean)
+ */
+public class ISOFieldMap extends AbstractMap<Integer,Object> implements Cloneable, Serializable {
+    private static final long serialVersionUID = -1403316587224186302L;
+    private static final int DEFAULT_CAPACITY = 193;
+    /** Field numbers at or above this value are kept in the overflow tree. */
+    public static final int MAX_ARRAY_FIELDS = 1024;
+
+    private Object bitmap;
+    private Object[] values;
+    private long[] present;
+    private TreeMap<Integer,Object> overflow;
+    private int size;
+    private transient int modCount;
+
+    /** Creates an empty map able to hold fields 0 to 192 without resizing. */
+    public ISOFieldMap () {
+        this (DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map.
+     * @param capacity number of field slots (fields 0 to capacity-1) to preallocate
+     */
+    public ISOFieldMap (int capacity) {
+        values = new Object[Math.min (Math.max (capacity, 1), MAX_ARRAY_FIELDS)];
+        present = new long[(values.length + 63) >> 6];
+    }
+
+    /**
+     * Copy constructor.
+     * @param map mappings to copy
+     */
+    public ISOFieldMap (Map<Integer,?> map) {
+        this ();
+        putAll (map);
+    }
+
+    /**
+     * @param fldno field number
+     * @return the component stored for {@code fldno}, or null
+     */
+    public Object get (int fldno) {
+        if (fldno >= 0 && fldno < values.length)
+            return values[fldno];
+        if (fldno == -1)
+            return bitmap;
+        return overflow != null ? overflow.get (fldno) : null;
+    }
+
+    /**
+     * @param fldno field number
+     * @return true if {@code fldno} is present
+     */
+    public boolean has (int fldno) {
+        return get (fldno) != null;
+    }
+
+    /**
+     * Stores a component.
+     * @param fldno field number (-1 or greater)
+     * @param value component, or null to remove {@code fldno}
+     * @return previous component, or null
+     */
+    public Object put (int fldno, Object value) {
+        if (value == null)
+            return remove (fldno);
+        Object prev;
+        if (fldno == -1) {
+            prev = bitmap;
+            bitmap = value;
+        } else if (fldno >= 0 && fldno < MAX_ARRAY_FIELDS) {
+            if (fldno >= values.length)
+                grow (fldno);
+            prev = values[fldno];
+            values[fldno] = value;
+            present[fldno >> 6] |= 1L << fldno;
+        } else {
+            if (overflow == null)
+                overflow = new TreeMap<>();
+            prev = overflow.put (fldno, value);
+        }
+        if (prev == null) {
+            size++;
+            modCount++;
+        }
+        return prev;
+    }
+
+    /**
+     * Removes a component.
+     * @param fldno field number
+     * @return removed component, or null
+     */
+    public Object remove (int fldno) {
+        Object prev;
+        if (fldno == -1) {
+            prev = bitmap;
+            bitmap = null;
+        } else if (fldno >= 0 && fldno < values.length) {
+            prev = values[fldno];
+            values[fldno] = null;
+            present[fldno >> 6] &= ~(1L << fldno);
+        } else if (overflow != null) {
+            prev = overflow.remove (fldno);
+        } else {
+            return null;
+        }
+        if (prev != null) {
+            size--;
+            modCount++;
+        }
+        return prev;
+    }
+
+    /**
+     * @param from lowest field number to consider (0 or greater)
+     * @return lowest present field number greater than or equal to {@code from}, or -1
+     */
+    public int nextField (int from) {
+        int w = from >> 6;
+        if (w < present.length) {
+            long word = present[w] & (-1L << from);
+            while (true) {
+                if (word != 0)
+                    return (w << 6) + Long.numberOfTrailingZeros (word);
+                if (++w == present.length)
+                    break;
+                word = present[w];
+            }
+        }
+        Integer k = overflow != null ? overflow.ceilingKey (Math.max (from, 0)) : null;
+        return k != null ? k : -1;
+    }
+
+    /**
+     * @return highest present field number (ignoring the bitmap), or -1 if there is none
+     */
+    public int lastField () {
+        if (overflow != null && !overflow.isEmpty() && overflow.lastKey() >= 0)
+            return overflow.lastKey();
+        for (int w = present.length - 1; w >= 0; w--) {
+            if (present[w] != 0)
+                return (w << 6) + 63 - Long.numberOfLeadingZeros (present[w]);
+        }
+        return -1;
+    }
+
+    @Override
+    public Object get (Object key) {
+        return key instanceof Integer i ? get (i.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey (Object key) {
+        return key instanceof Integer i && has (i);
+    }
+
+    @Override
+    public Object put (Integer key, Object value) {
+        return put (key.intValue(), value);
+    }
+
+    @Override
+    public Object remove (Object key) {
+        return key instanceof Integer i ? remove (i.intValue()) : null;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public void clear () {
+        if (size == 0)
+            return;
+        bitmap = null;
+        for (int w = 0; w < present.length; w++) {
+            for (long word = present[w]; word != 0; word &= word - 1)
+                values[(w << 6) + Long.numberOfTrailingZeros (word)] = null;
+            present[w] = 0L;
+        }
+        overflow = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer,Object>> entrySet () {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Integer,Object>> iterator () {
+                return new EntryIterator();
+            }
+            @Override
+            public int size () {
+                return size;
+            }
+            @Override
+            public void clear () {
+                ISOFieldMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public ISOFieldMap clone () {
+        try {
+            ISOFieldMap m = (ISOFieldMap) super.clone();
+            m.values = values.clone();
+            m.present = present.clone();
+            if (overflow != null)
+                m.overflow = new TreeMap<> (overflow);
+            m.modCount = 0;
+            return m;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError (e);
+        }
+    }
+
+    private void grow (int fldno) {
+        values = Arrays.copyOf (values, Math.min (Math.max (fldno + 1, values.length << 1), MAX_ARRAY_FIELDS));
+        present = Arrays.copyOf (present, (values.length + 63) >> 6);
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Integer,Object>> {
+        private final Iterator<Integer> low;
+        private final Iterator<Integer> high;
+        private boolean hasNext;
+        private int next;
+        private boolean hasLast;
+        private int last;
+        private int expectedModCount = modCount;
+
+        EntryIterator () {
+            List<Integer> lo = new ArrayList<>();
+            List<Integer> hi = new ArrayList<>();
+            if (overflow != null) {
+                for (Integer k : overflow.keySet())
+                    (k < 0 ? lo : hi).add (k);
+            }
+            low = lo.iterator();
+            high = hi.iterator();
+            advance (Integer.MIN_VALUE);
+        }
+        private void advance (int after) {
+            hasNext = true;
+            if (low.hasNext()) {
+                next = low.next();
+            } else if (after < -1 && bitmap != null) {
+                next = -1;
+            } else {
+                int n = after < MAX_ARRAY_FIELDS ? nextArrayField (Math.max (after + 1, 0)) : -1;
+                if (n >= 0)
+                    next = n;
+                else if (high.hasNext())
+                    next = high.next();
+                else
+                    hasNext = false;
+            }
+        }
+        private int nextArrayField (int from) {
+            int n = nextField (from);
+            return n < values.length ? n : -1;
+        }
+        @Override
+        public boolean hasNext () {
+            return hasNext;
+        }
+        @Override
+        public Map.Entry<Integer,Object> next () {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (!hasNext)
+                throw new NoSuchElementException();
+            last = next;
+            hasLast = true;
+            advance (last);
+            return new Entry (last);
+        }
+        @Override
+        public void remove () {
+            if (!hasLast)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            ISOFieldMap.this.remove (last);
+            expectedModCount = modCount;
+            hasLast = false;
+        }
+    }
+
+    private class Entry implements Map.Entry<Integer,Object> {
+        private final int fldno;
+
+        Entry (int fldno) {
+            this.fldno = fldno;
+        }
+        @Override
+        public Integer getKey () {
+            return fldno;
+        }
+        @Override
+        public Object getValue () {
+            return get (fldno);
+        }
+        @Override
+        public Object setValue (Object value) {
+            return put (fldno, Objects.requireNonNull (value));
+        }
+        @Override
+        public boolean equals (Object o) {
+            return o instanceof Map.Entry<?,?> e
+              && getKey().equals (e.getKey())
+              && Objects.equals (getValue(), e.getValue());
+        }
+        @Override
+        public int hashCode () {
+            return fldno ^ Objects.hashCode (getValue());
+        }
+        @Override
+        public String toString () {
+            return fldno + "=" + getValue();
+        }
+    }
+}
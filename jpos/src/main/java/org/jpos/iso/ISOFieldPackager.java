@@ -22,6 +22,9 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectOutput;
+import java.lang.reflect.Method;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
  * base class for the various IF*.java Field Packagers
@@ -173,6 +176,97 @@ public abstract class ISOFieldPackager {
     {
         unpack (c, readBytes (in, getMaxPackedLength ()), 0);
     }
+    /**
+     * Packs the given component into {@code buf} at its current position, advancing it.
+     * <p>
+     * The default implementation copies the result of {@link #pack(ISOComponent)};
+     * subclasses able to encode in place override it.
+     * @param c   - the Component to pack
+     * @param buf - target buffer
+     * @return number of bytes written
+     * @exception ISOException on packing error or if {@code buf} has not enough room
+     */
+    public int pack (ISOComponent c, ByteBuffer buf) throws ISOException {
+        byte[] b = pack (c);
+        try {
+            buf.put (b);
+        } catch (BufferOverflowException e) {
+            throw new ISOException ("buffer overflow packing field " + c.getKey(), e);
+        }
+        return b.length;
+    }
+
+    /**
+     * Unpacks a field from {@code buf} at its current position, advancing it.
+     * <p>
+     * The default implementation reads heap buffers in place through
+     * {@link #unpack(ISOComponent, byte[], int)} and copies the remaining
+     * bytes of direct buffers into a temporary array.
+     * @param c   - the Component to unpack
+     * @param buf - buffer holding the binary image
+     * @return consumed bytes
+     * @exception ISOException on unpacking error
+     */
+    public int unpack (ISOComponent c, ByteBuffer buf) throws ISOException {
+        int consumed;
+        if (buf.hasArray()) {
+            consumed = unpack (c, buf.array(), buf.arrayOffset() + buf.position());
+        } else {
+            byte[] b = new byte[buf.remaining()];
+            buf.get (buf.position(), b);
+            consumed = unpack (c, b, 0);
+        }
+        if (consumed > buf.remaining())
+            throw new ISOException ("buffer underflow unpacking field " + c.getKey());
+        buf.position (buf.position() + consumed);
+        return consumed;
+    }
+
+    /**
+     * Indicates whether {@link #pack(ISOComponent, ByteBuffer)} is implemented at or
+     * below the class that implements {@link #pack(ISOComponent)}.
+     * <p>
+     * Subclasses that encode in place use this to fall back to the byte array
+     * path when one of their own subclasses customizes {@code pack(ISOComponent)}.
+     * @return true if the ByteBuffer variant may be used directly
+     */
+    protected boolean canPackDirect() {
+        return BUFFER_SUPPORT.get(getClass())[0];
+    }
+
+    /**
+     * Indicates whether {@link #unpack(ISOComponent, ByteBuffer)} is implemented at or
+     * below the class that implements {@link #unpack(ISOComponent, byte[], int)}.
+     * @return true if the ByteBuffer variant may be used directly
+     * @see #canPackDirect()
+     */
+    protected boolean canUnpackDirect() {
+        return BUFFER_SUPPORT.get(getClass())[1];
+    }
+
+    private static final ClassValue<boolean[]> BUFFER_SUPPORT = new ClassValue<>() {
+        @Override
+        protected boolean[] computeValue(Class<?> type) {
+            try {
+                return new boolean[] {
+                  isAtOrBelow (
+                    type.getMethod("pack", ISOComponent.class, ByteBuffer.class),
+                    type.getMethod("pack", ISOComponent.class)
+                  ),
+                  isAtOrBelow (
+                    type.getMethod("unpack", ISOComponent.class, ByteBuffer.class),
+                    type.getMethod("unpack", ISOComponent.class, byte[].class, int.class)
+                  )
+                };
+            } catch (NoSuchMethodException e) {
+                return new boolean[] { false, false };
+            }
+        }
+        private boolean isAtOrBelow (Method bufferMethod, Method arrayMethod) {
+            return arrayMethod.getDeclaringClass().isAssignableFrom(bufferMethod.getDeclaringClass());
+        }
+    };
+
     /**
      * Packs the component to an ObjectOutput stream.
      * @param c   - the Component to pack
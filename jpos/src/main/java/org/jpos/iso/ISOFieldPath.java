@@ -0,0 +1,153 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-parsed dot-separated field path (i.e. {@code "48.2.1"}).
+ *
+ * <p>{@link ISOMsg} path based accessors accept either a {@code String} or an
+ * {@code ISOFieldPath}. Holding a path in a constant avoids parsing altogether:</p>
+ * <pre>
+ *   private static final ISOFieldPath TERMINAL_TYPE = ISOFieldPath.of("48.2.1");
+ *   ...
+ *   String s = m.getString(TERMINAL_TYPE);
+ * </pre>
+ * <p>{@link #of(String)} returns interned instances from a bounded cache, which is
+ * also what the {@code String} variants of the {@link ISOMsg} accessors use.
+ * Tokens may be decimal or {@code 0x}-prefixed hexadecimal; empty tokens are ignored.</p>
+ */
+public final class ISOFieldPath implements Serializable {
+    private static final long serialVersionUID = 6207016236394935117L;
+    /** Maximum number of paths kept by the intern cache. */
+    public static final int CACHE_SIZE = 4096;
+    private static final Map<String,ISOFieldPath> cache = new ConcurrentHashMap<>();
+
+    private final String path;
+    private final int[] fields;
+
+    private ISOFieldPath (String path, int[] fields) {
+        this.path = path;
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the (possibly cached) path for {@code fpath}.
+     * @param fpath dot-separated field path
+     * @return parsed path
+     * @throws IllegalArgumentException if {@code fpath} has no field numbers
+     * @throws NumberFormatException if a token is not a number
+     */
+    public static ISOFieldPath of (String fpath) {
+        ISOFieldPath p = cache.get (fpath);
+        if (p == null) {
+            p = parse (fpath);
+            if (cache.size() < CACHE_SIZE) {
+                ISOFieldPath prev = cache.putIfAbsent (fpath, p);
+                if (prev != null)
+                    p = prev;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Creates a path out of field numbers.
+     * @param fields field numbers, outermost first
+     * @return new path
+     */
+    public static ISOFieldPath of (int... fields) {
+        if (fields.length == 0)
+            throw new IllegalArgumentException ("empty field path");
+        StringBuilder sb = new StringBuilder();
+        for (int f : fields) {
+            if (!sb.isEmpty())
+                sb.append ('.');
+            sb.append (f);
+        }
+        return new ISOFieldPath (sb.toString(), fields.clone());
+    }
+
+    /**
+     * Parses {@code fpath} without consulting the cache.
+     * @param fpath dot-separated field path
+     * @return new path
+     * @throws IllegalArgumentException if {@code fpath} has no field numbers
+     * @throws NumberFormatException if a token is not a number
+     */
+    public static ISOFieldPath parse (String fpath) {
+        int[] f = new int[4];
+        int n = 0;
+        int len = fpath.length();
+        for (int i = 0; i < len; ) {
+            int j = fpath.indexOf ('.', i);
+            if (j < 0)
+                j = len;
+            if (j > i) {
+                if (n == f.length)
+                    f = Arrays.copyOf (f, n << 1);
+                f[n++] = parseInt (fpath, i, j);
+            }
+            i = j + 1;
+        }
+        if (n == 0)
+            throw new IllegalArgumentException ("empty field path '" + fpath + "'");
+        return new ISOFieldPath (fpath, Arrays.copyOf (f, n));
+    }
+
+    /** @return number of levels in this path */
+    public int depth () {
+        return fields.length;
+    }
+    /**
+     * @param level zero based level
+     * @return field number at the given level
+     */
+    public int field (int level) {
+        return fields[level];
+    }
+    /** @return innermost field number */
+    public int last () {
+        return fields[fields.length - 1];
+    }
+
+    @Override
+    public boolean equals (Object o) {
+        return this == o || o instanceof ISOFieldPath p && Arrays.equals (fields, p.fields);
+    }
+    @Override
+    public int hashCode () {
+        return Arrays.hashCode (fields);
+    }
+    @Override
+    public String toString () {
+        return path;
+    }
+
+    private static int parseInt (String s, int from, int to) {
+        if (to - from > 2 && s.startsWith ("0x", from))
+            return Integer.parseInt (s, from + 2, to, 16);
+        return Integer.parseInt (s, from, to, 10);
+    }
+}
@@ -23,7 +23,10 @@ import org.jpos.iso.packager.XMLPackager;
 import org.jpos.util.Loggeable;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -61,12 +64,23 @@ public class ISOMsg extends ISOComponent
     public static final int OUTGOING = 2;
     private static final long serialVersionUID = 4306251831901413975L;
     private WeakReference sourceRef;
+    private transient ISOMsgPool pool;
+    private static final VarHandle POOL;
+    static {
+        try {
+            POOL = MethodHandles.lookup().findVarHandle (ISOMsg.class, "pool", ISOMsgPool.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError (e);
+        }
+    }
+    private static final boolean ARRAY_STORAGE =
+      "array".equalsIgnoreCase (System.getProperty ("jpos.isomsg.storage", "tree"));
 
     /**
      * Creates an ISOMsg
      */
     public ISOMsg () {
-        fields = new TreeMap<>();
+        fields = ARRAY_STORAGE ? new ISOFieldMap() : new TreeMap<>();
         maxField = -1;
         dirty = true;
         maxFieldDirty=true;
@@ -200,7 +214,9 @@ public class ISOMsg extends ISOComponent
     }
     private void recalcMaxField() {
         maxField = 0;
-        for (Object obj : fields.keySet()) {
+        if (fields instanceof ISOFieldMap fm)
+            maxField = Math.max (maxField, fm.lastField());
+        else for (Object obj : fields.keySet()) {
             if (obj instanceof Integer)
                 maxField = Math.max(maxField, ((Integer) obj).intValue());
         }
@@ -226,6 +242,27 @@ public class ISOMsg extends ISOComponent
     public ISOPackager getPackager () {
         return packager;
     }
+    /**
+     * Selects the field storage used by this message.
+     * <p>
+     * Array storage ({@link ISOFieldMap}) gives O(1) field access and cheap bitmap
+     * recalculation; tree storage ({@link TreeMap}) is the traditional default.
+     * The default for new messages can be changed with the
+     * {@code jpos.isomsg.storage=array} system property.
+     * Existing fields are preserved.
+     * @param array true for array storage, false for tree storage
+     */
+    public void setArrayStorage (boolean array) {
+        if (array != isArrayStorage())
+            fields = array ? new ISOFieldMap (fields) : new TreeMap<> (fields);
+    }
+    /**
+     * @return true if this message uses array-backed field storage
+     * @see #setArrayStorage(boolean)
+     */
+    public boolean isArrayStorage () {
+        return fields instanceof ISOFieldMap;
+    }
     /**
      * Set a field within this message
      * @param c - a component
@@ -233,7 +270,10 @@ public class ISOMsg extends ISOComponent
     public void set (ISOComponent c) throws ISOException {
         if (c != null) {
             Integer i = (Integer) c.getKey();
-            fields.put (i, c);
+            if (fields instanceof ISOFieldMap fm)
+                fm.put (i.intValue(), c);
+            else
+                fields.put (i, c);
             if (i > maxField)
                 maxField = i;
             dirty = true;
@@ -289,17 +329,26 @@ public class ISOMsg extends ISOComponent
      * @param value field value
      */
     public void set(String fpath, String value) {
+        set(ISOFieldPath.of(fpath), value);
+    }
+
+    /**
+     * Creates an ISOField associated with fpath within this ISOMsg.
+     *
+     * @param fpath field path
+     * @param value field value
+     */
+    public void set(ISOFieldPath fpath, String value) {
         try {
             if (setDatasetPath(fpath, value))
                 return;
         } catch (ISOException e) {
             throw new IllegalArgumentException(e.getMessage(), e);
         }
-        StringTokenizer st = new StringTokenizer (fpath, ".");
         ISOMsg m = this;
-        for (;;) {
-            int fldno = parseInt(st.nextToken());
-            if (st.hasMoreTokens()) {
+        for (int level = 0, depth = fpath.depth();;) {
+            int fldno = fpath.field(level++);
+            if (level < depth) {
                 Object obj = m.getValue(fldno);
                 if (obj instanceof ISOMsg)
                     m = (ISOMsg) obj;
@@ -342,13 +391,22 @@ public class ISOMsg extends ISOComponent
      * @throws ISOException on error
      */
     public void set(String fpath, ISOComponent c) throws ISOException {
+        set(ISOFieldPath.of(fpath), c);
+    }
+
+    /**
+     * Sets a component at the given field path within this ISOMsg
+     * @param fpath field path
+     * @param c component
+     * @throws ISOException on error
+     */
+    public void set(ISOFieldPath fpath, ISOComponent c) throws ISOException {
         if (setDatasetPath(fpath, c))
             return;
-        StringTokenizer st = new StringTokenizer (fpath, ".");
         ISOMsg m = this;
-        for (;;) {
-            int fldno = parseInt(st.nextToken());
-            if (st.hasMoreTokens()) {
+        for (int level = 0, depth = fpath.depth();;) {
+            int fldno = fpath.field(level++);
+            if (level < depth) {
                 Object obj = m.getValue(fldno);
                 if (obj instanceof ISOMsg)
                     m = (ISOMsg) obj;
@@ -391,17 +449,26 @@ public class ISOMsg extends ISOComponent
      * @param value binary field value
      */
     public void set(String fpath, byte[] value) {
+        set(ISOFieldPath.of(fpath), value);
+    }
+
+    /**
+     * Creates an ISOBinaryField associated with fpath within this ISOMsg.
+     *
+     * @param fpath field path
+     * @param value binary field value
+     */
+    public void set(ISOFieldPath fpath, byte[] value) {
         try {
             if (setDatasetPath(fpath, value))
                 return;
         } catch (ISOException e) {
             throw new IllegalArgumentException(e.getMessage(), e);
         }
-        StringTokenizer st = new StringTokenizer (fpath, ".");
         ISOMsg m = this;
-        for (;;) {
-            int fldno = parseInt(st.nextToken());
-            if (st.hasMoreTokens()) {
+        for (int level = 0, depth = fpath.depth();;) {
+            int fldno = fpath.field(level++);
+            if (level < depth) {
                 Object obj = m.getValue(fldno);
                 if (obj instanceof ISOMsg)
                     m = (ISOMsg) obj;
@@ -464,7 +531,8 @@ public class ISOMsg extends ISOComponent
      */
     @Override
     public void unset (int fldno) {
-        if (fields.remove (fldno) != null)
+        Object prev = fields instanceof ISOFieldMap fm ? fm.remove (fldno) : fields.remove (fldno);
+        if (prev != null)
             dirty = maxFieldDirty = true;
     }
 
@@ -483,21 +551,29 @@ public class ISOMsg extends ISOComponent
      * @param fpath dot-separated field path (i.e. 63.2)
      */
     public void unset(String fpath) {
+        unset(ISOFieldPath.of(fpath));
+    }
+
+    /**
+     * Unset a field referenced by a fpath if it exists, otherwise ignore.
+     *
+     * @param fpath field path
+     */
+    public void unset(ISOFieldPath fpath) {
         try {
             if (unsetDatasetPath(fpath))
                 return;
         } catch (ISOException e) {
             throw new IllegalArgumentException(e.getMessage(), e);
         }
-        StringTokenizer st = new StringTokenizer (fpath, ".");
         ISOMsg m = this;
         ISOMsg lastm = m;
         int fldno = -1 ;
         int lastfldno ;
-        for (;;) {
+        for (int level = 0, depth = fpath.depth();;) {
             lastfldno = fldno;
-            fldno = parseInt(st.nextToken());
-            if (st.hasMoreTokens()) {
+            fldno = fpath.field(level++);
+            if (level < depth) {
                 Object obj = m.getValue(fldno);
                 if (obj instanceof ISOMsg) {
                     lastm = m;
@@ -572,9 +648,14 @@ public class ISOMsg extends ISOComponent
         int mf = Math.min (getMaxField(), 192);
 
         BitSet bmap = new BitSet (mf+62 >>6 <<6);
-        for (int i=1; i<=mf; i++)
-            if (fields.get (i) != null)
+        if (fields instanceof ISOFieldMap fm) {
+            for (int i=fm.nextField (1); i > 0 && i<=mf; i=fm.nextField (i+1))
                 bmap.set (i);
+        } else {
+            for (int i=1; i<=mf; i++)
+                if (fields.get (i) != null)
+                    bmap.set (i);
+        }
         set (new ISOBitMap (-1, bmap));
         dirty = false;
     }
@@ -584,7 +665,7 @@ public class ISOMsg extends ISOComponent
      */
     @Override
     public Map getChildren() {
-        return (Map) ((TreeMap)fields).clone();
+        return fields instanceof ISOFieldMap fm ? fm.clone() : (Map) ((TreeMap)fields).clone();
     }
     /**
      * Packs this message using the configured packager.
@@ -610,6 +691,31 @@ public class ISOMsg extends ISOComponent
             return packager.unpack(this, b);
         }
     }
+    /**
+     * Packs this message into {@code buf} using the configured packager.
+     * @param buf - target buffer, written from its current position
+     * @return number of bytes written
+     * @exception ISOException on packing error
+     * @see ISOPackager#pack(ISOComponent, ByteBuffer)
+     */
+    public int pack(ByteBuffer buf) throws ISOException {
+        synchronized (this) {
+            recalcBitMap();
+            return packager.pack(this, buf);
+        }
+    }
+    /**
+     * Unpacks this message from {@code buf}, reading it in place.
+     * @param buf - raw message, from its current position up to its limit
+     * @return consumed bytes
+     * @exception ISOException on unpacking error
+     * @see ISOPackager#unpack(ISOComponent, ByteBuffer)
+     */
+    public int unpack(ByteBuffer buf) throws ISOException {
+        synchronized (this) {
+            return packager.unpack(this, buf);
+        }
+    }
     /** {@inheritDoc}
      * @throws IOException on I/O failure
      * @throws ISOException on unpacking error
@@ -670,7 +776,7 @@ public class ISOMsg extends ISOComponent
      * @return the Component
      */
     public ISOComponent getComponent(int fldno) {
-        return (ISOComponent) fields.get(fldno);
+        return (ISOComponent) (fields instanceof ISOFieldMap fm ? fm.get (fldno) : fields.get(fldno));
     }
     /**
      * Return the object value associated with the given field number
@@ -692,18 +798,26 @@ public class ISOMsg extends ISOComponent
      * @throws ISOException on error
      */
     public Object getValue (String fpath) throws ISOException {
-        StringTokenizer st = new StringTokenizer (fpath, ".");
+        return getValue (ISOFieldPath.of (fpath));
+    }
+    /**
+     * Return the object value associated with the given field path
+     * @param fpath field path
+     * @return the field Object (may be null)
+     * @throws ISOException on error
+     */
+    public Object getValue (ISOFieldPath fpath) throws ISOException {
         ISOMsg m = this;
         Object obj;
-        for (;;) {
-            int fldno = parseInt(st.nextToken());
+        for (int level = 0, depth = fpath.depth();;) {
+            int fldno = fpath.field(level++);
             obj = m.getValue (fldno);
             if (obj==null){
                 // The user will always get a null value for an incorrect path or path not present in the message
                 // no point having the ISOException thrown for fields that were not received.
                 break;
             }
-            if (st.hasMoreTokens()) {
+            if (level < depth) {
                 if (obj instanceof ISOMsg) {
                     m = (ISOMsg) obj;
                 }
@@ -721,13 +835,21 @@ public class ISOMsg extends ISOComponent
      * @throws ISOException on error
      */
     public ISOComponent getComponent (String fpath) throws ISOException {
-        StringTokenizer st = new StringTokenizer (fpath, ".");
+        return getComponent (ISOFieldPath.of (fpath));
+    }
+    /**
+     * get the component associated with the given field path
+     * @param fpath field path
+     * @return the Component
+     * @throws ISOException on error
+     */
+    public ISOComponent getComponent (ISOFieldPath fpath) throws ISOException {
         ISOMsg m = this;
         ISOComponent obj;
-        for (;;) {
-            int fldno = parseInt(st.nextToken());
+        for (int level = 0, depth = fpath.depth();;) {
+            int fldno = fpath.field(level++);
             obj = m.getComponent(fldno);
-            if (st.hasMoreTokens()) {
+            if (level < depth) {
                 if (obj instanceof ISOMsg) {
                     m = (ISOMsg) obj;
                 }
@@ -760,6 +882,14 @@ public class ISOMsg extends ISOComponent
      * @return field's String value (may be null)
      */
     public String getString (String fpath) {
+        return getString (ISOFieldPath.of (fpath));
+    }
+    /**
+     * Return the String value associated with the given field path
+     * @param fpath field path
+     * @return field's String value (may be null)
+     */
+    public String getString (ISOFieldPath fpath) {
         String s = null;
         try {
             Object obj = getValue(fpath);
@@ -794,6 +924,14 @@ public class ISOMsg extends ISOComponent
      * @return field's byte[] value (may be null)
      */
     public byte[] getBytes (String fpath) {
+        return getBytes (ISOFieldPath.of (fpath));
+    }
+    /**
+     * Return the byte[] value associated with the given field path
+     * @param fpath field path
+     * @return field's byte[] value (may be null)
+     */
+    public byte[] getBytes (ISOFieldPath fpath) {
         byte[] b = null;
         try {
             Object obj = getValue(fpath);
@@ -812,7 +950,7 @@ public class ISOMsg extends ISOComponent
      * @return boolean indicating the existence of the field
      */
     public boolean hasField(int fldno) {
-        return fields.get(fldno) != null;
+        return fields instanceof ISOFieldMap fm ? fm.has (fldno) : fields.get(fldno) != null;
     }
     /**
      * Check if all fields are present
@@ -855,11 +993,18 @@ public class ISOMsg extends ISOComponent
      * @return true if field present
      */
      public boolean hasField (String fpath) {
-         StringTokenizer st = new StringTokenizer (fpath, ".");
+         return hasField (ISOFieldPath.of (fpath));
+     }
+    /**
+     * Check if a field indicated by a fpath is present
+     * @param fpath field path
+     * @return true if field present
+     */
+     public boolean hasField (ISOFieldPath fpath) {
          ISOMsg m = this;
-         for (;;) {
-             int fldno = parseInt(st.nextToken());
-             if (st.hasMoreTokens()) {
+         for (int level = 0, depth = fpath.depth();;) {
+             int fldno = fpath.field(level++);
+             if (level < depth) {
                  Object obj = m.getValue(fldno);
                  if (obj instanceof ISOMsg) {
                      m = (ISOMsg) obj;
@@ -897,7 +1042,8 @@ public class ISOMsg extends ISOComponent
     public Object clone() {
         try {
             ISOMsg m = (ISOMsg) super.clone();
-            m.fields = (TreeMap) ((TreeMap) fields).clone();
+            m.fields = fields instanceof ISOFieldMap fm ? fm.clone() : (TreeMap) ((TreeMap) fields).clone();
+            m.pool = null;
             if (header != null)
                 m.header = (ISOHeader) header.clone();
             if (trailer != null)
@@ -924,7 +1070,8 @@ public class ISOMsg extends ISOComponent
     public Object clone(int ... fields) {
         try {
             ISOMsg m = (ISOMsg) super.clone();
-            m.fields = new TreeMap();
+            m.fields = isArrayStorage() ? new ISOFieldMap() : new TreeMap();
+            m.pool = null;
             for (int field : fields) {
                 if (hasField(field)) {
                     try {
@@ -953,7 +1100,8 @@ public class ISOMsg extends ISOComponent
     public ISOMsg clone(String ... fpaths) {
         try {
             ISOMsg m = (ISOMsg) super.clone();
-            m.fields = new TreeMap();
+            m.fields = isArrayStorage() ? new ISOFieldMap() : new TreeMap();
+            m.pool = null;
             for (String fpath : fpaths) {
                 try {
                     ISOComponent component = getComponent(fpath);
@@ -1404,6 +1552,57 @@ public class ISOMsg extends ISOComponent
             throw new IOException (e.getMessage());
         }
     }
+    /**
+     * Returns this message to the {@link ISOMsgPool} it was acquired from.
+     * <p>
+     * This is a no-op for messages that were not obtained from a pool, and for messages
+     * that were already released (a debug pool reports the second release instead).
+     * Once released, neither this message nor any component obtained from it may be used again.
+     * @see ISOMsgPool
+     */
+    public void release () {
+        ISOMsgPool p = pool;
+        if (p != null)
+            p.release (this);
+        else
+            ISOMsgPool.checkReleased (this);
+    }
+    /**
+     * @return true if this message was acquired from an {@link ISOMsgPool} and not yet released
+     */
+    public boolean isPooled () {
+        return pool != null;
+    }
+    ISOMsgPool getPool () {
+        return pool;
+    }
+    void setPool (ISOMsgPool pool) {
+        this.pool = pool;
+    }
+    /**
+     * Atomically detaches this message from its pool.
+     * @param p the pool this message is expected to belong to
+     * @return true if this call detached it, false if it was not owned by {@code p}
+     */
+    boolean clearPool (ISOMsgPool p) {
+        return POOL.compareAndSet (this, p, null);
+    }
+    /**
+     * Resets this message to its freshly constructed state so that it can be reused.
+     * The packager is preserved. Subclasses holding additional state should override
+     * this method and call {@code super.recycle()}.
+     */
+    protected void recycle () {
+        fields.clear();
+        maxField = -1;
+        dirty = true;
+        maxFieldDirty = true;
+        direction = 0;
+        header = null;
+        trailer = null;
+        fieldNumber = -1;
+        sourceRef = null;
+    }
     /**
      * Let this ISOMsg object hold a weak reference to an ISOSource
      * (usually used to carry a reference to the incoming ISOChannel)
@@ -1423,16 +1622,12 @@ public class ISOMsg extends ISOComponent
         out.writeByte (b);
         ((Externalizable) c).writeExternal (out);
     }
-    private int parseInt (String s) {
-        return s.startsWith("0x") ? Integer.parseInt(s.substring(2), 16) : Integer.parseInt(s);
-    }
-
-    private boolean setDatasetPath(String fpath, Object value) throws ISOException {
-        StringTokenizer st = new StringTokenizer(fpath, ".");
-        if (st.countTokens() < 2)
+    private boolean setDatasetPath(ISOFieldPath fpath, Object value) throws ISOException {
+        int depth = fpath.depth();
+        if (depth < 2)
             return false;
 
-        int fieldNo = parseInt(st.nextToken());
+        int fieldNo = fpath.field(0);
         ISOFieldPackager fp = null;
         if (packager instanceof ISOBasePackager) {
             fp = ((ISOBasePackager) packager).getFieldPackager(fieldNo);
@@ -1446,15 +1641,15 @@ public class ISOMsg extends ISOComponent
         int elementId;
 
         if (!datasetPackager.hasDatasetEnvelope()) {
-            if (st.countTokens() != 1)
+            if (depth != 2)
                 return false;
             datasetId = fieldNo;
-            elementId = parseInt(st.nextToken());
+            elementId = fpath.field(1);
         } else {
-            if (st.countTokens() != 2)
+            if (depth != 3)
                 return false;
-            datasetId = parseInt(st.nextToken());
-            elementId = parseInt(st.nextToken());
+            datasetId = fpath.field(1);
+            elementId = fpath.field(2);
         }
 
         ISODatasetField field;
@@ -1477,12 +1672,12 @@ public class ISOMsg extends ISOComponent
         return true;
     }
 
-    private boolean unsetDatasetPath(String fpath) throws ISOException {
-        StringTokenizer st = new StringTokenizer(fpath, ".");
-        if (st.countTokens() < 2)
+    private boolean unsetDatasetPath(ISOFieldPath fpath) throws ISOException {
+        int depth = fpath.depth();
+        if (depth < 2)
             return false;
 
-        int fieldNo = parseInt(st.nextToken());
+        int fieldNo = fpath.field(0);
         ISOFieldPackager fp = null;
         if (packager instanceof ISOBasePackager) {
             fp = ((ISOBasePackager) packager).getFieldPackager(fieldNo);
@@ -1496,15 +1691,15 @@ public class ISOMsg extends ISOComponent
         int elementId;
 
         if (!datasetPackager.hasDatasetEnvelope()) {
-            if (st.countTokens() != 1)
+            if (depth != 2)
                 return false;
             datasetId = fieldNo;
-            elementId = parseInt(st.nextToken());
+            elementId = fpath.field(1);
         } else {
-            if (st.countTokens() != 2)
+            if (depth != 3)
                 return false;
-            datasetId = parseInt(st.nextToken());
-            elementId = parseInt(st.nextToken());
+            datasetId = fpath.field(1);
+            elementId = fpath.field(2);
         }
 
         ISOComponent component = getComponent(fieldNo);
@@ -0,0 +1,186 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of reusable {@link ISOMsg} instances.
+ *
+ * <p>A pool is usually owned by a channel (see {@link BaseChannel#setMessagePool(ISOMsgPool)})
+ * and handed out by its receive path. The last consumer of a pooled message (typically the
+ * {@link ISORequestListener} or the final participant of a transaction) calls
+ * {@link ISOMsg#release()} to give it back; messages that are never released are simply
+ * garbage collected, so recycling is always opt-in.</p>
+ *
+ * <p>Releasing detaches the message from its pool atomically, so releasing the same message
+ * twice, even concurrently, returns it to the pool only once; the extra release is ignored.</p>
+ *
+ * <p>In debug mode released messages are poisoned instead of being reused: any later
+ * access to their fields throws an {@link IllegalStateException} whose cause records
+ * where the message was released, and a second release is reported the same way.</p>
+ */
+public class ISOMsgPool {
+    private final Supplier<ISOMsg> factory;
+    private final BlockingQueue<ISOMsg> queue;
+    private final boolean debug;
+    private final LongAdder created  = new LongAdder();
+    private final LongAdder reused   = new LongAdder();
+    private final LongAdder released = new LongAdder();
+
+    /**
+     * Creates a pool.
+     * @param factory creates new messages when the pool is empty
+     * @param capacity maximum number of idle messages kept by this pool
+     * @param debug true to poison released messages and detect use-after-release
+     */
+    public ISOMsgPool (Supplier<ISOMsg> factory, int capacity, boolean debug) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException ("invalid pool capacity " + capacity);
+        this.factory = Objects.requireNonNull (factory);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.debug = debug;
+    }
+
+    /**
+     * Creates a non-debug pool.
+     * @param factory creates new messages when the pool is empty
+     * @param capacity maximum number of idle messages kept by this pool
+     */
+    public ISOMsgPool (Supplier<ISOMsg> factory, int capacity) {
+        this (factory, capacity, false);
+    }
+
+    /**
+     * Returns an idle message from this pool, or a new one if none is available.
+     * @return an empty ISOMsg owned by this pool
+     */
+    public ISOMsg acquire () {
+        ISOMsg m = queue.poll();
+        if (m != null)
+            reused.increment();
+        else {
+            m = factory.get();
+            created.increment();
+        }
+        m.setPool (this);
+        return m;
+    }
+
+    /**
+     * Returns a message to this pool.
+     *
+     * <p>Applications normally call {@link ISOMsg#release()} instead.</p>
+     * @param m message previously obtained from {@link #acquire()}
+     * @throws IllegalArgumentException if the message was not acquired from this pool
+     * @throws IllegalStateException if debug mode is on and the message was already released
+     */
+    public void release (ISOMsg m) {
+        if (!m.clearPool (this)) {
+            if (m.getPool() != null)
+                throw new IllegalArgumentException ("ISOMsg does not belong to this pool");
+            checkReleased (m);
+            if (debug)
+                throw new IllegalStateException ("ISOMsg already released");
+            return; // already released by someone else
+        }
+        released.increment();
+        if (debug) {
+            m.fields = new ReleasedFields (
+              new Throwable ("released by " + Thread.currentThread().getName())
+            );
+            return;
+        }
+        m.recycle();
+        queue.offer (m);
+    }
+
+    /** @return true if released messages are poisoned rather than reused */
+    public boolean isDebug () {
+        return debug;
+    }
+    /** @return number of idle messages currently held by this pool */
+    public int size () {
+        return queue.size();
+    }
+    /** @return number of messages created because the pool was empty */
+    public long getCreated () {
+        return created.sum();
+    }
+    /** @return number of acquisitions satisfied by an idle message */
+    public long getReused () {
+        return reused.sum();
+    }
+    /** @return number of messages released back to this pool */
+    public long getReleased () {
+        return released.sum();
+    }
+
+    /**
+     * @param m message to check
+     * @throws IllegalStateException if {@code m} was released to a debug pool
+     */
+    static void checkReleased (ISOMsg m) {
+        if (m.fields instanceof ReleasedFields r)
+            throw new IllegalStateException ("ISOMsg already released", r.releasedAt);
+    }
+
+    @Override
+    public String toString () {
+        return "ISOMsgPool[idle=%d, created=%d, reused=%d, released=%d%s]".formatted(
+          size(), getCreated(), getReused(), getReleased(), debug ? ", debug" : ""
+        );
+    }
+
+    /**
+     * Field map installed on released messages in debug mode; every access fails.
+     */
+    private static final class ReleasedFields extends TreeMap<Integer,Object> {
+        private static final long serialVersionUID = -2816431157620254310L;
+        private final Throwable releasedAt;
+
+        ReleasedFields (Throwable releasedAt) {
+            this.releasedAt = releasedAt;
+        }
+        private IllegalStateException used () {
+            return new IllegalStateException ("ISOMsg used after release", releasedAt);
+        }
+        @Override public int size() { throw used(); }
+        @Override public boolean isEmpty() { throw used(); }
+        @Override public boolean containsKey(Object key) { throw used(); }
+        @Override public boolean containsValue(Object value) { throw used(); }
+        @Override public Object get(Object key) { throw used(); }
+        @Override public Object put(Integer key, Object value) { throw used(); }
+        @Override public void putAll(Map<? extends Integer, ?> map) { throw used(); }
+        @Override public Object remove(Object key) { throw used(); }
+        @Override public void clear() { throw used(); }
+        @Override public Integer firstKey() { throw used(); }
+        @Override public Integer lastKey() { throw used(); }
+        @Override public Set<Integer> keySet() { throw used(); }
+        @Override public NavigableSet<Integer> navigableKeySet() { throw used(); }
+        @Override public Collection<Object> values() { throw used(); }
+        @Override public Set<Map.Entry<Integer,Object>> entrySet() { throw used(); }
+        @Override public Object clone() { throw used(); }
+    }
+}
@@ -20,6 +20,7 @@ package org.jpos.iso;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Core interface for ISO-8583 packagers; responsible for packing and unpacking {@link org.jpos.iso.ISOMsg} instances.
@@ -54,6 +55,46 @@ public interface ISOPackager {
      */
     void unpack(ISOComponent m, InputStream in) throws IOException, ISOException;
 
+    /**
+     * Packs an ISO-8583 message into {@code buf} at its current position, advancing it.
+     * <p>
+     * The default implementation copies the result of {@link #pack(ISOComponent)};
+     * packagers able to encode in place (i.e. {@link ISOBasePackager}) override it
+     * so that callers can pack straight into a pooled or direct buffer.
+     * @param   m   the Component to pack
+     * @param   buf the target buffer
+     * @return      number of bytes written
+     * @exception ISOException on packing error or if {@code buf} has not enough room
+     */
+    default int pack(ISOComponent m, ByteBuffer buf) throws ISOException {
+        byte[] b = pack(m);
+        if (b.length > buf.remaining())
+            throw new ISOException ("buffer overflow, message length=" + b.length + " remaining=" + buf.remaining());
+        buf.put(b);
+        return b.length;
+    }
+
+    /**
+     * Unpacks an ISO-8583 message from {@code buf}, starting at its current position
+     * and up to its limit, advancing the position by the number of consumed bytes.
+     * @param   m   the Container of this message
+     * @param   buf ISO message image
+     * @return      consumed bytes
+     * @exception ISOException on unpacking error
+     */
+    default int unpack(ISOComponent m, ByteBuffer buf) throws ISOException {
+        byte[] b;
+        if (buf.hasArray() && buf.arrayOffset() == 0 && buf.position() == 0 && buf.limit() == buf.array().length) {
+            b = buf.array();
+        } else {
+            b = new byte[buf.remaining()];
+            buf.get(buf.position(), b);
+        }
+        int consumed = unpack(m, b);
+        buf.position(buf.position() + consumed);
+        return consumed;
+    }
+
     /**
      * Returns a human-readable description of this packager.
      * @return  Packager's Description
@@ -63,7 +63,7 @@ public class ISOServer extends Observable
     }
 
     int port;
-    private InetAddress bindAddr;
+    InetAddress bindAddr;
 
     private Map<String,Boolean> specificIPPerms= new HashMap<>();   // TRUE means allow; FALSE means deny
     private List<String> wildcardAllow;
@@ -95,7 +95,7 @@ public class ISOServer extends Observable
 
     private AtomicInteger connectionCount = new AtomicInteger();
 
-    private int backlog;
+    int backlog;
     /** The server configuration. */
     protected Configuration cfg;
     private volatile boolean shutdown = false;
@@ -421,7 +421,7 @@ public class ISOServer extends Observable
 
         private boolean checkPermission (Socket socket, LogEvent ev) {
             try {
-                checkPermission0 (socket, ev);
+                checkPermission0 (socket.getInetAddress().getHostAddress(), ev);
                 return true;
             } catch (ISOException e) {
                 try {
@@ -439,65 +439,69 @@ public class ISOServer extends Observable
             }
             return false;
         }
+    } // inner class Session
 
-        private void checkPermission0 (Socket socket, LogEvent evt) throws ISOException {
-            // if there are no allow/deny params, just return without doing any checks
-            // (i.e.: "silent allow policy", keeping backward compatibility)
-            if (specificIPPerms.isEmpty() && wildcardAllow == null && wildcardDeny == null)
-                return;
-
-            String ip= socket.getInetAddress().getHostAddress ();           // The remote IP
-
-            // first, check allows or denies for specific/whole IPs (no wildcards)
-            boolean specificAllow = specificIPPerms.get(ip);
-            if (specificAllow == Boolean.TRUE) {                            // specific IP allow
-                evt.addMessage("access granted, ip=" + ip);
-                return;
-            } else if (specificAllow == Boolean.FALSE) {                    // specific IP deny
-                throw new ISOException("access denied, ip=" + ip);
-            } else {                                                        // no specific match under the specificIPPerms Map
-                // We check the wildcard lists, deny first
-                if (wildcardDeny != null) {
-                    for (String wdeny : wildcardDeny) {
-                        if (ip.startsWith(wdeny)) {
-                            throw new ISOException ("access denied, ip=" + ip);
-                        }
-                    }
-                }
-                if (wildcardAllow != null) {
-                    for (String wallow : wildcardAllow) {
-                        if (ip.startsWith(wallow)) {
-                            evt.addMessage("access granted, ip=" + ip);
-                            return;
-                        }
+    /**
+     * Checks a remote address against the configured "allow" and "deny" rules.
+     * @param ip remote IP address
+     * @param evt log event receiving the outcome
+     * @throws ISOException if access is denied
+     */
+    void checkPermission0 (String ip, LogEvent evt) throws ISOException {
+        // if there are no allow/deny params, just return without doing any checks
+        // (i.e.: "silent allow policy", keeping backward compatibility)
+        if (specificIPPerms.isEmpty() && wildcardAllow == null && wildcardDeny == null)
+            return;
+
+        // first, check allows or denies for specific/whole IPs (no wildcards)
+        boolean specificAllow = specificIPPerms.get(ip);
+        if (specificAllow == Boolean.TRUE) {                            // specific IP allow
+            evt.addMessage("access granted, ip=" + ip);
+            return;
+        } else if (specificAllow == Boolean.FALSE) {                    // specific IP deny
+            throw new ISOException("access denied, ip=" + ip);
+        } else {                                                        // no specific match under the specificIPPerms Map
+            // We check the wildcard lists, deny first
+            if (wildcardDeny != null) {
+                for (String wdeny : wildcardDeny) {
+                    if (ip.startsWith(wdeny)) {
+                        throw new ISOException ("access denied, ip=" + ip);
                     }
                 }
-
-                // Reaching this point means that nothing matched our specific or wildcard rules, so we fall
-                // back on the default permission policies and log type
-                switch (ipPermLogPolicy) {
-                    case DENY_LOG:        // only allows were specified, default policy is to deny non-matches and log the issue
-                        throw new ISOException ("access denied, ip=" + ip);
-                        // break;
-
-                    case ALLOW_LOG:       // only denies were specified, default policy is to allow non-matches and log the issue
+            }
+            if (wildcardAllow != null) {
+                for (String wallow : wildcardAllow) {
+                    if (ip.startsWith(wallow)) {
                         evt.addMessage("access granted, ip=" + ip);
-                        break;
-
-                    case DENY_LOGWARNING: // mix of allows and denies were specified, but the IP matched no rules!
-                                          // so we adopt a deny policy but give a special warning
-                        throw new ISOException ("access denied, ip=" + ip + " (WARNING: the IP did not match any rules!)");
-                        // break;
-
-                    case ALLOW_NOLOG:   // this is the default case when no allow/deny are specified
-                                        // the method will abort early on the first "if", so this is here just for completion
-                        break;
+                        return;
+                    }
                 }
+            }
 
+            // Reaching this point means that nothing matched our specific or wildcard rules, so we fall
+            // back on the default permission policies and log type
+            switch (ipPermLogPolicy) {
+                case DENY_LOG:        // only allows were specified, default policy is to deny non-matches and log the issue
+                    throw new ISOException ("access denied, ip=" + ip);
+                    // break;
+
+                case ALLOW_LOG:       // only denies were specified, default policy is to allow non-matches and log the issue
+                    evt.addMessage("access granted, ip=" + ip);
+                    break;
+
+                case DENY_LOGWARNING: // mix of allows and denies were specified, but the IP matched no rules!
+                                      // so we adopt a deny policy but give a special warning
+                    throw new ISOException ("access denied, ip=" + ip + " (WARNING: the IP did not match any rules!)");
+                    // break;
+
+                case ALLOW_NOLOG:   // this is the default case when no allow/deny are specified
+                                    // the method will abort early on the first "if", so this is here just for completion
+                    break;
             }
-            // we should never reach this point!! :-)
+
         }
-    } // inner class Session
+        // we should never reach this point!! :-)
+    }
 
     //-------------------------------------------------------------------------------
     //-- This is the main run for this ISOServer's Thread
@@ -857,7 +861,7 @@ public class ISOServer extends Observable
         }
     }
 
-    private void warn (AuditLogEvent log) {
+    void warn (AuditLogEvent log) {
         Logger.log(new LogEvent(Log.WARN)
           .withSource(this)
           .withTraceId(uuid)
@@ -865,7 +869,7 @@ public class ISOServer extends Observable
         );
     }
 
-    private void log (AuditLogEvent log) {
+    void log (AuditLogEvent log) {
         Logger.log(new LogEvent()
           .withSource(this)
           .withTraceId(uuid)
@@ -20,6 +20,7 @@ package org.jpos.iso;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Marker interface for {@link org.jpos.iso.ISOFieldPackager} implementations that handle string fields.
@@ -189,6 +190,76 @@ public class ISOStringFieldPackager extends ISOFieldPackager
         }
     }
 
+    /**
+     * Packs the component straight into {@code buf}, without intermediate arrays
+     * when the prefixer and interpreter support it.
+     * @param c   The component to pack.
+     * @param buf The target buffer.
+     * @return The number of bytes written.
+     * @throws ISOException on packing error; {@code buf}'s position is left unchanged
+     */
+    @Override
+    public int pack(ISOComponent c, ByteBuffer buf) throws ISOException
+    {
+        if (!canPackDirect())
+            return super.pack(c, buf);
+        int pos = buf.position();
+        try
+        {
+            String data;
+            if(c.getValue() instanceof byte[])
+                data = new String(c.getBytes(), ISOUtil.CHARSET); // transparent handling of complex fields
+            else
+                data = (String)c.getValue();
+
+            if (data.length() > getLength())
+            {
+                throw new ISOException("Field length " + data.length() + " too long. Max: " + getLength());
+            }
+            String paddedData = padder.pad(data, getLength());
+            prefixer.encodeLength(paddedData.length(), buf);
+            interpreter.interpret(paddedData, buf);
+            return buf.position() - pos;
+        } catch(Exception e)
+        {
+            buf.position(pos);
+            throw new ISOException(makeExceptionMessage(c, "packing"), e);
+        }
+    }
+
+    /**
+     * Unpacks the component from {@code buf}, reading it in place.
+     * @param c   The component to unpack into.
+     * @param buf The buffer to unpack, starting at its current position.
+     * @return The number of bytes consumed unpacking the component.
+     * @throws ISOException on unpacking error; {@code buf}'s position is left unchanged
+     */
+    @Override
+    public int unpack(ISOComponent c, ByteBuffer buf) throws ISOException
+    {
+        if (!canUnpackDirect())
+            return super.unpack(c, buf);
+        int pos = buf.position();
+        try
+        {
+            int len = prefixer.decodeLength(buf);
+            if (len == -1) {
+                // The prefixer doesn't know how long the field is, so use
+                // maxLength instead
+                len = trim ? Math.min(getLength(), buf.remaining()) : getLength();
+            }
+            else if (getLength() > 0 && len > getLength())
+                throw new ISOException("Field length " + len + " too long. Max: " + getLength());
+
+            c.setValue(interpreter.uninterpret(buf, len));
+            return buf.position() - pos;
+        } catch(Exception e)
+        {
+            buf.position(pos);
+            throw new ISOException(makeExceptionMessage(c, "unpacking"), e);
+        }
+    }
+
     /**
      * Unpack the input stream into the component.
      * @param c  The Component to unpack into.
@@ -18,6 +18,11 @@
 
 package org.jpos.iso;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * Implementations convert Strings into byte arrays and vice versa.
  * 
@@ -61,4 +66,54 @@ public interface Interpreter
      * @return the packed byte length
      */
     int getPackedLength(int nDataUnits);
+
+    /**
+     * Interprets {@code data} into {@code buf} at its current position, advancing it.
+     * <p>
+     * The default implementation writes straight into the backing array of heap
+     * buffers and goes through a temporary array for direct buffers.
+     * @param data the string data to interpret
+     * @param buf the target buffer
+     * @throws ISOException on error
+     * @throws BufferOverflowException if {@code buf} has not enough room
+     */
+    default void interpret(String data, ByteBuffer buf) throws ISOException {
+        int len = getPackedLength(data.length());
+        if (buf.remaining() < len)
+            throw new BufferOverflowException();
+        if (buf.hasArray()) {
+            int offset = buf.arrayOffset() + buf.position();
+            Arrays.fill(buf.array(), offset, offset + len, (byte) 0); // some interpreters OR nibbles in place
+            interpret(data, buf.array(), offset);
+            buf.position(buf.position() + len);
+        } else {
+            byte[] b = new byte[len];
+            interpret(data, b, 0);
+            buf.put(b);
+        }
+    }
+
+    /**
+     * Reads {@code length} data units from {@code buf} at its current position, advancing it.
+     * @param buf the buffer holding the interpreted data
+     * @param length the number of data units to uninterpret
+     * @return the uninterpreted data
+     * @throws ISOException on error
+     * @throws BufferUnderflowException if {@code buf} holds less than the required bytes
+     */
+    default String uninterpret(ByteBuffer buf, int length) throws ISOException {
+        int len = getPackedLength(length);
+        if (buf.remaining() < len)
+            throw new BufferUnderflowException();
+        String s;
+        if (buf.hasArray()) {
+            s = uninterpret(buf.array(), buf.arrayOffset() + buf.position(), length);
+        } else {
+            byte[] b = new byte[len];
+            buf.get(buf.position(), b);
+            s = uninterpret(b, 0, length);
+        }
+        buf.position(buf.position() + len);
+        return s;
+    }
 }
@@ -18,6 +18,8 @@
 
 package org.jpos.iso;
 
+import java.nio.ByteBuffer;
+
 /**
  * This interpreter does no conversion and leaves the input the same as the output.
  * @author jonathan.oconnor@xcom.de
@@ -54,6 +56,26 @@ public class LiteralBinaryInterpreter implements BinaryInterpreter
         return ret;
     }
 
+    /**
+     * Copies the input to the buffer.
+     */
+    @Override
+    public void interpret(byte[] data, ByteBuffer buf)
+    {
+        buf.put(data);
+    }
+
+    /**
+     * Copies the data out of the buffer.
+     */
+    @Override
+    public byte[] uninterpret(ByteBuffer buf, int length)
+    {
+        byte[] ret = new byte[length];
+        buf.get(ret);
+        return ret;
+    }
+
     /**
      * Returns nBytes because we are not doing any conversion.
      */
@@ -18,6 +18,9 @@
 
 package org.jpos.iso;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * MUX interface
  * @author Alejandro Revilla
@@ -42,4 +45,28 @@ public interface MUX extends ISOSource {
      */
     void request(ISOMsg m, long timeout, ISOResponseListener r, Object handBack)
         throws ISOException;
+
+    /**
+     * Sends a message to remote host, returning a future for its response.
+     *
+     * <p>The future completes with the response, with {@code null} if the
+     * request expires (same as {@link #request(ISOMsg, long)}), or exceptionally
+     * if the message could not be sent. The default implementation is built on
+     * top of {@link #request(ISOMsg, long, ISOResponseListener, Object)} and completes
+     * on whatever thread delivers the response.</p>
+     *
+     * @param m message to send
+     * @param timeout time to wait for the response
+     * @return future response
+     * @since 3.0.2
+     */
+    default CompletableFuture<ISOMsg> requestAsync(ISOMsg m, Duration timeout) {
+        CompletableFuture<ISOMsg> f = new CompletableFuture<>();
+        try {
+            request(m, timeout.toMillis(), (resp, handBack) -> f.complete(resp), null);
+        } catch (ISOException e) {
+            f.completeExceptionally(e);
+        }
+        return f;
+    }
 }
@@ -0,0 +1,565 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import org.jpos.core.Configuration;
+import org.jpos.core.ConfigurationException;
+import org.jpos.iso.channel.*;
+import org.jpos.log.evt.Listen;
+import org.jpos.log.evt.SessionEnd;
+import org.jpos.log.evt.SessionStart;
+import org.jpos.log.evt.ThrowableAuditLogEvent;
+import org.jpos.log.evt.Warning;
+import org.jpos.q2.QFactory;
+import org.jpos.util.LogEvent;
+import org.jpos.util.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Non-blocking {@link ISOServer} built on {@link ServerSocketChannel} and {@link Selector}.
+ *
+ * <p>Instead of dedicating a thread and a blocking {@link ServerChannel} to every
+ * connection, sessions are multiplexed over a small number of I/O loops
+ * ({@code io-threads}, defaults to half the available processors). Complete frames
+ * are unpacked and handed to the regular {@link ISORequestListener} chain on a
+ * worker executor (virtual threads by default), one frame at a time per connection,
+ * so ordering is preserved just like with the blocking server. Responses sent through
+ * the {@link ISOSource} given to the listeners are queued and written by the I/O loop.</p>
+ *
+ * <p>Framing is delegated to a length {@link Prefixer}. It is derived from the template
+ * channel for the common length-prefixed channels (NAC, Post, Raw, ASCII, NCC, BCD,
+ * Amex and CS) and can otherwise be configured with the {@code length-prefix}
+ * ({@code binary:N}, {@code ascii:N} or {@code bcd:N}), {@code length-offset} and
+ * {@code length-padding} properties. The template channel's packager, header and
+ * filters are honored; per-message dynamic packagers and headers are not.</p>
+ *
+ * <p>Idle connections are closed after {@code idle-timeout} milliseconds
+ * (defaults to the template channel timeout, 0 disables it).</p>
+ *
+ * <p>{@link ISOServerAcceptEvent} and {@link ISOServerClientDisconnectEvent} are fired
+ * for every session, but as sessions don't have an {@link ISOChannel} their
+ * {@code getISOChannel()} returns null.</p>
+ *
+ * <p>{@link ISOServerSocketFactory} based servers, such as TLS, are not supported;
+ * configuring one is rejected with a {@link ConfigurationException}.</p>
+ */
+public class NioISOServer extends ISOServer {
+    private static final long RELAX = 5000L;
+    private final int maxSessions;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private int ioThreads = Math.max (1, Runtime.getRuntime().availableProcessors() / 2);
+    private int maxPacketLength = 100000;
+    private long idleTimeout;
+    private Prefixer prefixer;
+    private int lengthOffset;
+    private int lengthPadding;
+    private byte[] header;
+    private boolean overrideHeader;
+    private ExecutorService workers;
+    private IOLoop[] loops;
+    private volatile ServerSocketChannel serverChannel;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a non-blocking ISOServer on the given port.
+     * @param port port to listen
+     * @param clientSide template channel providing packager, header, filters and framing
+     * @param maxSessions maximum number of concurrent sessions (0 = default)
+     */
+    public NioISOServer (int port, ServerChannel clientSide, int maxSessions) {
+        super (port, clientSide, maxSessions);
+        this.maxSessions = maxSessions > 0 ? maxSessions : DEFAULT_MAX_SESSIONS;
+        if (clientSide instanceof BaseChannel bc) {
+            header = bc.getHeader();
+            overrideHeader = bc.isOverrideHeader();
+            idleTimeout = bc.getTimeout();
+        }
+    }
+
+    @Override
+    public void setConfiguration (Configuration cfg) throws ConfigurationException {
+        checkSocketFactory();
+        super.setConfiguration (cfg);
+        ioThreads = cfg.getInt ("io-threads", ioThreads);
+        if (ioThreads < 1)
+            throw new ConfigurationException ("invalid io-threads " + ioThreads);
+        maxPacketLength = cfg.getInt ("max-packet-length", maxPacketLength);
+        idleTimeout = cfg.getLong ("idle-timeout", idleTimeout);
+        String lp = cfg.get ("length-prefix", null);
+        if (lp != null) {
+            prefixer = createPrefixer (lp);
+            lengthOffset = cfg.getInt ("length-offset", 0);
+            lengthPadding = cfg.getInt ("length-padding", 0);
+        } else {
+            configureFraming (clientSideChannel);
+        }
+        workers = QFactory.executorService (cfg.getBoolean ("virtual-threads", true));
+    }
+
+    /**
+     * {@link ISOServerSocketFactory} (i.e. TLS) is not supported by the non-blocking server.
+     *
+     * @throws ConfigurationException if a socket factory has been set
+     */
+    public void checkSocketFactory () throws ConfigurationException {
+        if (socketFactory != null && socketFactory != this)
+            throw new ConfigurationException (
+              "NioISOServer does not support socket factories (" + socketFactory.getClass().getName()
+                + "), use the blocking ISOServer for TLS"
+            );
+    }
+
+    @Override
+    public void run () {
+        try {
+            checkSocketFactory();
+            if (prefixer == null)
+                configureFraming (clientSideChannel);
+        } catch (ConfigurationException e) {
+            log (new ThrowableAuditLogEvent (e));
+            return;
+        }
+        if (workers == null)
+            workers = QFactory.executorService (true);
+        loops = new IOLoop[ioThreads];
+        try {
+            for (int i=0; i<loops.length; i++) {
+                loops[i] = new IOLoop();
+                Thread.ofPlatform().name (getName() + "-io-" + i).daemon().start (loops[i]);
+            }
+        } catch (IOException e) {
+            log (new ThrowableAuditLogEvent (e));
+            return;
+        }
+        int next = 0;
+        while (running) {
+            try (ServerSocketChannel ssc = ServerSocketChannel.open()) {
+                serverChannel = ssc;
+                ssc.setOption (StandardSocketOptions.SO_REUSEADDR, true);
+                ssc.bind (new InetSocketAddress (bindAddr, port), backlog);
+                log (new Listen (port, bindAddr, maxSessions - activeSessions.get(), backlog));
+                while (running) {
+                    SocketChannel sc = ssc.accept();
+                    if (!admit (sc))
+                        continue;
+                    NioSession session = new NioSession (sc, loops[next++ % loops.length]);
+                    fireEvent (new ISOServerAcceptEvent (this, null));
+                    session.loop.register (session);
+                }
+            } catch (ClosedChannelException e) {
+                if (running)
+                    log (new ThrowableAuditLogEvent (e));
+            } catch (IOException e) {
+                warn (new Listen (port, bindAddr, maxSessions - activeSessions.get(), backlog, e.toString()));
+                if (running)
+                    LockSupport.parkNanos (Duration.ofMillis (RELAX).toNanos());
+            }
+        }
+    }
+
+    @Override
+    public void shutdown () {
+        running = false;
+        try {
+            ServerSocketChannel ssc = serverChannel;
+            if (ssc != null)
+                ssc.close();
+        } catch (IOException e) {
+            Logger.log (new LogEvent (this, "shutdown", e));
+        }
+        if (loops != null) {
+            for (IOLoop loop : loops)
+                if (loop != null)
+                    loop.selector.wakeup();
+        }
+        if (workers != null)
+            workers.shutdown();
+        super.shutdown();
+    }
+
+    @Override
+    public int getActiveConnections () {
+        return activeSessions.get();
+    }
+
+    /**
+     * Admits or rejects a just accepted connection. Problems with a single
+     * connection (i.e. a peer resetting right after connect) close that
+     * connection only, never the listener.
+     */
+    private boolean admit (SocketChannel sc) {
+        LogEvent evt = new LogEvent (this, "session-start");
+        try {
+            String ip = ((InetSocketAddress) sc.getRemoteAddress()).getAddress().getHostAddress();
+            if (activeSessions.get() >= maxSessions)
+                throw new ISOException ("permits exhausted, ip=" + ip);
+            checkPermission0 (ip, evt);
+            sc.configureBlocking (false);
+            sc.setOption (StandardSocketOptions.TCP_NODELAY, true);
+            activeSessions.incrementAndGet();
+            evt.addMessage (new SessionStart (activeSessions.get(), maxSessions, sc.toString()));
+            return true;
+        } catch (ISOException e) {
+            evt.addMessage (e.getMessage());
+            close (sc);
+            return false;
+        } catch (IOException | RuntimeException e) {
+            evt.addMessage (e);
+            close (sc);
+            return false;
+        } finally {
+            Logger.log (evt);
+        }
+    }
+
+    private static void close (SocketChannel sc) {
+        try {
+            sc.close();
+        } catch (IOException ignored) { }
+    }
+
+    private void configureFraming (ISOChannel c) throws ConfigurationException {
+        lengthOffset = 0;
+        lengthPadding = 0;
+        Configuration ccfg = c instanceof BaseChannel bc ? bc.getConfiguration() : null;
+        if (c instanceof NACChannel) {
+            prefixer = BinaryPrefixer.BB;
+            if (ccfg != null && ccfg.getBoolean ("include-header-length", false))
+                lengthOffset = 2;
+        } else if (c instanceof PostChannel) {
+            prefixer = BinaryPrefixer.BB;
+        } else if (c instanceof AmexChannel) {
+            prefixer = BinaryPrefixer.BB;
+            lengthOffset = 2;
+        } else if (c instanceof CSChannel) {
+            prefixer = BinaryPrefixer.BB;
+            lengthPadding = 2;
+        } else if (c instanceof RawChannel) {
+            prefixer = new BinaryPrefixer (4);
+        } else if (c instanceof ASCIIChannel ac) {
+            prefixer = new AsciiPrefixer (ac.getLengthDigits());
+        } else if (c instanceof NCCChannel || c instanceof BCDChannel) {
+            prefixer = BcdPrefixer.LLLL;
+        } else {
+            throw new ConfigurationException (
+              "length-prefix required for " + (c != null ? c.getClass().getName() : "null channel")
+            );
+        }
+    }
+
+    private static Prefixer createPrefixer (String spec) throws ConfigurationException {
+        String[] s = spec.split (":");
+        try {
+            int n = s.length > 1 ? Integer.parseInt (s[1]) : 2;
+            return switch (s[0]) {
+                case "binary" -> new BinaryPrefixer (n);
+                case "ascii"  -> new AsciiPrefixer (n);
+                case "bcd"    -> new BcdPrefixer (n);
+                default -> throw new ConfigurationException ("invalid length-prefix '" + spec + "'");
+            };
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException ("invalid length-prefix '" + spec + "'", e);
+        }
+    }
+
+    private ISOMsg applyFilters (Collection filters, ISOMsg m, LogEvent evt) throws ISOException {
+        if (filters != null) {
+            for (Object f : filters) {
+                m = ((ISOFilter) f).filter (clientSideChannel, m, evt);
+                if (m == null)
+                    throw new ISOFilter.VetoException();
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Selector loop serving a subset of the sessions.
+     */
+    private class IOLoop implements Runnable {
+        final Selector selector;
+        final Queue<NioSession> registrations = new ConcurrentLinkedQueue<>();
+        final Queue<NioSession> writers = new ConcurrentLinkedQueue<>();
+
+        IOLoop () throws IOException {
+            selector = Selector.open();
+        }
+
+        void register (NioSession session) {
+            registrations.add (session);
+            selector.wakeup();
+        }
+
+        void wantWrite (NioSession session) {
+            writers.add (session);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run () {
+            long lastIdleCheck = System.currentTimeMillis();
+            try {
+                while (running) {
+                    selector.select (1000L);
+                    for (NioSession s = registrations.poll(); s != null; s = registrations.poll()) {
+                        try {
+                            s.key = s.channel.register (selector, SelectionKey.OP_READ, s);
+                        } catch (IOException e) {
+                            s.close (e);
+                        }
+                    }
+                    for (NioSession s = writers.poll(); s != null; s = writers.poll())
+                        s.write();
+                    Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+                    while (iter.hasNext()) {
+                        SelectionKey key = iter.next();
+                        iter.remove();
+                        NioSession s = (NioSession) key.attachment();
+                        if (key.isValid() && key.isReadable())
+                            s.read();
+                        if (key.isValid() && key.isWritable())
+                            s.write();
+                    }
+                    long now = System.currentTimeMillis();
+                    if (idleTimeout > 0 && now - lastIdleCheck >= 1000L) {
+                        lastIdleCheck = now;
+                        for (SelectionKey key : selector.keys()) {
+                            NioSession s = (NioSession) key.attachment();
+                            if (now - s.lastActivity > idleTimeout)
+                                s.close (null);
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                log (new ThrowableAuditLogEvent (e));
+            } finally {
+                for (SelectionKey key : selector.keys())
+                    ((NioSession) key.attachment()).close (null);
+                try {
+                    selector.close();
+                } catch (IOException ignored) { }
+            }
+        }
+    }
+
+    /**
+     * A connected client; the {@link ISOSource} handed to the request listeners.
+     */
+    private class NioSession implements ISOSource {
+        final SocketChannel channel;
+        final IOLoop loop;
+        final String info;
+        final Queue<ByteBuffer> outgoing = new ConcurrentLinkedQueue<>();
+        final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+        final Queue<byte[]> frames = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean dispatching = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final int prefixLength = prefixer.getPackedLength() + lengthPadding;
+        ByteBuffer in = ByteBuffer.allocate (256);
+        SelectionKey key;
+        volatile long lastActivity = System.currentTimeMillis();
+
+        NioSession (SocketChannel channel, IOLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+            this.info = channel.toString();
+        }
+
+        @Override
+        public void send (ISOMsg m) throws IOException, ISOException {
+            if (!isConnected())
+                throw new IOException ("unconnected ISOSource");
+            LogEvent evt = new LogEvent (NioISOServer.this, "send");
+            try {
+                m.setDirection (ISOMsg.OUTGOING);
+                m.setPackager (clientPackager);
+                m = applyFilters (clientOutgoingFilters, m, evt);
+                evt.addMessage (m);
+                m.setDirection (ISOMsg.OUTGOING);
+                m.setPackager (clientPackager);
+                byte[] b = m.pack();
+                byte[] h = !overrideHeader && m.getHeader() != null ? m.getHeader() : header;
+                int hlen = h != null ? h.length : 0;
+                byte[] prefix = new byte[prefixer.getPackedLength()];
+                prefixer.encodeLength (hlen + b.length + lengthOffset, prefix);
+                ByteBuffer buf = ByteBuffer.allocate (prefixLength + hlen + b.length);
+                buf.put (prefix).position (prefixLength);
+                if (h != null)
+                    buf.put (h);
+                buf.put (b).flip();
+                outgoing.add (buf);
+                loop.wantWrite (this);
+            } catch (ISOException | RuntimeException e) {
+                evt.addMessage (e);
+                throw e;
+            } finally {
+                Logger.log (evt);
+            }
+        }
+
+        @Override
+        public boolean isConnected () {
+            return !closed.get() && channel.isOpen();
+        }
+
+        void read () {
+            try {
+                int n = channel.read (in);
+                if (n < 0) {
+                    close (null);
+                    return;
+                }
+                lastActivity = System.currentTimeMillis();
+                in.flip();
+                int needed = 0;
+                while (in.remaining() >= prefixLength) {
+                    int pos = in.position();
+                    int len = prefixer.decodeLength (in.array(), pos) - lengthOffset;
+                    if (len < 0 || len > maxPacketLength)
+                        throw new ISOException ("invalid message length " + len);
+                    if (in.remaining() < prefixLength + len) {
+                        needed = prefixLength + len;
+                        break;
+                    }
+                    byte[] frame = new byte[len];
+                    in.position (pos + prefixLength);
+                    in.get (frame);
+                    if (len > 0)
+                        dispatch (frame);
+                }
+                in.compact();
+                if (needed > in.capacity()) {
+                    ByteBuffer b = ByteBuffer.allocate (needed);
+                    in.flip();
+                    b.put (in);
+                    in = b;
+                }
+            } catch (IOException | ISOException e) {
+                close (e);
+            }
+        }
+
+        void write () {
+            if (closed.get())
+                return;
+            try {
+                for (ByteBuffer b = outgoing.poll(); b != null; b = outgoing.poll())
+                    writing.add (b);
+                if (!writing.isEmpty()) {
+                    channel.write (writing.toArray (new ByteBuffer[0]));
+                    while (!writing.isEmpty() && !writing.peekFirst().hasRemaining())
+                        writing.removeFirst();
+                    lastActivity = System.currentTimeMillis();
+                }
+                if (key != null && key.isValid())
+                    key.interestOps (writing.isEmpty() ?
+                      SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } catch (IOException e) {
+                close (e);
+            }
+        }
+
+        void dispatch (byte[] frame) {
+            frames.add (frame);
+            if (dispatching.compareAndSet (false, true)) {
+                try {
+                    workers.execute (this::drain);
+                } catch (RejectedExecutionException e) {
+                    close (running ? e : null); // workers are gone after shutdown
+                }
+            }
+        }
+
+        private void drain () {
+            do {
+                for (byte[] f = frames.poll(); f != null; f = frames.poll())
+                    process (f);
+                dispatching.set (false);
+            } while (!frames.isEmpty() && dispatching.compareAndSet (false, true));
+        }
+
+        private void process (byte[] frame) {
+            LogEvent evt = new LogEvent (NioISOServer.this, "receive");
+            try {
+                int hlen = header != null ? Math.min (header.length, frame.length) : 0;
+                ISOMsg m = clientPackager.createISOMsg();
+                m.setPackager (clientPackager);
+                m.setSource (this);
+                if (hlen > 0)
+                    m.setHeader (Arrays.copyOf (frame, hlen));
+                m.unpack (ByteBuffer.wrap (frame, hlen, frame.length - hlen));
+                m.setDirection (ISOMsg.INCOMING);
+                m = applyFilters (clientIncomingFilters, m, evt);
+                evt.addMessage (m);
+                Logger.log (evt);
+                evt = null;
+                lastTxn = System.currentTimeMillis();
+                for (ISORequestListener listener : listeners) {
+                    if (listener.process (this, m))
+                        break;
+                }
+            } catch (ISOFilter.VetoException e) {
+                evt = evt != null ? evt : new LogEvent (NioISOServer.this, "VetoException");
+                evt.addMessage (e.getMessage());
+            } catch (ISOException e) {
+                evt = evt != null ? evt : new LogEvent (NioISOServer.this, "ISOException");
+                evt.addMessage (e);
+                if (!ignoreISOExceptions)
+                    close (null);
+            } catch (Throwable t) {
+                evt = evt != null ? evt : new LogEvent (NioISOServer.this, "session-error");
+                evt.addMessage (t);
+            } finally {
+                if (evt != null)
+                    Logger.log (evt);
+            }
+        }
+
+        void close (Throwable t) {
+            if (!closed.compareAndSet (false, true))
+                return;
+            if (key != null)
+                key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) { }
+            int active = activeSessions.decrementAndGet();
+            LogEvent evt = new LogEvent (NioISOServer.this, "session-end");
+            if (t != null)
+                evt.addMessage (new Warning (t.toString()));
+            evt.addMessage (new SessionEnd (active, maxSessions, info));
+            Logger.log (evt);
+            fireEvent (new ISOServerClientDisconnectEvent (NioISOServer.this, null));
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.jpos.iso;
 
+import java.nio.ByteBuffer;
+
 /**
  * AsciiPrefixer constructs a prefix for ASCII messages.
  * 
@@ -45,6 +47,15 @@ public class NullPrefixer implements Prefixer
         return -1;
     }
 
+    @Override
+    public void encodeLength(int length, ByteBuffer buf) {}
+
+    @Override
+    public int decodeLength(ByteBuffer buf)
+    {
+        return -1;
+    }
+
     @Override
     public int getPackedLength()
     {
@@ -18,6 +18,9 @@
 
 package org.jpos.iso;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 
 /**
  * This interface is used to encode and decode length prefixes.
@@ -49,4 +52,42 @@ public interface Prefixer
      * @return the number of bytes used by the length encoding
      */
     int getPackedLength();
-}
\ No newline at end of file
+
+    /**
+     * Encodes the field length into {@code buf} at its current position, advancing it.
+     * @param length the field length to encode
+     * @param buf the buffer to write the length prefix into
+     * @throws ISOException if the length exceeds the prefix capacity
+     */
+    default void encodeLength(int length, ByteBuffer buf) throws ISOException {
+        int lenLen = getPackedLength();
+        if (lenLen > 0) {
+            byte[] b = new byte[lenLen];
+            encodeLength(length, b);
+            buf.put(b);
+        }
+    }
+
+    /**
+     * Decodes an encoded length from {@code buf} at its current position, advancing it.
+     * @param buf the buffer containing the length prefix
+     * @return the length in chars of the field data to follow this prefix, or -1
+     * if this prefixer doesn't know the length
+     * @throws ISOException if the prefix cannot be decoded
+     */
+    default int decodeLength(ByteBuffer buf) throws ISOException {
+        int lenLen = getPackedLength();
+        if (buf.remaining() < lenLen)
+            throw new BufferUnderflowException();
+        int len;
+        if (buf.hasArray()) {
+            len = decodeLength(buf.array(), buf.arrayOffset() + buf.position());
+        } else {
+            byte[] b = new byte[lenLen];
+            buf.get(buf.position(), b);
+            len = decodeLength(b, 0);
+        }
+        buf.position(buf.position() + lenLen);
+        return len;
+    }
+}
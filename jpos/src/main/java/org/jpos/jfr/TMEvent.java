@@ -22,6 +22,7 @@ import jdk.jfr.Category;
 import jdk.jfr.Event;
 import jdk.jfr.Name;
 import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
 
 /** Base Java Flight Recorder event for TransactionManager lifecycle notifications. */
 @Category("jPOS")
@@ -144,4 +145,40 @@ public class TMEvent extends Event {
             super(name, id);
         }
     }
+
+    /**
+     * JFR event emitted when a participant callback exceeds its configured
+     * {@code slow-threshold}.
+     */
+    @Name("jpos.TMSlow")
+    public static class Slow extends TMEvent {
+        /** Participant phase (prepare, prepare-for-abort, commit, abort). */
+        @Name("phase")
+        protected final String phase;
+
+        /** Elapsed time in milliseconds. */
+        @Name("elapsed")
+        @Timespan(Timespan.MILLISECONDS)
+        protected final long elapsed;
+
+        /** Context keys present when the callback returned. */
+        @Name("keys")
+        protected final String keys;
+
+        /**
+         * Creates a slow-participant event.
+         *
+         * @param name transaction manager and participant name
+         * @param id transaction identifier
+         * @param phase participant phase
+         * @param elapsed elapsed time in milliseconds
+         * @param keys context key set, or {@code null} if not a {@code Context}
+         */
+        public Slow(String name, long id, String phase, long elapsed, String keys) {
+            super(name, id);
+            this.phase = phase;
+            this.elapsed = elapsed;
+            this.keys = keys;
+        }
+    }
 }
@@ -31,6 +31,12 @@ public enum MeterInfo {
     TM_OPERATION("jpos.tm.op", "TransactionManager operation"),
     /** TransactionManager arbitrary counter. */
     TM_COUNTER("jpos.tm.cnt", "TransactionManager counter"),
+    /** Time a transaction waited in the TransactionManager queue before a session picked it up. */
+    TM_QUEUE_WAIT("jpos.tm.queue", "TransactionManager queue wait"),
+    /** Transactions parked in the TransactionManager retry scheduler. */
+    TM_RETRY_DEPTH("jpos.tm.retry", "TransactionManager pending retries"),
+    /** Time a retried transaction spent parked before being re-queued. */
+    TM_RETRY_AGE("jpos.tm.retry.age", "TransactionManager retry wait"),
 
     /** Active inbound connections accepted by ISOServer. */
     ISOSERVER_CONNECTION_COUNT("jpos.server.connections", "Incoming active connections"),
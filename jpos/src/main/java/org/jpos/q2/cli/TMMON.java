@@ -23,16 +23,27 @@ import org.jpos.q2.CLIContext;
 import org.jpos.transaction.TransactionManager;
 import org.jpos.transaction.TransactionStatusEvent;
 import org.jpos.transaction.TransactionStatusListener;
+import org.HdrHistogram.Histogram;
+import org.jpos.util.Metrics;
 import org.jpos.util.NameRegistrar;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CLI command that subscribes to one or more named transaction managers and
  * mirrors their {@link TransactionStatusListener} events to the terminal until
  * the user presses Enter.
+ * <p>
+ * With {@code --stats [seconds]} it periodically prints the p50/p99 latency of
+ * every participant phase instead.
  */
 @SuppressWarnings("unused")
 public class TMMON implements CLICommand, TransactionStatusListener {
@@ -42,6 +53,10 @@ public class TMMON implements CLICommand, TransactionStatusListener {
     CLIContext cli;
     boolean ansi;
 
+    private static final String[] PHASES = {
+      "prepare-for-abort", "prepare", "commit", "abort", "snapshot", "selector"
+    };
+
     public void exec(CLIContext cli, String[] args) throws Exception {
         this.p = new PrintStream(cli.getReader().getTerminal().output());
         this.cli = cli;
@@ -50,6 +65,10 @@ public class TMMON implements CLICommand, TransactionStatusListener {
             usage(cli);
             return;
         }
+        if ("--stats".equals(args[1]) || "-s".equals(args[1])) {
+            stats(cli, args);
+            return;
+        }
         for (int i = 1; i < args.length; i++) {
             try {
                 Object obj = NameRegistrar.get(args[i]);
@@ -85,6 +104,7 @@ public class TMMON implements CLICommand, TransactionStatusListener {
      */
     public void usage(CLIContext cli) {
         cli.println("Usage: tmmon [tm-name] [tm-name] ...");
+        cli.println("       tmmon --stats [seconds] [tm-name] [tm-name] ...");
         showTMs(cli);
     }
 
@@ -104,6 +124,71 @@ public class TMMON implements CLICommand, TransactionStatusListener {
         cli.println(sb.toString());
     }
 
+    private void stats(CLIContext cli, String[] args) throws Exception {
+        long interval = 5L;
+        int first = 2;
+        if (args.length > first && args[first].matches("\\d+")) {
+            interval = Math.max(1L, Long.parseLong(args[first]));
+            first++;
+        }
+        List<TransactionManager> tms = new ArrayList<>();
+        for (int i = first; i < args.length; i++) {
+            try {
+                Object obj = NameRegistrar.get(args[i]);
+                if (obj instanceof TransactionManager tm) {
+                    tms.add(tm);
+                } else {
+                    cli.println("Object '" + args[i]
+                      + "' is not an instance of TransactionManager (" + obj.toString() + ")");
+                }
+            } catch (NameRegistrar.NotFoundException e) {
+                cli.println("TransactionManager '" + args[i] + "' not found -- ignored.");
+            }
+        }
+        if (tms.isEmpty()) {
+            usage(cli);
+            return;
+        }
+        ScheduledExecutorService ses = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tmmon-stats");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            ses.scheduleAtFixedRate(() -> tms.forEach(tm -> showStats(cli, tm)), 0L, interval, TimeUnit.SECONDS);
+            cli.getReader().readLine();
+        } finally {
+            ses.shutdownNow();
+        }
+    }
+
+    private void showStats(CLIContext cli, TransactionManager tm) {
+        Metrics metrics = tm.getMetrics();
+        if (metrics == null)
+            return;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s active-sessions=%d outstanding=%d in-transit=%d%n",
+          tm.getName(), tm.getActiveSessions(), tm.getOutstandingTransactions(), tm.getInTransit()));
+        sb.append(String.format("  %-32s %-18s %10s %8s %8s %8s%n", "participant", "phase", "count", "p50", "p99", "max"));
+        for (Map.Entry<String,Histogram> e : new TreeMap<>(metrics.metrics()).entrySet()) {
+            String key = e.getKey();
+            String participant = key;
+            String phase = "";
+            for (String ph : PHASES) {
+                if (key.endsWith("-" + ph)) {
+                    participant = key.substring(0, key.length() - ph.length() - 1);
+                    phase = ph;
+                    break;
+                }
+            }
+            Histogram h = e.getValue();
+            sb.append(String.format("  %-32s %-18s %10d %8d %8d %8d%n",
+              participant, phase, h.getTotalCount(),
+              h.getValueAtPercentile(50.0), h.getValueAtPercentile(99.0), h.getMaxValue()));
+        }
+        cli.print(sb.toString());
+    }
+
     public void update(TransactionStatusEvent e) {
         cli.println(e.toString());
     }
@@ -18,6 +18,7 @@
 
 package org.jpos.q2.iso;
 
+import org.HdrHistogram.AtomicHistogram;
 import org.jdom2.Element;
 import org.jpos.core.ConfigurationException;
 import org.jpos.iso.*;
@@ -29,14 +30,32 @@ import org.jpos.util.NameRegistrar;
 import org.jpos.util.Realm;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Pool of {@link MUX} instances that selects a delegate per request based on
  * the configured strategy (one of {@link #PRIMARY_SECONDARY}, {@link #ROUND_ROBIN},
- * {@link #ROUND_ROBIN_WITH_OVERRIDE}, or {@link #SPLIT_BY_DIVISOR}).
+ * {@link #ROUND_ROBIN_WITH_OVERRIDE}, {@link #SPLIT_BY_DIVISOR}, {@link #LEAST_PENDING}
+ * or {@link #LEAST_LATENCY}).
+ *
+ * <p>The load-aware strategies ({@code least-pending} and {@code least-latency}) keep
+ * per-MUX statistics, temporarily eject a MUX whose timeout ratio goes above
+ * {@code eject-timeout-ratio} and gradually re-admit it afterwards.</p>
+ *
+ * <p>Requests whose MTI is listed in {@code hedge-mtis} (which should only
+ * include idempotent messages, i.e. balance inquiries) are hedged: if no response
+ * arrives after the {@code hedge-percentile} response time, a copy is sent through
+ * a second MUX and the first response wins.</p>
  *
  * @author apr
  */
@@ -51,6 +70,12 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
     public static final int ROUND_ROBIN_WITH_OVERRIDE = 2;
     /** Strategy: hash-by-divisor selection driven by a configured field value. */
     public static final int SPLIT_BY_DIVISOR = 3;
+    /** Strategy: the usable MUX with the fewest outstanding requests. */
+    public static final int LEAST_PENDING = 4;
+    /** Strategy: the usable MUX with the lowest EWMA response time, weighted by its outstanding requests. */
+    public static final int LEAST_LATENCY = 5;
+    private static final long MAX_LATENCY = 60000L;
+    private static final int HEDGE_MIN_SAMPLES = 100;
 
     int strategy = 0;
     String[] muxName;
@@ -62,6 +87,16 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
     boolean checkEnabled;
     Space sp;
     StrategyHandler strategyHandler;
+    Member[] members;
+    double ewmaAlpha;
+    double ejectTimeoutRatio;
+    int ejectMinRequests;
+    long ejectPeriod;
+    long readmitPeriod;
+    Set<String> hedgeMTIs;
+    double hedgePercentile;
+    long hedgeDelay;
+    AtomicHistogram latencies;
 
     @Override
     protected String defaultRealm() {
@@ -104,8 +139,12 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
 
         muxName = found.toArray(new String[0]);
         mux = muxes.toArray(new MUX[0]);
+        initMembers();
+        initHedging();
 
         initHandler(e.getChild("strategy-handler"));
+        if (hedgeMTIs != null && isRouted())
+            log.warn("MUXPool " + getName() + ": hedge-mtis ignored, hedging is not available with routing strategies or a strategy-handler");
         NameRegistrar.register ("mux."+getName (), this);
     }
 
@@ -113,6 +152,35 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
         NameRegistrar.unregister ("mux."+getName ());
     }
 
+    /**
+     * Sets up per-MUX statistics when a load-aware strategy is configured.
+     */
+    void initMembers() {
+        if (strategy != LEAST_PENDING && strategy != LEAST_LATENCY)
+            return;
+        ewmaAlpha = cfg.getDouble("ewma-alpha", 0.2);
+        ejectTimeoutRatio = cfg.getDouble("eject-timeout-ratio", 0.5);
+        ejectMinRequests = cfg.getInt("eject-min-requests", 20);
+        ejectPeriod = TimeUnit.MILLISECONDS.toNanos(cfg.getLong("eject-period", 30000L));
+        readmitPeriod = TimeUnit.MILLISECONDS.toNanos(cfg.getLong("readmit-period", 30000L));
+        members = new Member[mux.length];
+        for (int i=0; i<mux.length; i++)
+            members[i] = new Member(muxName[i]);
+    }
+
+    /**
+     * Reads the hedged requests configuration.
+     */
+    void initHedging() {
+        String[] mtis = toStringArray(cfg.get("hedge-mtis", null));
+        if (mtis == null)
+            return;
+        hedgeMTIs = Set.of(mtis);
+        hedgePercentile = cfg.getDouble("hedge-percentile", 95.0);
+        hedgeDelay = cfg.getLong("hedge-delay", 100L);
+        latencies = new AtomicHistogram(MAX_LATENCY, 2);
+    }
+
     /**
      * Instantiates a custom {@link StrategyHandler} from an XML configuration element.
      *
@@ -140,8 +208,21 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
         MUX mux = getMUX(m,maxWait);
         if (mux != null) {
             long remainingTimeout = maxWait - System.currentTimeMillis();
-            if (remainingTimeout >= 0)
-                return mux.request(m, remainingTimeout);
+            if (remainingTimeout >= 0 && isHedged(m))
+                return await(hedgedRequest(m, mux, maxWait), remainingTimeout);
+            if (remainingTimeout >= 0) {
+                Member mb = member(mux);
+                if (mb == null)
+                    return mux.request(m, remainingTimeout);
+                long start = mb.begin();
+                ISOMsg resp = null;
+                try {
+                    resp = mux.request(m, remainingTimeout);
+                    return resp;
+                } finally {
+                    mb.end(start, resp == null);
+                }
+            }
         }
         return null;
     }
@@ -154,25 +235,192 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
             // you should use 'send' instead of 'request'
             try {
                 send(m);
-                new Thread(() -> r.expired(handBack)).start();
+                getScheduledThreadPoolExecutor().execute(() -> r.expired(handBack));
             } catch (IOException e) {
                 throw new ISOException(e.getMessage(), e);
             }
+            return;
         }
 
         long maxWait = System.currentTimeMillis() + timeout;
         MUX mux = getMUX(m,maxWait);
         if (mux != null) {
             long remainingTimeout = maxWait - System.currentTimeMillis();
-            if (remainingTimeout >= 0)
-                mux.request(m, remainingTimeout, r, handBack);
-            else {
-                new Thread(()->r.expired(handBack)).start();
+            if (remainingTimeout >= 0 && isHedged(m)) {
+                hedgedRequest(m, mux, maxWait).whenComplete((resp, ex) -> {
+                    if (resp != null)
+                        r.responseReceived(resp, handBack);
+                    else
+                        r.expired(handBack);
+                });
+            } else if (remainingTimeout >= 0) {
+                Member mb = member(mux);
+                if (mb == null) {
+                    mux.request(m, remainingTimeout, r, handBack);
+                    return;
+                }
+                long start = mb.begin();
+                try {
+                    mux.request(m, remainingTimeout, (resp, hb) -> {
+                        mb.end(start, resp == null);
+                        if (resp != null)
+                            r.responseReceived(resp, hb);
+                        else
+                            r.expired(hb);
+                    }, handBack);
+                } catch (ISOException | RuntimeException e) {
+                    mb.end(start, true);
+                    throw e;
+                }
+            } else {
+                getScheduledThreadPoolExecutor().execute(() -> r.expired(handBack));
             }
         } else
             throw new ISOException ("No MUX available");
     }
 
+    /**
+     * Selects a MUX using the configured strategy and delegates to its
+     * {@link MUX#requestAsync(ISOMsg, Duration)}.
+     *
+     * <p>A zero timeout sends the message and returns a future already completed
+     * with {@code null}. Note that MUX selection itself may wait for a usable MUX,
+     * bounded by {@code timeout}.</p>
+     *
+     * @param m message to send
+     * @param timeout time to wait for the response
+     * @return future completed with the response, {@code null} on expiration, or
+     *         exceptionally if no MUX is available
+     * @since 3.0.2
+     */
+    @Override
+    public CompletableFuture<ISOMsg> requestAsync (ISOMsg m, Duration timeout) {
+        long t = timeout.toMillis();
+        try {
+            if (t == 0) {
+                send(m);
+                return CompletableFuture.completedFuture(null);
+            }
+            long maxWait = System.currentTimeMillis() + t;
+            MUX mux = getMUX(m, maxWait);
+            if (mux == null)
+                return CompletableFuture.failedFuture(new ISOException ("No MUX available"));
+            long remainingTimeout = maxWait - System.currentTimeMillis();
+            if (remainingTimeout < 0)
+                return CompletableFuture.completedFuture(null);
+            return isHedged(m) ? hedgedRequest(m, mux, maxWait) : requestAsync(mux, m, remainingTimeout);
+        } catch (ISOException | IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<ISOMsg> requestAsync (MUX mx, ISOMsg m, long timeout) {
+        Member mb = member(mx);
+        if (mb == null)
+            return mx.requestAsync(m, Duration.ofMillis(timeout));
+        long start = mb.begin();
+        return mx.requestAsync(m, Duration.ofMillis(timeout))
+          .whenComplete((resp, ex) -> mb.end(start, resp == null));
+    }
+
+    /**
+     * Hedges would go to an arbitrary MUX, bypassing the routing done by a
+     * {@link StrategyHandler}, {@link #SPLIT_BY_DIVISOR} or {@link #ROUND_ROBIN_WITH_OVERRIDE},
+     * so requests are not hedged with those.
+     */
+    private boolean isHedged (ISOMsg m) {
+        if (hedgeMTIs == null || mux.length < 2 || isRouted())
+            return false;
+        try {
+            return hedgeMTIs.contains(m.getMTI());
+        } catch (ISOException e) {
+            return false;
+        }
+    }
+
+    private boolean isRouted () {
+        return strategyHandler != null || strategy == SPLIT_BY_DIVISOR || strategy == ROUND_ROBIN_WITH_OVERRIDE;
+    }
+
+    /**
+     * @return the {@code hedge-percentile} response time, or {@code hedge-delay}
+     *         until enough responses have been observed
+     */
+    long getHedgeDelay() {
+        return latencies != null && latencies.getTotalCount() >= HEDGE_MIN_SAMPLES ?
+          Math.max(latencies.getValueAtPercentile(hedgePercentile), 1L) : hedgeDelay;
+    }
+
+    /**
+     * Sends {@code m} through {@code primary} and, if it hasn't been answered after
+     * {@link #getHedgeDelay()}, a copy through another usable MUX. Every attempt
+     * gets whatever is left until {@code maxWait}.
+     *
+     * @return future completed with the first response, or {@code null} once all attempts expired
+     */
+    private CompletableFuture<ISOMsg> hedgedRequest (ISOMsg m, MUX primary, long maxWait) {
+        CompletableFuture<ISOMsg> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        ISOMsg copy = (ISOMsg) m.clone(); // before the primary channel gets to it
+        attempt(primary, m, maxWait, result, outstanding);
+        long delay = getHedgeDelay();
+        if (maxWait - System.currentTimeMillis() > delay) {
+            ScheduledFuture<?> hedge = getScheduledThreadPoolExecutor().schedule(() -> {
+                MUX secondary = result.isDone() ? null : secondaryMUX(primary);
+                if (secondary != null) {
+                    outstanding.incrementAndGet();
+                    attempt(secondary, copy, maxWait, result, outstanding);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+            result.whenComplete((resp, ex) -> hedge.cancel(false));
+        }
+        return result;
+    }
+
+    private void attempt (MUX mx, ISOMsg m, long maxWait, CompletableFuture<ISOMsg> result, AtomicInteger outstanding) {
+        long start = System.currentTimeMillis();
+        requestAsync(mx, m, Math.max(maxWait - start, 0L)).whenComplete((resp, ex) -> {
+            if (resp != null) {
+                latencies.recordValue(Math.min(System.currentTimeMillis() - start, MAX_LATENCY));
+                result.complete(resp);
+            } else if (outstanding.decrementAndGet() == 0) {
+                if (ex != null)
+                    result.completeExceptionally(ex);
+                else
+                    result.complete(null);
+            }
+        });
+    }
+
+    /**
+     * @return a usable (and not ejected) MUX other than {@code primary}, or {@code null}
+     */
+    private MUX secondaryMUX (MUX primary) {
+        long now = System.nanoTime();
+        int offset = msgno.incrementAndGet();
+        for (int i=0; i<mux.length; i++) {
+            int j = Math.floorMod(offset + i, mux.length);
+            if (mux[j] != primary && isUsable(mux[j]) && (members == null || members[j].weight(now) > 0.0))
+                return mux[j];
+        }
+        return null;
+    }
+
+    private ISOMsg await (CompletableFuture<ISOMsg> f, long timeout) throws ISOException {
+        try {
+            return f.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ISOException ie)
+                throw ie;
+            throw new ISOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
     public void send (ISOMsg m) throws ISOException, IOException {
         long maxWait = System.currentTimeMillis() + 1000L; // reasonable default
         MUX mux = getMUX(m,maxWait);
@@ -213,6 +461,63 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
         return null;
     }
 
+    /**
+     * Returns the usable MUX with the lowest load score, waiting up to {@code maxWait}.
+     * Ejected MUXes are skipped (and re-admitted ones only get a share of the traffic)
+     * unless no other MUX is usable.
+     *
+     * @param maxWait wall-clock deadline in milliseconds since epoch
+     * @param latencyWeighted whether to weight outstanding requests by EWMA latency
+     * @return a usable MUX, or {@code null} if none became available before the deadline
+     */
+    protected MUX leastLoadedMUX (long maxWait, boolean latencyWeighted) {
+        do {
+            MUX mx = leastLoadedMUX(latencyWeighted, true);
+            if (mx == null)
+                mx = leastLoadedMUX(latencyWeighted, false);
+            if (mx != null)
+                return mx;
+            ISOUtil.sleep (1000);
+        } while (System.currentTimeMillis() < maxWait);
+        return null;
+    }
+
+    private MUX leastLoadedMUX (boolean latencyWeighted, boolean honorEjection) {
+        long now = System.nanoTime();
+        int offset = msgno.incrementAndGet(); // rotates ties
+        MUX best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i=0; i<mux.length; i++) {
+            int j = Math.floorMod(offset + i, mux.length);
+            if (!isUsable(mux[j]))
+                continue;
+            Member mb = members[j];
+            if (honorEjection) {
+                double w = mb.weight(now);
+                if (w <= 0.0 || w < 1.0 && ThreadLocalRandom.current().nextDouble() >= w)
+                    continue;
+            }
+            double score = mux[j] instanceof QMUX qmux ?
+              qmux.getRXPending() + qmux.getTXPending() : mb.inflight.get();
+            if (latencyWeighted)
+                score = (score + 1) * mb.latency();
+            if (score < bestScore) {
+                best = mux[j];
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private Member member (MUX mx) {
+        if (members != null) {
+            for (int i=0; i<mux.length; i++)
+                if (mux[i] == mx)
+                    return members[i];
+        }
+        return null;
+    }
+
     private boolean overrideMTI(String mtiReq) {
         if(overrideMTIs != null){
             for (String mti : overrideMTIs) {
@@ -270,6 +575,8 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
             case "round-robin": return ROUND_ROBIN;
             case "round-robin-with-override": return ROUND_ROBIN_WITH_OVERRIDE;
             case "split-by-divisor": return SPLIT_BY_DIVISOR;
+            case "least-pending": return LEAST_PENDING;
+            case "least-latency": return LEAST_LATENCY;
             default: return PRIMARY_SECONDARY;
         }
     }
@@ -288,6 +595,8 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
             case ROUND_ROBIN: return nextAvailableMUX(msgno.incrementAndGet(), maxWait);
             case ROUND_ROBIN_WITH_OVERRIDE: return nextAvailableWithOverrideMUX(m, maxWait);
             case SPLIT_BY_DIVISOR: return splitByDivisorMUX(m, maxWait);
+            case LEAST_PENDING: return leastLoadedMUX(maxWait, false);
+            case LEAST_LATENCY: return leastLoadedMUX(maxWait, true);
             default: return firstAvailableMUX(maxWait);
         }
     }
@@ -302,6 +611,18 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
         return strategy;
     }
 
+    @Override
+    public String[] getEjectedMuxNames() {
+        List<String> l = new ArrayList<>();
+        if (members != null) {
+            long now = System.nanoTime();
+            for (Member mb : members)
+                if (mb.weight(now) < 1.0)
+                    l.add(mb.name);
+        }
+        return l.toArray(new String[0]);
+    }
+
     /**
      * Returns the configured custom strategy handler, if any.
      *
@@ -343,6 +664,78 @@ public class MUXPool extends QBeanSupport implements MUX, MUXPoolMBean {
         return (s != null && s.length() > 0) ? ISOUtil.toStringArray(s) : null;
     }
 
+    /**
+     * Load statistics kept for each MUX when a load-aware strategy is used.
+     */
+    final class Member {
+        final String name;
+        final AtomicInteger inflight = new AtomicInteger();
+        private double latency = -1.0; // EWMA, in millis
+        private double timeoutRatio;
+        private int samples;
+        private long ejectedUntil;
+        private boolean ejected;
+
+        Member (String name) {
+            this.name = name;
+        }
+
+        long begin() {
+            inflight.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        /**
+         * Records the outcome of a request.
+         *
+         * @param start value returned by {@link #begin()}
+         * @param expired true if no response was received
+         */
+        void end (long start, boolean expired) {
+            inflight.decrementAndGet();
+            long now = System.nanoTime();
+            double elapsed = (now - start) / 1_000_000.0;
+            synchronized (this) {
+                latency = latency < 0.0 ? elapsed : latency + ewmaAlpha * (elapsed - latency);
+                if (ejected && now < ejectedUntil)
+                    return; // stragglers sent before the ejection
+                timeoutRatio += ewmaAlpha * ((expired ? 1.0 : 0.0) - timeoutRatio);
+                if (++samples >= ejectMinRequests && timeoutRatio > ejectTimeoutRatio) {
+                    ejected = true;
+                    ejectedUntil = now + ejectPeriod;
+                    samples = 0;
+                    timeoutRatio = 0.0;
+                    if (log != null)
+                        log.warn(String.format("MUXPool %s: ejecting %s, timeout ratio above %.2f",
+                          getName(), name, ejectTimeoutRatio));
+                }
+            }
+        }
+
+        /**
+         * @param now current {@link System#nanoTime()}
+         * @return 1.0 when admitted, 0.0 while ejected, and a growing share
+         *         of the traffic while being re-admitted
+         */
+        synchronized double weight (long now) {
+            if (!ejected)
+                return 1.0;
+            if (now < ejectedUntil)
+                return 0.0;
+            double w = (double) (now - ejectedUntil) / Math.max(readmitPeriod, 1L);
+            if (w >= 1.0) {
+                ejected = false;
+                if (log != null)
+                    log.info(String.format("MUXPool %s: %s re-admitted", getName(), name));
+                return 1.0;
+            }
+            return Math.max(w, 0.01);
+        }
+
+        synchronized double latency() {
+            return Math.max(latency, 0.0);
+        }
+    }
 
     /**
      * A class implementing this interface can be added to a {@link MUXPool} to override the classical built-in strategies.<br>
@@ -39,4 +39,12 @@ public interface MUXPoolMBean extends org.jpos.q2.QBeanSupportMBean {
      */
     int getStrategy();
 
+    /**
+     * Returns the MUXes currently ejected (or being re-admitted) by a load-aware strategy.
+     *
+     * @return MUX names, empty if none
+     * @since 3.0.2
+     */
+    String[] getEjectedMuxNames();
+
 }
\ No newline at end of file
@@ -35,9 +35,18 @@ import org.jpos.util.Metrics;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A Q2-managed multiplexer that routes ISO messages between channels and listeners.
@@ -50,6 +59,7 @@ public class QMUX
 {
     static final String nomap = "0123456789";
     static final String DEFAULT_KEY = "41, 11";
+    static final long EXPIRATION_RESOLUTION = 10L;
     /** Local space backing the in/out queues. */
     protected LocalSpace sp;
     /** Queue names: inbound responses, outbound requests, and unhandled messages. */
@@ -60,7 +70,7 @@ public class QMUX
     protected String[] key;
     /** Comma-separated response codes to ignore (treat as if no response was received). */
     protected String ignorerc;
-    /** Three-character MTI mapping table used by {@link #mapMTI(String)}. */
+    /** Three-character MTI mapping table applied to the MTI part of the correlation key. */
     protected String[] mtiMapping;
     private boolean headerIsKey;
     private boolean returnRejects;
@@ -72,6 +82,14 @@ public class QMUX
     private volatile int rx, tx, rxExpired, txExpired, rxPending, rxUnhandled, rxForwarded;
     private volatile long lastTxn = 0L;
     private boolean listenerRegistered;
+    private boolean direct;
+    private final Map<Object,Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger fallbacks = new AtomicInteger();
+    private volatile QMUXKey keys;
+    private boolean hashKeys;
+    private Executor asyncExecutor;
+    private final TimingWheel<Pending> expirations = new TimingWheel<>(EXPIRATION_RESOLUTION);
+    private ScheduledFuture<?> expirer;
 
     private Gauge statusGauge;
     private Gauge rxPendingGauge;
@@ -97,6 +115,7 @@ public class QMUX
         Element e = getPersist ();
         sp        = grabSpace (e.getChild ("space"));
         isp       = cfg.getBoolean("reuse-space", false) ? sp : new TSpace();
+        direct    = "direct".equalsIgnoreCase(cfg.get("correlation", "space"));
         in        = Environment.get(e.getChildTextTrim ("in"));
         out       = Environment.get(e.getChildTextTrim ("out"));
 
@@ -122,6 +141,14 @@ public class QMUX
             mtiMapping = new String[] { nomap, nomap, "0022446689" };
         addListeners ();
         unhandled = Environment.get(e.getChildTextTrim ("unhandled"));
+        keys = new QMUXKey (mtiMapping, headerIsKey, key, mtiKey);
+        try {
+            hashKeys = getClass().getMethod("getKey", ISOMsg.class).getDeclaringClass() == QMUX.class;
+        } catch (NoSuchMethodException ex) {
+            throw new ConfigurationException (ex);
+        }
+        if (asyncExecutor == null && !"direct".equalsIgnoreCase(cfg.get("async-executor", "virtual")))
+            asyncExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mux-" + getName() + "-", 0).factory());
         initMeters();
         NameRegistrar.register ("mux."+getName (), this);
     }
@@ -136,14 +163,25 @@ public class QMUX
                     sp.out(in, o);
             }
         }
+        if (direct && expirer == null) {
+            expirer = getScheduledThreadPoolExecutor().scheduleWithFixedDelay(
+              this::expirePending, EXPIRATION_RESOLUTION, EXPIRATION_RESOLUTION, TimeUnit.MILLISECONDS
+            );
+        }
     }
     public void stopService () {
         listenerRegistered = false;
         sp.removeListener (in, this);
+        if (expirer != null) {
+            expirer.cancel(false);
+            expirer = null;
+        }
         removeMeters();
     }
     public void destroyService () {
         NameRegistrar.unregister ("mux."+getName ());
+        if (asyncExecutor instanceof ExecutorService es)
+            es.shutdown();
     }
 
     /**
@@ -166,6 +204,8 @@ public class QMUX
      * @return response or null
      */
     public ISOMsg request (ISOMsg m, long timeout) throws ISOException {
+        if (direct)
+            return requestDirect (m, timeout);
         String key = getKey (m);
         String req = key + ".req";
         synchronized (isp) {
@@ -218,6 +258,10 @@ public class QMUX
     public void request (ISOMsg m, long timeout, ISOResponseListener rl, Object handBack)
       throws ISOException
     {
+        if (direct) {
+            requestDirect (m, timeout, rl, handBack);
+            return;
+        }
         String key = getKey (m);
         String req = key + ".req";
         synchronized (isp) {
@@ -238,6 +282,186 @@ public class QMUX
         synchronized (this) { tx++; rxPending++; }
     }
 
+    /**
+     * Sends {@code m} and returns a future for its response.
+     *
+     * <p>The request is tracked like {@link #request(ISOMsg, long, ISOResponseListener, Object)}
+     * (no thread waits for it and expirations are handled by the MUX timer), and the
+     * future is completed on the executor selected by the {@code async-executor}
+     * property: {@code virtual} (default) or {@code direct}, which completes on the
+     * thread that received the response or detected the expiration.</p>
+     *
+     * @param m message to send
+     * @param timeout time to wait for the response; when zero or negative the
+     *                message is just sent and the future completes with {@code null}
+     * @return future completed with the response, or {@code null} on expiration
+     * @since 3.0.2
+     */
+    @Override
+    public CompletableFuture<ISOMsg> requestAsync (ISOMsg m, Duration timeout) {
+        if (timeout.toMillis() <= 0) {
+            try {
+                send (m);
+                return CompletableFuture.completedFuture (null);
+            } catch (ISOException | IOException e) {
+                return CompletableFuture.failedFuture (e);
+            }
+        }
+        CompletableFuture<ISOMsg> f = new CompletableFuture<>();
+        Executor executor = asyncExecutor;
+        try {
+            request (m, timeout.toMillis(), executor == null ?
+              (resp, handBack) -> f.complete (resp) :
+              (resp, handBack) -> executor.execute (() -> f.complete (resp)),
+              null
+            );
+        } catch (ISOException e) {
+            f.completeExceptionally (e);
+        }
+        return f;
+    }
+
+    /**
+     * Sets the executor used to complete {@link #requestAsync(ISOMsg, Duration)} futures.
+     *
+     * @param executor completion executor, or {@code null} to complete on the
+     *                 thread that receives the response
+     * @since 3.0.2
+     */
+    public void setAsyncExecutor (Executor executor) {
+        this.asyncExecutor = executor;
+    }
+
+    private ISOMsg requestDirect (ISOMsg m, long timeout) throws ISOException {
+        Pending p = addPending (m, null);
+        m.setDirection(0);
+        Chronometer c = new Chronometer();
+        if (timeout > 0)
+            sp.out (out, m, timeout);
+        else
+            sp.out (out, m);
+
+        txCounter.increment();
+        ISOMsg resp;
+        try {
+            synchronized (this) { tx++; rxPending++; }
+            resp = p.await (timeout);
+            if (shouldIgnore (resp))
+                resp = null; // a later response would find no pending entry
+            synchronized (this) {
+                if (resp != null) {
+                    rx++;
+                    lastTxn = System.currentTimeMillis();
+                } else {
+                    rxExpired++;
+                    if (m.getDirection() != ISOMsg.OUTGOING)
+                        txExpired++;
+                }
+            }
+        } finally {
+            synchronized (this) { rxPending--; }
+        }
+        long elapsed = c.elapsed();
+        metrics.record("all", elapsed);
+        if (resp != null) {
+            responseTimer.record(elapsed, TimeUnit.MILLISECONDS);
+            metrics.record("ok", elapsed);
+        }
+        return resp;
+    }
+
+    private void requestDirect (ISOMsg m, long timeout, ISOResponseListener rl, Object handBack)
+      throws ISOException
+    {
+        Pending p = addPending (m, new AsyncRequest (rl, handBack));
+        m.setDirection(0);
+        if (timeout > 0)
+            p.timer = expirations.schedule (p, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+        synchronized (this) { tx++; rxPending++; }
+        if (timeout > 0) {
+            sp.out (out, m, timeout);
+        } else {
+            sp.out (out, m);
+            if (release (p))
+                p.async.run(); // nothing to wait for, expire it right away
+        }
+    }
+
+    private void expirePending() {
+        for (Pending p : expirations.expire (System.nanoTime())) {
+            if (release (p))
+                p.async.run();
+        }
+    }
+
+    /**
+     * Registers a pending request under the 64-bit hash of its key, falling back to the
+     * {@link #getKey(ISOMsg)} string when the hash collides with a different key (or when
+     * a subclass overrides {@code getKey}).
+     */
+    private Pending addPending (ISOMsg m, AsyncRequest ar) throws ISOException {
+        if (hashKeys) {
+            char[] k;
+            Long h;
+            QMUXKey.Buffer b = keyBuffer (m);
+            try {
+                k = b.toCharArray(); // kept with the pending request, verified on match
+                h = b.hash();
+            } finally {
+                keys.release (b);
+            }
+            if (fallbacks.get() == 0 || !pending.containsKey (getKey (m))) {
+                Pending p = new Pending (h, k, ar);
+                Pending q = pending.putIfAbsent (h, p);
+                if (q == null)
+                    return p;
+                if (Arrays.equals (q.chars, k))
+                    throw new ISOException ("Duplicate key '" + getKey (m) + ".req' detected");
+            }
+            String key = getKey (m);
+            Pending p = new Pending (key, null, ar);
+            fallbacks.incrementAndGet();
+            if (pending.putIfAbsent (key, p) != null) {
+                fallbacks.decrementAndGet();
+                throw new ISOException ("Duplicate key '" + key + ".req' detected");
+            }
+            return p;
+        }
+        String key = getKey (m);
+        Pending p = new Pending (key, null, ar);
+        if (pending.putIfAbsent (key, p) != null)
+            throw new ISOException ("Duplicate key '" + key + ".req' detected");
+        return p;
+    }
+
+    private Pending removePending (ISOMsg m) throws ISOException {
+        if (hashKeys) {
+            QMUXKey.Buffer b = keyBuffer (m);
+            try {
+                Long h = b.hash();
+                Pending p = pending.get (h);
+                if (p != null && b.contentEquals (p.chars) && pending.remove (h, p))
+                    return p;
+            } finally {
+                keys.release (b);
+            }
+            if (fallbacks.get() == 0)
+                return null;
+        }
+        Pending p = pending.remove (getKey (m));
+        if (p != null && hashKeys)
+            fallbacks.decrementAndGet();
+        return p;
+    }
+
+    private boolean release (Pending p) {
+        if (!pending.remove (p.id, p))
+            return false;
+        if (hashKeys && p.chars == null)
+            fallbacks.decrementAndGet();
+        return true;
+    }
+
     /**
      * Returns whether {@code msg} should be considered for response-matching by {@link #notify(Object, Object)}.
      *
@@ -266,6 +490,16 @@ public class QMUX
             rxCounter.increment();
             try {
                 if (isNotifyEligible(m)) {
+                    if (direct) {
+                        Pending p = removePending (m);
+                        if (p != null) {
+                            p.responseReceived (m);
+                            rxMatchCounter.increment();
+                            return;
+                        }
+                        processUnhandled (m);
+                        return;
+                    }
                     String key = getKey (m);
                     String req = key + ".req";
                     Object r = isp.inp (req);
@@ -300,44 +534,31 @@ public class QMUX
     public String getKey (ISOMsg m) throws ISOException {
         if (out == null)
             throw new NullPointerException ("Misconfigured QMUX. Please verify out queue is not null.");
-        StringBuilder sb = new StringBuilder (out);
-        sb.append ('.');
-        sb.append (mapMTI(m.getMTI()));
-        if (headerIsKey && m.getHeader()!=null) {
-            sb.append ('.');
-            sb.append(ISOUtil.hexString(m.getHeader()));
-            sb.append ('.');
-        }
-        boolean hasFields = false;
-        String mti = m.getMTI();
-        String mtiPrefix = mti.substring(0,2);
-        String[] k = null;
-        String pcode = m.hasField(3) ? sanitizePcode(m.getString(3)) : null;
-        if (pcode != null) {
-            k = mtiKey.get(buildMtiKey(mtiPrefix, pcode));
-        }
-        if (k == null) {
-            k = mtiKey.getOrDefault(mtiPrefix, key);
-        }
-        for (String f : k) {
-            String v = m.getString(f);
-            if (v != null) {
-                if ("11".equals(f)) {
-                    String vt = v.trim();
-                    int l = m.getMTI().charAt(0) == '2' ? 12 : 6;
-                    if (vt.length() < l)
-                        v = ISOUtil.zeropad(vt, l);
-                }
-                if ("41".equals(f)) {
-                    v = ISOUtil.zeropad(v.trim(), 16); // BIC ANSI to ISO hack
-                }
-                hasFields = true;
-                sb.append(v);
-            }
+        QMUXKey.Buffer b = keyBuffer (m);
+        try {
+            return b.toString (out);
+        } finally {
+            keys.release (b);
         }
-        if (!hasFields)
-            throw new ISOException ("Key fields not found - not sending " + sb.toString());
-        return sb.toString();
+    }
+
+    /**
+     * Renders the key of {@code m} into a pooled buffer, to be given back with
+     * {@code keys.release}.
+     */
+    private QMUXKey.Buffer keyBuffer (ISOMsg m) throws ISOException {
+        QMUXKey k = keys;
+        if (k == null)
+            keys = k = new QMUXKey (mtiMapping, headerIsKey, key, mtiKey);
+        QMUXKey.Buffer b = k.acquire();
+        try {
+            if (!k.write (m, b))
+                throw new ISOException ("Key fields not found - not sending " + b.toString (out));
+        } catch (ISOException | RuntimeException e) {
+            k.release (b);
+            throw e;
+        }
+        return b;
     }
 
     private String sanitizePcode(String pcode) {
@@ -356,21 +577,6 @@ public class QMUX
         return metrics;
     }
 
-    private String mapMTI (String mti) throws ISOException {
-        StringBuilder sb = new StringBuilder();
-        if (mti != null) {
-            if (mti.length() < 4)
-                mti = ISOUtil.zeropad(mti, 4); // #jPOS-55
-            if (mti.length() == 4) {
-                for (int i=0; i<mtiMapping.length; i++) {
-                    int c = mti.charAt (i) - '0';
-                    if (c >= 0 && c < 10)
-                        sb.append (mtiMapping[i].charAt(c));
-                }
-            }
-        }
-        return sb.toString();
-    }
     public synchronized void setInQueue (String in) {
         this.in = in;
         getPersist().getChild("in").setText (in);
@@ -672,6 +878,50 @@ public class QMUX
         }
     }
 
+    /**
+     * A request waiting for its response when {@code correlation} is {@code direct}.
+     * Whoever removes it from the pending table (a response or its expiration) owns it.
+     */
+    private final class Pending {
+        final Object id;
+        final char[] chars;
+        final AsyncRequest async;
+        final CompletableFuture<ISOMsg> response;
+        volatile TimingWheel.Entry<Pending> timer;
+
+        Pending (Object id, char[] chars, AsyncRequest async) {
+            this.id = id;
+            this.chars = chars;
+            this.async = async;
+            this.response = async == null ? new CompletableFuture<>() : null;
+        }
+
+        void responseReceived (ISOMsg m) {
+            if (async != null) {
+                TimingWheel.Entry<Pending> t = timer;
+                if (t != null)
+                    expirations.cancel (t);
+                async.responseReceived (m);
+            } else {
+                response.complete (m);
+            }
+        }
+
+        ISOMsg await (long timeout) {
+            try {
+                return timeout > 0 ? response.get (timeout, TimeUnit.MILLISECONDS) : response.getNow (null);
+            } catch (TimeoutException e) {
+                // fall through
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                return null;
+            }
+            // lost the race against notify: the response is being delivered
+            return release (this) ? null : response.join();
+        }
+    }
+
     private void initMeters() {
         var tags = io.micrometer.core.instrument.Tags.of("name", getName());
         var registry = getServer().getMeterRegistry();
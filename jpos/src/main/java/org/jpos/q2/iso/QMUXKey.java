@@ -0,0 +1,302 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.q2.iso;
+
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOFieldPath;
+import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Compiled form of a {@link QMUX} key configuration.
+ *
+ * <p>The {@code <key>} elements and MTI mapping are parsed once into field paths and
+ * lookup tables. {@link #write(ISOMsg, Buffer)} then renders the correlation key of a
+ * message into a pooled {@link Buffer} without building intermediate strings;
+ * the buffer can produce the {@link QMUX#getKey(ISOMsg)} string, a 64-bit hash, or be
+ * compared against a previously captured key.</p>
+ *
+ * <p>Buffers are pooled rather than kept per thread: requests usually run on
+ * short lived virtual threads, where a {@code ThreadLocal} buffer would be
+ * allocated (and registered in the thread's map) on every request.</p>
+ */
+final class QMUXKey {
+    private static final int PLAIN = 0;
+    private static final int STAN = 1;
+    private static final int TID = 2;
+
+    private final char[][] mtiMapping;
+    private final boolean headerIsKey;
+    private final Field[] defaults;
+    private final Map<String,Field[]> byMti = new HashMap<>();
+    private final Field[][] byPrefix = new Field[100][];
+    private final boolean[] pcodeAware = new boolean[100];
+    private static final int POOL_SIZE = 64; // power of two
+    private static final int POOL_PROBES = 4;
+    private final AtomicReferenceArray<Buffer> pool = new AtomicReferenceArray<>(POOL_SIZE);
+
+    /**
+     * @param mtiMapping three ten-character MTI mapping strings
+     * @param headerIsKey whether the message header is part of the key
+     * @param key default key fields
+     * @param mtiKey per-MTI prefix (and optional {@code :pcode}) key fields
+     */
+    QMUXKey (String[] mtiMapping, boolean headerIsKey, String[] key, Map<String,String[]> mtiKey) {
+        this.mtiMapping = new char[mtiMapping.length][];
+        for (int i=0; i<mtiMapping.length; i++)
+            this.mtiMapping[i] = mtiMapping[i].toCharArray();
+        this.headerIsKey = headerIsKey;
+        defaults = compile(key);
+        Arrays.fill(byPrefix, defaults);
+        for (Map.Entry<String,String[]> e : mtiKey.entrySet()) {
+            String k = e.getKey();
+            Field[] fields = compile(e.getValue());
+            byMti.put(k, fields);
+            int prefix = prefix(k);
+            if (prefix >= 0) {
+                if (k.length() == 2)
+                    byPrefix[prefix] = fields;
+                else
+                    pcodeAware[prefix] = true;
+            }
+        }
+    }
+
+    /**
+     * Takes a buffer from the pool, or creates one if none is available nearby.
+     *
+     * @return a key buffer, to be given back with {@link #release(Buffer)}
+     */
+    Buffer acquire() {
+        int start = slot();
+        for (int i=0; i<POOL_PROBES; i++) {
+            Buffer b = pool.getAndSet((start + i) & (POOL_SIZE - 1), null);
+            if (b != null)
+                return b;
+        }
+        return new Buffer();
+    }
+
+    /**
+     * Returns {@code b} to the pool (it is dropped if the nearby slots are taken).
+     *
+     * @param b buffer obtained from {@link #acquire()}
+     */
+    void release (Buffer b) {
+        int start = slot();
+        for (int i=0; i<POOL_PROBES; i++) {
+            if (pool.compareAndSet((start + i) & (POOL_SIZE - 1), null, b))
+                return;
+        }
+    }
+
+    private static int slot() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) * POOL_PROBES;
+    }
+
+    /**
+     * Renders the correlation key of {@code m} (without the queue prefix) into {@code b}.
+     *
+     * @param m message
+     * @param b destination buffer, reset before writing
+     * @return {@code false} if none of the key fields are present in {@code m}
+     * @throws ISOException if {@code m} has no MTI or a terminal id is too long
+     */
+    boolean write (ISOMsg m, Buffer b) throws ISOException {
+        String mti = m.getMTI();
+        b.len = 0;
+        mapMTI(mti, b);
+        if (headerIsKey && m.getHeader() != null) {
+            b.append('.');
+            for (byte h : m.getHeader())
+                b.append(ISOUtil.hexStrings[h & 0xFF]);
+            b.append('.');
+        }
+        boolean hasFields = false;
+        for (Field f : select(m, mti)) {
+            String v = m.getString(f.path);
+            if (v != null) {
+                hasFields = true;
+                switch (f.type) {
+                    case STAN -> b.appendStan(v, mti.charAt(0) == '2' ? 12 : 6);
+                    case TID -> b.appendPadded(v, 16);
+                    default -> b.append(v);
+                }
+            }
+        }
+        return hasFields;
+    }
+
+    private Field[] select (ISOMsg m, String mti) {
+        int prefix = mti.length() >= 2 ? prefix(mti) : -1;
+        if (prefix >= 0 && !pcodeAware[prefix])
+            return byPrefix[prefix];
+        String mtiPrefix = mti.substring(0,2);
+        Field[] k = null;
+        String pcode = m.hasField(3) ? m.getString(3) : null;
+        if (pcode != null && !(pcode = pcode.trim()).isEmpty())
+            k = byMti.get(mtiPrefix + ':' + pcode);
+        if (k == null)
+            k = byMti.getOrDefault(mtiPrefix, defaults);
+        return k;
+    }
+
+    private void mapMTI (String mti, Buffer b) throws ISOException {
+        if (mti.length() < 4)
+            mti = ISOUtil.zeropad(mti, 4); // #jPOS-55
+        if (mti.length() == 4) {
+            for (int i=0; i<mtiMapping.length; i++) {
+                int c = mti.charAt(i) - '0';
+                if (c >= 0 && c < 10)
+                    b.append(mtiMapping[i][c]);
+            }
+        }
+    }
+
+    private static int prefix (String s) {
+        char c0 = s.charAt(0), c1 = s.charAt(1);
+        return c0 >= '0' && c0 <= '9' && c1 >= '0' && c1 <= '9' ? (c0 - '0') * 10 + (c1 - '0') : -1;
+    }
+
+    private static Field[] compile (String[] fields) {
+        if (fields == null)
+            return new Field[0];
+        Field[] compiled = new Field[fields.length];
+        for (int i=0; i<fields.length; i++) {
+            String f = fields[i];
+            compiled[i] = new Field(ISOFieldPath.of(f), "11".equals(f) ? STAN : "41".equals(f) ? TID : PLAIN);
+        }
+        return compiled;
+    }
+
+    private record Field (ISOFieldPath path, int type) { }
+
+    /**
+     * Growable character buffer holding a rendered key.
+     */
+    static final class Buffer {
+        private char[] buf = new char[64];
+        private int len;
+
+        /**
+         * @return FNV-1a 64-bit hash of the current key
+         */
+        long hash() {
+            long h = 0xcbf29ce484222325L;
+            for (int i=0; i<len; i++) {
+                h ^= buf[i];
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+
+        /**
+         * @return a copy of the current key, suitable for {@link #contentEquals(char[])}
+         */
+        char[] toCharArray() {
+            return Arrays.copyOf(buf, len);
+        }
+
+        /**
+         * @param key key previously captured with {@link #toCharArray()}
+         * @return true if the current key is identical to {@code key}
+         */
+        boolean contentEquals (char[] key) {
+            return Arrays.equals(buf, 0, len, key, 0, key.length);
+        }
+
+        /**
+         * @param prefix queue name
+         * @return {@code prefix + '.' + key}
+         */
+        String toString (String prefix) {
+            return new StringBuilder(prefix.length() + 1 + len)
+              .append(prefix).append('.').append(buf, 0, len).toString();
+        }
+
+        @Override
+        public String toString() {
+            return new String(buf, 0, len);
+        }
+
+        private void append (char c) {
+            ensure(1);
+            buf[len++] = c;
+        }
+
+        private void append (String s) {
+            append(s, 0, s.length());
+        }
+
+        private void append (String s, int from, int to) {
+            ensure(to - from);
+            s.getChars(from, to, buf, len);
+            len += to - from;
+        }
+
+        private void appendStan (String v, int width) {
+            int from = start(v), to = Math.max(from, end(v));
+            if (to - from < width) {
+                zeros(width - (to - from));
+                append(v, from, to);
+            } else {
+                append(v);
+            }
+        }
+
+        private void appendPadded (String v, int width) throws ISOException {
+            int from = start(v), to = Math.max(from, end(v));
+            if (to - from > width)
+                throw new ISOException("invalid len " + (to - from) + "/" + width);
+            zeros(width - (to - from));
+            append(v, from, to);
+        }
+
+        private void zeros (int n) {
+            ensure(n);
+            Arrays.fill(buf, len, len + n, '0');
+            len += n;
+        }
+
+        private void ensure (int n) {
+            if (len + n > buf.length)
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+        }
+
+        private static int start (String s) {
+            int i = 0;
+            while (i < s.length() && s.charAt(i) <= ' ')
+                i++;
+            return i;
+        }
+
+        private static int end (String s) {
+            int i = s.length();
+            while (i > 0 && s.charAt(i-1) <= ' ')
+                i--;
+            return i;
+        }
+    }
+}
@@ -29,6 +29,8 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.*;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * RMI QMUX Proxy
@@ -74,6 +76,18 @@ public class QMUXProxy implements RemoteQMUX, Configurable {
         qmux.request(m, timeout, rl, handBack);
         
     }
+    /**
+     * Local (non-RMI) access to {@link QMUX#requestAsync(ISOMsg, Duration)};
+     * a {@link CompletableFuture} can't be handed back over RMI.
+     *
+     * @param m message to send
+     * @param timeout time to wait for the response
+     * @return future response, {@code null} on expiration
+     * @since 3.0.2
+     */
+    public CompletableFuture<ISOMsg> requestAsync(ISOMsg m, Duration timeout) {
+        return qmux.requestAsync(m, timeout);
+    }
     public void setConfiguration(Configuration cfg)
             throws ConfigurationException {
         qmux.setConfiguration(cfg);
@@ -115,7 +115,9 @@ public class QServer
                   "does not implement ServerChannel");
         }
 
-        server = new ISOServer (port, (ServerChannel) channel, maxSessions);
+        server = cfg != null && cfg.getBoolean ("nio") ?
+          new NioISOServer (port, (ServerChannel) channel, maxSessions) :
+          new ISOServer (port, (ServerChannel) channel, maxSessions);
         server.setLogger (log.getLogger(), getRealm());
         server.setName (getName ());
         if (socketFactoryString != null) {
@@ -127,6 +129,8 @@ public class QServer
         }
         getFactory().setConfiguration (server, getPersist());
         addServerSocketFactory();
+        if (server instanceof NioISOServer nio)
+            nio.checkSocketFactory();
         addListeners ();// ISORequestListener
         addISOServerConnectionListeners();
         NameRegistrar.register (getName(), this);
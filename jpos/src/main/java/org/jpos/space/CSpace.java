@@ -0,0 +1,810 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.space;
+
+import org.jpos.jfr.SpaceEvent;
+import org.jpos.util.Loggeable;
+import org.jpos.util.TimingWheel;
+
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent transient space.
+ *
+ * <p>Every key owns its own queue, lock and wait conditions, so operations on
+ * different keys never contend and a write only wakes threads waiting on that
+ * key: one {@code in} waiter per entry, plus the {@code rd} and template
+ * waiters that may all observe it.</p>
+ *
+ * <p>Leased entries ({@code out(key, value, timeout)}) are indexed in
+ * {@link TimingWheel}s (striped by key to keep timed writers apart). Readers
+ * skip and discard expired entries as they find them, and a reaper running every
+ * {@link #getResolution() resolution} milliseconds only visits the leases that are
+ * actually due, so there is no periodic walk over the whole key set. Consuming a
+ * leased entry cancels its lease in O(1).</p>
+ *
+ * <p>CSpace is what {@code transient:} (and {@code cspace:}) resolve to in
+ * {@link SpaceFactory}. It has the same semantics as {@link TSpace}.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @since 3.0
+ */
+@SuppressWarnings("unchecked")
+public class CSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
+    private final ConcurrentHashMap<K,Slot> entries = new ConcurrentHashMap<>(256);
+    private final TimingWheel<Lease>[] leases;
+    private final AtomicInteger anyWaiters = new AtomicInteger();
+    private final Object anyMonitor = new Object();
+    private final ScheduledFuture<?> reaper;
+    private volatile CSpace<K,SpaceListener<K,V>> sl;
+
+    private static final long NRD_RESOLUTION = 500L;
+    private static final int MAX_ENTRIES_IN_DUMP = 1000;
+    private static final long ONE_MILLION = 1_000_000L;         // multiplier millis --> nanos
+    private static final int OUT  = 0;
+    private static final int PUSH = 1;
+    private static final int PUT  = 2;
+
+    /** Default constructor, expires leased entries with {@link SpaceFactory#EXPIRY_RESOLUTION} resolution. */
+    public CSpace () {
+        this (SpaceFactory.EXPIRY_RESOLUTION);
+    }
+
+    /**
+     * Creates a CSpace.
+     *
+     * @param resolution how often, in milliseconds, expired entries are removed
+     */
+    public CSpace (long resolution) {
+        super();
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors())
+            stripes <<= 1;
+        leases = new TimingWheel[stripes];
+        for (int i=0; i<stripes; i++)
+            leases[i] = new TimingWheel<>(resolution);
+        reaper = SpaceReaper.schedule(this, resolution);
+    }
+
+    @Override
+    public void out (K key, V value) {
+        write ("out", key, value, 0L, OUT);
+    }
+
+    @Override
+    public void out (K key, V value, long timeout) {
+        write ("out:tim", key, value, timeout, OUT);
+    }
+
+    @Override
+    public void push (K key, V value) {
+        write ("push", key, value, 0L, PUSH);
+    }
+
+    @Override
+    public void push (K key, V value, long timeout) {
+        write ("push:tim", key, value, timeout, PUSH);
+    }
+
+    @Override
+    public void put (K key, V value) {
+        write ("put", key, value, 0L, PUT);
+    }
+
+    @Override
+    public void put (K key, V value, long timeout) {
+        write ("put:tim", key, value, timeout, PUT);
+    }
+
+    @Override
+    public V rdp (Object key) {
+        var jfr = new SpaceEvent("rdp", "" + key);
+        jfr.begin();
+        try {
+            return (V) take (key, false);
+        } finally {
+            jfr.commit();
+        }
+    }
+
+    @Override
+    public V inp (Object key) {
+        var jfr = new SpaceEvent("inp", "" + key);
+        jfr.begin();
+        try {
+            return (V) take (key, true);
+        } finally {
+            jfr.commit();
+        }
+    }
+
+    @Override
+    public V in (Object key) {
+        return (V) await (key, true, false, 0L);
+    }
+
+    @Override
+    public V in (Object key, long timeout) {
+        return (V) await (key, true, true, timeout);
+    }
+
+    @Override
+    public V rd (Object key) {
+        return (V) await (key, false, false, 0L);
+    }
+
+    @Override
+    public V rd (Object key, long timeout) {
+        return (V) await (key, false, true, timeout);
+    }
+
+    @Override
+    public void nrd (Object key) {
+        awaitAbsent (key, false, 0L);
+    }
+
+    @Override
+    public V nrd (Object key, long timeout) {
+        return (V) awaitAbsent (key, true, timeout);
+    }
+
+    @Override
+    public void outAll (K key, Collection<? extends V> values) {
+        if (key == null || values == null || values.contains (null))
+            throw new NullPointerException ("key=" + key + ", values=" + values);
+        if (values.isEmpty())
+            return;
+        var jfr = new SpaceEvent("out:all", "" + key);
+        jfr.begin();
+        for (;;) {
+            Slot slot = entries.computeIfAbsent (key, k -> new Slot());
+            slot.lock.lock();
+            try {
+                if (entries.get (key) != slot)
+                    continue;
+                slot.queue.addAll (values);
+                if (slot.waiters > 0) {
+                    for (int i = Math.min (values.size(), slot.waiters); i > 0; i--)
+                        slot.signalTaker();
+                    if (slot.readers != null)
+                        slot.readers.signalAll();
+                }
+                break;
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        if (anyWaiters.get() > 0) {
+            synchronized (anyMonitor) {
+                anyMonitor.notifyAll();
+            }
+        }
+        if (sl != null) {
+            for (V value : values)
+                notifyListeners (key, value);
+        }
+        jfr.commit();
+    }
+
+    @Override
+    public List<V> inp (Object key, int max) {
+        var jfr = new SpaceEvent("inp:all", "" + key);
+        jfr.begin();
+        List<V> l = new ArrayList<>();
+        Template tmpl = key instanceof Template t ? t : null;
+        Object k = tmpl != null ? tmpl.getKey() : key;
+        Slot slot = k != null && max > 0 ? entries.get (k) : null;
+        if (slot != null) {
+            slot.lock.lock();
+            try {
+                long now = System.nanoTime();
+                Object obj;
+                while (l.size() < max && (obj = fetch (slot, tmpl, true, now)) != null)
+                    l.add ((V) obj);
+                housekeeping ((K) k, slot);
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        jfr.commit();
+        return l;
+    }
+
+    @Override
+    public int drainTo (Object key, Collection<? super V> c, int max, long timeout) {
+        if (max <= 0)
+            return 0;
+        var jfr = new SpaceEvent("drain", "" + key);
+        jfr.begin();
+        List<V> l = new ArrayList<>();
+        await (key, true, true, timeout, l, max);
+        c.addAll (l);
+        jfr.commit();
+        return l.size();
+    }
+
+    @Override
+    public boolean existAny (K[] keys) {
+        for (K key : keys) {
+            if (rdp(key) != null)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean existAny (K[] keys, long timeout) {
+        long to = System.nanoTime() + timeout * ONE_MILLION;
+        boolean interrupted = false;
+        anyWaiters.incrementAndGet();
+        try {
+            synchronized (anyMonitor) {
+                long waitFor;
+                while ((waitFor = to - System.nanoTime()) >= 0) {
+                    if (existAny (keys))
+                        return true;
+                    try {
+                        anyMonitor.wait(Math.max(waitFor / ONE_MILLION, 1L));
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            anyWaiters.decrementAndGet();
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int size (Object key) {
+        var jfr = new SpaceEvent("size", "" + key);
+        jfr.begin();
+        int size = 0;
+        Slot slot = key != null ? entries.get (key) : null;
+        if (slot != null) {
+            slot.lock.lock();
+            try {
+                size = slot.queue.size();
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        jfr.commit();
+        return size;
+    }
+
+    @Override
+    public void addListener (Object key, SpaceListener listener) {
+        getSL().out ((K) key, listener);
+    }
+
+    @Override
+    public void addListener (Object key, SpaceListener listener, long timeout) {
+        getSL().out ((K) key, listener, timeout);
+    }
+
+    @Override
+    public void removeListener (Object key, SpaceListener listener) {
+        CSpace<K,SpaceListener<K,V>> s = sl;
+        if (s != null)
+            s.inp (new ObjectTemplate (key, listener));
+    }
+
+    /**
+     * Notifies every listener registered against {@code key} of an entry change.
+     *
+     * @param key entry key
+     * @param value the value just written
+     */
+    public void notifyListeners (Object key, Object value) {
+        CSpace<K,SpaceListener<K,V>> s = sl;
+        if (s == null)
+            return;
+        var jfr = new SpaceEvent("notify", "" + key);
+        jfr.begin();
+        for (Object o : s.values (key))
+            ((SpaceListener) o).notify (key, value);
+        jfr.commit();
+    }
+
+    /**
+     * Indicates whether the space currently holds any entries.
+     *
+     * @return {@code true} if no entries are stored
+     */
+    public boolean isEmpty() {
+        return getKeySet().isEmpty();
+    }
+
+    @Override
+    public Set<K> getKeySet() {
+        Set<K> keys = new HashSet<>();
+        for (Map.Entry<K,Slot> e : entries.entrySet()) {
+            Slot slot = e.getValue();
+            slot.lock.lock();
+            try {
+                if (!slot.queue.isEmpty())
+                    keys.add (e.getKey());
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns a space-separated list of every key currently stored.
+     *
+     * @return all keys, joined by single-space separators
+     */
+    public String getKeysAsString () {
+        StringBuilder sb = new StringBuilder();
+        for (K key : getKeySet()) {
+            if (sb.length() > 0)
+                sb.append (' ');
+            sb.append (key);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Removes the leased entries that have expired.
+     *
+     * <p>This is what the reaper runs every {@link #getResolution()} milliseconds.
+     * Its cost is proportional to the number of expired leases, not to the number
+     * of entries in the space.</p>
+     */
+    public void gc () {
+        long now = System.nanoTime();
+        for (TimingWheel<Lease> wheel : leases) {
+            List<Lease> expired = wheel.expire (now);
+            if (!expired.isEmpty()) {
+                var jfr = new SpaceEvent("gc", Integer.toString(expired.size()));
+                jfr.begin();
+                for (Lease lease : expired)
+                    expire (lease);
+                jfr.commit();
+            }
+        }
+        CSpace<K,SpaceListener<K,V>> s = sl;
+        if (s != null)
+            s.gc();
+    }
+
+    @Override
+    public void run () {
+        try {
+            gc();
+        } catch (Exception e) {
+            e.printStackTrace(); // this should never happen
+        }
+    }
+
+    /**
+     * @return how often, in milliseconds, expired entries are removed
+     */
+    public long getResolution() {
+        return leases[0].getResolution();
+    }
+
+    /**
+     * Stops the background reaper. The space remains usable, expired
+     * entries are still discarded as they are found.
+     */
+    @Override
+    public void close() {
+        reaper.cancel(false);
+        CSpace<K,SpaceListener<K,V>> s = sl;
+        if (s != null)
+            s.close();
+    }
+
+    @Override
+    public void dump (PrintStream p, String indent) {
+        var jfr = new SpaceEvent("dump", "");
+        jfr.begin();
+        int size = entries.size();
+        if (size > MAX_ENTRIES_IN_DUMP * 100) {
+            p.printf ("%sWARNING - space too big, size=%d%n", indent, size);
+            jfr.commit();
+            return;
+        }
+        Object[] keys = entries.keySet().toArray();
+        int i=0;
+        for (Object key : keys) {
+            p.printf("%s<key count='%d'>%s</key>%n", indent, size(key), key);
+            if (i++ > MAX_ENTRIES_IN_DUMP) {
+                p.printf ("%s...%n", indent);
+                p.printf ("%s...%n", indent);
+                break;
+            }
+        }
+        p.printf("%s key-count: %d%n", indent, keys.length);
+        int count = 0;
+        for (TimingWheel<Lease> wheel : leases)
+            count += wheel.size();
+        p.printf("%s    leases: %d%n", indent, count);
+        jfr.commit();
+    }
+
+    private void write (String op, K key, V value, long timeout, int mode) {
+        if (key == null || value == null)
+            throw new NullPointerException ("key=" + key + ", value=" + value);
+        var jfr = new SpaceEvent(op, "" + key);
+        jfr.begin();
+        Lease lease = null;
+        Object v = value;
+        if (timeout > 0) {
+            v = lease = new Lease (key, value, System.nanoTime() + timeout * ONE_MILLION,
+              leases[key.hashCode() & (leases.length - 1)]);
+        }
+        for (;;) {
+            Slot slot = entries.computeIfAbsent (key, k -> new Slot());
+            slot.lock.lock();
+            try {
+                if (entries.get (key) != slot)
+                    continue;
+                if (lease != null)
+                    lease.timer = lease.wheel.schedule (lease, lease.expires);
+                switch (mode) {
+                    case PUSH -> slot.queue.addFirst (v);
+                    case PUT -> {
+                        for (Object o : slot.queue)
+                            discard (o);
+                        slot.queue.clear();
+                        slot.queue.addLast (v);
+                    }
+                    default -> slot.queue.addLast (v);
+                }
+                if (slot.waiters > 0) {
+                    slot.signalTaker();
+                    if (slot.readers != null)
+                        slot.readers.signalAll();
+                }
+                break;
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        if (anyWaiters.get() > 0) {
+            synchronized (anyMonitor) {
+                anyMonitor.notifyAll();
+            }
+        }
+        if (sl != null)
+            notifyListeners (key, value);
+        jfr.commit();
+    }
+
+    private Object take (Object key, boolean remove) {
+        Template tmpl = key instanceof Template t ? t : null;
+        if (tmpl != null)
+            key = tmpl.getKey();
+        Slot slot = key != null ? entries.get (key) : null;
+        if (slot == null)
+            return null;
+        slot.lock.lock();
+        try {
+            Object obj = fetch (slot, tmpl, remove, System.nanoTime());
+            housekeeping ((K) key, slot);
+            return obj;
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    private Object await (Object key, boolean remove, boolean timed, long timeout) {
+        return await (key, remove, timed, timeout, null, 1);
+    }
+
+    /**
+     * Blocking rd/in. When {@code sink} is not null, the first entry and up to
+     * {@code max - 1} more are taken into it under the same lock.
+     */
+    @SuppressWarnings("unchecked")
+    private Object await (Object key, boolean remove, boolean timed, long timeout, Collection<? super V> sink, int max) {
+        Template tmpl = key instanceof Template t ? t : null;
+        if (tmpl != null)
+            key = tmpl.getKey();
+        long to = System.nanoTime() + timeout * ONE_MILLION;
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                Slot slot = entries.computeIfAbsent ((K) key, k -> new Slot());
+                slot.lock.lock();
+                try {
+                    if (entries.get (key) != slot)
+                        continue;
+                    // in() on a plain key consumes exactly one entry, so a single
+                    // signal per write is enough; rd() and templates may all match.
+                    Condition cond = remove && tmpl == null ? slot.takers() : slot.readers();
+                    for (;;) {
+                        long now = System.nanoTime();
+                        Object obj = fetch (slot, tmpl, remove, now);
+                        if (obj != null || timed && to - now <= 0) {
+                            if (obj != null && sink != null) {
+                                sink.add ((V) obj);
+                                for (int n = 1; n < max && (obj = fetch (slot, tmpl, true, now)) != null; n++)
+                                    sink.add ((V) obj);
+                                obj = sink;
+                            }
+                            if ((obj == null || sink != null) && !slot.queue.isEmpty())
+                                slot.signalTaker(); // hand over a signal we may have consumed
+                            housekeeping ((K) key, slot);
+                            return obj;
+                        }
+                        slot.waiters++;
+                        try {
+                            if (timed)
+                                cond.awaitNanos (to - now);
+                            else
+                                cond.await();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        } finally {
+                            slot.waiters--;
+                        }
+                    }
+                } finally {
+                    slot.lock.unlock();
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private Object awaitAbsent (Object key, boolean timed, long timeout) {
+        Template tmpl = key instanceof Template t ? t : null;
+        if (tmpl != null)
+            key = tmpl.getKey();
+        long to = System.nanoTime() + timeout * ONE_MILLION;
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                Slot slot = key != null ? entries.get (key) : null;
+                if (slot == null)
+                    return null;
+                slot.lock.lock();
+                try {
+                    if (entries.get (key) != slot)
+                        continue;
+                    for (;;) {
+                        long now = System.nanoTime();
+                        Object obj = fetch (slot, tmpl, false, now);
+                        if (obj == null || timed && to - now <= 0) {
+                            housekeeping ((K) key, slot);
+                            return obj;
+                        }
+                        long waitFor = NRD_RESOLUTION * ONE_MILLION;
+                        if (tmpl == null && slot.queue.peekFirst() instanceof Lease l)
+                            waitFor = Math.min (waitFor, l.expires - now + 1L);
+                        if (timed)
+                            waitFor = Math.min (waitFor, to - now);
+                        slot.waiters++;
+                        try {
+                            slot.empty().awaitNanos (waitFor);
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        } finally {
+                            slot.waiters--;
+                        }
+                    }
+                } finally {
+                    slot.lock.unlock();
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the first live entry (or the first one matching {@code tmpl}),
+     * discarding expired entries along the way. Must be called with the slot lock held.
+     */
+    private Object fetch (Slot slot, Template tmpl, boolean remove, long now) {
+        ArrayDeque<Object> q = slot.queue;
+        if (tmpl == null) {
+            Object o;
+            while ((o = q.peekFirst()) != null) {
+                Object value = o;
+                if (o instanceof Lease lease) {
+                    if (lease.isExpired (now)) {
+                        q.pollFirst();
+                        discard (o);
+                        continue;
+                    }
+                    value = lease.value;
+                }
+                if (remove) {
+                    q.pollFirst();
+                    discard (o);
+                }
+                return value;
+            }
+            return null;
+        }
+        Iterator<Object> iter = q.iterator();
+        while (iter.hasNext()) {
+            Object o = iter.next();
+            Object value = o;
+            if (o instanceof Lease lease) {
+                if (lease.isExpired (now)) {
+                    iter.remove();
+                    discard (o);
+                    continue;
+                }
+                value = lease.value;
+            }
+            if (tmpl.equals (value)) {
+                if (remove) {
+                    iter.remove();
+                    discard (o);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wakes {@code nrd} waiters once a key runs empty and drops the slot when
+     * nobody is waiting on it. Must be called with the slot lock held.
+     */
+    private void housekeeping (K key, Slot slot) {
+        if (!slot.queue.isEmpty())
+            return;
+        if (slot.waiters > 0) {
+            if (slot.empty != null)
+                slot.empty.signalAll();
+        }
+        else
+            entries.remove (key, slot);
+    }
+
+    private void expire (Lease lease) {
+        K key = (K) lease.key;
+        Slot slot = entries.get (key);
+        if (slot == null)
+            return;
+        slot.lock.lock();
+        try {
+            if (slot.queue.removeFirstOccurrence (lease))
+                housekeeping (key, slot);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    private List<Object> values (Object key) {
+        Slot slot = key != null ? entries.get (key) : null;
+        if (slot == null)
+            return Collections.emptyList();
+        List<Object> l = new ArrayList<>();
+        long now = System.nanoTime();
+        slot.lock.lock();
+        try {
+            for (Object o : slot.queue) {
+                if (o instanceof Lease lease) {
+                    if (lease.isExpired (now))
+                        continue;
+                    o = lease.value;
+                }
+                l.add (o);
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+        return l;
+    }
+
+    /**
+     * Cancels the lease of an entry that left its queue. Must be called with the slot lock held.
+     */
+    private static void discard (Object o) {
+        if (o instanceof Lease l && l.timer != null) {
+            l.wheel.cancel (l.timer);
+            l.timer = null;
+        }
+    }
+
+    private CSpace<K,SpaceListener<K,V>> getSL() {
+        CSpace<K,SpaceListener<K,V>> s = sl;
+        if (s == null) {
+            synchronized (this) {
+                if ((s = sl) == null)
+                    sl = s = new CSpace<>();
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Per-key queue, lock and wait conditions. Conditions are created the
+     * first time somebody waits, most keys never need them.
+     */
+    private static final class Slot {
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayDeque<Object> queue = new ArrayDeque<>(4);
+        Condition takers;                                // in() waiters
+        Condition readers;                               // rd() and template waiters
+        Condition empty;                                 // nrd() waiters
+        int waiters;                                     // threads parked on any condition
+
+        Condition takers() {
+            if (takers == null)
+                takers = lock.newCondition();
+            return takers;
+        }
+
+        Condition readers() {
+            if (readers == null)
+                readers = lock.newCondition();
+            return readers;
+        }
+
+        Condition empty() {
+            if (empty == null)
+                empty = lock.newCondition();
+            return empty;
+        }
+
+        void signalTaker() {
+            if (takers != null)
+                takers.signal();
+        }
+    }
+
+    /**
+     * A leased entry. It lives both in its key's queue and in a timing wheel;
+     * {@code timer} is guarded by the slot lock.
+     */
+    private static final class Lease {
+        final Object key;
+        final Object value;
+        final long expires;
+        final TimingWheel<Lease> wheel;
+        TimingWheel.Entry<Lease> timer;
+
+        Lease (Object key, Object value, long expires, TimingWheel<Lease> wheel) {
+            this.key = key;
+            this.value = value;
+            this.expires = expires;
+            this.wheel = wheel;
+        }
+
+        boolean isExpired (long now) {
+            return now - expires > 0;
+        }
+    }
+}
@@ -21,6 +21,9 @@ package org.jpos.space;
 import java.io.*;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
@@ -150,6 +153,28 @@ public class JESpace<K,V> extends Log implements LocalSpace<K,V>, PersistentSpac
                 abort (txn);
         }
     }
+    public void outAll (K key, Collection<? extends V> values) {
+        Transaction txn = null;
+        try {
+            txn = dbe.beginTransaction (null, null);
+            for (V value : values)
+                pIndex.put (new Ref(key.toString(), value, 0L));
+            txn.commit();
+            txn = null;
+            synchronized (this) {
+                notifyAll ();
+            }
+            if (sl != null) {
+                for (V value : values)
+                    notifyListeners(key, value);
+            }
+        } catch (Exception e) {
+            throw new SpaceError (e);
+        } finally {
+            if (txn != null)
+                abort (txn);
+        }
+    }
     public void push (K key, V value, long timeout) {
         Transaction txn = null;
         try {
@@ -263,6 +288,34 @@ public class JESpace<K,V> extends Log implements LocalSpace<K,V>, PersistentSpac
         }
     }
 
+    @SuppressWarnings("unchecked")
+    public List<V> inp (Object key, int max) {
+        List<V> l = new ArrayList<>();
+        try {
+            take (key, l, max);
+        } catch (DatabaseException e) {
+            throw new SpaceError (e);
+        }
+        return l;
+    }
+    public synchronized int drainTo (Object key, Collection<? super V> c, int max, long timeout) {
+        int n;
+        Instant now = Instant.now();
+        long duration;
+        try {
+            while ((n = take (key, c, max)) == 0 && max > 0 &&
+                    (duration = Duration.between(now, Instant.now()).toMillis()) < timeout)
+            {
+                try {
+                    this.wait (timeout - duration);
+                } catch (InterruptedException ignored) { }
+            }
+        } catch (DatabaseException e) {
+            throw new SpaceError (e);
+        }
+        return n;
+    }
+
     public boolean existAny (Object[] keys) {
         for (Object key : keys) {
             if (rdp(key) != null) {
@@ -414,6 +467,46 @@ public class JESpace<K,V> extends Log implements LocalSpace<K,V>, PersistentSpac
                 txn.abort();
         }
     }
+    /**
+     * Takes up to {@code max} active entries in a single transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private int take (Object key, Collection<? super V> c, int max) throws DatabaseException {
+        Transaction txn = null;
+        EntityCursor<Ref> cursor = null;
+        Template tmpl = null;
+        if (key instanceof Template) {
+            tmpl = (Template) key;
+            key  = tmpl.getKey();
+        }
+        int n = 0;
+        if (max <= 0)
+            return n;
+        try {
+            txn = dbe.beginTransaction (null, null);
+            cursor = sIndex.subIndex(key.toString()).entities(txn, null);
+            for (Ref ref : cursor) {
+                if (ref.isActive() && tmpl != null && !tmpl.equals (ref.getValue()))
+                    continue;
+                cursor.delete();
+                if (ref.hasExpiration())
+                    gcpIndex.delete (txn, ref.getId());
+                if (ref.isActive()) {
+                    c.add ((V) ref.getValue());
+                    if (++n == max)
+                        break;
+                }
+            }
+            cursor.close(); cursor = null;
+            txn.commit(); txn = null;
+            return n;
+        } finally {
+            if (cursor != null)
+                cursor.close ();
+            if (txn != null)
+                txn.abort();
+        }
+    }
     private void abort (Transaction txn) throws SpaceError {
         try {
             txn.abort();
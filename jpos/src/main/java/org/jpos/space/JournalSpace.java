@@ -0,0 +1,834 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.space;
+
+import org.jpos.iso.ISOUtil;
+import org.jpos.util.Log;
+import org.jpos.util.Loggeable;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent space backed by an append-only, memory-mapped journal.
+ *
+ * <p>Entries live in memory; every change is appended to the journal as a
+ * CRC protected record and is durable by the time the operation returns.
+ * Sessions that write concurrently share a single {@code force} (group
+ * commit), so they don't serialize on one disk sync each.</p>
+ *
+ * <p>The journal is split in fixed size segment files. Segments whose
+ * entries have all been taken are deleted, and the few live entries that
+ * would pin an old segment are copied forward, so the journal stays about
+ * the size of the live entries (e.g. the TransactionManager in-flight
+ * transactions). On open, segments are replayed up to the first torn or
+ * corrupt record.</p>
+ *
+ * <p>URI: {@code journal:name[:path[,segment-size=bytes]]}, {@code path}
+ * defaults to {@code name}.</p>
+ *
+ * <p>Keys are stored as strings and values must be {@link Serializable}.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @since 3.0
+ */
+@SuppressWarnings("unchecked")
+public class JournalSpace<K,V> extends Log implements LocalSpace<K,V>, PersistentSpace, Loggeable, Runnable {
+    /** Default segment size in bytes. */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    /** Delay in milliseconds between GC runs. */
+    public static final long GC_DELAY = 5*1000L;
+    private static final long NRD_RESOLUTION = 500L;
+    private static final String SUFFIX = ".jnl";
+    private static final int HEADER = 8;         // record length + crc
+    private static final byte OUT    = 1;
+    private static final byte REMOVE = 2;
+
+    /** Registry mapping space names to their JournalSpace instances. */
+    static final Map<String,JournalSpace> spaceRegistrar = new HashMap<>();
+
+    private final String name;
+    private final File dir;
+    private final int segmentSize;
+    private final Map<String,LinkedList<Ref>> entries = new HashMap<>();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private volatile Segment current;
+    private volatile long appended;              // last appended record, written under this
+    private final AtomicLong synced = new AtomicLong();
+    private final Object syncLock = new Object();
+    private long lastId;
+    private long tailOrder;
+    private long headOrder;
+    private Future<?> gcTask;
+    private LocalSpace<Object,SpaceListener> sl;
+
+    /**
+     * Opens (replaying it if it exists) the journal at {@code params}.
+     *
+     * @param name   the space name
+     * @param params comma-separated parameters; first element is the directory path
+     * @throws SpaceError if the journal cannot be opened
+     */
+    public JournalSpace (String name, String params) throws SpaceError {
+        super();
+        this.name = name;
+        String[] p = ISOUtil.commaDecode(params);
+        dir = new File(p[0]);
+        segmentSize = (int) getParam("segment-size", p, DEFAULT_SEGMENT_SIZE);
+        if (segmentSize < 1024)
+            throw new SpaceError ("segment-size too small: " + segmentSize);
+        try {
+            dir.mkdirs();
+            replay();
+        } catch (IOException e) {
+            throw new SpaceError (e);
+        }
+        gcTask = SpaceFactory.getGCExecutor().scheduleAtFixedRate(this, GC_DELAY, GC_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void out (K key, V value) {
+        out (key, value, 0L);
+    }
+
+    @Override
+    public void out (K key, V value, long timeout) {
+        write (key, value, timeout, false, false);
+    }
+
+    @Override
+    public void push (K key, V value) {
+        push (key, value, 0L);
+    }
+
+    @Override
+    public void push (K key, V value, long timeout) {
+        write (key, value, timeout, true, false);
+    }
+
+    @Override
+    public void put (K key, V value) {
+        put (key, value, 0L);
+    }
+
+    @Override
+    public void put (K key, V value, long timeout) {
+        write (key, value, timeout, false, true);
+    }
+
+    /**
+     * Atomically replaces the entries of several keys: each key is wiped and,
+     * if its value is not null, the value is written. All the changes go to
+     * the journal in a single record, so they survive a crash together or not at all.
+     *
+     * @param values new value per key, {@code null} values just wipe the key
+     */
+    public void replace (Map<K,? extends V> values) {
+        Map<String,byte[]> data = new LinkedHashMap<>();
+        for (Map.Entry<K,? extends V> e : values.entrySet())
+            data.put (e.getKey().toString(), e.getValue() != null ? serialize (e.getValue()) : null);
+        long seq;
+        synchronized (this) {
+            Batch b = new Batch();
+            for (Map.Entry<String,byte[]> e : data.entrySet()) {
+                wipe (e.getKey(), b);
+                if (e.getValue() != null)
+                    add (e.getKey(), e.getValue(), 0L, false, b);
+            }
+            seq = commit (b);
+            notifyAll();
+        }
+        sync (seq);
+        if (sl != null) {
+            for (Map.Entry<K,? extends V> e : values.entrySet())
+                if (e.getValue() != null)
+                    notifyListeners (e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public V rdp (Object key) {
+        return await (key, false, true, 0L);
+    }
+
+    @Override
+    public V inp (Object key) {
+        return await (key, true, true, 0L);
+    }
+
+    @Override
+    public V rd (Object key) {
+        return await (key, false, false, 0L);
+    }
+
+    @Override
+    public V rd (Object key, long timeout) {
+        return await (key, false, true, timeout);
+    }
+
+    @Override
+    public V in (Object key) {
+        return await (key, true, false, 0L);
+    }
+
+    @Override
+    public V in (Object key, long timeout) {
+        return await (key, true, true, timeout);
+    }
+
+    @Override
+    public synchronized void nrd (Object key) {
+        while (fetch (key, false, null) != null) {
+            try {
+                this.wait (NRD_RESOLUTION);
+            } catch (InterruptedException ignored) { }
+        }
+    }
+
+    @Override
+    public V nrd (Object key, long timeout) {
+        Ref ref;
+        long to = System.currentTimeMillis() + timeout;
+        long waitFor;
+        synchronized (this) {
+            while ((ref = fetch (key, false, null)) != null &&
+              (waitFor = to - System.currentTimeMillis()) > 0)
+            {
+                try {
+                    this.wait (Math.min(NRD_RESOLUTION, waitFor));
+                } catch (InterruptedException ignored) { }
+            }
+        }
+        return ref != null ? (V) ref.getValue() : null;
+    }
+
+    @Override
+    public synchronized boolean existAny (K[] keys) {
+        for (K key : keys) {
+            if (fetch (key, false, null) != null)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean existAny (K[] keys, long timeout) {
+        long to = System.currentTimeMillis() + timeout;
+        long waitFor;
+        while (!existAny (keys)) {
+            if ((waitFor = to - System.currentTimeMillis()) <= 0)
+                return false;
+            try {
+                this.wait (waitFor);
+            } catch (InterruptedException ignored) { }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized Set<K> getKeySet() {
+        Set<K> keys = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String,LinkedList<Ref>> e : entries.entrySet()) {
+            for (Ref ref : e.getValue()) {
+                if (!ref.isExpired (now)) {
+                    keys.add ((K) e.getKey());
+                    break;
+                }
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized int size (Object key) {
+        int size = 0;
+        LinkedList<Ref> l = entries.get (key.toString());
+        if (l != null) {
+            long now = System.currentTimeMillis();
+            for (Ref ref : l) {
+                if (!ref.isExpired (now))
+                    size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void addListener (Object key, SpaceListener listener) {
+        getSL().out (key, listener);
+    }
+
+    @Override
+    public synchronized void addListener (Object key, SpaceListener listener, long timeout) {
+        getSL().out (key, listener, timeout);
+    }
+
+    @Override
+    public synchronized void removeListener (Object key, SpaceListener listener) {
+        if (sl != null)
+            sl.inp (new ObjectTemplate (key, listener));
+    }
+
+    /**
+     * Removes expired entries and deletes (compacting them first if needed)
+     * segments that no longer hold live entries.
+     */
+    public synchronized void gc () {
+        long now = System.currentTimeMillis();
+        Iterator<LinkedList<Ref>> iter = entries.values().iterator();
+        while (iter.hasNext()) {
+            LinkedList<Ref> l = iter.next();
+            l.removeIf (ref -> ref.isExpired (now) && drop (ref));
+            if (l.isEmpty())
+                iter.remove();
+        }
+        compact();
+        if (sl != null && sl.getKeySet().isEmpty())
+            sl = null;
+    }
+
+    @Override
+    public void run () {
+        try {
+            gc();
+        } catch (Exception e) {
+            warn (e);
+        }
+    }
+
+    @Override
+    public void close () {
+        gcTask.cancel(false);
+        synchronized (JournalSpace.class) {
+            spaceRegistrar.remove (name);
+        }
+        synchronized (this) {
+            for (Segment s : segments)
+                s.close();
+            segments.clear();
+        }
+    }
+
+    /**
+     * @return number of journal segment files
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void dump (PrintStream p, String indent) {
+        p.printf ("%s<journal dir='%s' segments='%d' segment-size='%d'/>%n",
+          indent, dir, segments.size(), segmentSize);
+        for (Map.Entry<String,LinkedList<Ref>> e : entries.entrySet())
+            p.printf ("%s<key size='%d'>%s</key>%n", indent, e.getValue().size(), e.getKey());
+        p.printf ("%s<keycount>%d</keycount>%n", indent, entries.size());
+    }
+
+    /**
+     * Returns (or creates) the named JournalSpace stored at the given path.
+     *
+     * @param name space name
+     * @param params directory path, optionally followed by {@code ,segment-size=bytes}
+     * @return the JournalSpace instance
+     */
+    public synchronized static JournalSpace getSpace (String name, String params) {
+        JournalSpace sp = spaceRegistrar.get (name);
+        if (sp == null) {
+            sp = new JournalSpace (name, params);
+            spaceRegistrar.put (name, sp);
+        }
+        return sp;
+    }
+
+    /**
+     * Returns (or creates) the named JournalSpace using the name as the storage path.
+     *
+     * @param name space name and storage path
+     * @return the JournalSpace instance
+     */
+    public static JournalSpace getSpace (String name) {
+        return getSpace (name, name);
+    }
+
+    private void write (K key, V value, long timeout, boolean push, boolean replace) {
+        if (key == null || value == null)
+            throw new NullPointerException ("key=" + key + ", value=" + value);
+        byte[] data = serialize (value);
+        long seq;
+        synchronized (this) {
+            Batch b = new Batch();
+            if (replace)
+                wipe (key.toString(), b);
+            add (key.toString(), data, timeout, push, b);
+            seq = commit (b);
+            notifyAll();
+        }
+        sync (seq);
+        if (sl != null)
+            notifyListeners (key, value);
+    }
+
+    private V await (Object key, boolean remove, boolean timed, long timeout) {
+        Ref ref;
+        long seq = 0L;
+        synchronized (this) {
+            Batch b = remove ? new Batch() : null;
+            long to = System.currentTimeMillis() + timeout;
+            long waitFor;
+            while ((ref = fetch (key, remove, b)) == null) {
+                try {
+                    if (!timed)
+                        this.wait ();
+                    else if ((waitFor = to - System.currentTimeMillis()) > 0)
+                        this.wait (waitFor);
+                    else
+                        return null;
+                } catch (InterruptedException ignored) { }
+            }
+            if (remove)
+                seq = commit (b);
+        }
+        if (remove)
+            sync (seq);
+        return (V) ref.getValue();
+    }
+
+    /**
+     * Returns the first live entry under {@code key} (a key or a {@link Template}),
+     * dropping expired entries along the way. Must be called with the monitor held.
+     */
+    private Ref fetch (Object key, boolean remove, Batch b) {
+        Template tmpl = key instanceof Template t ? t : null;
+        String k = (tmpl != null ? tmpl.getKey() : key).toString();
+        LinkedList<Ref> l = entries.get (k);
+        if (l == null)
+            return null;
+        long now = System.currentTimeMillis();
+        Ref found = null;
+        Iterator<Ref> iter = l.iterator();
+        while (iter.hasNext()) {
+            Ref ref = iter.next();
+            if (ref.isExpired (now)) {
+                iter.remove();
+                drop (ref);
+                continue;
+            }
+            if (tmpl != null && !tmpl.equals (ref.getValue()))
+                continue;
+            if (remove) {
+                iter.remove();
+                b.remove (ref);
+            }
+            found = ref;
+            break;
+        }
+        if (l.isEmpty())
+            entries.remove (k);
+        return found;
+    }
+
+    private void add (String key, byte[] data, long timeout, boolean push, Batch b) {
+        Ref ref = new Ref (++lastId, push ? --headOrder : ++tailOrder,
+          timeout > 0L ? System.currentTimeMillis() + timeout : 0L, key, data);
+        LinkedList<Ref> l = entries.computeIfAbsent (key, k -> new LinkedList<>());
+        if (push)
+            l.addFirst (ref);
+        else
+            l.addLast (ref);
+        b.out (ref);
+    }
+
+    private void wipe (String key, Batch b) {
+        LinkedList<Ref> l = entries.remove (key);
+        if (l != null) {
+            for (Ref ref : l)
+                b.remove (ref);
+        }
+    }
+
+    /**
+     * Accounts for an entry that left memory without a journal record
+     * (an expired entry is ignored on replay anyway).
+     */
+    private boolean drop (Ref ref) {
+        if (ref.segment != null) {
+            ref.segment.live--;
+            ref.segment = null;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the batch as a single record. Must be called with the monitor held.
+     *
+     * @return the record sequence number to {@link #sync} on
+     */
+    private long commit (Batch b) {
+        if (b.count == 0)
+            return appended;
+        if (segments.isEmpty())
+            throw new SpaceError ("JournalSpace " + name + " is closed");
+        byte[] payload = b.toByteArray();
+        if (payload.length + HEADER + 4 > segmentSize)
+            throw new SpaceError ("record too large (" + payload.length + " bytes), segment-size=" + segmentSize);
+        if (current.buf.remaining() < payload.length + HEADER + 4)
+            roll();
+        CRC32 crc = new CRC32();
+        crc.update (payload);
+        current.buf.putInt (payload.length).putInt ((int) crc.getValue()).put (payload);
+        for (Ref ref : b.removed)
+            drop (ref);
+        for (Ref ref : b.added) {
+            ref.segment = current;
+            current.live++;
+        }
+        return ++appended;
+    }
+
+    /**
+     * Waits until record {@code seq} is on disk. Concurrent callers are
+     * served by a single force (group commit).
+     */
+    private void sync (long seq) {
+        if (synced.get() >= seq)
+            return;
+        synchronized (syncLock) {
+            if (synced.get() >= seq)
+                return;
+            long target = appended;   // read before current: older segments are forced on roll
+            Segment s = current;
+            s.force();
+            synced.accumulateAndGet (target, Math::max);
+        }
+    }
+
+    private void roll () {
+        Segment old = current;
+        old.force();
+        synced.accumulateAndGet (appended, Math::max);
+        try {
+            current = Segment.open (dir, old.number + 1, segmentSize);
+        } catch (IOException e) {
+            throw new SpaceError (e);
+        }
+        segments.addLast (current);
+        deleteEmpty();
+    }
+
+    /**
+     * Deletes leading segments without live entries. If the oldest segment is
+     * pinned by a few long lived entries, they are copied forward first.
+     */
+    private void compact () {
+        if (segments.size() > 2 && segments.peekFirst().live > 0) {
+            Segment oldest = segments.peekFirst();
+            for (LinkedList<Ref> l : entries.values()) {
+                for (Ref ref : l) {
+                    if (ref.segment == oldest) {
+                        Batch b = new Batch();
+                        b.out (ref);
+                        oldest.live--;
+                        commit (b);
+                    }
+                }
+            }
+            current.force();
+            synced.accumulateAndGet (appended, Math::max);
+        }
+        deleteEmpty();
+    }
+
+    /**
+     * Deletes leading segments without live entries. Only leading ones: a
+     * {@code REMOVE} record must not outlive the {@code OUT} record it cancels.
+     */
+    private void deleteEmpty () {
+        while (segments.size() > 1 && segments.peekFirst().live == 0)
+            segments.pollFirst().delete();
+    }
+
+    private void replay () throws IOException {
+        File[] files = dir.listFiles ((d, n) -> n.endsWith (SUFFIX));
+        long[] numbers = files == null ? new long[0] : Arrays.stream (files)
+          .map (f -> f.getName().substring (0, f.getName().length() - SUFFIX.length()))
+          .filter (n -> n.matches ("[0-9a-f]{16}"))
+          .mapToLong (n -> Long.parseUnsignedLong (n, 16))
+          .sorted()
+          .toArray();
+        Map<Long,Ref> refs = new HashMap<>();
+        for (long number : numbers) {
+            Segment s = Segment.open (dir, number, segmentSize);
+            segments.addLast (s);
+            MappedByteBuffer buf = s.buf;
+            while (buf.remaining() >= HEADER) {
+                int start = buf.position();
+                int len = buf.getInt();
+                int crc = buf.getInt();
+                if (len <= 0 || len > buf.remaining()) {
+                    buf.position (start);
+                    break;
+                }
+                byte[] payload = new byte[len];
+                buf.get (payload);
+                CRC32 c = new CRC32();
+                c.update (payload);
+                if ((int) c.getValue() != crc) {
+                    buf.position (start);   // torn write, everything after it is garbage
+                    break;
+                }
+                apply (s, payload, refs);
+            }
+        }
+        if (segments.isEmpty())
+            segments.addLast (Segment.open (dir, 1L, segmentSize));
+        current = segments.peekLast();
+        // wipe whatever a crash may have left past the last good record
+        MappedByteBuffer buf = current.buf.duplicate();
+        while (buf.hasRemaining()) {
+            if (buf.get() != 0)
+                buf.put (buf.position() - 1, (byte) 0);
+        }
+
+        long now = System.currentTimeMillis();
+        List<Ref> live = new ArrayList<>(refs.values());
+        live.sort (Comparator.comparingLong (r -> r.order));
+        for (Ref ref : live) {
+            lastId = Math.max (lastId, ref.id);
+            tailOrder = Math.max (tailOrder, ref.order);
+            headOrder = Math.min (headOrder, ref.order);
+            if (ref.isExpired (now))
+                drop (ref);
+            else
+                entries.computeIfAbsent (ref.key, k -> new LinkedList<>()).addLast (ref);
+        }
+        compact();
+    }
+
+    private void apply (Segment s, byte[] payload, Map<Long,Ref> refs) throws IOException {
+        DataInputStream in = new DataInputStream (new ByteArrayInputStream (payload));
+        int count = in.readInt();
+        for (int i=0; i<count; i++) {
+            byte op = in.readByte();
+            long id = in.readLong();
+            if (op == OUT) {
+                long order = in.readLong();
+                long expires = in.readLong();
+                String key = in.readUTF();
+                byte[] data = new byte[in.readInt()];
+                in.readFully (data);
+                Ref ref = new Ref (id, order, expires, key, data);
+                ref.segment = s;
+                s.live++;
+                Ref old = refs.put (id, ref);  // a copied forward entry replaces the original
+                if (old != null)
+                    drop (old);
+            } else if (op == REMOVE) {
+                Ref old = refs.remove (id);
+                if (old != null)
+                    drop (old);
+            } else {
+                throw new IOException ("invalid journal op " + op);
+            }
+        }
+    }
+
+    private LocalSpace<Object,SpaceListener> getSL() {
+        synchronized (this) {
+            if (sl == null)
+                sl = new TSpace<Object,SpaceListener>();
+        }
+        return sl;
+    }
+
+    private void notifyListeners (Object key, Object value) {
+        Set<SpaceListener> listeners = new HashSet<>();
+        synchronized (this) {
+            if (sl == null)
+                return;
+            SpaceListener s;
+            while ((s = sl.inp (key)) != null)
+                listeners.add (s);
+            for (SpaceListener spl : listeners)
+                sl.out (key, spl);
+        }
+        for (SpaceListener spl : listeners)
+            spl.notify (key, value);
+    }
+
+    private static byte[] serialize (Object obj) {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (ObjectOutputStream os = new ObjectOutputStream (baos)) {
+                os.writeObject (obj);
+            }
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new SpaceError (e);
+        }
+    }
+
+    private long getParam (String name, String[] params, long defaultValue) {
+        for (String s : params) {
+            if (s.contains(name)) {
+                int pos = s.indexOf('=');
+                if (pos >=0 && s.length() > pos)
+                    return Long.valueOf(s.substring(pos+1).trim());
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Journal operations of a single record.
+     */
+    private static final class Batch {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream (bos);
+        final List<Ref> added = new ArrayList<>();
+        final List<Ref> removed = new ArrayList<>();
+        int count;
+
+        void out (Ref ref) {
+            try {
+                out.writeByte (OUT);
+                out.writeLong (ref.id);
+                out.writeLong (ref.order);
+                out.writeLong (ref.expires);
+                out.writeUTF (ref.key);
+                out.writeInt (ref.data.length);
+                out.write (ref.data);
+            } catch (IOException e) {
+                throw new SpaceError (e);
+            }
+            added.add (ref);
+            count++;
+        }
+
+        void remove (Ref ref) {
+            try {
+                out.writeByte (REMOVE);
+                out.writeLong (ref.id);
+            } catch (IOException e) {
+                throw new SpaceError (e);
+            }
+            removed.add (ref);
+            count++;
+        }
+
+        byte[] toByteArray() {
+            byte[] ops = bos.toByteArray();
+            byte[] payload = new byte[ops.length + 4];
+            payload[0] = (byte) (count >>> 24);
+            payload[1] = (byte) (count >>> 16);
+            payload[2] = (byte) (count >>> 8);
+            payload[3] = (byte) count;
+            System.arraycopy (ops, 0, payload, 4, ops.length);
+            return payload;
+        }
+    }
+
+    /**
+     * A journaled entry. {@code order} keeps queue order across replays
+     * (pushed entries get negative values) and {@code segment} is the segment
+     * holding its latest {@code OUT} record.
+     */
+    private static final class Ref {
+        final long id;
+        final long order;
+        final long expires;
+        final String key;
+        final byte[] data;
+        Segment segment;
+
+        Ref (long id, long order, long expires, String key, byte[] data) {
+            this.id = id;
+            this.order = order;
+            this.expires = expires;
+            this.key = key;
+            this.data = data;
+        }
+
+        boolean isExpired (long now) {
+            return expires > 0L && now > expires;
+        }
+
+        Object getValue() {
+            try (ObjectInputStream is = new ObjectInputStream (new ByteArrayInputStream (data))) {
+                return is.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new SpaceError (e);
+            }
+        }
+    }
+
+    /**
+     * A memory-mapped journal file.
+     */
+    private static final class Segment {
+        final long number;
+        final File file;
+        final FileChannel channel;
+        final MappedByteBuffer buf;
+        int live;                       // entries whose latest OUT record is here
+
+        private Segment (long number, File file, FileChannel channel, MappedByteBuffer buf) {
+            this.number = number;
+            this.file = file;
+            this.channel = channel;
+            this.buf = buf;
+        }
+
+        static Segment open (File dir, long number, int size) throws IOException {
+            File file = new File (dir, String.format ("%016x%s", number, SUFFIX));
+            FileChannel channel = FileChannel.open (file.toPath(),
+              StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long len = Math.max (size, channel.size()); // segment-size may have been reduced
+            return new Segment (number, file, channel, channel.map (FileChannel.MapMode.READ_WRITE, 0, len));
+        }
+
+        void force() {
+            buf.force();
+        }
+
+        void close() {
+            try {
+                buf.force();
+                channel.close();
+            } catch (IOException ignored) { }
+        }
+
+        void delete() {
+            try {
+                channel.close();
+            } catch (IOException ignored) { }
+            file.delete();
+        }
+    }
+}
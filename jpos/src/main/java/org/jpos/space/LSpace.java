@@ -272,6 +272,93 @@ public class LSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
         }
     }
 
+    @Override
+    public void outAll(K key, Collection<? extends V> values) {
+        ensureOpen();
+        var jfr = new SpaceEvent("out:all", "" + key);
+        jfr.begin();
+        try {
+            if (key == null || values == null || values.contains(null))
+                throw new NullPointerException("key=" + key + ", values=" + values);
+            if (values.isEmpty())
+                return;
+
+            while (true) {
+                KeyEntry entry = entries.computeIfAbsent(key, k -> new KeyEntry());
+
+                entry.lock.lock();
+                try {
+                    if (entries.get(key) != entry)
+                        continue;
+
+                    boolean wasEmpty = entry.queue.isEmpty();
+                    entry.queue.addAll(values);
+                    if (wasEmpty)
+                        entry.hasValue.signalAll();
+                    break;
+                } finally {
+                    entry.lock.unlock();
+                }
+            }
+
+            if (sl != null) {
+                for (V value : values)
+                    notifyListeners(key, value);
+            }
+        } finally {
+            jfr.commit();
+        }
+    }
+
+    @Override
+    public List<V> inp(Object key, int max) {
+        ensureOpen();
+        var jfr = new SpaceEvent("inp:all", jfrTag(key));
+        jfr.begin();
+        try {
+            List<V> l = new ArrayList<>();
+            Template tmpl = key instanceof Template t ? t : null;
+            K k = (K) (tmpl != null ? tmpl.getKey() : key);
+            KeyEntry entry = entries.get(k);
+            if (entry == null || max <= 0)
+                return l;
+
+            entry.lock.lock();
+            try {
+                if (entries.get(k) == entry) {
+                    take(entry, k, tmpl, l, max);
+                    postFetchHousekeeping(k, entry);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+            return l;
+        } finally {
+            jfr.commit();
+        }
+    }
+
+    @Override
+    public int drainTo(Object key, Collection<? super V> c, int max, long timeout) {
+        ensureOpen();
+        if (max <= 0)
+            return 0;
+        var jfr = new SpaceEvent("drain", jfrTag(key));
+        jfr.begin();
+        try {
+            Template tmpl = key instanceof Template t ? t : null;
+            K k = (K) (tmpl != null ? tmpl.getKey() : key);
+            List<V> l = new ArrayList<>();
+            // the fetcher drains under the entry lock, so waiting and taking is a single acquisition
+            if (awaitValue(k, entry -> take(entry, k, tmpl, l, max) > 0 ? l : null, timeout) == null)
+                return 0;
+            c.addAll(l);
+            return l.size();
+        } finally {
+            jfr.commit();
+        }
+    }
+
     @Override
     public V rd(Object key) {
         ensureOpen();
@@ -882,6 +969,21 @@ public class LSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
         return result;
     }
 
+    /**
+     * Takes up to {@code max} values (matching {@code tmpl}, if not null) into {@code c}.
+     * MUST be called with entry.lock held.
+     */
+    @SuppressWarnings("unchecked")
+    private int take(KeyEntry entry, K key, Template tmpl, Collection<? super V> c, int max) {
+        int n = 0;
+        Object obj;
+        while (n < max && (obj = tmpl != null ? getObject(entry, key, tmpl, true) : getHead(entry, key, true)) != null) {
+            c.add((V) obj);
+            n++;
+        }
+        return n;
+    }
+
     private void ensureOpen() {
         if (closed.get())
             throw new IllegalStateException("LSpace is closed");
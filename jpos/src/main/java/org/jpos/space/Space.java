@@ -18,6 +18,9 @@
 
 package org.jpos.space;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * <p><b>Space</b> uses concepts described in the Linda Coordination Language 
@@ -171,6 +174,58 @@ public interface Space<K,V> extends AutoCloseable {
      */
     void put(K key, V value, long timeout);
 
+    /**
+     * Write several entries, in iteration order, at the tail of a queue.
+     * <p>Implementations may do this in a single operation, waking up
+     * readers and notifying listeners once per batch write.</p>
+     * @param key Entry's key
+     * @param values Object values
+     */
+    default void outAll(K key, Collection<? extends V> values) {
+        for (V value : values)
+            out (key, value);
+    }
+
+    /**
+     * In probe that takes up to {@code max} entries from the space.
+     * @param key Entry's key
+     * @param max maximum number of entries to take
+     * @return taken values, in queue order (empty if none)
+     */
+    @SuppressWarnings("unchecked")
+    default List<V> inp(Object key, int max) {
+        List<V> l = new ArrayList<>();
+        V value;
+        while (l.size() < max && (value = inp ((K) key)) != null)
+            l.add (value);
+        return l;
+    }
+
+    /**
+     * Waits up to {@code timeout} millis for an entry to exist, then takes
+     * it along with as many entries as available, up to {@code max}.
+     * @param key Entry's key
+     * @param c collection the taken values are added to
+     * @param max maximum number of entries to take
+     * @param timeout millis to wait for the first entry
+     * @return number of entries taken (0 on timeout)
+     */
+    @SuppressWarnings("unchecked")
+    default int drainTo(Object key, Collection<? super V> c, int max, long timeout) {
+        if (max <= 0)
+            return 0;
+        V value = in ((K) key, timeout);
+        if (value == null)
+            return 0;
+        c.add (value);
+        int n = 1;
+        while (n < max && (value = inp ((K) key)) != null) {
+            c.add (value);
+            n++;
+        }
+        return n;
+    }
+
     @Override
     default void close() {}
 }
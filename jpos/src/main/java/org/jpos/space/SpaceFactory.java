@@ -40,9 +40,12 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
  *   // default unnamed space (tspace:default)
  *   Space sp = SpaceFactory.getSpace ();
  *
- *   // transient space named "test"
+ *   // transient (concurrent) space named "test"
  *   Space sp = SpaceFactory.getSpace ("transient:test");
  *
+ *   // legacy TSpace named "test"
+ *   Space sp = SpaceFactory.getSpace ("tspace:test");
+ *
  *   // lspace (Loom-optimized) named "test"
  *   Space sp = SpaceFactory.getSpace ("lspace:test");
  *
@@ -54,6 +57,9 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
  *
  *   // jdbm space named test, storage located in /tmp/test
  *   Space sp = SpaceFactory.getSpace ("jdbm:test:/tmp/test");
+ *
+ *   // journal space named test, storage located in /tmp/test
+ *   Space sp = SpaceFactory.getSpace ("journal:test:/tmp/test");
  * </pre>
  *
  */
@@ -64,7 +70,9 @@ public class SpaceFactory {
     public static final String TSPACE     = "tspace";
     /** Scheme constant for L-space (Loom-optimized) transient spaces. */
     public static final String LSPACE     = "lspace";
-    /** Scheme alias for {@link #TSPACE}. */
+    /** Scheme constant for concurrent transient spaces ({@link CSpace}). */
+    public static final String CSPACE     = "cspace";
+    /** Scheme alias for {@link #CSPACE}. */
     public static final String TRANSIENT  = "transient";
     /** Scheme constant for persistent (jdbm-backed) spaces. */
     public static final String PERSISTENT = "persistent";
@@ -74,8 +82,17 @@ public class SpaceFactory {
     public static final String JDBM       = "jdbm";
     /** Scheme constant for Berkeley DB (JE) backed spaces. */
     public static final String JE         = "je";
+    /** Scheme constant for journal backed persistent spaces ({@link JournalSpace}). */
+    public static final String JOURNAL    = "journal";
     /** Default name used for unnamed spaces. */
     public static final String DEFAULT    = "default";
+    /**
+     * Default expiration resolution, in milliseconds, of the transient spaces
+     * ({@link TSpace}, {@link CSpace}): leased entries are removed at most this long after
+     * they expire, even if nobody reads them. Set with the {@code jpos.space.expiry.resolution}
+     * system property (defaults to 100).
+     */
+    public static final long EXPIRY_RESOLUTION = Long.getLong("jpos.space.expiry.resolution", 100L);
     private static ScheduledThreadPoolExecutor gcExecutor = ConcurrentUtil.newScheduledThreadPoolExecutor();
 
     /**
@@ -160,8 +177,10 @@ public class SpaceFactory {
     private static Space createSpace (String scheme, String name, String param)
     {
         Space sp = null;
-        if (TSPACE.equals (scheme) || TRANSIENT.equals (scheme)) {
+        if (TSPACE.equals (scheme)) {
             sp = new TSpace();
+        } else if (CSPACE.equals (scheme) || TRANSIENT.equals (scheme)) {
+            sp = new CSpace();
         } else if (LSPACE.equals (scheme)) {
             sp = new LSpace();
         } else if (JDBM.equals (scheme) || PERSISTENT.equals (scheme)) {
@@ -174,6 +193,11 @@ public class SpaceFactory {
                 sp = JESpace.getSpace (name, param);
             else
                 sp = JESpace.getSpace (name);
+        } else if (JOURNAL.equals (scheme)) {
+            if (param != null)
+                sp = JournalSpace.getSpace (name, param);
+            else
+                sp = JournalSpace.getSpace (name);
         }
         return sp;
     }
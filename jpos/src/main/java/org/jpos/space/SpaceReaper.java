@@ -0,0 +1,64 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.space;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically runs a space's expiration task on the {@link SpaceFactory#getGCExecutor() GC executor}.
+ *
+ * <p>Only a weak reference to the space is kept, so a space nobody references
+ * any longer can be collected; its task cancels itself on the next run.</p>
+ */
+final class SpaceReaper implements Runnable {
+    private final WeakReference<Runnable> ref;
+    private volatile ScheduledFuture<?> future;
+
+    private SpaceReaper (Runnable space) {
+        ref = new WeakReference<>(space);
+    }
+
+    /**
+     * Schedules {@code space.run()} every {@code period} milliseconds.
+     *
+     * @param space the space
+     * @param period interval in milliseconds
+     * @return the scheduled task
+     */
+    static ScheduledFuture<?> schedule (Runnable space, long period) {
+        SpaceReaper r = new SpaceReaper(space);
+        r.future = SpaceFactory.getGCExecutor().scheduleWithFixedDelay(r, period, period, TimeUnit.MILLISECONDS);
+        return r.future;
+    }
+
+    @Override
+    public void run() {
+        Runnable space = ref.get();
+        if (space != null) {
+            space.run();
+        } else {
+            ScheduledFuture<?> f = future;
+            if (f != null)
+                f.cancel(false);
+        }
+    }
+}
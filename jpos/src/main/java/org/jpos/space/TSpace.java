@@ -19,12 +19,12 @@
 package org.jpos.space;
 import org.jpos.jfr.SpaceEvent;
 import org.jpos.util.Loggeable;
+import org.jpos.util.TimingWheel;
 import java.io.PrintStream;
 import java.io.Serializable;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 /**
  * TSpace implementation
@@ -42,21 +42,32 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
     protected Map entries;
     /** Per-key space listeners; itself a {@link TSpace} so it inherits the dispatch model. */
     protected TSpace sl;    // space listeners
-    /** Periodic interval, in milliseconds, between background GC sweeps. */
+    /**
+     * Periodic interval, in milliseconds, between background GC sweeps.
+     * @deprecated leased entries are expired by a timing wheel, see {@link #getResolution()}
+     */
+    @Deprecated
     public static final long GCDELAY = 5*1000;
-    private static final long GCLONG = 60_000L;
     private static final long NRD_RESOLUTION = 500L;
     private static final int MAX_ENTRIES_IN_DUMP = 1000;
     private static final long ONE_MILLION = 1_000_000L;         // multiplier millis --> nanos
-    private final Set[] expirables;
-    private long lastLongGC = System.nanoTime();
+    private final TimingWheel<Expirable> leases;
 
-    /** Default constructor. */
+    /** Default constructor, expires leased entries with {@link SpaceFactory#EXPIRY_RESOLUTION} resolution. */
     public TSpace () {
+        this (SpaceFactory.EXPIRY_RESOLUTION);
+    }
+
+    /**
+     * Creates a TSpace.
+     *
+     * @param resolution how often, in milliseconds, expired entries are removed
+     */
+    public TSpace (long resolution) {
         super();
         entries = new HashMap ();
-        expirables = new Set[] { new HashSet<K>(), new HashSet<K>() };
-        SpaceFactory.getGCExecutor().scheduleAtFixedRate(this, GCDELAY, GCDELAY, TimeUnit.MILLISECONDS);
+        leases = new TimingWheel<>(resolution);
+        SpaceReaper.schedule(this, resolution);
     }
 
     @Override
@@ -95,7 +106,7 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
             if (l.size() == 1)
                 this.notifyAll ();
             if (timeout > 0) {
-                registerExpirable(key, timeout);
+                registerExpirable(key, (Expirable) v);
             }
         }
         if (sl != null)
@@ -209,6 +220,61 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
         return obj;
     }
 
+    @Override
+    public void outAll (K key, Collection<? extends V> values) {
+        var jfr = new SpaceEvent("out:all", "" + key);
+        jfr.begin();
+        if (key == null || values == null || values.contains (null)) {
+            jfr.commit();
+            throw new NullPointerException ("key=" + key + ", values=" + values);
+        }
+        if (!values.isEmpty()) {
+            synchronized (this) {
+                @SuppressWarnings("unchecked")
+                List<Object> l = getList(key);
+                boolean wasEmpty = l.isEmpty();
+                l.addAll (values);
+                if (wasEmpty)
+                    this.notifyAll ();
+            }
+            if (sl != null) {
+                for (V value : values)
+                    notifyListeners(key, value);
+            }
+        }
+        jfr.commit();
+    }
+
+    @Override
+    public synchronized List<V> inp (Object key, int max) {
+        var jfr = new SpaceEvent("inp:all", "" + key);
+        jfr.begin();
+        List<V> l = new ArrayList<>();
+        take (key, l, max);
+        jfr.commit();
+        return l;
+    }
+
+    @Override
+    public synchronized int drainTo (Object key, Collection<? super V> c, int max, long timeout) {
+        if (max <= 0)
+            return 0;
+        var jfr = new SpaceEvent("drain", "" + key);
+        jfr.begin();
+        long to = System.nanoTime() + timeout * ONE_MILLION;
+        long waitFor;
+        int n;
+        while ( (n = take (key, c, max)) == 0 &&
+                (waitFor = (to - System.nanoTime())) >= 0 )
+        {
+            try {
+                this.wait(Math.max(waitFor / ONE_MILLION, 1L));
+            } catch (InterruptedException e) { }
+        }
+        jfr.commit();
+        return n;
+    }
+
     @Override
     public void run () {
         try {
@@ -219,33 +285,25 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
     }
 
     /**
-     * Sweeps the short-lived expirable set, and the long-lived set when its
-     * sweep interval has elapsed.
+     * Removes the leased entries that have expired.
+     *
+     * <p>Leases are kept in a {@link TimingWheel}, so this only visits the
+     * entries that are actually due. It runs every {@link #getResolution()}
+     * milliseconds.</p>
      */
     public void gc () {
-        gc(0);
-        if (System.nanoTime() - lastLongGC > GCLONG*ONE_MILLION) {
-            gc(1);
-            lastLongGC = System.nanoTime();
-        }
-    }
-
-    private void gc (int generation) {
-        var jfr = new SpaceEvent("gc", Integer.toString(generation));
-        jfr.begin();
-
-        Set<K> exps;
-        synchronized (this) {
-            exps = expirables[generation];
-            expirables[generation] = new HashSet<K>();
-        }
-        for (K k : exps) {
-            if (rdp(k) != null) {
+        List<Expirable> expired = leases.expire(System.nanoTime());
+        if (!expired.isEmpty()) {
+            var jfr = new SpaceEvent("gc", Integer.toString(expired.size()));
+            jfr.begin();
+            for (Expirable exp : expired) {
                 synchronized (this) {
-                    expirables[generation].add(k);
+                    List l = (List) entries.get (exp.key);
+                    if (l != null && l.remove (exp) && l.isEmpty())
+                        entries.remove (exp.key);
                 }
             }
-            Thread.yield ();
+            jfr.commit();
         }
         if (sl != null) {
             synchronized (this) {
@@ -253,7 +311,13 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
                     sl = null;
             }
         }
-        jfr.commit();
+    }
+
+    /**
+     * @return how often, in milliseconds, expired entries are removed
+     */
+    public long getResolution() {
+        return leases.getResolution();
     }
 
     @Override
@@ -347,12 +411,7 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
             }
         }
         p.printf("%s key-count: %d%n", indent, keys.length);
-        int exp0, exp1;
-        synchronized (this) {
-            exp0 = expirables[0].size();
-            exp1 = expirables[1].size();
-        }
-        p.printf("%s    gcinfo: %d,%d%n", indent, exp0, exp1);
+        p.printf("%s    leases: %d%n", indent, leases.size());
         jfr.commit();
     }
 
@@ -421,7 +480,7 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
             if (wasEmpty)
                 this.notifyAll ();
             if (timeout > 0) {
-                registerExpirable(key, timeout);
+                registerExpirable(key, (Expirable) v);
             }
         }
         if (sl != null)
@@ -439,7 +498,7 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
         synchronized (this) {
             List l = new LinkedList();
             l.add (value);
-            entries.put (key, l);
+            discard ((List) entries.put (key, l));
             this.notifyAll ();
         }
         if (sl != null)
@@ -461,10 +520,10 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
         synchronized (this) {
             List l = new LinkedList();
             l.add (v);
-            entries.put (key, l);
+            discard ((List) entries.put (key, l));
             this.notifyAll ();
             if (timeout > 0) {
-                registerExpirable(key, timeout);
+                registerExpirable(key, (Expirable) v);
             }
         }
         if (sl != null)
@@ -524,29 +583,16 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
     private Object getHead (Object key, boolean remove) {
         Object obj = null;
         List l = (List) entries.get (key);
-        boolean wasExpirable = false;
         while (obj == null && l != null && l.size() > 0) {
-            obj = l.get(0);
-            if (obj instanceof Expirable) { 
-                obj = ((Expirable) obj).getValue();
-                wasExpirable = true;
-            }
-            if (obj == null) {
+            Object o = l.get(0);
+            obj = o instanceof Expirable ? ((Expirable) o).getValue() : o;
+            if (obj == null || remove) {
                 l.remove (0);
-                if (l.isEmpty()) {
-                    entries.remove (key);
-                }
-            }
-        }
-        if (l != null) {
-            if (remove && obj != null)
-                l.remove (0);
-            if (l.isEmpty()) {
-                entries.remove (key);
-                if (wasExpirable)
-                    unregisterExpirable(key);
+                discard (o);
             }
         }
+        if (l != null && l.isEmpty())
+            entries.remove (key);
         return obj;
     }
 
@@ -556,33 +602,55 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
         List l = (List) entries.get (key);
         if (l != null) {
             Iterator iter = l.iterator();
-            boolean wasExpirable = false;
             while (iter.hasNext()) {
-                obj = iter.next();
-                if (obj instanceof Expirable) {
-                    obj = ((Expirable) obj).getValue();
-                    if (obj == null) {
-                        iter.remove();
-                        wasExpirable = true;
-                        continue;
-                    }
+                Object o = iter.next();
+                obj = o instanceof Expirable ? ((Expirable) o).getValue() : o;
+                if (obj == null) {
+                    iter.remove();
+                    discard (o);
+                    continue;
                 }
                 if (tmpl.equals (obj)) {
-                    if (remove)
+                    if (remove) {
                         iter.remove();
+                        discard (o);
+                    }
                     break;
                 } else
                     obj = null;
             }
-            if (l.isEmpty()) {
+            if (l.isEmpty())
                 entries.remove (key);
-                if (wasExpirable)
-                    unregisterExpirable(key);
-            }
         }
         return obj;
     }
 
+    @SuppressWarnings("unchecked")
+    private int take (Object key, Collection<? super V> c, int max) {
+        int n = 0;
+        if (key instanceof Template tmpl) {
+            Object obj;
+            while (n < max && (obj = getObject (tmpl, true)) != null) {
+                c.add ((V) obj);
+                n++;
+            }
+            return n;
+        }
+        List<Object> l = (List<Object>) entries.get (key);
+        while (n < max && l != null && !l.isEmpty()) {
+            Object o = l.remove (0);
+            discard (o);
+            Object obj = o instanceof Expirable ? ((Expirable) o).getValue() : o;
+            if (obj != null) {
+                c.add ((V) obj);
+                n++;
+            }
+        }
+        if (l != null && l.isEmpty())
+            entries.remove (key);
+        return n;
+    }
+
     private TSpace getSL() {
         synchronized (this) {
             if (sl == null)
@@ -591,13 +659,23 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
         return sl;
     }
 
-    private void registerExpirable(K k, long t) {
-        expirables[t > GCLONG ? 1 : 0].add(k);
+    private void registerExpirable(K k, Expirable exp) {
+        exp.key = k;
+        exp.timer = leases.schedule(exp, exp.expires);
     }
 
-    private void unregisterExpirable(Object k) {
-        for (Set<K> s : expirables)
-            s.remove(k);
+    private void discard (Object o) {
+        if (o instanceof Expirable exp) {
+            leases.cancel(exp.timer);
+            exp.timer = null;
+        }
+    }
+
+    private void discard (List l) {
+        if (l != null) {
+            for (Object o : l)
+                discard (o);
+        }
     }
 
     static class Expirable implements Comparable, Serializable {
@@ -612,6 +690,9 @@ public class TSpace<K,V> implements LocalSpace<K,V>, Loggeable, Runnable {
          */
         long expires;
 
+        transient Object key;
+        transient TimingWheel.Entry<Expirable> timer;
+
         Expirable (Object value, long expires) {
             super();
             this.value = value;
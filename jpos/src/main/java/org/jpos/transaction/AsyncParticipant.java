@@ -0,0 +1,59 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Participant whose prepare phase completes asynchronously.
+ * <p>
+ * While the returned stage is pending, the TransactionManager parks the
+ * transaction and releases its session slot, so a long-running host call
+ * does not count against {@code max-sessions}. The participant chain is
+ * resumed once the stage completes.
+ *
+ * @since 3.0.2
+ */
+public interface AsyncParticipant extends TransactionParticipant {
+    /**
+     * Called by TransactionManager in preparation for a transaction
+     * @param id the Transaction identifier
+     * @param context transaction context
+     * @return a stage completing with PREPARED or ABORTED (| NO_JOIN | READONLY)
+     */
+    CompletionStage<Integer> prepareAsync(long id, Serializable context);
+
+    /**
+     * Synchronous variant, waits for {@link #prepareAsync(long, Serializable)}.
+     *
+     * @param id the Transaction identifier
+     * @param context transaction context
+     * @return PREPARED or ABORTED (| NO_JOIN | READONLY)
+     */
+    @Override
+    default int prepare(long id, Serializable context) {
+        try {
+            return prepareAsync(id, context).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            return ABORTED;
+        }
+    }
+}
@@ -39,16 +39,31 @@ import java.util.stream.Stream;
 
 import static org.jpos.transaction.ContextConstants.*;
 
-/** Transaction context carrying typed key-value pairs that flow through participant pipelines. */
+/**
+ * Transaction context carrying typed key-value pairs that flow through participant pipelines.
+ *
+ * <p>Entries are kept in lock-free maps, so concurrent participants (e.g. those
+ * run by {@code Join} or a parallel group) can read and write without
+ * serializing on the context. Only persistent entries are written by
+ * {@link #writeExternal}.</p>
+ *
+ * <p>Persistent entries are written in the legacy Java serialized format
+ * unless the {@code jpos.context.format=codec} system property (or
+ * {@link #setCodecFormat(boolean)}) selects the compact {@link ContextCodec}
+ * format, which earlier jPOS versions can't read. {@link ContextCodec#setStrict strict}
+ * mode implies the codec format and rejects Java serialized entries on read.</p>
+ */
 public class Context implements Externalizable, Loggeable, Cloneable, Pausable, AuditLogEventConvertible {
     @Serial
     private static final long serialVersionUID = 2604524947983441462L;
-    private transient Map<Object,Object> map; // transient map
-    private Map<Object,Object> pmap;          // persistent (serializable) map
+    private transient ContextMap map = new ContextMap(); // transient map
+    private ContextMap pmap = new ContextMap();          // persistent (serializable) map
     private transient boolean trace = false;
     private CompletableFuture<Integer> pausedFuture;
     private long timeout;
     private final Lock lock = new ReentrantLock();
+    private static volatile boolean codecFormat =
+      "codec".equalsIgnoreCase (System.getProperty ("jpos.context.format", "legacy"));
     /** Default constructor. */
     public Context () {
         super ();
@@ -65,10 +80,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
                 String.format("%s='%s' [%s]", getKeyName(key), value, Caller.info(1))
             );
         }
-        getMap().put (key, value);
-        synchronized (this) {
-            notifyAll();
-        }
+        map.put (key, value);
     }
     /**
      * Puts an Object in the transient or persistent Map.
@@ -82,9 +94,9 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
                 String.format("%s(P)='%s' [%s]", getKeyName(key), value, Caller.info(1))
             );
         }
-        if (persist && value instanceof Serializable)
-            getPMap().put (key, value);
-        getMap().put(key, value);
+        if (persist && ContextCodec.isSupported(value))
+            pmap.put (key, value);
+        map.put(key, value);
     }
 
     /**
@@ -93,8 +105,8 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      */
     public void persist (Object key) {
         Object value = get(key);
-        if (value instanceof Serializable)
-            getPMap().put (key, value);
+        if (ContextCodec.isSupported(value))
+            pmap.put (key, value);
     }
 
     /**
@@ -102,7 +114,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @param key the key
      */
     public void evict (Object key) {
-        getPMap().remove (key);
+        pmap.remove (key);
     }
 
     /**
@@ -114,7 +126,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      */
     public <T> T get(Object key) {
         @SuppressWarnings("unchecked")
-        T obj = (T) getMap().get(key);
+        T obj = (T) map.get(key);
         return obj;
     }
 
@@ -124,7 +136,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @return true if present
      */
     public boolean hasKey(Object key) {
-        return getMap().containsKey(key);
+        return map.containsKey(key);
     }
 
     /**
@@ -142,7 +154,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      *         within a String key) are present in the map, false otherwise.
      */
     public boolean hasKeys(Object... keys) {
-        Map<Object,Object> m = getMap();
+        Map<Object,Object> m = map;
         return Arrays.stream(keys)
           .flatMap(obj -> obj instanceof Object[] ? Arrays.stream((Object[]) obj) : Stream.of(obj))
           .allMatch(key -> {
@@ -177,7 +189,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      *         a String key) are present in the map, an empty string is returned.
      */
     public String keysNotPresent (Object... keys) {
-        Map<Object, Object> m = getMap();
+        Map<Object, Object> m = map;
         StringJoiner notFoundKeys = new StringJoiner(",");
 
         Arrays.stream(keys)
@@ -213,7 +225,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @return true if present
      */
     public boolean hasPersistedKey(Object key) {
-        return getPMap().containsKey(key);
+        return pmap.containsKey(key);
     }
 
     /**
@@ -224,12 +236,13 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @param to destination key
      * @return the moved value (or null if source key not present)
      */
-    public synchronized <T> T move(Object from, Object to) {
-        T obj = get(from);
-        if (obj != null) {
-            put(to, obj, hasPersistedKey(from));
-            remove(from);
-        }
+    @SuppressWarnings("unchecked")
+    public <T> T move(Object from, Object to) {
+        if (map.get(from) == null)
+            return null;
+        T obj = (T) map.remove(from); // whoever removes it owns the move
+        if (obj != null)
+            put(to, obj, pmap.remove(from) != null);
         return obj;
     }
 
@@ -243,7 +256,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      */
     public <T> T get(Object key, T defValue) {
         @SuppressWarnings("unchecked")
-        T obj = (T) getMap().get(key);
+        T obj = (T) map.get(key);
         return obj != null ? obj : defValue;
     }
 
@@ -253,10 +266,10 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @param key the key to remove
      * @return the removed value, or null
      */
-    public synchronized <T> T remove(Object key) {
-        getPMap().remove(key);
+    public <T> T remove(Object key) {
+        pmap.remove(key);
         @SuppressWarnings("unchecked")
-        T obj = (T) getMap().remove(key);
+        T obj = (T) map.remove(key);
         return obj;
     }
 
@@ -266,7 +279,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @return the value as a String, or null
      */
     public String getString (Object key) {
-        Object obj = getMap().get (key);
+        Object obj = map.get (key);
         if (obj instanceof String)
             return (String) obj;
         else if (obj != null)
@@ -280,7 +293,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @return the value as String, or defValue
      */
     public String getString (Object key, String defValue) {
-        Object obj = getMap().get (key);
+        Object obj = map.get (key);
         if (obj instanceof String)
             return (String) obj;
         else if (obj != null)
@@ -368,57 +381,114 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
         return v.toString();
     }
     /**
-     * Retrieves a persistent value by key, waiting up to {@code timeout} milliseconds.
+     * Retrieves a value by key, waiting up to {@code timeout} milliseconds for it to be set.
+     * <p>Waiters park on a per-key future; they don't hold the context's monitor.</p>
      * @param <T> the expected return type
      * @param key the key
      * @param timeout maximum wait time in milliseconds
      * @return the value, or {@code null} on timeout
      */
     @SuppressWarnings("unchecked")
-    public synchronized <T> T get (Object key, long timeout) {
-        T obj;
-        long now = System.currentTimeMillis();
-        long end = now + timeout;
-        while ((obj = (T) map.get (key)) == null &&
-                (now = System.currentTimeMillis()) < end)
-        {
-            try {
-                if (end > now)
-                    this.wait (end - now);
-            } catch (InterruptedException ignored) { }
-        }
-        return obj;
+    public <T> T get (Object key, long timeout) {
+        return (T) map.await (key, timeout);
     }
+
+    /**
+     * Returns a future completed with the first non-null value placed under {@code key}.
+     * <p>The future is already complete if the key is present. It never completes
+     * exceptionally, callers should apply their own timeout.</p>
+     * @param <T> the expected value type
+     * @param key the key
+     * @return future for the key's value
+     * @since 3.0.2
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync (Object key) {
+        return (CompletableFuture<T>) map.future (key);
+    }
+    /**
+     * Selects the format used by {@link #writeExternal}.
+     * <p>The {@link ContextCodec} format can't be read by jPOS versions prior
+     * to 3.0.2, so it is opt-in (it also defaults to the
+     * {@code jpos.context.format=codec} system property); both formats are
+     * always readable.</p>
+     * @param codec true to write {@link ContextCodec} entries, false for Java serialized entries
+     * @since 3.0.2
+     */
+    public static void setCodecFormat (boolean codec) {
+        codecFormat = codec;
+    }
+    /**
+     * @return true if {@link #writeExternal} uses the {@link ContextCodec} format
+     * @since 3.0.2
+     */
+    public static boolean isCodecFormat () {
+        return codecFormat;
+    }
+    /**
+     * Writes the persistent entries, using {@link ContextCodec} when
+     * {@link #isCodecFormat()} or {@link ContextCodec#isStrict()}, plain Java
+     * serialization otherwise.
+     * @param out destination
+     * @throws IOException on write error
+     */
     public void writeExternal (ObjectOutput out) throws IOException {
-        out.writeByte (0);  // reserved for future expansion (version id)
-        Set s = getPMap().entrySet();
-        out.writeInt (s.size());
-        Iterator iter = s.iterator();
-        while (iter.hasNext()) {
-            Map.Entry entry = (Map.Entry) iter.next();
-            out.writeObject(entry.getKey());
-            out.writeObject(entry.getValue());
+        List<Map.Entry<Object,Object>> entries = new ArrayList<>(pmap.entrySet());
+        if (codecFormat || ContextCodec.isStrict()) {
+            out.writeByte (1);  // version: 0 = Java serialized entries, 1 = ContextCodec
+            ContextCodec.writeVarInt (out, entries.size());
+            for (Map.Entry<Object,Object> entry : entries) {
+                ContextCodec.write (out, entry.getKey());
+                ContextCodec.write (out, entry.getValue());
+            }
+        } else {
+            // codec-only (non Serializable) values can't be written in this format
+            entries.removeIf (e -> !(e.getValue() instanceof Serializable));
+            out.writeByte (0);
+            out.writeInt (entries.size());
+            for (Map.Entry<Object,Object> entry : entries) {
+                out.writeObject (entry.getKey());
+                out.writeObject (entry.getValue());
+            }
         }
     }
+    /**
+     * Reads persistent entries written by {@link #writeExternal}, or by
+     * earlier versions that used plain Java serialization (unless
+     * {@link ContextCodec#isStrict() strict}).
+     * @param in source
+     * @throws IOException on read error, or legacy format in strict mode
+     * @throws ClassNotFoundException if a Java serialized entry references an unknown class
+     */
     public void readExternal  (ObjectInput in) 
         throws IOException, ClassNotFoundException
     {
-        in.readByte();  // ignore version for now
-        getMap();       // force creation of map
-        getPMap();      // and pmap
-        int size = in.readInt();
-        for (int i=0; i<size; i++) {
-            String k = (String) in.readObject();
-            Object v = in.readObject();
-            map.put (k, v);
-            pmap.put (k, v);
+        int version = in.readByte();
+        if (version == 0 && ContextCodec.isStrict())
+            throw new InvalidObjectException ("legacy context format rejected in strict mode");
+        if (version == 0) {
+            int size = in.readInt();
+            for (int i=0; i<size; i++) {
+                Object k = in.readObject();
+                Object v = in.readObject();
+                map.put (k, v);
+                pmap.put (k, v);
+            }
+        } else {
+            int size = ContextCodec.readVarInt (in);
+            for (int i=0; i<size; i++) {
+                Object k = ContextCodec.read (in);
+                Object v = ContextCodec.read (in);
+                map.put (k, v);
+                pmap.put (k, v);
+            }
         }
     }
 
     /**
      * Creates a copy of the current Context object.
      * <p>
-     * This method clones the Context object, creating new synchronized map containers
+     * This method clones the Context object, creating new map containers
      * that are independent of the original. However, the keys and values themselves
      * are <b>not cloned</b> - both Context instances will share references to the same
      * key/value objects. Structural changes (add/remove operations) to one Context's
@@ -426,8 +496,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * will be visible in both Contexts.
      * </p>
      * <p>
-     * The cloned Context preserves the thread-safety characteristics through
-     * {@code Collections.synchronizedMap} wrappers.
+     * The cloned Context uses the same lock-free maps as the original.
      * </p>
      *
      * @return a copy of the current Context object with independent map containers
@@ -437,14 +506,8 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
     public Context clone() {
         try {
             Context context = (Context) super.clone();
-            if (map != null) {
-                context.map = Collections.synchronizedMap (new LinkedHashMap<>());
-                context.map.putAll(map);
-            }
-            if (pmap != null) {
-                context.pmap = Collections.synchronizedMap (new LinkedHashMap<>());
-                context.pmap.putAll(pmap);
-            }
+            context.map = new ContextMap(map);
+            context.pmap = new ContextMap(pmap);
             return context;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError(); // Should not happen
@@ -467,8 +530,8 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      */
     public Context clone(Object... keys) {
         Context clonedContext = new Context();
-        Map<Object, Object> m = getMap();
-        Map<Object, Object> pm = getPMap();
+        Map<Object, Object> m = map;
+        Map<Object, Object> pm = pmap;
         Arrays.stream(keys)
           .flatMap(obj -> obj instanceof Object[] ? Arrays.stream((Object[]) obj) : Stream.of(obj))
           .flatMap(obj -> {
@@ -502,7 +565,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      */
     public void merge(Context c) {
         if (c != null) {
-            c.getMap().forEach((key, value) -> put(key, value, c.hasPersistedKey(key)));
+            c.map.forEach((key, value) -> put(key, value, c.hasPersistedKey(key)));
         }
     }
     @Override
@@ -521,21 +584,11 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
     }
 
     /**
-     * Returns the persistent map, creating it lazily.
-     * @return persistent map
-     */
-    private synchronized Map<Object,Object> getPMap() {
-        if (pmap == null)
-            pmap = Collections.synchronizedMap (new LinkedHashMap<> ());
-        return pmap;
-    }
-    /**
-     * Returns the transient map, creating it lazily.
+     * Returns the transient map.
+     * <p>The map is thread safe and iterates, over a snapshot, in insertion order.</p>
      * @return transient map
      */
-    public synchronized Map<Object,Object> getMap() {
-        if (map == null)
-            map = Collections.synchronizedMap (new LinkedHashMap<>());
+    public Map<Object,Object> getMap() {
         return map;
     }
 
@@ -546,9 +599,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
     @JsonIgnore
     public Map<Object,Object> getMapClone() {
         Map<Object,Object> cloned = Collections.synchronizedMap (new LinkedHashMap<>());
-        synchronized(getMap()) {
-            cloned.putAll(map);
-        }
+        cloned.putAll(map);
         return cloned;
     }
 
@@ -558,9 +609,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @param indent indentation prefix
      */
     protected void dumpMap (PrintStream p, String indent) {
-        if (map != null) {
-            getMapClone().entrySet().forEach(e -> dumpEntry(p, indent, e));
-        }
+        map.entrySet().forEach(e -> dumpEntry(p, indent, e));
     }
 
     /**
@@ -574,7 +623,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
         if (entry.getKey() instanceof Inhibit || key.startsWith(".") || key.startsWith("*"))
             return; // see jPOS-63
 
-        p.printf("%s%s%s: ", indent, key, pmap != null && pmap.containsKey(key) ? "(P)" : "");
+        p.printf("%s%s%s: ", indent, key, pmap.containsKey(key) ? "(P)" : "");
         Object value = entry.getValue();
         if (value instanceof Loggeable) {
             p.println();
@@ -627,39 +676,27 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * If there's no LogEvent there, it creates one.
      * @return LogEvent
      */
-    synchronized public LogEvent getLogEvent () {
-        LogEvent evt = get (LOGEVT.toString());
-        if (evt == null) {
-            evt = new LogEvent ();
+    public LogEvent getLogEvent () {
+        return (LogEvent) map.computeIfAbsent (LOGEVT.toString(), k -> {
+            LogEvent evt = new LogEvent ();
             evt.setNoArmor(true);
-            put (LOGEVT.toString(), evt);
-        }
-        return evt;
+            return evt;
+        });
     }
     /**
      * return (or creates) a Profiler object
      * @return Profiler object
      */
-    synchronized public Profiler getProfiler () {
-        Profiler prof = get (PROFILER.toString());
-        if (prof == null) {
-            prof = new Profiler();
-            put (PROFILER.toString(), prof);
-        }
-        return prof;
+    public Profiler getProfiler () {
+        return (Profiler) map.computeIfAbsent (PROFILER.toString(), k -> new Profiler());
     }
 
     /**
      * return (or creates) a Resultr object
      * @return Profiler object
      */
-    synchronized public Result getResult () {
-        Result result = get (RESULT.toString());
-        if (result == null) {
-            result = new Result();
-            put (RESULT.toString(), result);
-        }
-        return result;
+    public Result getResult () {
+        return (Result) map.computeIfAbsent (RESULT.toString(), k -> new Result());
     }
 
     /**
@@ -667,7 +704,7 @@ public class Context implements Externalizable, Loggeable, Cloneable, Pausable,
      * @param msg trace information
      */
     public void log (Object msg) {
-        if (msg != getMap()) // prevent recursive call to dump (and StackOverflow)
+        if (msg != map) // prevent recursive call to dump (and StackOverflow)
             getLogEvent().addMessage (msg);
     }
     /**
@@ -0,0 +1,336 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import org.jpos.iso.ISOMsg;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact, tagged binary encoding for the persisted entries of a {@link Context}.
+ *
+ * <p>Each value is written as a one-byte tag followed by a type specific
+ * payload. Strings, numbers, {@code byte[]}, {@link Instant}, enums (used as
+ * context keys), {@link TxnId} and plain {@link ISOMsg}s are built in; other
+ * types can be added with {@link #register}. Values without a codec fall back
+ * to {@link ObjectOutput#writeObject}, so a context made of known types can
+ * be recovered without going through Java deserialization.</p>
+ *
+ * <p>Reading still accepts those Java serialized values unless {@link #setStrict strict}
+ * mode is on; only strict mode removes Java deserialization from the read path.</p>
+ *
+ * <p>Tags below {@link #CUSTOM} are reserved for jPOS.</p>
+ *
+ * @since 3.0.2
+ */
+public final class ContextCodec {
+    /** First tag available to {@link #register custom codecs}. */
+    public static final int CUSTOM = 64;
+
+    private static final int NULL       = 0;
+    private static final int STRING     = 1;
+    private static final int LONG       = 2;
+    private static final int INTEGER    = 3;
+    private static final int BOOLEAN    = 4;
+    private static final int BIGDECIMAL = 5;
+    private static final int BYTES      = 6;
+    private static final int ISOMSG     = 7;
+    private static final int TXNID      = 8;
+    private static final int INSTANT    = 9;
+    private static final int ENUM       = 10;
+    private static final int JAVA       = 255;
+
+    private static volatile boolean strict = Boolean.getBoolean ("jpos.context.strict");
+    private static final Map<Class<?>,Registration<?>> byType = new ConcurrentHashMap<>();
+    private static final Registration<?>[] byTag = new Registration<?>[256];
+
+    /**
+     * Encodes and decodes values of a given type.
+     *
+     * @param <T> value type
+     */
+    public interface Codec<T> {
+        /**
+         * Writes {@code value}.
+         *
+         * @param out destination
+         * @param value non-null value
+         * @throws IOException on write error
+         */
+        void write (DataOutput out, T value) throws IOException;
+
+        /**
+         * Reads a value previously written by {@link #write}.
+         *
+         * @param in source
+         * @return the value
+         * @throws IOException on read error
+         */
+        T read (DataInput in) throws IOException;
+    }
+
+    private record Registration<T> (int tag, Class<T> type, Codec<T> codec) { }
+
+    static {
+        builtin (STRING, String.class, new Codec<>() {
+            public void write (DataOutput out, String s) throws IOException { writeString (out, s); }
+            public String read (DataInput in) throws IOException { return readString (in); }
+        });
+        builtin (LONG, Long.class, new Codec<>() {
+            public void write (DataOutput out, Long l) throws IOException { out.writeLong (l); }
+            public Long read (DataInput in) throws IOException { return in.readLong(); }
+        });
+        builtin (INTEGER, Integer.class, new Codec<>() {
+            public void write (DataOutput out, Integer i) throws IOException { out.writeInt (i); }
+            public Integer read (DataInput in) throws IOException { return in.readInt(); }
+        });
+        builtin (BOOLEAN, Boolean.class, new Codec<>() {
+            public void write (DataOutput out, Boolean b) throws IOException { out.writeBoolean (b); }
+            public Boolean read (DataInput in) throws IOException { return in.readBoolean(); }
+        });
+        builtin (BIGDECIMAL, BigDecimal.class, new Codec<>() {
+            public void write (DataOutput out, BigDecimal d) throws IOException {
+                writeVarInt (out, d.scale());
+                writeBytes (out, d.unscaledValue().toByteArray());
+            }
+            public BigDecimal read (DataInput in) throws IOException {
+                int scale = readVarInt (in);
+                return new BigDecimal (new BigInteger (readBytes (in)), scale);
+            }
+        });
+        builtin (BYTES, byte[].class, new Codec<>() {
+            public void write (DataOutput out, byte[] b) throws IOException { writeBytes (out, b); }
+            public byte[] read (DataInput in) throws IOException { return readBytes (in); }
+        });
+        builtin (TXNID, TxnId.class, new Codec<>() {
+            public void write (DataOutput out, TxnId id) throws IOException { out.writeLong (id.id()); }
+            public TxnId read (DataInput in) throws IOException { return TxnId.parse (in.readLong()); }
+        });
+        builtin (INSTANT, Instant.class, new Codec<>() {
+            public void write (DataOutput out, Instant i) throws IOException {
+                out.writeLong (i.getEpochSecond());
+                out.writeInt (i.getNano());
+            }
+            public Instant read (DataInput in) throws IOException {
+                return Instant.ofEpochSecond (in.readLong(), in.readInt());
+            }
+        });
+    }
+
+    private ContextCodec() { }
+
+    /**
+     * Registers a codec for values whose class is exactly {@code type}.
+     *
+     * @param <T> value type
+     * @param tag tag written ahead of the value, between {@link #CUSTOM} and 254
+     * @param type value class
+     * @param codec the codec
+     * @throws IllegalArgumentException if the tag is out of range or already
+     *         taken by a different type
+     */
+    public static <T> void register (int tag, Class<T> type, Codec<T> codec) {
+        if (tag < CUSTOM || tag >= JAVA)
+            throw new IllegalArgumentException ("tag " + tag + " out of range");
+        add (new Registration<> (tag, type, codec));
+    }
+
+    /**
+     * Enables or disables strict mode (it defaults to the {@code jpos.context.strict}
+     * system property).
+     *
+     * <p>In strict mode {@link #read} rejects Java serialized values and
+     * {@link Context#readExternal} rejects the legacy Java serialized format, so
+     * recovering a context never calls {@link ObjectInput#readObject}. Contexts
+     * are then always written in the codec format, and persisted values need a
+     * built-in or {@link #register registered} codec in order to be read back.</p>
+     *
+     * @param strict true to reject Java serialized values
+     */
+    public static void setStrict (boolean strict) {
+        ContextCodec.strict = strict;
+    }
+
+    /**
+     * @return true if Java serialized values are rejected on read
+     */
+    public static boolean isStrict () {
+        return strict;
+    }
+
+    /**
+     * Tells whether {@code value} can be persisted in a {@link Context}, either
+     * through a codec or through Java serialization.
+     *
+     * @param value the value
+     * @return true if the value can be written
+     */
+    public static boolean isSupported (Object value) {
+        return value instanceof Serializable || value != null && byType.containsKey (value.getClass());
+    }
+
+    /**
+     * Writes {@code value} to {@code out}.
+     *
+     * @param out destination
+     * @param value value to write, may be null
+     * @throws IOException on write error
+     */
+    @SuppressWarnings("unchecked")
+    public static void write (ObjectOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte (NULL);
+            return;
+        }
+        Class<?> c = value.getClass();
+        Registration<Object> r = (Registration<Object>) byType.get (c);
+        if (r != null) {
+            out.writeByte (r.tag);
+            r.codec.write (out, value);
+        } else if (c == ISOMsg.class) {
+            out.writeByte (ISOMSG);
+            ((ISOMsg) value).writeExternal (out);
+        } else if (value instanceof Enum<?> e) {
+            out.writeByte (ENUM);
+            writeString (out, e.getDeclaringClass().getName());
+            writeString (out, e.name());
+        } else {
+            out.writeByte (JAVA);
+            out.writeObject (value);
+        }
+    }
+
+    /**
+     * Reads a value written by {@link #write}.
+     *
+     * @param in source
+     * @return the value, may be null
+     * @throws IOException on read error, unknown tag, or Java serialized value in strict mode
+     * @throws ClassNotFoundException if a Java serialized value references an unknown class
+     */
+    public static Object read (ObjectInput in) throws IOException, ClassNotFoundException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case ISOMSG:
+                ISOMsg m = new ISOMsg();
+                m.readExternal (in);
+                return m;
+            case ENUM:
+                return readEnum (readString (in), readString (in));
+            case JAVA:
+                if (strict)
+                    throw new InvalidObjectException ("Java serialized context value rejected in strict mode");
+                return in.readObject();
+            default:
+                Registration<?> r = byTag[tag];
+                if (r == null)
+                    throw new StreamCorruptedException ("unknown context codec tag " + tag);
+                return r.codec.read (in);
+        }
+    }
+
+    /**
+     * Writes {@code i} using 1 to 5 bytes, 7 bits at a time.
+     *
+     * @param out destination
+     * @param i non-negative value
+     * @throws IOException on write error
+     */
+    public static void writeVarInt (DataOutput out, int i) throws IOException {
+        while ((i & ~0x7F) != 0) {
+            out.writeByte ((i & 0x7F) | 0x80);
+            i >>>= 7;
+        }
+        out.writeByte (i);
+    }
+
+    /**
+     * Reads a value written by {@link #writeVarInt}.
+     *
+     * @param in source
+     * @return the value
+     * @throws IOException on read error or malformed input
+     */
+    public static int readVarInt (DataInput in) throws IOException {
+        int i = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            i |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return i;
+        }
+        throw new StreamCorruptedException ("malformed varint");
+    }
+
+    private static void writeString (DataOutput out, String s) throws IOException {
+        writeBytes (out, s.getBytes (StandardCharsets.UTF_8));
+    }
+
+    private static String readString (DataInput in) throws IOException {
+        return new String (readBytes (in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes (DataOutput out, byte[] b) throws IOException {
+        writeVarInt (out, b.length);
+        out.write (b);
+    }
+
+    private static byte[] readBytes (DataInput in) throws IOException {
+        int len = readVarInt (in);
+        if (len < 0)
+            throw new StreamCorruptedException ("negative length");
+        byte[] b = new byte[len];
+        in.readFully (b);
+        return b;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum (String className, String name) throws IOException {
+        try {
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            Class<?> c = Class.forName (className, false, cl != null ? cl : ContextCodec.class.getClassLoader());
+            if (!c.isEnum())
+                throw new InvalidClassException (className, "not an enum");
+            return Enum.valueOf ((Class<? extends Enum>) c, name);
+        } catch (ClassNotFoundException | IllegalArgumentException e) {
+            throw new InvalidObjectException ("invalid enum " + className + "." + name);
+        }
+    }
+
+    private static <T> void builtin (int tag, Class<T> type, Codec<T> codec) {
+        add (new Registration<> (tag, type, codec));
+    }
+
+    private static synchronized void add (Registration<?> r) {
+        Registration<?> existing = byTag[r.tag];
+        if (existing != null && !Objects.equals (existing.type, r.type))
+            throw new IllegalArgumentException ("tag " + r.tag + " already registered for " + existing.type.getName());
+        byTag[r.tag] = r;
+        byType.put (r.type, r);
+    }
+}
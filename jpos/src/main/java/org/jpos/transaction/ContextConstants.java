@@ -79,7 +79,13 @@ public enum ContextConstants {
     /** Routing destination chosen for the transaction. */
     DESTINATION,
     /** Panic flag indicating the transaction must abort immediately. */
-    PANIC;
+    PANIC,
+    /**
+     * Absolute deadline for the transaction ({@link java.time.Instant} or epoch millis);
+     * participants talking to remote hosts use the remaining budget as their timeout.
+     * @since 3.0.2
+     */
+    DEADLINE;
 
     private final String name;
 
@@ -0,0 +1,211 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Lock-free map backing a {@link Context}.
+ *
+ * <p>Entries live in a {@link ConcurrentHashMap}, so readers never block and
+ * writers only contend on the same bin. Unlike {@code ConcurrentHashMap} it
+ * accepts {@code null} keys and values and iterates in insertion order (the
+ * order in which keys were first added), as {@code LinkedHashMap} did, so
+ * context dumps keep their familiar layout. Iteration works on a snapshot
+ * and never throws {@link ConcurrentModificationException}.</p>
+ *
+ * <p>Callers waiting for a key ({@link #await}, {@link #future}) share a
+ * per-key {@link CompletableFuture} that is completed by the first non-null
+ * {@code put} for that key.</p>
+ *
+ * @since 3.0.2
+ */
+final class ContextMap extends AbstractMap<Object,Object> {
+    private static final Object NULL = new Object();
+    private final ConcurrentHashMap<Object,Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object,CompletableFuture<Object>> waiters = new ConcurrentHashMap<>();
+    private final AtomicLong seq = new AtomicLong();
+
+    private record Slot (long seq, Object value) { }
+
+    ContextMap () { }
+
+    ContextMap (Map<?,?> m) {
+        putAll (m);
+    }
+
+    @Override
+    public Object get (Object key) {
+        Slot s = slots.get (mask (key));
+        return s != null ? s.value : null;
+    }
+
+    @Override
+    public boolean containsKey (Object key) {
+        return slots.containsKey (mask (key));
+    }
+
+    @Override
+    public Object put (Object key, Object value) {
+        Object k = mask (key);
+        Slot[] prev = new Slot[1];
+        slots.compute (k, (kk, old) -> {
+            prev[0] = old;
+            return new Slot (old != null ? old.seq : seq.incrementAndGet(), value);
+        });
+        signal (k, value);
+        return prev[0] != null ? prev[0].value : null;
+    }
+
+    @Override
+    public Object computeIfAbsent (Object key, Function<? super Object, ?> mappingFunction) {
+        Object k = mask (key);
+        Slot s = slots.computeIfAbsent (k, kk -> new Slot (seq.incrementAndGet(), mappingFunction.apply (key)));
+        signal (k, s.value);
+        return s.value;
+    }
+
+    @Override
+    public Object remove (Object key) {
+        Slot s = slots.remove (mask (key));
+        return s != null ? s.value : null;
+    }
+
+    @Override
+    public int size () {
+        return slots.size();
+    }
+
+    @Override
+    public boolean isEmpty () {
+        return slots.isEmpty();
+    }
+
+    @Override
+    public void clear () {
+        slots.clear();
+    }
+
+    @Override
+    public Set<Entry<Object,Object>> entrySet () {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Object,Object>> iterator () {
+                Iterator<Entry<Object,Object>> it = snapshot().iterator();
+                return new Iterator<>() {
+                    private Entry<Object,Object> last;
+                    @Override
+                    public boolean hasNext () {
+                        return it.hasNext();
+                    }
+                    @Override
+                    public Entry<Object,Object> next () {
+                        return last = it.next();
+                    }
+                    @Override
+                    public void remove () {
+                        if (last == null)
+                            throw new IllegalStateException();
+                        ContextMap.this.remove (last.getKey());
+                        last = null;
+                    }
+                };
+            }
+            @Override
+            public int size () {
+                return slots.size();
+            }
+        };
+    }
+
+    /**
+     * Waits up to {@code timeout} milliseconds for {@code key} to hold a non-null value.
+     *
+     * @param key the key
+     * @param timeout maximum wait time in milliseconds
+     * @return the value, or {@code null} on timeout or interruption
+     */
+    Object await (Object key, long timeout) {
+        Object value = get (key);
+        if (value != null || timeout <= 0L)
+            return value;
+        try {
+            return future (key).get (timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return get (key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return get (key);
+        } catch (ExecutionException e) {
+            return null; // futures are never completed exceptionally
+        }
+    }
+
+    /**
+     * Returns a future completed with the first non-null value placed under {@code key}.
+     *
+     * @param key the key
+     * @return a future, already completed if the key holds a non-null value
+     */
+    CompletableFuture<Object> future (Object key) {
+        Object k = mask (key);
+        Slot s = slots.get (k);
+        if (s != null && s.value != null)
+            return CompletableFuture.completedFuture (s.value);
+        CompletableFuture<Object> f = waiters.computeIfAbsent (k, kk -> new CompletableFuture<>());
+        s = slots.get (k); // a put may have raced ahead of the waiter registration
+        if (s != null && s.value != null) {
+            waiters.remove (k, f);
+            f.complete (s.value);
+        }
+        return f;
+    }
+
+    private void signal (Object k, Object value) {
+        if (value != null && !waiters.isEmpty()) {
+            CompletableFuture<Object> f = waiters.remove (k);
+            if (f != null)
+                f.complete (value);
+        }
+    }
+
+    private List<Entry<Object,Object>> snapshot () {
+        List<Map.Entry<Object,Slot>> l = new ArrayList<> (slots.entrySet());
+        l.sort (Comparator.comparingLong (e -> e.getValue().seq));
+        List<Entry<Object,Object>> entries = new ArrayList<> (l.size());
+        for (Map.Entry<Object,Slot> e : l)
+            entries.add (new SimpleImmutableEntry<> (unmask (e.getKey()), e.getValue().value));
+        return entries;
+    }
+
+    private static Object mask (Object key) {
+        return key != null ? key : NULL;
+    }
+
+    private static Object unmask (Object key) {
+        return key == NULL ? null : key;
+    }
+}
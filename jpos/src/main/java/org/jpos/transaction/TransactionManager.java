@@ -34,6 +34,7 @@ import org.jpos.function.TriConsumer;
 import org.jpos.function.TriFunction;
 import org.jpos.jfr.TMEvent;
 import org.jpos.metrics.MeterFactory;
+import org.jpos.q2.Q2;
 import org.jpos.q2.QBeanSupport;
 import org.jpos.q2.QFactory;
 import org.jpos.space.*;
@@ -49,6 +50,8 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -83,6 +86,8 @@ public class TransactionManager
     public static final String  GROUPS     = "$GROUPS.";
     /** Space-key under which retried transactions are queued for re-execution. */
     public static final String  RETRY_QUEUE = "$RETRY_QUEUE";
+    /** Persisted {@link Context} key holding the number of times a transaction has been retried. */
+    public static final String  RETRY_ATTEMPTS = "$RETRY_ATTEMPTS";
     /** State marker indicating a transaction is in the prepare phase. */
     public static final Integer PREPARING  = 0;
     /** State marker indicating a transaction is in the commit phase. */
@@ -99,18 +104,24 @@ public class TransactionManager
     /** Configured group-name to participant-list mapping. */
     protected Map<String,List<TransactionParticipant>> groups;
     private Set<Destroyable> destroyables = new HashSet<>();
+    private final List<ParallelGroup> parallelGroups = new CopyOnWriteArrayList<>();
     private static final ThreadLocal<Serializable> tlContext = new ThreadLocal<>();
     private static final ThreadLocal<Long> tlId = new ThreadLocal<>();
     private Metrics metrics;
     private Map<TransactionParticipant,ParticipantParams> params = new HashMap<>();
     private long globalMaxTime;
+    private long globalSlowThreshold;
 
     private Space<String,Object> sp;
     private Space<String,Object> psp;
     private Space<String,Object> isp;  // real input space
     private Space<String,Object> iisp; // internal input space
     private String queue;
-    private Lock tailLock = new ReentrantLock();
+    private Lane[] lanes;
+    private int laneCount;
+    private int laneSessions;
+    private Object laneKey;
+    private final AtomicLong laneCounter = new AtomicLong();
     private final List<TransactionStatusListener> statusListeners = new ArrayList<>();
     private boolean hasStatusListeners;
     private boolean doRecover;
@@ -122,12 +133,19 @@ public class TransactionManager
     private int maxActiveTransactions;
     private final AtomicInteger activeSessions = new AtomicInteger();
     private final AtomicInteger pausedSessions = new AtomicInteger();
-
-    private final AtomicLong head = new AtomicLong();
-    private final AtomicLong tail = new AtomicLong();
+    private final Lock admissionLock = new ReentrantLock();
+    private final Condition admission = admissionLock.newCondition(); // a session ended or a context was dispatched
 
     private long retryInterval = 5000L;
+    private long retryMaxInterval = 60000L;
+    private double retryBackoff = 2.0;
+    private double retryJitter = 0.2;
+    private int retryMaxAttempts;
     private long retryTimeout  = 60000L;
+    private final DelayQueue<RetryEntry> retries = new DelayQueue<>();
+    private final Lock retryLock = new ReentrantLock(); // keeps 'retries' and the persisted retry index in sync
+    private int retryIndexSize; // entries in the persisted retry index, guarded by retryLock
+    private static final int RETRY_INDEX_SLACK = 32;
     private long pauseTimeout  = 60000L;
     private boolean abortOnPauseTimeout = true;
     private Runnable retryTask = null;
@@ -137,7 +155,13 @@ public class TransactionManager
 
     private Gauge activeSessionsGauge;
     private Counter transactionCounter;
+    private Timer queueWaitTimer;
+    private Gauge retryDepthGauge;
+    private Timer retryAgeTimer;
     private boolean freezeLog;
+    private double logSampleRate;
+    private long logSlowThreshold;
+    private final Map<TransactionParticipant,String> jfrNames = new ConcurrentHashMap<>();
     private UUID uuid = UUID.randomUUID();
 
     @Override
@@ -152,10 +176,24 @@ public class TransactionManager
             throw new ConfigurationException ("queue property not specified");
         sp  = SpaceFactory.getSpace (cfg.get ("space"));
         isp = iisp = SpaceFactory.getSpace (cfg.get ("input-space", cfg.get ("space")));
-        psp  = SpaceFactory.getSpace (cfg.get ("persistent-space", this.toString()));
+        String pspName = cfg.get ("persistent-space", this.toString());
+        long initialTail = cfg.getLong ("initial-tail", 1);
+        lanes = new Lane[laneCount];
+        for (int i=0; i<laneCount; i++) {
+            // a %d placeholder in persistent-space gives each lane its own recovery space
+            Space<String,Object> lsp = pspName.contains("%d") ?
+              SpaceFactory.getSpace (String.format (pspName, i)) :
+              i == 0 ? SpaceFactory.getSpace (pspName) : lanes[0].psp;
+            lanes[i] = new Lane (i, laneCount > 1 ? queue + "." + i : queue, lsp, initialTail);
+        }
+        psp = lanes[0].psp;
         doRecover = cfg.getBoolean ("recover", psp instanceof PersistentSpace);
-        tail.set(cfg.getLong ("initial-tail", 1));
-        head.set(tail.get());
+        try {
+            String k = cfg.get ("lane-key", null);
+            laneKey = k != null ? parseContextKey (k, getClass().getClassLoader()) : null;
+        } catch (Exception e) {
+            throw new ConfigurationException ("invalid lane-key", e);
+        }
         groups = new HashMap<>();
         initParticipants (getPersist());
         initStatusListeners (getPersist());
@@ -170,7 +208,7 @@ public class TransactionManager
         tps = new TPS (cfg.getBoolean ("auto-update-tps", true));
         Thread.ofPlatform().start(this);
         if (psp.rdp (RETRY_QUEUE) != null)
-            checkRetryTask();
+            recoverRetries();
 
         if (iisp != isp) {
             Thread.ofPlatform().unstarted(
@@ -183,9 +221,15 @@ public class TransactionManager
     @Override
     public void stopService () {
         NameRegistrar.unregister(getName());
-        if (iisp != isp)
+        signalAdmission();
+        if (iisp != isp) {
             for (Object o=iisp.inp(queue); o != null; o=iisp.inp(queue))
                 isp.out(queue, o); // push back to replicated space
+            if (laneCount > 1)
+                for (Lane lane : lanes)
+                    for (Object o=iisp.inp(lane.queue); o != null; o=iisp.inp(lane.queue))
+                        isp.out(queue, o);
+        }
 
         meters.forEach(getServer().getMeterRegistry()::remove);
         tps.stop();
@@ -203,7 +247,7 @@ public class TransactionManager
      * @param context serialisable transaction context
      */
     public void queue (Serializable context) {
-        iisp.out(queue, context);
+        iisp.out(laneCount > 1 ? laneFor(context).queue : queue, context);
     }
     /**
      * Pushes a context onto the head of the input queue (LIFO ordering).
@@ -211,7 +255,7 @@ public class TransactionManager
      * @param context serialisable transaction context
      */
     public void push (Serializable context) {
-        iisp.push(queue, context);
+        iisp.push(laneCount > 1 ? laneFor(context).queue : queue, context);
     }
     /**
      * Returns the configured input queue name.
@@ -240,7 +284,7 @@ public class TransactionManager
     }
     /**
      * Returns the persistent space used to recover in-flight transactions
-     * across restarts.
+     * across restarts (the first lane's space when lanes use their own).
      *
      * @return the persistent {@link Space}
      */
@@ -250,36 +294,130 @@ public class TransactionManager
 
     @Override
     public void run () {
+        if (laneCount > 1) {
+            route();
+            return;
+        }
         while (running()) {
-            if (heavyLoaded()) {
-                ISOUtil.sleep (100L);
-                getLog().info ("HeavyLoaded - active sessions: " + getActiveSessions());
+            // a session slot is reserved before taking from the queue, so a
+            // context is never taken (and pushed back) while we are at capacity
+            if (!awaitAdmission (() -> !heavyLoaded(), 1000L)) {
+                if (running())
+                    getLog().info ("HeavyLoaded - active sessions: " + getActiveSessions());
                 continue;
             }
             Object obj = iisp.in (queue, MAX_WAIT);
             if (obj instanceof Serializable context) {
-                if (getActiveSessions() <= maxSessions) {
-                    if (context instanceof Context ctx)
-                        ctx.log ("active=%d, maxSessions=%d".formatted(getActiveSessions(), maxSessions));
-                    int session = activeSessions.incrementAndGet();
-                    transactionCounter.increment();
-                    executor.execute(() -> {
-                        try {
-                            runTransaction(context, session);
-                        } finally {
-                            activeSessions.decrementAndGet();
+                if (iisp != isp)
+                    signalAdmission(); // input queue monitor may forward more
+                recordQueueWait (context);
+                if (context instanceof Context ctx)
+                    ctx.log ("active=%d, maxSessions=%d".formatted(getActiveSessions(), maxSessions));
+                int session = activeSessions.incrementAndGet();
+                transactionCounter.increment();
+                executor.execute(() -> {
+                    try {
+                        runTransaction(context, session, lanes[0]);
+                    } finally {
+                        activeSessions.decrementAndGet();
+                        signalAdmission();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Sharded mode: starts one loop per lane and routes contexts from the
+     * input queue to their lane queue according to {@code lane-key}.
+     */
+    private void route () {
+        for (Lane lane : lanes)
+            Thread.ofPlatform().name(getName() + "-lane-" + lane.index).start(() -> runLane(lane));
+        while (running()) {
+            Object obj = iisp.in (queue, MAX_WAIT);
+            if (obj instanceof Serializable context) {
+                if (!running()) {
+                    iisp.push (queue, context); // place it back
+                    break;
+                }
+                if (iisp != isp)
+                    signalAdmission(); // input queue monitor may forward more
+                iisp.out (laneFor(context).queue, context);
+            }
+        }
+    }
+
+    /**
+     * Runs the transactions routed to {@code lane} using up to {@code laneSessions}
+     * concurrent sessions. Contexts sharing the same {@code lane-key} value are
+     * processed one at a time, in order; a busy (or paused) key only holds back
+     * its own followers, not the rest of the lane.
+     */
+    private void runLane (Lane lane) {
+        while (running()) {
+            if (!awaitAdmission (() -> !heavyLoaded (lane), 1000L))
+                continue;
+            Object obj = iisp.in (lane.queue, MAX_WAIT);
+            if (obj instanceof Serializable context) {
+                if (!running()) {
+                    iisp.push (lane.queue, context); // place it back
+                    break;
+                }
+                Object key = laneKeyOf (context);
+                if (key != null) {
+                    synchronized (lane.keys) {
+                        Deque<Serializable> followers = lane.keys.get (key);
+                        if (followers != null) {
+                            followers.add (context); // same key is in progress, keep its order
+                            continue;
                         }
-                    });
+                        lane.keys.put (key, new ArrayDeque<>());
+                    }
                 }
-                else {
-                    iisp.push(queue, context);  // push it back
-                    ISOUtil.sleep(100L);
+                int session = activeSessions.incrementAndGet();
+                lane.active.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        runLaneTransactions (lane, key, context, session);
+                    } finally {
+                        lane.active.decrementAndGet();
+                        activeSessions.decrementAndGet();
+                        signalAdmission();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Runs {@code context} and then, while holding the same session, any
+     * followers queued for its {@code key} in the meantime.
+     */
+    private void runLaneTransactions (Lane lane, Object key, Serializable context, int session) {
+        while (context != null) {
+            recordQueueWait (context);
+            transactionCounter.increment();
+            runTransaction (context, session, lane);
+            if (key == null)
+                break;
+            synchronized (lane.keys) {
+                Deque<Serializable> followers = lane.keys.get (key);
+                context = followers.poll();
+                if (context != null && !running()) {
+                    // place pending followers back, preserving their order
+                    for (Serializable c = followers.pollLast(); c != null; c = followers.pollLast())
+                        iisp.push (lane.queue, c);
+                    iisp.push (lane.queue, context);
+                    context = null;
                 }
+                if (context == null)
+                    lane.keys.remove (key);
             }
         }
     }
 
-    private void runTransaction (Serializable context, int session) {
+    private void runTransaction (Serializable context, int session, Lane lane) {
         long id = 0;
         List<TransactionParticipant> members;
         Iterator<TransactionParticipant> iter;
@@ -292,9 +430,10 @@ public class TransactionManager
         evt = null;
         thread.setName (getName() + "-" + session + ":idle");
         int action = -1;
-        id = head.getAndIncrement ();
+        long seq = lane.head.getAndIncrement ();
+        id = txnId (lane, seq);
         TMEvent tme = new TMEvent(getName(), id);
-        Txn txn = new Txn(getName(), id);
+        boolean failed = false;
 
         tme.begin();
         try {
@@ -307,12 +446,15 @@ public class TransactionManager
             abort = false;
             members = new ArrayList<> ();
             iter = getParticipants (DEFAULT_GROUP).iterator();
-            evt = new LogEvent()
-              .withSource(log)
-              .withTraceId(getTraceId(id));
-            evt.addMessage(txn);
-            evt.addMessage(context);
-            prof = new Profiler();
+            if (hasLogListeners()) {
+                // trace records are cheap; formatting and freezing wait until we know it gets logged
+                evt = new LogEvent()
+                  .withSource(log)
+                  .withTraceId(getTraceId(id));
+                evt.addMessage(new Txn(getName(), id));
+                evt.addMessage(context);
+                prof = new Profiler();
+            }
             snapshot (id, context, PREPARING);
             action = prepare (session, id, context, members, iter, abort, evt, prof, chronometer);
             switch (action) {
@@ -328,33 +470,37 @@ public class TransactionManager
                     }
                     break;
                 case RETRY:
-                    psp.out (RETRY_QUEUE, context);
-                    checkRetryTask();
+                    scheduleRetry (id, context);
                     break;
                 case NO_JOIN:
                     break;
             }
             snapshot (id, null, DONE);
-            if (id == tail.get()) {
-                checkTail ();
+            if (seq == lane.tail.get()) {
+                checkTail (lane);
             } else {
                 purge (id, false);
             }
             tps.tick();
         } catch (Throwable t) {
+            failed = true;
             if (evt == null)
                 getLog().fatal (t); // should never happen
             else
                 evt.addMessage (t);
         } finally {
             removeThreadLocal();
+            for (ParallelGroup pg : parallelGroups)
+                pg.end (id); // i.e. a later participant asked for a RETRY, neither commit nor abort were called
             if (hasStatusListeners) {
                 notifyStatusListeners (
                   session,
                   TransactionStatusEvent.State.DONE,
                   id, "", context);
             }
-            if (evt != null && (action == PREPARED || action == ABORTED || (action == -1 && prof != null))) {
+            if (evt != null && (action == PREPARED || action == ABORTED || (action == -1 && prof != null))
+              && shouldLog (action, failed, prof))
+            {
                 switch (action) {
                     case PREPARED :
                         evt.setTag("commit");
@@ -388,12 +534,18 @@ public class TransactionManager
 
     @Override
     public long getTail () {
-        return tail.get();
+        long l = 0L;
+        for (Lane lane : lanes)
+            l += lane.tail.get();
+        return l;
     }
 
     @Override
     public long getHead () {
-        return head.get();
+        long l = 0L;
+        for (Lane lane : lanes)
+            l += lane.head.get();
+        return l;
     }
 
     /**
@@ -402,7 +554,7 @@ public class TransactionManager
      * @return number of in-flight transactions
      */
     public long getInTransit () {
-        return head.get() - tail.get();
+        return getHead() - getTail();
     }
 
     @Override
@@ -410,13 +562,27 @@ public class TransactionManager
         super.setConfiguration (cfg);
         retryInterval = cfg.getLong ("retry-interval", retryInterval);
         retryTimeout  = cfg.getLong ("retry-timeout", retryTimeout);
+        retryMaxInterval = cfg.getLong ("retry-max-interval", Math.max (retryInterval, retryMaxInterval));
+        retryBackoff  = cfg.getDouble ("retry-backoff", retryBackoff);
+        retryJitter   = cfg.getDouble ("retry-jitter", retryJitter);
+        retryMaxAttempts = cfg.getInt ("retry-max-attempts", 0);
+        if (retryBackoff < 1.0)
+            throw new ConfigurationException("retry-backoff < 1.0");
+        if (retryJitter < 0.0 || retryJitter > 1.0)
+            throw new ConfigurationException("retry-jitter should be between 0.0 and 1.0");
         pauseTimeout  = cfg.getLong ("pause-timeout", pauseTimeout);
         abortOnPauseTimeout = cfg.getBoolean("abort-on-pause-timeout", true);
         maxActiveTransactions = cfg.getInt  ("max-active-sessions", 0);
         sessions = cfg.getInt ("sessions", 1);
         threshold = cfg.getInt ("threshold", sessions / 2);
         maxSessions = cfg.getInt ("max-sessions", sessions);
+        laneCount = cfg.getInt ("lanes", 1);
+        if (laneCount < 1)
+            throw new ConfigurationException("lanes < 1");
+        // max-sessions is split across lanes, each lane keeps its share busy
+        laneSessions = Math.max (1, (maxSessions + laneCount - 1) / laneCount);
         globalMaxTime = cfg.getLong("max-time", 0L);
+        globalSlowThreshold = cfg.getLong("slow-threshold", 0L);
         if (maxSessions < sessions)
             throw new ConfigurationException("max-sessions < sessions");
         if (maxActiveTransactions > 0) {
@@ -436,12 +602,26 @@ public class TransactionManager
             transactionCounter = MeterFactory.counter
               (getServer().getMeterRegistry(), MeterInfo.TM_COUNTER, Tags.of("name", getName())
             );
+            queueWaitTimer = MeterFactory.timer
+              (getServer().getMeterRegistry(), MeterInfo.TM_QUEUE_WAIT, Tags.of("name", getName())
+            );
+            retryDepthGauge = MeterFactory.gauge
+              (getServer().getMeterRegistry(), MeterInfo.TM_RETRY_DEPTH, Tags.of("name", getName()), BaseUnits.TASKS, retries::size
+            );
+            retryAgeTimer = MeterFactory.timer
+              (getServer().getMeterRegistry(), MeterInfo.TM_RETRY_AGE, Tags.of("name", getName())
+            );
             meters.add(activeSessionsGauge);
             meters.add(transactionCounter);
+            meters.add(queueWaitTimer);
+            meters.add(retryDepthGauge);
+            meters.add(retryAgeTimer);
         } catch (Exception e) {
             throw new ConfigurationException (e);
         }
         freezeLog = cfg.getBoolean("freeze-log", true);
+        logSampleRate = cfg.getDouble("log-sample-rate", 1.0);
+        logSlowThreshold = cfg.getLong("log-slow-threshold", globalSlowThreshold);
     }
     /**
      * Registers a listener that observes transaction lifecycle transitions.
@@ -534,7 +714,7 @@ public class TransactionManager
         (int session, long id, Serializable context, List<TransactionParticipant> members, boolean recover, LogEvent evt, Profiler prof)
     {
         for (TransactionParticipant p :members) {
-            var jfr = new TMEvent.Commit("%s:%s".formatted(getName(), p.getClass().getName()), id);
+            var jfr = new TMEvent.Commit(jfrName(p), id);
             jfr.begin();
             ParticipantParams pp = getParams(p);
             if (recover && p instanceof ContextRecovery cr) {
@@ -614,9 +794,11 @@ public class TransactionManager
         } catch (Throwable t) {
             logParticipantWarning("PREPARE-FOR-ABORT: " + id, p, t);
         } finally {
-            getParams(p).timers.prepareForAbortTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
+            ParticipantParams pp = getParams(p);
+            pp.timers.prepareForAbortTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
             if (metrics != null)
-                metrics.record(getName(p) + "-prepare-for-abort", c.elapsed());
+                metrics.record(pp.name + "-prepare-for-abort", c.elapsed());
+            checkSlow (pp, "prepare-for-abort", id, context, c.elapsed());
         }
         return ABORTED | NO_JOIN;
     }
@@ -635,14 +817,18 @@ public class TransactionManager
         Chronometer c = new Chronometer();
         try {
             setThreadName(id, "prepare", p);
+            if (p instanceof AsyncParticipant ap)
+                return awaitContinuation (ap.prepareAsync (id, context), context);
             return p.prepare (id, context);
         } catch (Throwable t) {
             logParticipantWarning("PREPARE: " + id, p, t);
         } finally {
-            getParams(p).timers.prepareTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
+            ParticipantParams pp = getParams(p);
+            pp.timers.prepareTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
             if (metrics != null) {
-                metrics.record(getName(p) + "-prepare", c.elapsed());
+                metrics.record(pp.name + "-prepare", c.elapsed());
             }
+            checkSlow (pp, "prepare", id, context, c.elapsed());
         }
         return ABORTED;
     }
@@ -664,9 +850,11 @@ public class TransactionManager
         } catch (Throwable t) {
             logParticipantWarning("COMMIT: " + id, p, t);
         } finally {
-            getParams(p).timers.commitTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
+            ParticipantParams pp = getParams(p);
+            pp.timers.commitTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
             if (metrics != null)
-                metrics.record(getName(p) + "-commit", c.elapsed());
+                metrics.record(pp.name + "-commit", c.elapsed());
+            checkSlow (pp, "commit", id, context, c.elapsed());
         }
     }
     /**
@@ -687,9 +875,11 @@ public class TransactionManager
         } catch (Throwable t) {
             logParticipantWarning("ABORT: " + id, p, t);
         } finally {
-            getParams(p).timers.abortTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
+            ParticipantParams pp = getParams(p);
+            pp.timers.abortTimer.record (c.elapsed(), TimeUnit.MILLISECONDS);
             if (metrics != null)
-                metrics.record(getName(p) + "-abort", c.elapsed());
+                metrics.record(pp.name + "-abort", c.elapsed());
+            checkSlow (pp, "abort", id, context, c.elapsed());
         }
     }
     /**
@@ -731,7 +921,7 @@ public class TransactionManager
 
             TMEvent jfr;
             if (abort) {
-                jfr = new TMEvent.PrepareForAbort("%s:%s".formatted(getName(), p.getClass().getName()), id);
+                jfr = new TMEvent.PrepareForAbort(jfrName(p), id);
                 jfr.begin();
                 if (hasStatusListeners)
                     notifyStatusListeners (
@@ -751,7 +941,7 @@ public class TransactionManager
                         session, TransactionStatusEvent.State.PREPARING, id, getName(p), context
                     );
 
-                jfr = new TMEvent.Prepare("%s:%s".formatted(getName(), p.getClass().getName()), id);
+                jfr = new TMEvent.Prepare(jfrName(p), id);
                 jfr.begin();
 
                 chronometer.lap();
@@ -811,8 +1001,9 @@ public class TransactionManager
                     while (st.hasMoreTokens ()) {
                         String grp = st.nextToken();
                         addGroup (id, grp);
-                        if (evt != null && groups.get(grp) == null) {
-                            evt.addMessage ("                 WARNING: group '" + grp + "' not configured");
+                        if (groups.get(grp) == null) {
+                            if (evt != null)
+                                evt.addMessage ("                 WARNING: group '" + grp + "' not configured");
                             if (abortOnMisconfiguredGroups)
                                 abort = true;
                         }
@@ -859,7 +1050,7 @@ public class TransactionManager
         String key = getKey(GROUPS, id);
         String grp;
         // now add participants of Group 
-        while ( (grp = (String) psp.inp (key)) != null) {
+        while ( (grp = (String) psp(id).inp (key)) != null) {
             participantsChain.addAll (getParticipants (grp));
         }
         return participantsChain;
@@ -895,7 +1086,7 @@ public class TransactionManager
     protected void initParticipants (Element config)
         throws ConfigurationException
     {
-        groups.put (DEFAULT_GROUP,  initGroup (config));
+        groups.put (DEFAULT_GROUP,  initGroup (config, DEFAULT_GROUP));
         for (Element e : config.getChildren("group")) {
             String name = QFactory.getAttributeValue (e, "name");
             if (name == null) 
@@ -905,8 +1096,38 @@ public class TransactionManager
                     "Group '" + name + "' already defined"
                 );
             }
-            groups.put (name, initGroup (e));
+            List<TransactionParticipant> participants = initGroup (e, name);
+            if ("true".equalsIgnoreCase (QFactory.getAttributeValue (e, "parallel")))
+                participants = List.of (createParallelGroup (name, participants));
+            groups.put (name, participants);
+        }
+    }
+    /**
+     * Wraps the participants of a {@code <group parallel="true">} so that
+     * they run as a dependency graph derived from their {@code requires},
+     * {@code optional} and {@code provides} declarations.
+     *
+     * @param name         group name
+     * @param participants group members, in declaration order
+     * @return a participant driving the whole group
+     * @throws ConfigurationException if the group contains a {@link GroupSelector}
+     */
+    protected TransactionParticipant createParallelGroup (String name, List<TransactionParticipant> participants)
+        throws ConfigurationException
+    {
+        for (TransactionParticipant p : participants) {
+            if (p instanceof GroupSelector)
+                throw new ConfigurationException ("GroupSelector " + getName(p) + " not supported in parallel group '" + name + "'");
         }
+        ParallelGroup pg = new ParallelGroup (participants);
+        parallelGroups.add (pg);
+        String pgName = "parallel:" + name;
+        params.put (pg, new ParticipantParams (
+          pgName, 0L, globalMaxTime, globalSlowThreshold,
+          Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
+          getOrCreateTimers (pg, pgName, name))
+        );
+        return pg;
     }
     /**
      * Instantiates the participants declared inside a {@code <group>} element,
@@ -918,11 +1139,25 @@ public class TransactionManager
      */
     protected List<TransactionParticipant> initGroup (Element e)
         throws ConfigurationException
+    {
+        return initGroup (e, DEFAULT_GROUP);
+    }
+    /**
+     * Instantiates the participants declared inside a {@code <group>} element,
+     * skipping any that are explicitly disabled.
+     *
+     * @param e         group element
+     * @param groupName group name, used to tag the participants' timers
+     * @return participants in declaration order
+     * @throws ConfigurationException if a participant fails to instantiate
+     */
+    protected List<TransactionParticipant> initGroup (Element e, String groupName)
+        throws ConfigurationException
     {
         List<TransactionParticipant> group = new ArrayList<>();
         for (Element el : e.getChildren ("participant")) {
             if (QFactory.isEnabled(el)) {
-                group.add(createParticipant(el));
+                group.add(createParticipant(el, groupName));
             } else {
                 getLog().warn ("participant ignored (enabled='" + QFactory.getEnabledAttribute(el) + "'): " + el.getAttributeValue("class") + "/" + el.getAttributeValue("realm"));
             }
@@ -941,6 +1176,21 @@ public class TransactionManager
      */
     public TransactionParticipant createParticipant (Element e)
         throws ConfigurationException
+    {
+        return createParticipant (e, DEFAULT_GROUP);
+    }
+    /**
+     * Instantiates a participant from a {@code <participant>} element that
+     * belongs to group {@code groupName}.
+     *
+     * @param e         participant element
+     * @param groupName group name, used to tag the participant's timers
+     * @return the configured participant
+     * @throws ConfigurationException if instantiation, configuration, or
+     *                                timer registration fails
+     */
+    public TransactionParticipant createParticipant (Element e, String groupName)
+        throws ConfigurationException
     {
         QFactory factory = getFactory();
         TransactionParticipant participant = factory.newInstance (QFactory.getAttributeValue (e, "class"));
@@ -955,10 +1205,11 @@ public class TransactionManager
                 participantShortName,
                 getLong (e, "timeout", 0L),
                 getLong (e, "max-time", globalMaxTime),
+                getLong (e, "slow-threshold", globalSlowThreshold),
                 getSet(e.getChild("requires"), participant.getClass().getClassLoader()),
                 getSet(e.getChild("provides"), participant.getClass().getClassLoader()),
                 getSet(e.getChild("optional"), participant.getClass().getClassLoader()),
-                getOrCreateTimers(participant)
+                getOrCreateTimers(participant, participantShortName, groupName)
               )
             );
         } catch (Exception ex) {
@@ -972,8 +1223,13 @@ public class TransactionManager
 
     @Override
     public int getOutstandingTransactions() {
-        if (iisp instanceof LocalSpace)
-            return ((LocalSpace) iisp).size(queue);
+        if (iisp instanceof LocalSpace lsp) {
+            int outstanding = lsp.size(queue);
+            if (laneCount > 1)
+                for (Lane lane : lanes)
+                    outstanding += lsp.size(lane.queue);
+            return outstanding;
+        }
         return -1;
     }
     /**
@@ -1014,29 +1270,36 @@ public class TransactionManager
         }
     }
     /**
-     * Advances the persistent {@code tail} pointer past any contiguous
-     * already-DONE transactions, purging their state from the space.
+     * Advances the persistent {@code tail} pointer of every lane past any
+     * contiguous already-DONE transactions, purging their state from the space.
      */
     protected void checkTail () {
-        tailLock.lock();
-        try {
-            while (tailDone()) {
-                tail.incrementAndGet();
-            }
-        } finally {
-            tailLock.unlock();
-        }
+        for (Lane lane : lanes)
+            checkTail (lane);
     }
     /**
-     * Returns whether the transaction at {@code tail} is already DONE; when
-     * {@code true}, removes its persistent state.
+     * Returns whether the transaction at {@code tail} (of the first lane when
+     * sharded) is already DONE; when {@code true}, removes its persistent state.
      *
      * @return {@code true} when the tail transaction has reached terminal state
      */
     protected boolean tailDone () {
-        String stateKey = getKey(STATE, tail.get());
-        if (DONE.equals (psp.rdp (stateKey))) {
-            purge (tail.get(), true);
+        return tailDone (lanes[0]);
+    }
+    private void checkTail (Lane lane) {
+        lane.tailLock.lock();
+        try {
+            while (tailDone(lane)) {
+                lane.tail.incrementAndGet();
+            }
+        } finally {
+            lane.tailLock.unlock();
+        }
+    }
+    private boolean tailDone (Lane lane) {
+        long id = txnId (lane, lane.tail.get());
+        if (DONE.equals (lane.psp.rdp (getKey(STATE, id)))) {
+            purge (id, true);
             return true;
         }
         return false;
@@ -1066,18 +1329,27 @@ public class TransactionManager
         var jfr = new TMEvent.Snapshot(getName()+":"+status, id);
         jfr.begin();
 
+        Space<String,Object> psp = psp (id);
         String contextKey = getKey (CONTEXT, id);
-        synchronized (psp) {
-            commitOff (psp);
-            SpaceUtil.wipe(psp, contextKey);
-            if (context != null)
-                psp.out (contextKey, context);
-
-            if (status != null) {
-                String stateKey  = getKey (STATE, id);
-                psp.put (stateKey, status);
+        if (psp instanceof JournalSpace jsp) {
+            Map<String,Object> m = new HashMap<>();
+            m.put (contextKey, context);
+            if (status != null)
+                m.put (getKey (STATE, id), status);
+            jsp.replace (m); // single record, group committed with other sessions
+        } else {
+            synchronized (psp) {
+                commitOff (psp);
+                SpaceUtil.wipe(psp, contextKey);
+                if (context != null)
+                    psp.out (contextKey, context);
+
+                if (status != null) {
+                    String stateKey  = getKey (STATE, id);
+                    psp.put (stateKey, status);
+                }
+                commitOn (psp);
             }
-            commitOn (psp);
         }
         jfr.commit();
     }
@@ -1088,7 +1360,12 @@ public class TransactionManager
      * @param state new state, or {@code null} to clear it
      */
     protected void setState (long id, Integer state) {
+        Space<String,Object> psp = psp (id);
         String stateKey  = getKey (STATE, id);
+        if (psp instanceof JournalSpace jsp) {
+            jsp.replace (Collections.singletonMap (stateKey, state));
+            return;
+        }
         synchronized (psp) {
             commitOff (psp);
             SpaceUtil.wipe(psp, stateKey);
@@ -1105,7 +1382,7 @@ public class TransactionManager
      */
     protected void addGroup (long id, String groupName) {
         if (groupName != null)
-            psp.out (getKey (GROUPS, id), groupName);
+            psp(id).out (getKey (GROUPS, id), groupName);
     }
     /**
      * Removes persistent state associated with a transaction.
@@ -1115,9 +1392,19 @@ public class TransactionManager
      *             (otherwise only context and group entries are cleared)
      */
     protected void purge (long id, boolean full) {
+        Space<String,Object> psp = psp (id);
         String stateKey   = getKey (STATE, id);
         String contextKey = getKey (CONTEXT, id);
         String groupsKey  = getKey (GROUPS, id);
+        if (psp instanceof JournalSpace jsp) {
+            Map<String,Object> m = new HashMap<>();
+            if (full)
+                m.put (stateKey, null);
+            m.put (contextKey, null);
+            m.put (groupsKey, null);
+            jsp.replace (m);
+            return;
+        }
         synchronized (psp) {
             commitOff (psp);
             if (full)
@@ -1134,11 +1421,13 @@ public class TransactionManager
      */
     protected void recover () {
         if (doRecover) {
-            if (tail.get() < head.get()) {
-                getLog().info ("recover - tail=" +tail.get()+", head="+head.get());
-            }
-            while (tail.get() < head.get()) {
-                recover (tail.getAndIncrement());
+            for (Lane lane : lanes) {
+                if (lane.tail.get() < lane.head.get()) {
+                    getLog().info ("recover - lane=" + lane.index + ", tail=" + lane.tail.get() + ", head=" + lane.head.get());
+                }
+                while (lane.tail.get() < lane.head.get()) {
+                    recover (txnId (lane, lane.tail.getAndIncrement()));
+                }
             }
         }
     }
@@ -1153,6 +1442,7 @@ public class TransactionManager
         Profiler prof = new Profiler();
         evt.addMessage ("<id>" + id + "</id>");
         try {
+            Space<String,Object> psp = psp (id);
             String stateKey   = getKey (STATE, id);
             String contextKey = getKey (CONTEXT, id);
             Integer state = (Integer) psp.rdp (stateKey);
@@ -1179,7 +1469,7 @@ public class TransactionManager
         }
     }
     /**
-     * Lazily starts the {@link RetryTask} that drains the retry queue back into
+     * Lazily starts the {@link RetryTask} that moves due retries back into
      * the input space.
      */
     protected synchronized void checkRetryTask () {
@@ -1189,6 +1479,143 @@ public class TransactionManager
         }
     }
 
+    /**
+     * Parks a transaction that returned {@code RETRY} until its next attempt is due.
+     *
+     * <p>The context is persisted under its own run-unique key in the persistent
+     * space and indexed in {@link #RETRY_QUEUE}, so pending retries survive a
+     * restart without a later run's transaction ids overwriting them.
+     * The delay grows by {@code retry-backoff} on every attempt (starting at
+     * {@code retry-interval}, capped at {@code retry-max-interval}) and is
+     * randomly shortened by up to {@code retry-jitter} so that contexts parked
+     * together don't hit a recovering endpoint together. Attempts are counted
+     * in the {@link #RETRY_ATTEMPTS} context entry; once {@code retry-max-attempts}
+     * is exceeded the context is handed to {@link #retryExhausted}.</p>
+     *
+     * @param id transaction id
+     * @param context transaction context
+     */
+    protected void scheduleRetry (long id, Serializable context) {
+        int attempt = 1;
+        if (context instanceof Context ctx) {
+            Integer previous = ctx.get (RETRY_ATTEMPTS);
+            attempt = previous != null ? previous + 1 : 1;
+            ctx.put (RETRY_ATTEMPTS, attempt, true);
+        }
+        if (retryMaxAttempts > 0 && attempt > retryMaxAttempts) {
+            retryExhausted (id, context);
+            return;
+        }
+        String key = RETRY_QUEUE + "." + getTraceId (id);
+        retryLock.lock();
+        try {
+            psp.out (key, context);
+            psp.out (RETRY_QUEUE, key);
+            retryIndexSize++;
+            retries.add (new RetryEntry (key, context, retryDelay (attempt)));
+        } finally {
+            retryLock.unlock();
+        }
+        checkRetryTask();
+    }
+
+    /**
+     * Called when a transaction asks to be retried more than {@code retry-max-attempts} times.
+     *
+     * <p>The default implementation logs a warning and drops the context.</p>
+     *
+     * @param id transaction id
+     * @param context transaction context
+     */
+    protected void retryExhausted (long id, Serializable context) {
+        getLog().warn (
+          "%s retry-max-attempts (%d) exceeded, discarding".formatted(getTraceId(id), retryMaxAttempts),
+          context
+        );
+    }
+
+    /**
+     * Reloads retries persisted by a previous run into the retry scheduler.
+     *
+     * <p>The {@link #RETRY_QUEUE} index is rotated in place (read, append, take)
+     * so a crash halfway through never loses an entry. Contexts queued directly
+     * in {@link #RETRY_QUEUE} by older versions are moved to their own key.</p>
+     */
+    protected void recoverRetries () {
+        retryLock.lock();
+        try {
+            retries.clear();
+            String mark = RETRY_QUEUE + ".mark." + UUID.randomUUID();
+            psp.out (RETRY_QUEUE, mark);
+            Set<String> seen = new HashSet<>();
+            for (Object o; (o = psp.rdp (RETRY_QUEUE)) != null && !mark.equals(o);) {
+                String key = o instanceof String k ? k : RETRY_QUEUE + "." + UUID.randomUUID();
+                Serializable context = o instanceof String ? (Serializable) psp.rdp (key) : (Serializable) o;
+                if (context != null && seen.add (key)) {
+                    if (!(o instanceof String))
+                        psp.out (key, context);
+                    psp.out (RETRY_QUEUE, key);
+                    Integer attempt = context instanceof Context ctx ? ctx.get (RETRY_ATTEMPTS) : null;
+                    retries.add (new RetryEntry (key, context, retryDelay (attempt != null ? attempt : 1)));
+                }
+                psp.inp (RETRY_QUEUE);
+            }
+            psp.inp (RETRY_QUEUE); // mark
+            retryIndexSize = retries.size();
+        } finally {
+            retryLock.unlock();
+        }
+        if (!retries.isEmpty())
+            checkRetryTask();
+    }
+
+    /**
+     * Returns the number of transactions waiting for their next retry.
+     *
+     * @return retry queue depth
+     */
+    public int getRetryDepth () {
+        return retries.size();
+    }
+
+    private long retryDelay (int attempt) {
+        double delay = retryInterval * Math.pow (retryBackoff, Math.max (0, attempt - 1));
+        delay = Math.min (delay, retryMaxInterval);
+        if (retryJitter > 0.0)
+            delay -= delay * retryJitter * ThreadLocalRandom.current().nextDouble();
+        return (long) delay;
+    }
+
+    private void releaseRetry (RetryEntry entry) {
+        iisp.out (queue, entry.context, retryTimeout);
+        retryLock.lock();
+        try {
+            psp.inp (entry.key);
+            // released keys stay in the index until they outnumber the pending ones
+            if (retryIndexSize - retries.size() > Math.max (retries.size(), RETRY_INDEX_SLACK))
+                compactRetryIndex();
+        } finally {
+            retryLock.unlock();
+        }
+        retryAgeTimer.record (System.nanoTime() - entry.created, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Rewrites the {@link #RETRY_QUEUE} index so that it only holds pending retries.
+     * Pending keys are appended before the old entries are taken, so a crash halfway
+     * through leaves duplicates and released keys behind (both skipped by
+     * {@link #recoverRetries}) but never loses a pending one.
+     * Must be called holding {@code retryLock}.
+     */
+    private void compactRetryIndex () {
+        int stale = retryIndexSize;
+        for (RetryEntry e : retries)
+            psp.out (RETRY_QUEUE, e.key);
+        for (int i = 0; i < stale; i++)
+            psp.inp (RETRY_QUEUE);
+        retryIndexSize = retries.size();
+    }
+
     /**
      * This method gives the opportunity to decorate a LogEvent right before
      * it gets logged. When overriding it, unless you know what you're doing,
@@ -1204,8 +1631,8 @@ public class TransactionManager
     }
 
     /**
-     * Background task that periodically pushes any contexts written to the
-     * {@link #RETRY_QUEUE} back onto the input queue.
+     * Background task that pushes retried contexts back onto the input queue
+     * as their next attempt becomes due.
      */
     public class RetryTask implements Runnable {
         /** Creates the retry task bound to the enclosing manager. */
@@ -1213,17 +1640,45 @@ public class TransactionManager
         @Override
         public void run() {
             Thread.currentThread().setName (getName()+"-retry-task");
-            while (running()) {
-                for (Serializable context; (context = (Serializable)psp.rdp (RETRY_QUEUE)) != null;) 
-                {
-                    iisp.out (queue, context, retryTimeout);
-                    psp.inp (RETRY_QUEUE);
+            try {
+                while (running()) {
+                    RetryEntry entry = retries.poll (1L, TimeUnit.SECONDS);
+                    if (entry != null)
+                        releaseRetry (entry);
+                }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            } finally {
+                synchronized (TransactionManager.this) {
+                    retryTask = null;
                 }
-                ISOUtil.sleep(retryInterval);
             }
         }
     }
 
+    private static final class RetryEntry implements Delayed {
+        final String key;
+        final Serializable context;
+        final long created = System.nanoTime();
+        final long due;
+
+        RetryEntry (String key, Serializable context, long delay) {
+            this.key = key;
+            this.context = context;
+            this.due = created + TimeUnit.MILLISECONDS.toNanos (delay);
+        }
+
+        @Override
+        public long getDelay (TimeUnit unit) {
+            return unit.convert (due - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo (Delayed o) {
+            return Long.compare (due, ((RetryEntry) o).due);
+        }
+    }
+
     /**
      * Background task that throttles the input queue when active sessions
      * exceed the configured threshold.
@@ -1235,9 +1690,8 @@ public class TransactionManager
         public void run() {
             Thread.currentThread().setName (getName()+"-input-queue-monitor");
             while (running()) {
-                while (getOutstandingTransactions() > getActiveSessions() + threshold && running()) {
-                    ISOUtil.sleep(100L);
-                }
+                if (!awaitAdmission(() -> getOutstandingTransactions() <= getActiveSessions() + threshold, 1000L))
+                    continue;
                 if (!running())
                     break;
                 try {
@@ -1349,8 +1803,8 @@ public class TransactionManager
 
     private ParticipantParams getParams (TransactionParticipant p) {
         return Optional.ofNullable(params.get(p)).orElseGet(() ->
-          new ParticipantParams(defaultParticipantName(p), 0L, 0L, Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
-            getOrCreateTimers(p))
+          new ParticipantParams(defaultParticipantName(p), 0L, 0L, globalSlowThreshold, Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
+            getOrCreateTimers(p, defaultParticipantName(p), DEFAULT_GROUP))
         );
     }
 
@@ -1367,9 +1821,33 @@ public class TransactionManager
         Logger.log(getLog().createWarn(detail).withTag("participant", getName(participant)).add(t));
     }
 
+    private boolean hasLogListeners() {
+        Logger l = log != null ? log.getLogger() : null;
+        if (l == null)
+            l = Logger.getLogger (Q2.LOGGER_NAME); // same fallback used by Logger.log
+        return l.hasListeners();
+    }
+
+    /**
+     * Aborted and failed transactions are always logged, as well as those taking
+     * {@code log-slow-threshold} or longer; committed ones are sampled at
+     * {@code log-sample-rate}.
+     */
+    private boolean shouldLog (int action, boolean failed, Profiler prof) {
+        if (action != PREPARED || failed || logSampleRate >= 1.0)
+            return true;
+        if (logSlowThreshold > 0L && prof.getElapsedInMillis() >= logSlowThreshold)
+            return true;
+        return logSampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < logSampleRate;
+    }
+
+    private String jfrName (TransactionParticipant p) {
+        return jfrNames.computeIfAbsent (p, k -> getName() + ":" + k.getClass().getName());
+    }
+
     private String tmInfo() {
         return String.format ("in-transit=%d, head=%d, tail=%d, paused=%d, outstanding=%d, active-sessions=%d/%d%s",
-          getInTransit(), head.get(), tail.get(), pausedSessions.get(), getOutstandingTransactions(),
+          getInTransit(), getHead(), getTail(), pausedSessions.get(), getOutstandingTransactions(),
           getActiveSessions(), maxSessions,
           (tps != null ? ", " + tps : "")
         );
@@ -1394,17 +1872,121 @@ public class TransactionManager
         return Instant.now();
     }
 
+    /**
+     * Paused transactions don't hold a session slot; their total is bounded
+     * by {@code max-active-sessions} instead.
+     */
     private boolean heavyLoaded() {
-        return getActiveSessions() >= maxSessions;
+        int active = getActiveSessions();
+        return active - pausedSessions.get() >= maxSessions
+          || (maxActiveTransactions > 0 && active >= maxActiveTransactions);
+    }
+
+    private boolean heavyLoaded (Lane lane) {
+        return lane.active.get() - lane.paused.get() >= laneSessions
+          || (maxActiveTransactions > 0 && getActiveSessions() >= maxActiveTransactions);
+    }
+
+    /**
+     * Tracks a paused transaction, globally and in its lane.
+     *
+     * @return the lane whose counter was incremented, or {@code null}
+     */
+    private Lane paused () {
+        pausedSessions.incrementAndGet();
+        Long id = tlId.get();
+        Lane lane = laneCount > 1 && id != null ? lane (id) : null;
+        if (lane != null)
+            lane.paused.incrementAndGet();
+        signalAdmission();
+        return lane;
+    }
+
+    private void resumed (Lane lane) {
+        pausedSessions.decrementAndGet();
+        if (lane != null)
+            lane.paused.decrementAndGet();
+    }
+
+    /**
+     * Waits until {@code condition} holds. Woken up whenever a session ends or a
+     * context is dispatched, instead of polling.
+     *
+     * @param condition admission condition, evaluated under the admission lock
+     * @param timeout max time to wait, in millis
+     * @return true if {@code condition} holds, false on timeout or when stopping
+     */
+    private boolean awaitAdmission (BooleanSupplier condition, long timeout) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        admissionLock.lock();
+        try {
+            while (!condition.getAsBoolean()) {
+                if (nanos <= 0L || !running())
+                    return false;
+                try {
+                    nanos = admission.awaitNanos(nanos);
+                } catch (InterruptedException ignored) { }
+            }
+            return true;
+        } finally {
+            admissionLock.unlock();
+        }
+    }
+
+    private void signalAdmission() {
+        admissionLock.lock();
+        try {
+            admission.signalAll();
+        } finally {
+            admissionLock.unlock();
+        }
+    }
+
+    /**
+     * Records the time elapsed since the context's {@code TIMESTAMP}, if any,
+     * i.e. how long it waited before a session picked it up.
+     */
+    private void recordQueueWait (Serializable context) {
+        if (context instanceof Context ctx) {
+            Object o = ctx.get(TIMESTAMP);
+            Instant queued = o instanceof Instant i ? i : o instanceof Date d ? d.toInstant() : null;
+            if (queued != null) {
+                long millis = Math.max(0L, System.currentTimeMillis() - queued.toEpochMilli());
+                if (queueWaitTimer != null)
+                    queueWaitTimer.record(millis, TimeUnit.MILLISECONDS);
+                if (metrics != null)
+                    metrics.record("queue-wait", millis);
+            }
+        }
+    }
+
+    /**
+     * Waits for an {@link AsyncParticipant}'s stage. While pending, the
+     * transaction is parked and does not count against {@code max-sessions}.
+     */
+    private int awaitContinuation (CompletionStage<Integer> stage, Serializable context) throws Exception {
+        CompletableFuture<Integer> f = stage.toCompletableFuture();
+        if (f.isDone())
+            return f.get();
+        Lane lane = paused();
+        try {
+            return f.get(pauseTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (context instanceof Context ctx)
+                ctx.log ("continuation timeout (" + pauseTimeout + "ms)");
+            return ABORTED;
+        } finally {
+            resumed (lane);
+        }
     }
 
     private int pauseAndWait(Serializable context, int action) {
-        if (context instanceof Pausable pausable) try {
-            pausedSessions.incrementAndGet();
-            Future<Integer> paused = pausable.pause();
-            long timeout = pausable.getTimeout();
-            timeout = timeout > 0 ? Math.min (timeout, pauseTimeout) : pauseTimeout;
+        if (context instanceof Pausable pausable) {
+            Lane lane = paused();
             try {
+                Future<Integer> paused = pausable.pause();
+                long timeout = pausable.getTimeout();
+                timeout = timeout > 0 ? Math.min (timeout, pauseTimeout) : pauseTimeout;
                 action = paused.get(timeout, TimeUnit.MILLISECONDS);
             } catch (InterruptedException | ExecutionException e) {
                 if (context instanceof Context ctx)
@@ -1413,9 +1995,8 @@ public class TransactionManager
                 action &= (PREPARED ^ 0xFFFF); // turn off 'PREPARED' - we need to abort
             } finally {
                 pausable.reset();
+                resumed (lane);
             }
-        } finally {
-            pausedSessions.decrementAndGet();
         }
         return action;
     }
@@ -1427,6 +2008,8 @@ public class TransactionManager
      * @param name     short name used in trace messages and timer tags
      * @param timeout  per-transaction soft timeout in milliseconds
      * @param maxTime  hard ceiling in milliseconds (overrides {@code timeout} when smaller)
+     * @param slowThreshold per-callback duration in milliseconds above which a
+     *                 {@link TMEvent.Slow} event is emitted, 0 to disable
      * @param requires keys this participant requires from a prior {@code provides}
      * @param provides keys this participant exports for downstream {@code requires}
      * @param optional keys this participant may consume but does not require
@@ -1436,6 +2019,7 @@ public class TransactionManager
       String name,
       long timeout,
       long maxTime,
+      long slowThreshold,
       Set<Object> requires,
       Set<Object> provides,
       Set<Object> optional,
@@ -1588,13 +2172,10 @@ public class TransactionManager
         }
     }
 
-    private Timers getOrCreateTimers(TransactionParticipant p) {
+    private Timers getOrCreateTimers(TransactionParticipant p, String participantShortName, String groupName) {
         return Optional.ofNullable(params.get(p)).map(ParticipantParams::timers).orElseGet(() -> {
-            String participantShortName = Optional.ofNullable(params.get(p))
-              .map(ParticipantParams::name)
-              .orElseGet(() -> defaultParticipantName(p));
             var mr = getServer().getMeterRegistry();
-            var tags = Tags.of("name", getName(), "participant", participantShortName);
+            var tags = Tags.of("name", getName(), "group", groupName, "participant", participantShortName);
             String realm = (p instanceof LogSource ls) ? ls.getRealm() : null;
             tags = tags.and("realm", (realm != null && !realm.isEmpty()) ? realm.trim() : "");
 
@@ -1608,11 +2189,189 @@ public class TransactionManager
         });
     }
 
+    private void checkSlow (ParticipantParams pp, String phase, long id, Serializable context, long elapsed) {
+        if (pp.slowThreshold > 0 && elapsed > pp.slowThreshold) {
+            var jfr = new TMEvent.Slow("%s:%s".formatted(getName(), pp.name), id, phase, elapsed,
+              context instanceof Context ctx ? ctx.getMapClone().keySet().toString() : null);
+            jfr.commit();
+        }
+    }
+
+    /**
+     * Runs a parallel group's participants concurrently on the TM's executor.
+     * A participant waits only for earlier participants that {@code provide}
+     * a key it {@code requires} (or optionally uses); if any of those aborted,
+     * it gets {@code prepareForAbort} instead of {@code prepare}. Participants
+     * without declarations are independent. Commit and abort run in
+     * declaration order.
+     */
+    private class ParallelGroup implements AbortParticipant {
+        private final List<TransactionParticipant> members;
+        private final int[][] deps;
+        private final Map<Long,List<TransactionParticipant>> joined = new ConcurrentHashMap<>();
+
+        ParallelGroup (List<TransactionParticipant> members) {
+            this.members = members;
+            deps = new int[members.size()][];
+            for (int i=0; i<deps.length; i++) {
+                ParticipantParams pi = getParams (members.get(i));
+                List<Integer> d = new ArrayList<>();
+                for (int j=0; j<i; j++) {
+                    Set<Object> provides = getParams (members.get(j)).provides;
+                    if (!Collections.disjoint (provides, pi.requires) || !Collections.disjoint (provides, pi.optional))
+                        d.add (j);
+                }
+                deps[i] = d.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        @Override
+        public int prepare (long id, Serializable context) {
+            return run (id, context, false);
+        }
+
+        @Override
+        public int prepareForAbort (long id, Serializable context) {
+            return run (id, context, true);
+        }
+
+        @Override
+        public void commit (long id, Serializable context) {
+            for (TransactionParticipant p : joined (id))
+                commitOrAbort (p, id, context, getParams(p), TransactionManager.this::commit);
+        }
+
+        @Override
+        public void abort (long id, Serializable context) {
+            for (TransactionParticipant p : joined (id))
+                commitOrAbort (p, id, context, getParams(p), TransactionManager.this::abort);
+        }
+
+        void end (long id) {
+            joined.remove (id);
+        }
+
+        private List<TransactionParticipant> joined (long id) {
+            List<TransactionParticipant> l = joined.remove (id);
+            return l != null ? l : members; // recovery, we don't know who joined
+        }
+
+        @SuppressWarnings("rawtypes")
+        private int run (long id, Serializable context, boolean abort) {
+            CompletableFuture<Integer>[] f = new CompletableFuture[members.size()];
+            for (int i=0; i<f.length; i++) {
+                TransactionParticipant p = members.get(i);
+                int[] d = deps[i];
+                CompletableFuture[] after = Arrays.stream(d).mapToObj(j -> f[j]).toArray(CompletableFuture[]::new);
+                f[i] = CompletableFuture.allOf(after).thenApplyAsync(v -> {
+                    boolean aborting = abort || Arrays.stream(d).anyMatch(j -> (f[j].join() & PREPARED) == ABORTED);
+                    return runMember (p, id, context, aborting);
+                }, executor);
+            }
+            boolean prepared = true;
+            boolean readonly = true;
+            boolean retry = false;
+            List<TransactionParticipant> l = new ArrayList<>();
+            for (int i=0; i<f.length; i++) {
+                int action;
+                try {
+                    action = f[i].join();
+                } catch (CompletionException | CancellationException e) {
+                    getLog().warn ("parallel group: " + getName(members.get(i)), e);
+                    action = ABORTED | NO_JOIN;
+                }
+                retry |= (action & RETRY) == RETRY;
+                if ((action & PREPARED) == ABORTED)
+                    prepared = false;
+                if ((action & READONLY) == 0)
+                    readonly = false;
+                if ((action & NO_JOIN) == 0)
+                    l.add (members.get(i));
+            }
+            if (retry && !prepared)
+                return RETRY | NO_JOIN; // TM won't call abort on a retry
+            if (!l.isEmpty())
+                joined.put (id, l);
+            return (prepared ? PREPARED : ABORTED)
+              | (retry ? RETRY : 0)
+              | (readonly ? READONLY : 0)
+              | (l.isEmpty() ? NO_JOIN : 0);
+        }
+
+        private int runMember (TransactionParticipant p, long id, Serializable context, boolean aborting) {
+            ParticipantParams pp = getParams(p);
+            setThreadLocal (id, context);
+            try {
+                if (aborting)
+                    return prepareOrAbort (p, id, context, pp, TransactionManager.this::prepareForAbort);
+                Chronometer c = new Chronometer();
+                int action = prepareOrAbort (p, id, context, pp, TransactionManager.this::prepare);
+                if (pp.timeout > 0 && c.elapsed() > pp.timeout)
+                    action &= (PREPARED ^ 0xFFFF);
+                return action;
+            } finally {
+                removeThreadLocal();
+            }
+        }
+    }
+
     private Timer addTimer (Timer m) {
         meters.add (m);
         return m;
     }
 
+    private Lane lane (long id) {
+        return lanes[(int) Math.floorMod (id, (long) laneCount)];
+    }
+
+    private Space<String,Object> psp (long id) {
+        return lane(id).psp;
+    }
+
+    /**
+     * Transaction ids are interleaved across lanes ({@code seq * lanes + lane})
+     * so they remain unique and the owning lane can be derived from the id.
+     */
+    private long txnId (Lane lane, long seq) {
+        return seq * laneCount + lane.index;
+    }
+
+    private Object laneKeyOf (Serializable context) {
+        return laneKey != null && context instanceof Context ctx ? ctx.get (laneKey) : null;
+    }
+
+    private Lane laneFor (Serializable context) {
+        Object k = laneKeyOf (context);
+        if (k == null)
+            return lanes[(int) Math.floorMod (laneCounter.getAndIncrement(), (long) laneCount)];
+        int h = k.hashCode();
+        return lanes[Math.floorMod (h ^ (h >>> 16), laneCount)];
+    }
+
+    /**
+     * An independent processing lane with its own input queue, sequence
+     * counters and recovery space.
+     */
+    private static final class Lane {
+        final int index;
+        final String queue;
+        final Space<String,Object> psp;
+        final AtomicLong head = new AtomicLong();
+        final AtomicLong tail = new AtomicLong();
+        final Lock tailLock = new ReentrantLock();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger paused = new AtomicInteger();
+        final Map<Object,Deque<Serializable>> keys = new HashMap<>(); // lane-key values in progress
+
+        Lane (int index, String queue, Space<String,Object> psp, long initialTail) {
+            this.index = index;
+            this.queue = queue;
+            this.psp = psp;
+            head.set (initialTail);
+            tail.set (initialTail);
+        }
+    }
+
     private UUID getTraceId (long transactionId) {
         return new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits() ^ transactionId);
     }
@@ -19,6 +19,10 @@
 package org.jpos.transaction.participant;
 
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.jpos.core.Configurable;
 import org.jpos.core.Configuration;
@@ -26,8 +30,8 @@ import org.jpos.core.ConfigurationException;
 import org.jpos.iso.*;
 import org.jpos.rc.CMF;
 import org.jpos.rc.Result;
+import org.jpos.transaction.AsyncParticipant;
 import org.jpos.transaction.ContextConstants;
-import org.jpos.transaction.TransactionParticipant;
 import org.jpos.util.Caller;
 import org.jpos.util.Chronometer;
 import org.jpos.util.NameRegistrar;
@@ -38,7 +42,7 @@ import org.jpos.transaction.Context;
  * waits for the response (synchronously or via continuations), and stores
  * the response back into the {@link Context}.
  */
-public class QueryHost implements TransactionParticipant, Configurable {
+public class QueryHost implements AsyncParticipant, Configurable {
     /** Default {@link Context} key used to override the per-transaction timeout. */
     public static final String TIMEOUT_NAME = "QUERYHOST_TIMEOUT";
 
@@ -48,6 +52,7 @@ public class QueryHost implements TransactionParticipant, Configurable {
     private long timeout;
     private long waitTimeout;
     private String timeoutName = TIMEOUT_NAME;                  // default ctx name
+    private String deadlineName;
     private String requestName;
     private String responseName;
     private String destination;
@@ -62,45 +67,96 @@ public class QueryHost implements TransactionParticipant, Configurable {
     }
     public int prepare (long id, Serializable ser)  {
         Context ctx = (Context) ser;
+        Result result = ctx.getResult();
+        String muxName = getMuxName(ctx);
+        MUX mux = muxName != null ? NameRegistrar.getIfExists (muxName) : null;
+        ISOMsg m = ctx.get (requestName);
+        Chronometer chronometer = new Chronometer();
+        int action = validate (ctx, muxName, mux, m);
+        if (action != 0)
+            return action;
+
+        long t = remainingTimeout(ctx, chronometer);
+        if (t <= 0L)
+            return handleResponse (ctx, muxName, null);
+        try {
+            return handleResponse (ctx, muxName, mux.request(m, t));
+        } catch (ISOException e) {
+            return result.fail(CMF.SYSTEM_ERROR, Caller.info(), e.getMessage()).FAIL();
+        }
+    }
 
+    /**
+     * When {@code continuations} are enabled (the default), sends the request
+     * using the MUX's asynchronous API so that the TransactionManager can park
+     * the transaction, without holding a session, until the response arrives
+     * or the request times out.
+     */
+    @Override
+    public CompletionStage<Integer> prepareAsync (long id, Serializable ser) {
+        if (!continuations)
+            return CompletableFuture.completedFuture(prepare(id, ser));
+
+        Context ctx = (Context) ser;
         Result result = ctx.getResult();
+        String muxName = getMuxName(ctx);
+        MUX mux = muxName != null ? NameRegistrar.getIfExists (muxName) : null;
+        ISOMsg m = ctx.get (requestName);
+        Chronometer chronometer = new Chronometer();
+        int action = validate (ctx, muxName, mux, m);
+        if (action != 0)
+            return CompletableFuture.completedFuture(action);
+
+        long t = remainingTimeout(ctx, chronometer);
+        if (t <= 0L)
+            return CompletableFuture.completedFuture(handleResponse(ctx, muxName, null));
+        CompletableFuture<Integer> f = new CompletableFuture<>();
+        try {
+            mux.request(m, t, (resp, handBack) -> f.complete(handleResponse(ctx, muxName, resp)), null);
+        } catch (ISOException e) {
+            f.complete(result.fail(CMF.SYSTEM_ERROR, Caller.info(), e.getMessage()).FAIL());
+        }
+        return f;
+    }
+
+    private String getMuxName (Context ctx) {
         String ds = ctx.getString(destination);
-        if (ds == null) {
+        return ds != null ? cfg.get ("mux." + ds , "mux." + ds) : null;
+    }
+
+    /**
+     * @return 0 if the request can be sent, otherwise the action to return
+     */
+    private int validate (Context ctx, String muxName, MUX mux, ISOMsg m) {
+        Result result = ctx.getResult();
+        if (muxName == null) {
             return result.fail(
               CMF.MISCONFIGURED_ENDPOINT, Caller.info(), "'%s' not present in Context", destination
             ).FAIL();
         }
-        String muxName = cfg.get ("mux." + ds , "mux." + ds);
-        MUX mux =  NameRegistrar.getIfExists (muxName);
         if (mux == null)
             return result.fail(CMF.MISCONFIGURED_ENDPOINT, Caller.info(), "MUX '%s' not found", muxName).FAIL();
-
-        ISOMsg m = ctx.get (requestName);
         if (m == null)
             return result.fail(CMF.INVALID_REQUEST, Caller.info(), "'%s' is null", requestName).FAIL();
-
-        Chronometer chronometer = new Chronometer();
-        if (isConnected(mux)) {
-            long t = Math.max(resolveTimeout(ctx) - chronometer.elapsed(), 1000L); // give at least a second to catch a response
-            try {
-                ISOMsg resp = mux.request(m, t);
-                if (resp != null) {
-                    ctx.put(responseName, resp);
-                    return PREPARED | READONLY | NO_JOIN;
-                } else if (ignoreUnreachable) {
-                    ctx.log(String.format ("MUX '%s' no response", muxName));
-                } else {
-                    return result.fail(CMF.HOST_UNREACHABLE, Caller.info(), "'%s' does not respond", muxName).FAIL();
-                }
-            } catch (ISOException e) {
-                return result.fail(CMF.SYSTEM_ERROR, Caller.info(), e.getMessage()).FAIL();
+        if (!isConnected(mux)) {
+            if (ignoreUnreachable) {
+                ctx.log(String.format ("MUX '%s' not connected", muxName));
+                return PREPARED | NO_JOIN | READONLY;
             }
+            return result.fail(CMF.HOST_UNREACHABLE, Caller.info(), "'%s' is not connected", muxName).FAIL();
+        }
+        return 0;
+    }
+
+    private int handleResponse (Context ctx, String muxName, ISOMsg resp) {
+        if (resp != null) {
+            ctx.put(responseName, resp);
         } else if (ignoreUnreachable) {
-            ctx.log(String.format ("MUX '%s' not connected", muxName));
+            ctx.log(String.format ("MUX '%s' no response", muxName));
         } else {
-            return result.fail(CMF.HOST_UNREACHABLE, Caller.info(), "'%s' is not connected", muxName).FAIL();
+            return ctx.getResult().fail(CMF.HOST_UNREACHABLE, Caller.info(), "'%s' does not respond", muxName).FAIL();
         }
-        return PREPARED | NO_JOIN | READONLY;
+        return PREPARED | READONLY | NO_JOIN;
     }
 
     public void setConfiguration (Configuration cfg) throws ConfigurationException {
@@ -108,11 +164,13 @@ public class QueryHost implements TransactionParticipant, Configurable {
         timeout = cfg.getLong ("timeout", DEFAULT_TIMEOUT);
         waitTimeout = cfg.getLong ("wait-timeout", DEFAULT_WAIT_TIMEOUT);
         timeoutName = cfg.get("timeout-name", timeoutName);
+        deadlineName = cfg.get("deadline-name", ContextConstants.DEADLINE.toString());
         requestName = cfg.get ("request", ContextConstants.REQUEST.toString());
         responseName = cfg.get ("response", ContextConstants.RESPONSE.toString());
         destination = cfg.get ("destination", ContextConstants.DESTINATION.toString());
         ignoreUnreachable = cfg.getBoolean("ignore-host-unreachable", false);
         checkConnected = cfg.getBoolean("check-connected", checkConnected);
+        continuations = cfg.getBoolean("continuations", true);
     }
 
     /**
@@ -132,6 +190,37 @@ public class QueryHost implements TransactionParticipant, Configurable {
             return Long.parseLong(o.toString());
     }
 
+    /**
+     * Resolves the transaction deadline stashed in the context under
+     * {@link ContextConstants#DEADLINE} (or the configured {@code deadline-name}).
+     *
+     * @param ctx transaction context
+     * @return deadline in epoch milliseconds, or {@code 0L} if there's none
+     * @since 3.0.2
+     */
+    protected long resolveDeadline(Context ctx) {
+        Object o = ctx.get(deadlineName);
+        if (o instanceof Instant i)
+            return i.toEpochMilli();
+        else if (o instanceof Date d)
+            return d.getTime();
+        else if (o instanceof Number n)
+            return n.longValue();
+        else if (o != null)
+            return Long.parseLong(o.toString());
+        return 0L;
+    }
+
+    /**
+     * Timeout for the request: the resolved timeout (at least a second) capped
+     * by whatever is left before the transaction deadline, if any.
+     */
+    private long remainingTimeout(Context ctx, Chronometer chronometer) {
+        long t = Math.max(resolveTimeout(ctx) - chronometer.elapsed(), 1000L); // give at least a second to catch a response
+        long deadline = resolveDeadline(ctx);
+        return deadline > 0L ? Math.min(t, deadline - System.currentTimeMillis()) : t;
+    }
+
     /**
      * Indicates whether {@code mux} is currently connected, honouring the
      * {@code check-connected} configuration switch.
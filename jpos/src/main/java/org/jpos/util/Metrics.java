@@ -69,8 +69,8 @@ public class Metrics implements Loggeable {
     public void record(String name, long elapsed) {
         Histogram h = getHistogram(name);
         long l = Math.min(elapsed, h.getHighestTrackableValue());
-        if (l > 0)
-            h.recordValue(l);
+        if (l >= 0)
+            h.recordValue(l); // sub-millisecond observations count as 0
     }
 
     private Histogram getHistogram(String p) {
@@ -0,0 +1,235 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel.
+ *
+ * <p>Schedules items against a {@link System#nanoTime()} deadline and hands
+ * them back once the deadline has passed. Scheduling and cancelling are O(1);
+ * {@link #expire(long)} only visits the buckets whose time has come, so its
+ * cost is proportional to the number of expired entries rather than to the
+ * number of scheduled ones.</p>
+ *
+ * <p>Time is divided in ticks of {@code resolution} milliseconds. The wheel has
+ * {@value #LEVELS} levels of {@value #SLOTS} buckets each, every level covering
+ * {@value #SLOTS} times the span of the previous one; entries are cascaded to
+ * the lower level when their bucket comes due.</p>
+ *
+ * <p>Instances are thread safe.</p>
+ *
+ * @param <T> the scheduled item type
+ * @since 3.0
+ */
+public class TimingWheel<T> {
+    /** Buckets per level. */
+    public static final int SLOTS = 256;
+    /** Number of levels. */
+    public static final int LEVELS = 4;
+    private static final int BITS = 8;
+    private static final long MASK = SLOTS - 1;
+    private static final long MAX_TICKS = (1L << (BITS * LEVELS)) - 1;
+
+    private final long resolution;
+    private final long tickNanos;
+    private final long origin;
+    private final Entry<T>[][] buckets;
+    private long current;   // next tick to process
+    private int size;
+
+    /**
+     * Creates a timing wheel.
+     *
+     * @param resolution tick duration in milliseconds
+     * @throws IllegalArgumentException if {@code resolution} is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel (long resolution) {
+        if (resolution <= 0)
+            throw new IllegalArgumentException ("Invalid resolution " + resolution);
+        this.resolution = resolution;
+        this.tickNanos = resolution * 1_000_000L;
+        this.origin = System.nanoTime();
+        this.buckets = new Entry[LEVELS][SLOTS];
+    }
+
+    /**
+     * Schedules {@code item}.
+     *
+     * @param item the item to hand back once due
+     * @param deadline expiration time, as given by {@link System#nanoTime()}
+     * @return an entry that can be used to {@link #cancel(Entry) cancel} it
+     */
+    public synchronized Entry<T> schedule (T item, long deadline) {
+        Entry<T> e = new Entry<>(item, deadline, Math.max (tick (deadline), current));
+        link (e);
+        size++;
+        return e;
+    }
+
+    /**
+     * Cancels a scheduled entry.
+     *
+     * @param e entry returned by {@link #schedule(Object, long)}, may be {@code null}
+     * @return {@code true} if the entry was still scheduled
+     */
+    public synchronized boolean cancel (Entry<T> e) {
+        if (e == null || e.level < 0)
+            return false;
+        unlink (e);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes and returns the items whose deadline is not after {@code now}.
+     *
+     * @param now current {@link System#nanoTime()}
+     * @return expired items, in no particular order
+     */
+    public synchronized List<T> expire (long now) {
+        long nt = tick (now);
+        if (size == 0) {
+            current = Math.max (current, nt);
+            return Collections.emptyList();
+        }
+        List<T> expired = null;
+        while (current <= nt) {
+            int slot = (int) (current & MASK);
+            for (Entry<T> e = buckets[0][slot], next; e != null; e = next) {
+                next = e.next;
+                if (e.deadline - now <= 0) {
+                    unlink (e);
+                    size--;
+                    if (expired == null)
+                        expired = new ArrayList<>();
+                    expired.add (e.item);
+                }
+            }
+            if (current == nt)
+                break;  // the current tick may still hold entries due later within it
+            current++;
+            cascade();
+        }
+        return expired != null ? expired : Collections.emptyList();
+    }
+
+    /**
+     * @return number of scheduled entries
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return tick duration in milliseconds
+     */
+    public long getResolution() {
+        return resolution;
+    }
+
+    private long tick (long nanos) {
+        long t = nanos - origin;
+        return t > 0 ? t / tickNanos : 0L;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = BITS * level;
+            if ((current & ((1L << shift) - 1)) != 0)
+                break;
+            int slot = (int) ((current >>> shift) & MASK);
+            Entry<T> e = buckets[level][slot];
+            buckets[level][slot] = null;
+            while (e != null) {
+                Entry<T> next = e.next;
+                e.prev = e.next = null;
+                link (e);
+                e = next;
+            }
+        }
+    }
+
+    private void link (Entry<T> e) {
+        long delta = Math.min (e.tick - current, MAX_TICKS);
+        long t = current + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1)))
+            level++;
+        int slot = (int) ((t >>> (BITS * level)) & MASK);
+        Entry<T> head = buckets[level][slot];
+        e.level = level;
+        e.slot = slot;
+        e.prev = null;
+        e.next = head;
+        if (head != null)
+            head.prev = e;
+        buckets[level][slot] = e;
+    }
+
+    private void unlink (Entry<T> e) {
+        if (e.prev != null)
+            e.prev.next = e.next;
+        else
+            buckets[e.level][e.slot] = e.next;
+        if (e.next != null)
+            e.next.prev = e.prev;
+        e.prev = e.next = null;
+        e.level = -1;
+    }
+
+    /**
+     * A scheduled item.
+     *
+     * @param <T> the scheduled item type
+     */
+    public static final class Entry<T> {
+        private final T item;
+        private final long deadline;
+        private final long tick;
+        private Entry<T> prev, next;
+        private int level = -1;
+        private int slot;
+
+        private Entry (T item, long deadline, long tick) {
+            this.item = item;
+            this.deadline = deadline;
+            this.tick = tick;
+        }
+
+        /**
+         * @return the scheduled item
+         */
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * @return expiration time, as given by {@link System#nanoTime()}
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
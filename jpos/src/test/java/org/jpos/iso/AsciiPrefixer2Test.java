@@ -177,7 +177,7 @@ public class AsciiPrefixer2Test {
     @Test
     public void testEncodeLengthThrowsNullPointerException() throws Throwable {
         try {
-            new AsciiPrefixer(2).encodeLength(100, null);
+            new AsciiPrefixer(2).encodeLength(100, (byte[]) null);
             fail("Expected NullPointerException to be thrown");
         } catch (NullPointerException ex) {
             if (isJavaVersionAtMost(JAVA_14)) {
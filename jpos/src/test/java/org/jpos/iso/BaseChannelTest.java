@@ -37,9 +37,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.jpos.bsh.BSHFilter;
 import org.jpos.core.Configuration;
@@ -67,6 +69,7 @@ import org.jpos.iso.packager.GenericPackager;
 import org.jpos.iso.packager.GenericValidatingPackager;
 import org.jpos.iso.packager.ISO87APackager;
 import org.jpos.iso.packager.ISO87APackagerBBitmap;
+import org.jpos.iso.packager.ISO87BPackager;
 import org.jpos.iso.packager.ISO93BPackager;
 import org.jpos.iso.packager.ISOBaseValidatingPackager;
 import org.jpos.iso.packager.PostPackager;
@@ -1254,4 +1257,101 @@ public class BaseChannelTest {
         byte[] result = aSCIIChannel.streamReceive();
         assertEquals(0, result.length, "result.length");
     }
+
+    @Test
+    public void testAsyncSend() throws Throwable {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        ISOServer server = new ISOServer(port, new CSChannel(new ISO87BPackager()), 5);
+        server.setConfiguration(new SimpleConfiguration());
+        server.addISORequestListener((source, m) -> {
+            try {
+                m.setResponseMTI();
+                source.send(m);
+            } catch (ISOException | IOException e) {
+                fail(e.getMessage());
+            }
+            return true;
+        });
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(server);
+        try {
+            CSChannel c = new CSChannel("localhost", port, new ISO87BPackager());
+            c.setSendQueue(256, 16, 100L);
+            for (int i=0; i<50 && !c.isConnected(); i++) {
+                try {
+                    c.connect();
+                } catch (IOException e) {
+                    ISOUtil.sleep(100L);
+                }
+            }
+            List<Future<?>> senders = new ArrayList<>();
+            for (int t=0; t<10; t++) {
+                final int base = t * 50;
+                senders.add(executor.submit(() -> {
+                    for (int i=0; i<50; i++) {
+                        ISOMsg m = new ISOMsg("0800");
+                        m.set(11, ISOUtil.zeropad(base + i, 6));
+                        c.send(m);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : senders)
+                f.get();
+            boolean[] seen = new boolean[500];
+            for (int i=0; i<500; i++) {
+                ISOMsg r = c.receive();
+                assertEquals("0810", r.getMTI());
+                seen[Integer.parseInt(r.getString(11))] = true;
+            }
+            for (boolean b : seen)
+                assertTrue(b);
+            assertEquals(500, c.getCounters()[ISOChannel.TX]);
+            c.disconnect();
+        } finally {
+            server.shutdown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncSendFlushedOnDisconnect() throws Throwable {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        ISOServer server = new ISOServer(port, new CSChannel(new ISO87BPackager()), 5);
+        server.setConfiguration(new SimpleConfiguration());
+        CountDownLatch received = new CountDownLatch(200);
+        server.addISORequestListener((source, m) -> {
+            received.countDown();
+            return true;
+        });
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(server);
+        try {
+            CSChannel c = new CSChannel("localhost", port, new ISO87BPackager());
+            c.setSendQueue(256, 16, 100L);
+            for (int i=0; i<50 && !c.isConnected(); i++) {
+                try {
+                    c.connect();
+                } catch (IOException e) {
+                    ISOUtil.sleep(100L);
+                }
+            }
+            for (int i=0; i<200; i++) {
+                ISOMsg m = new ISOMsg("0800");
+                m.set(11, ISOUtil.zeropad(i, 6));
+                c.send(m);
+            }
+            c.disconnect();
+            assertTrue(received.await(5L, TimeUnit.SECONDS), "queued messages lost on disconnect, missing=" + received.getCount());
+        } finally {
+            server.shutdown();
+            executor.shutdownNow();
+        }
+    }
 }
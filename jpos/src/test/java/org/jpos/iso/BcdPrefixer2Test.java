@@ -114,7 +114,7 @@ public class BcdPrefixer2Test {
     @Test
     public void testEncodeLengthThrowsNullPointerException() throws Throwable {
         assertThrows(NullPointerException.class, () -> {
-            BcdPrefixer.L.encodeLength(100, null);
+            BcdPrefixer.L.encodeLength(100, (byte[]) null);
         });
     }
 
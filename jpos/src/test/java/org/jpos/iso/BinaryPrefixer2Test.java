@@ -128,7 +128,7 @@ public class BinaryPrefixer2Test {
     @Test
     public void testEncodeLengthThrowsNullPointerException() throws Throwable {
         try {
-            new BinaryPrefixer(2).encodeLength(100, null);
+            new BinaryPrefixer(2).encodeLength(100, (byte[]) null);
             fail("Expected NullPointerException to be thrown");
         } catch (NullPointerException ex) {
             if (isJavaVersionAtMost(JAVA_14)) {
@@ -152,7 +152,7 @@ public class EbcdicPrefixer2Test {
     @Test
     public void testEncodeLengthThrowsNullPointerException() throws Throwable {
         try {
-            new EbcdicPrefixer(2).encodeLength(100, null);
+            new EbcdicPrefixer(2).encodeLength(100, (byte[]) null);
             fail("Expected NullPointerException to be thrown");
         } catch (NullPointerException ex) {
             if (isJavaVersionAtMost(JAVA_14)) {
@@ -0,0 +1,114 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.jpos.iso.packager.ISO87BPackager;
+import org.junit.jupiter.api.Test;
+
+public class ISOFieldMapTest {
+    @Test
+    public void testPutGetRemove() {
+        ISOFieldMap m = new ISOFieldMap();
+        assertNull(m.put(2, "two"));
+        assertEquals("two", m.put(2, "TWO"));
+        m.put(-1, "bitmap");
+        m.put(0, "mti");
+        assertEquals(3, m.size());
+        assertEquals("TWO", m.get(Integer.valueOf(2)));
+        assertTrue(m.containsKey(-1));
+        assertFalse(m.containsKey("2"));
+        assertEquals("TWO", m.remove(2));
+        assertNull(m.remove(2));
+        assertFalse(m.has(2));
+        assertEquals(2, m.size());
+        m.put(0, null);
+        assertEquals(1, m.size());
+    }
+
+    @Test
+    public void testOrderAndGrowth() {
+        ISOFieldMap m = new ISOFieldMap(8);
+        TreeMap<Integer,Object> t = new TreeMap<>();
+        for (int i : new int[] { 999, 128, 64, 63, 1, -1, 0, 192, 65, -2, Integer.MIN_VALUE, 1024, Integer.MAX_VALUE }) {
+            m.put(i, "v" + i);
+            t.put(i, "v" + i);
+        }
+        assertEquals(t, m);
+        assertEquals(t.hashCode(), m.hashCode());
+        assertEquals(new ArrayList<>(t.keySet()), new ArrayList<>(m.keySet()));
+        assertEquals(Integer.MAX_VALUE, m.lastField());
+        assertEquals(63, m.nextField(2));
+        assertEquals(128, m.nextField(66));
+        assertEquals(1024, m.nextField(1000));
+        assertEquals("v-2", m.remove(-2));
+        assertEquals("v1024", m.remove(1024));
+        t.remove(-2);
+        t.remove(1024);
+        assertEquals(new ArrayList<>(t.keySet()), new ArrayList<>(m.keySet()));
+    }
+
+    @Test
+    public void testIteratorRemoveAndClone() {
+        ISOFieldMap m = new ISOFieldMap();
+        for (int i=0; i<10; i++)
+            m.put(i, Integer.valueOf(i));
+        ISOFieldMap c = m.clone();
+        m.values().removeIf(v -> (Integer) v % 2 == 0);
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9), new ArrayList<>(m.keySet()));
+        assertEquals(10, c.size());
+        Iterator<Integer> it = m.keySet().iterator();
+        it.next();
+        m.put(11, Integer.valueOf(11));
+        assertThrows(ConcurrentModificationException.class, it::next);
+        m.clear();
+        assertTrue(m.isEmpty());
+        assertEquals(-1, m.lastField());
+    }
+
+    @Test
+    public void testArrayStorageMessage() throws ISOException {
+        ISOMsg tree = new ISOMsg("0200");
+        ISOMsg array = new ISOMsg("0200");
+        array.setArrayStorage(true);
+        assertTrue(array.isArrayStorage());
+        for (ISOMsg m : new ISOMsg[] { tree, array }) {
+            m.setPackager(new ISO87BPackager());
+            m.set(3, "000000");
+            m.set(11, "000001");
+            m.set(41, "29110001");
+            m.set(70, "301");
+            m.set(128, ISOUtil.hex2byte("0102030405060708"));
+            m.unset(41);
+        }
+        assertEquals(tree.getMaxField(), array.getMaxField());
+        assertArrayEquals(tree.pack(), array.pack());
+        assertEquals(new ArrayList<>(tree.getChildren().keySet()), new ArrayList<>(array.getChildren().keySet()));
+        assertTrue(((ISOMsg) array.clone()).isArrayStorage());
+        assertTrue(((ISOMsg) array.clone(11)).isArrayStorage());
+
+        array.setArrayStorage(false);
+        assertFalse(array.isArrayStorage());
+        assertEquals("000001", array.getString(11));
+    }
+}
@@ -221,7 +221,7 @@ public class ISOFieldPackagerTest {
         ISOFieldPackager iFB_AMOUNT = new IFB_AMOUNT();
         iFB_AMOUNT.setLength(100);
         try {
-            iFB_AMOUNT.unpack(new ISOBinaryField(), null);
+            iFB_AMOUNT.unpack(new ISOBinaryField(), (InputStream) null);
             fail("Expected NullPointerException to be thrown");
         } catch (NullPointerException ex) {
             if (isJavaVersionAtMost(JAVA_14)) {
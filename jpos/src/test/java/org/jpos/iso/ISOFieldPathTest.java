@@ -0,0 +1,73 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ISOFieldPathTest {
+    @Test
+    public void testParse() {
+        ISOFieldPath p = ISOFieldPath.parse("48.2.0x1A");
+        assertEquals(3, p.depth());
+        assertEquals(48, p.field(0));
+        assertEquals(2, p.field(1));
+        assertEquals(26, p.last());
+        assertEquals("48.2.0x1A", p.toString());
+        assertEquals(ISOFieldPath.of(48, 2, 26), p);
+        assertEquals(ISOFieldPath.of(48, 2, 26).hashCode(), p.hashCode());
+        assertEquals(ISOFieldPath.of(63, 2), ISOFieldPath.parse(".63..2."));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> ISOFieldPath.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> ISOFieldPath.parse("..."));
+        assertThrows(NumberFormatException.class, () -> ISOFieldPath.parse("48.a"));
+        assertThrows(NumberFormatException.class, () -> ISOFieldPath.parse("0x"));
+    }
+
+    @Test
+    public void testInterned() {
+        assertSame(ISOFieldPath.of("127.2.3"), ISOFieldPath.of("127.2.3"));
+    }
+
+    @Test
+    public void testAccessors() throws ISOException {
+        ISOFieldPath p = ISOFieldPath.of("48.2.1");
+        ISOMsg m = new ISOMsg("0100");
+        m.set(p, "AB");
+        assertTrue(m.hasField(p));
+        assertEquals("AB", m.getString("48.2.1"));
+        assertEquals("AB", m.getValue(p));
+        assertArrayEquals("AB".getBytes(), m.getBytes(p));
+        assertEquals(1, m.getComponent(p).getKey());
+        m.set(ISOFieldPath.of(48, 3), new byte[] { 1 });
+        assertEquals("01", m.getString(ISOFieldPath.of(48, 3)));
+        m.unset(p);
+        assertFalse(m.hasField("48.2.1"));
+        assertFalse(m.hasField("48.2"), "empty parent is removed");
+        m.set(ISOFieldPath.of(48, 4), new ISOField(0, "X"));
+        assertEquals("X", m.getString("48.4"));
+        m.set(11, "000001");
+        assertThrows(ISOException.class, () -> m.getValue(ISOFieldPath.of("11.1")));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.jpos.iso.packager.ISO87APackager;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+public class ISOMsgPoolTest {
+    @Test
+    public void testReuse() throws ISOException {
+        ISOMsgPool pool = new ISOMsgPool(ISOMsg::new, 2);
+        ISOMsg m = pool.acquire();
+        assertTrue(m.isPooled());
+        m.setPackager(new ISO87APackager());
+        m.setMTI("0800");
+        m.set(11, "000001");
+        m.setDirection(ISOMsg.INCOMING);
+        m.setHeader("HDR".getBytes());
+        m.release();
+        assertFalse(m.isPooled());
+        assertEquals(1, pool.size());
+
+        ISOMsg m1 = pool.acquire();
+        assertSame(m, m1);
+        assertFalse(m1.hasFields());
+        assertEquals(new ISOMsg().getMaxField(), m1.getMaxField());
+        assertEquals(0, m1.getDirection());
+        assertNull(m1.getHeader());
+        assertNotNull(m1.getPackager(), "packager is preserved");
+        assertEquals(1, pool.getCreated());
+        assertEquals(1, pool.getReused());
+        assertEquals(1, pool.getReleased());
+    }
+
+    @Test
+    public void testBounded() {
+        ISOMsgPool pool = new ISOMsgPool(ISOMsg::new, 1);
+        ISOMsg m1 = pool.acquire();
+        ISOMsg m2 = pool.acquire();
+        m1.release();
+        m2.release();
+        assertEquals(1, pool.size());
+        assertEquals(2, pool.getReleased());
+    }
+
+    @Test
+    public void testReleaseNotPooled() throws ISOException {
+        ISOMsg m = new ISOMsg("0800");
+        m.release();
+        assertEquals("0800", m.getMTI());
+    }
+
+    @Test
+    public void testCloneIsNotPooled() throws ISOException {
+        ISOMsgPool pool = new ISOMsgPool(ISOMsg::new, 4);
+        ISOMsg m = pool.acquire();
+        m.setMTI("0800");
+        ISOMsg c = (ISOMsg) m.clone();
+        assertFalse(c.isPooled());
+        assertFalse(((ISOMsg) m.clone(0)).isPooled());
+        m.release();
+        assertEquals("0800", c.getMTI());
+    }
+
+    @Test
+    public void testForeignRelease() {
+        ISOMsgPool pool1 = new ISOMsgPool(ISOMsg::new, 4);
+        ISOMsgPool pool2 = new ISOMsgPool(ISOMsg::new, 4);
+        ISOMsg m = pool1.acquire();
+        assertThrows(IllegalArgumentException.class, () -> pool2.release(m));
+    }
+
+    @Test
+    public void testUseAfterRelease() throws ISOException {
+        ISOMsgPool pool = new ISOMsgPool(ISOMsg::new, 4, true);
+        ISOMsg m = pool.acquire();
+        m.setMTI("0800");
+        m.release();
+        assertFalse(m.isPooled());
+        IllegalStateException e = assertThrows(IllegalStateException.class, m::getMTI);
+        assertNotNull(e.getCause(), "release site is recorded");
+        assertThrows(IllegalStateException.class, () -> m.set(11, "000001"));
+        assertThrows(IllegalStateException.class, m::clone);
+        assertThrows(IllegalStateException.class, m::release);
+        assertEquals(0, pool.size(), "poisoned messages are not reused");
+        assertNotSame(m, pool.acquire());
+    }
+
+    @Test
+    public void testDoubleRelease() {
+        ISOMsgPool pool = new ISOMsgPool(ISOMsg::new, 4);
+        ISOMsg m = pool.acquire();
+        m.release();
+        m.release();
+        pool.release(m);
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.getReleased());
+    }
+
+    @Test
+    public void testConcurrentRelease() throws InterruptedException {
+        ISOMsgPool pool = new ISOMsgPool(ISOMsg::new, 16);
+        for (int i = 0; i < 100; i++) {
+            ISOMsg m = pool.acquire();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[4];
+            for (int j = 0; j < threads.length; j++) {
+                threads[j] = Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ignored) { }
+                    m.release();
+                });
+            }
+            start.countDown();
+            for (Thread t : threads)
+                t.join();
+            assertEquals(1, pool.size(), "released once");
+            assertSame(m, pool.acquire());
+        }
+        assertEquals(100, pool.getReleased());
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.iso;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.jpos.core.ConfigurationException;
+import org.jpos.core.SimpleConfiguration;
+import org.jpos.iso.channel.ASCIIChannel;
+import org.jpos.iso.channel.CSChannel;
+import org.jpos.iso.channel.NACChannel;
+import org.jpos.iso.packager.ISO87APackager;
+import org.jpos.iso.packager.ISO87BPackager;
+import org.jpos.util.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NioISOServerTest {
+    @Test
+    public void testNACChannelWithHeader() throws Exception {
+        byte[] tpdu = ISOUtil.hex2byte("6000010000");
+        NACChannel template = new NACChannel(new ISO87BPackager(), tpdu);
+        NioISOServer server = start(template, new SimpleConfiguration());
+        try {
+            NACChannel c = new NACChannel("localhost", server.getPort(), new ISO87BPackager(), tpdu);
+            c.connect();
+            for (int i=1; i<=10; i++) {
+                ISOMsg m = new ISOMsg("0800");
+                m.set(11, ISOUtil.zeropad(i, 6));
+                m.set(70, "301");
+                c.send(m);
+                ISOMsg r = c.receive();
+                assertEquals("0810", r.getMTI());
+                assertEquals(ISOUtil.zeropad(i, 6), r.getString(11));
+                assertEquals("00", r.getString(39));
+                assertArrayEquals(tpdu, r.getHeader());
+            }
+            c.disconnect();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        SimpleConfiguration cfg = new SimpleConfiguration();
+        cfg.put("io-threads", "2");
+        NioISOServer server = start(new CSChannel(new ISO87BPackager()), cfg);
+        try {
+            List<CSChannel> clients = new ArrayList<>();
+            for (int i=0; i<50; i++) {
+                CSChannel c = new CSChannel("localhost", server.getPort(), new ISO87BPackager());
+                c.connect();
+                clients.add(c);
+            }
+            for (int i=0; i<clients.size(); i++) {
+                ISOMsg m = new ISOMsg("0200");
+                m.set(11, ISOUtil.zeropad(i, 6));
+                clients.get(i).send(m);
+            }
+            for (int i=0; i<clients.size(); i++) {
+                ISOMsg r = clients.get(i).receive();
+                assertEquals(ISOUtil.zeropad(i, 6), r.getString(11));
+            }
+            assertEquals(50, server.getActiveConnections());
+            for (CSChannel c : clients)
+                c.disconnect();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        SimpleConfiguration cfg = new SimpleConfiguration();
+        cfg.put("idle-timeout", "500");
+        NioISOServer server = start(new ASCIIChannel(new ISO87APackager()), cfg);
+        try {
+            ASCIIChannel c = new ASCIIChannel("localhost", server.getPort(), new ISO87APackager());
+            c.connect();
+            assertThrows(EOFException.class, c::receive);
+            c.disconnect();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testLengthPrefixRequired() throws Exception {
+        NioISOServer server = new NioISOServer(0, new org.jpos.iso.channel.XMLChannel(), 1);
+        SimpleConfiguration cfg = new SimpleConfiguration();
+        assertThrows(ConfigurationException.class, () -> server.setConfiguration(cfg));
+        cfg.put("length-prefix", "ascii:4");
+        server.setConfiguration(cfg);
+    }
+
+    @Test
+    public void testResetAfterConnect() throws Exception {
+        NioISOServer server = start(new ASCIIChannel(new ISO87APackager()), new SimpleConfiguration());
+        try {
+            for (int i=0; i<20; i++) {
+                Socket s = new Socket("localhost", server.getPort());
+                s.setSoLinger(true, 0);
+                s.close(); // RST
+            }
+            long start = System.currentTimeMillis();
+            ASCIIChannel c = new ASCIIChannel("localhost", server.getPort(), new ISO87APackager());
+            c.connect();
+            ISOMsg m = new ISOMsg("0800");
+            m.set(11, "000001");
+            c.send(m);
+            assertEquals("0810", c.receive().getMTI());
+            c.disconnect();
+            assertTrue(System.currentTimeMillis() - start < 4000L, "listener should not be restarted");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testServerEvents() throws Exception {
+        NioISOServer server = start(new ASCIIChannel(new ISO87APackager()), new SimpleConfiguration());
+        AtomicInteger accepts = new AtomicInteger();
+        AtomicInteger disconnects = new AtomicInteger();
+        server.addServerEventListener(ev -> {
+            if (ev instanceof ISOServerAcceptEvent)
+                accepts.incrementAndGet();
+            else if (ev instanceof ISOServerClientDisconnectEvent)
+                disconnects.incrementAndGet();
+        });
+        try {
+            ASCIIChannel c = new ASCIIChannel("localhost", server.getPort(), new ISO87APackager());
+            c.connect();
+            ISOMsg m = new ISOMsg("0800");
+            m.set(11, "000001");
+            c.send(m);
+            assertEquals("0810", c.receive().getMTI());
+            assertTrue(accepts.get() >= 1);
+            c.disconnect();
+            for (int i=0; i<50 && disconnects.get() < 1; i++)
+                ISOUtil.sleep(100L);
+            assertTrue(disconnects.get() >= 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testSocketFactoryRejected() throws Exception {
+        NioISOServer server = new NioISOServer(0, new ASCIIChannel(new ISO87APackager()), 1);
+        server.setSocketFactory(new SunJSSESocketFactory());
+        assertThrows(ConfigurationException.class, () -> server.setConfiguration(new SimpleConfiguration()));
+    }
+
+    private NioISOServer start(ServerChannel template, SimpleConfiguration cfg) throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        NioISOServer server = new NioISOServer(port, template, 100);
+        server.setLogger(new Logger(), "nio-server");
+        server.setConfiguration(cfg);
+        server.addISORequestListener((source, m) -> {
+            try {
+                m.setResponseMTI();
+                m.set(39, "00");
+                source.send(m);
+            } catch (ISOException | IOException e) {
+                fail(e.getMessage());
+            }
+            return true;
+        });
+        Thread.ofPlatform().daemon().start(server);
+        for (int i=0; i<50; i++) {
+            try (Socket s = new Socket("localhost", port)) {
+                break;
+            } catch (IOException e) {
+                ISOUtil.sleep(100L);
+            }
+        }
+        return server;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.iso.packager;
+
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOPackager;
+import org.jpos.iso.ISOUtil;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBufferPackagerTest {
+    private static final String[] PACKAGERS = { "ISO87A", "ISO87B", "CMF" };
+
+    private static ISOPackager packager (String name) throws ISOException {
+        return switch (name) {
+            case "ISO87A" -> new ISO87APackager();
+            case "ISO87B" -> new ISO87BPackager();
+            case "CMF" -> new GenericPackager("jar:packager/cmf.xml");
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    private static ISOMsg msg (ISOPackager p) throws ISOException {
+        ISOMsg m = new ISOMsg("0800");
+        m.setPackager(p);
+        m.set(2, "4111111111111111");
+        m.set(3, "000000");
+        m.set(11, "000001");
+        m.set(32, "123456");
+        m.set(35, "4111111111111111=29121011000012345678");
+        m.set(41, "29110001");
+        m.set(52, ISOUtil.hex2byte("0123456789ABCDEF"));
+        m.set(70, "301");
+        return m;
+    }
+
+    @Test
+    public void testPackHeapBuffer () throws ISOException {
+        for (String name : PACKAGERS) {
+            ISOMsg m = msg(packager(name));
+            byte[] expected = m.pack();
+            ByteBuffer buf = ByteBuffer.allocate(expected.length + 10);
+            buf.position(5);
+            assertEquals(expected.length, m.pack(buf), name);
+            assertEquals(expected.length + 5, buf.position());
+            byte[] b = new byte[expected.length];
+            buf.get(5, b);
+            assertArrayEquals(expected, b);
+        }
+    }
+
+    @Test
+    public void testRoundTripDirectBuffer () throws ISOException {
+        for (String name : PACKAGERS) {
+            ISOPackager p = packager(name);
+            ISOMsg m = msg(p);
+            byte[] expected = m.pack();
+            ByteBuffer buf = ByteBuffer.allocateDirect(1024);
+            buf.putInt(0xCAFEBABE);                 // something before the message
+            assertEquals(expected.length, m.pack(buf));
+            buf.flip();
+            assertEquals(0xCAFEBABE, buf.getInt());
+
+            ISOMsg r = new ISOMsg();
+            r.setPackager(p);
+            assertEquals(expected.length, r.unpack(buf));
+            assertFalse(buf.hasRemaining());
+            assertEquals("0800", r.getMTI());
+            assertEquals("4111111111111111=29121011000012345678", r.getString(35));
+            assertArrayEquals(ISOUtil.hex2byte("0123456789ABCDEF"), r.getBytes(52));
+            assertArrayEquals(expected, r.pack());
+        }
+    }
+
+    @Test
+    public void testUnpackHeapSlice () throws ISOException {
+        for (String name : PACKAGERS) {
+            ISOPackager p = packager(name);
+            byte[] image = msg(p).pack();
+            byte[] b = new byte[image.length + 8];
+            System.arraycopy(image, 0, b, 4, image.length);
+            ByteBuffer buf = ByteBuffer.wrap(b, 4, image.length).slice();
+
+            ISOMsg r = new ISOMsg();
+            assertEquals(image.length, p.unpack(r, buf));
+            assertEquals("29110001", r.getString(41).trim());
+            r.setPackager(p);
+            assertArrayEquals(image, r.pack(), name);
+        }
+    }
+
+    @Test
+    public void testShortHeader () throws ISOException {
+        ISO87BPackager p = new ISO87BPackager();
+        p.setHeaderLength(5);
+        ISOException e = assertThrows(ISOException.class,
+          () -> p.unpack(new ISOMsg(), ByteBuffer.wrap(new byte[3])));
+        assertEquals("header length 5 exceeds remaining 3 bytes", e.getMessage());
+        assertInstanceOf(BufferUnderflowException.class, e.getNested());
+    }
+
+    @Test
+    public void testOverflowLeavesPositionUnchanged () throws ISOException {
+        for (String name : PACKAGERS) {
+            ISOMsg m = msg(packager(name));
+            int len = m.pack().length;
+            ByteBuffer buf = ByteBuffer.allocate(len - 1);
+            buf.put((byte) 1);
+            assertThrows(ISOException.class, () -> m.pack(buf));
+            assertEquals(1, buf.position());
+        }
+    }
+}
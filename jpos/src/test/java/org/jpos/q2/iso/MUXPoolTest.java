@@ -23,9 +23,18 @@ import static org.apache.commons.lang3.SystemUtils.isJavaVersionAtMost;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.jdom2.Element;
+import org.jpos.core.SimpleConfiguration;
+import org.jpos.iso.ISOException;
 import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOResponseListener;
+import org.jpos.iso.MUX;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public class MUXPoolTest {
     @Test
     public void testInitServiceThrowsNullPointerException() throws Throwable {
@@ -87,4 +96,152 @@ public class MUXPoolTest {
         mUXPool.stopService();
         assertNull(mUXPool.getName(), "mUXPool.getName()");
     }
+
+    @Test
+    public void testRequestAsync() throws Throwable {
+        MUXPool pool = new MUXPool();
+        pool.mux = new MUX[] { new EchoMUX(false), new EchoMUX(true) };
+        ISOMsg m = new ISOMsg("0800");
+        m.set(11, "000001");
+        CompletableFuture<ISOMsg> f = pool.requestAsync(m, Duration.ofSeconds(5));
+        ISOMsg r = f.get(5, TimeUnit.SECONDS);
+        assertNotNull(r, "response");
+        assertEquals("0810", r.getMTI());
+    }
+
+    @Test
+    public void testRequestAsyncNoMUX() {
+        MUXPool pool = new MUXPool();
+        pool.mux = new MUX[] { new EchoMUX(false) };
+        CompletableFuture<ISOMsg> f = pool.requestAsync(new ISOMsg("0800"), Duration.ofMillis(100));
+        assertTrue(f.isCompletedExceptionally(), "future should fail when no MUX is available");
+    }
+
+    @Test
+    public void testLeastPendingPrefersIdleMUX() throws Throwable {
+        EchoMUX a = new EchoMUX(true);
+        EchoMUX b = new EchoMUX(true);
+        MUXPool pool = loadAwarePool(MUXPool.LEAST_PENDING, new Properties(), a, b);
+        a.hold = b.hold = true;
+        pool.request(new ISOMsg("0800"), 1000L, (resp, handBack) -> { }, null);
+        a.hold = b.hold = false;
+        EchoMUX busy = a.requests == 1 ? a : b;
+        EchoMUX idle = busy == a ? b : a;
+        for (int i=0; i<4; i++)
+            assertNotNull(pool.request(new ISOMsg("0800"), 1000L));
+        assertEquals(1, busy.requests, "busy MUX should not be selected");
+        assertEquals(4, idle.requests);
+    }
+
+    @Test
+    public void testEjectionAndReadmission() throws Throwable {
+        EchoMUX slow = new EchoMUX(true);
+        EchoMUX good = new EchoMUX(true);
+        slow.expire = true;
+        Properties props = new Properties();
+        props.setProperty("ewma-alpha", "0.5");
+        props.setProperty("eject-min-requests", "5");
+        props.setProperty("eject-period", "200");
+        props.setProperty("readmit-period", "1");
+        MUXPool pool = loadAwarePool(MUXPool.LEAST_LATENCY, props, slow, good);
+        for (int i=0; i<30; i++)
+            pool.request(new ISOMsg("0800"), 1000L);
+        assertEquals(5, slow.requests, "MUX should be ejected after 5 timeouts");
+        assertArrayEquals(new String[] { "a" }, pool.getEjectedMuxNames());
+        Thread.sleep(300L);
+        assertEquals(0, pool.getEjectedMuxNames().length, "MUX should be re-admitted");
+    }
+
+    @Test
+    public void testHedgedRequest() throws Throwable {
+        EchoMUX stalled = new EchoMUX(true);
+        EchoMUX good = new EchoMUX(true);
+        stalled.hold = true;
+        MUXPool pool = new MUXPool();
+        Properties props = new Properties();
+        props.setProperty("hedge-mtis", "0100");
+        props.setProperty("hedge-delay", "50");
+        pool.setConfiguration(new SimpleConfiguration(props));
+        pool.mux = new MUX[] { stalled, good };
+        pool.initHedging();
+
+        long start = System.currentTimeMillis();
+        ISOMsg r = pool.request(new ISOMsg("0100"), 5000L);
+        assertNotNull(r, "hedged request should be answered by the second MUX");
+        assertEquals("0110", r.getMTI());
+        assertTrue(System.currentTimeMillis() - start < 2000L, "hedged request took too long");
+        assertEquals(1, stalled.requests);
+        assertEquals(1, good.requests);
+
+        assertNull(pool.request(new ISOMsg("0200"), 300L), "0200 should not be hedged");
+        assertEquals(2, stalled.requests);
+        assertEquals(1, good.requests);
+    }
+
+    @Test
+    public void testNoHedgingWithRoutingStrategy() throws Throwable {
+        EchoMUX stalled = new EchoMUX(true);
+        EchoMUX good = new EchoMUX(true);
+        stalled.hold = true;
+        MUXPool pool = new MUXPool();
+        Properties props = new Properties();
+        props.setProperty("hedge-mtis", "0100");
+        props.setProperty("hedge-delay", "50");
+        pool.setConfiguration(new SimpleConfiguration(props));
+        pool.mux = new MUX[] { stalled, good };
+        pool.initHedging();
+        pool.strategyHandler = (p, m, maxWait) -> stalled; // routes everything to the first MUX
+
+        assertNull(pool.request(new ISOMsg("0100"), 300L), "routed requests should not be hedged");
+        assertEquals(1, stalled.requests);
+        assertEquals(0, good.requests);
+    }
+
+    private static MUXPool loadAwarePool(int strategy, Properties props, MUX... muxes) throws Exception {
+        MUXPool pool = new MUXPool();
+        pool.setConfiguration(new SimpleConfiguration(props));
+        pool.strategy = strategy;
+        pool.mux = muxes;
+        pool.muxName = new String[] { "a", "b" };
+        pool.initMembers();
+        return pool;
+    }
+
+    private static class EchoMUX implements MUX {
+        boolean hold;
+        boolean expire;
+        int requests;
+
+        private final boolean connected;
+
+        EchoMUX(boolean connected) {
+            this.connected = connected;
+        }
+
+        @Override
+        public ISOMsg request(ISOMsg m, long timeout) throws ISOException {
+            requests++;
+            if (expire || hold)
+                return null;
+            ISOMsg r = (ISOMsg) m.clone();
+            r.setResponseMTI();
+            return r;
+        }
+
+        @Override
+        public void request(ISOMsg m, long timeout, ISOResponseListener r, Object handBack) throws ISOException {
+            if (hold)
+                requests++;
+            else
+                r.responseReceived(request(m, timeout), handBack);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void send(ISOMsg m) { }
+    }
 }
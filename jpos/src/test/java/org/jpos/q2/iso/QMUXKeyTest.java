@@ -0,0 +1,120 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.q2.iso;
+
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOMsg;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QMUXKeyTest {
+    private static final String[] MTI_MAPPING = { "0123456789", "0123456789", "0022446689" };
+
+    @Test
+    public void testDefaultKey() throws ISOException {
+        QMUXKey keys = new QMUXKey(MTI_MAPPING, false, new String[] { "41", "11" }, Map.of());
+        assertEquals("send.0800000000029110001000123", key(keys, msg("0810", " 123 ", "29110001")));
+        assertEquals("send.2800000000029110001000000000123", key(keys, msg("2800", "123", "29110001")));
+        assertEquals("send.0800000000029110001 1234567 ", key(keys, msg("0800", " 1234567 ", "29110001")));
+        assertEquals("send.020", key(keys, new ISOMsg("0200"), false));
+        assertThrows(ISOException.class, () -> key(keys, msg("0800", "1", "12345678901234567")));
+    }
+
+    @Test
+    public void testMtiAndPcodeOverrides() throws ISOException {
+        Map<String,String[]> mtiKey = new HashMap<>();
+        mtiKey.put("02", new String[] { "7", "11" });
+        mtiKey.put("02:261000", new String[] { "7", "11", "41" });
+        QMUXKey keys = new QMUXKey(MTI_MAPPING, false, new String[] { "41", "11" }, mtiKey);
+        ISOMsg m = msg("0200", "123", "TERM01");
+        m.set(7, "0102030405");
+        assertEquals("send.0200102030405000123", key(keys, m));
+        m.set(3, " 261000 ");
+        assertEquals("send.0200102030405000123" + "0000000000TERM01", key(keys, m));
+        m.set(3, "000000");
+        assertEquals("send.0200102030405000123", key(keys, m));
+    }
+
+    @Test
+    public void testHeaderKey() throws ISOException {
+        QMUXKey keys = new QMUXKey(MTI_MAPPING, true, new String[] { "11" }, Map.of());
+        ISOMsg m = msg("0800", "1", null);
+        m.setHeader(new byte[] { 0x01, (byte) 0xAB });
+        assertEquals("send.080.01AB.000001", key(keys, m));
+    }
+
+    @Test
+    public void testHashAndVerification() throws ISOException {
+        QMUXKey keys = new QMUXKey(MTI_MAPPING, false, new String[] { "41", "11" }, Map.of());
+        QMUXKey.Buffer b = keys.acquire();
+        keys.write(msg("0100", "1", "29110001"), b);
+        long h = b.hash();
+        char[] k = b.toCharArray();
+
+        keys.write(msg("0110", "000001", "29110001"), b);
+        assertEquals(h, b.hash());
+        assertTrue(b.contentEquals(k));
+
+        keys.write(msg("0110", "000002", "29110001"), b);
+        assertNotEquals(h, b.hash());
+        assertFalse(b.contentEquals(k));
+    }
+
+    @Test
+    public void testBuffersArePooledAcrossThreads() throws Exception {
+        QMUXKey keys = new QMUXKey(MTI_MAPPING, false, new String[] { "11" }, Map.of());
+        QMUXKey.Buffer b = keys.acquire();
+        keys.release(b);
+        QMUXKey.Buffer[] reused = new QMUXKey.Buffer[1];
+        Thread t = Thread.ofVirtual().start(() -> {
+            reused[0] = keys.acquire();
+        });
+        t.join();
+        QMUXKey.Buffer other = keys.acquire();
+        assertTrue(reused[0] == b || other == b, "a released buffer should be reused by a new thread");
+        assertNotSame(reused[0], other);
+    }
+
+    private static String key(QMUXKey keys, ISOMsg m) throws ISOException {
+        return key(keys, m, true);
+    }
+
+    private static String key(QMUXKey keys, ISOMsg m, boolean expectFields) throws ISOException {
+        QMUXKey.Buffer b = keys.acquire();
+        try {
+            assertEquals(expectFields, keys.write(m, b));
+            return b.toString("send");
+        } finally {
+            keys.release(b);
+        }
+    }
+
+    private static ISOMsg msg(String mti, String stan, String tid) {
+        ISOMsg m = new ISOMsg(mti);
+        if (stan != null)
+            m.set(11, stan);
+        if (tid != null)
+            m.set(41, tid);
+        return m;
+    }
+}
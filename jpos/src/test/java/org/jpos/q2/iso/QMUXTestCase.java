@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -42,6 +43,9 @@ import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unchecked")
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -106,6 +110,96 @@ public class QMUXTestCase implements ISOResponseListener {
         assertEquals("Handback Two", receivedHandback, "Handback Two not received");
     }
 
+    @Test
+    public void testDirectExpiredMessage() throws Exception {
+        QMUX direct = NameRegistrar.get("mux.mux-direct", 10000L);
+        direct.request(createMsg("000003"), 500L, this, "Handback Three");
+        assertFalse(expiredCalled, "expired called too fast");
+        assertNotNull(sp.in("send-direct", 500L), "Message not received by pseudo-channel");
+        Thread.sleep(1000L);
+        assertTrue(expiredCalled, "expired has not been called after 1 second");
+        assertEquals("Handback Three", receivedHandback, "Handback Three not received");
+        assertEquals(0, direct.getRXPending(), "rx_pending");
+    }
+
+    @Test
+    public void testDirectAnsweredMessage() throws Exception {
+        QMUX direct = NameRegistrar.get("mux.mux-direct", 10000L);
+        direct.request(createMsg("000004"), 500L, this, "Handback Four");
+        ISOMsg m = (ISOMsg) sp.in("send-direct", 500L);
+        assertNotNull(m, "Message not received by pseudo-channel");
+        m.setResponseMTI();
+        sp.out("receive-direct", m);
+        Thread.sleep(100L);
+        assertNotNull(responseMsg, "Response not received");
+        Thread.sleep(1000L);
+        assertFalse(expiredCalled, "Response received but expired was called");
+        assertEquals("Handback Four", receivedHandback, "Handback Four not received");
+    }
+
+    @Test
+    public void testDirectSyncRequest() throws Exception {
+        QMUX direct = NameRegistrar.get("mux.mux-direct", 10000L);
+        Thread responder = new Thread(() -> {
+            try {
+                ISOMsg m = (ISOMsg) sp.in("send-direct", 1000L);
+                m.setResponseMTI();
+                m.set(39, "00");
+                sp.out("receive-direct", m);
+            } catch (ISOException ignored) { }
+        });
+        responder.start();
+        int rx = direct.getRXCounter();
+        ISOMsg resp = direct.request(createMsg("000005"), 2000L);
+        assertNotNull(resp, "Response not received");
+        assertEquals("0810", resp.getMTI());
+        assertEquals(rx + 1, direct.getRXCounter(), "rx counter");
+        responder.join();
+
+        int expired = direct.getRXExpired();
+        assertNull(direct.request(createMsg("000006"), 100L), "Unanswered request should expire");
+        assertEquals(expired + 1, direct.getRXExpired(), "rx_expired counter");
+    }
+
+    @Test
+    public void testDirectDuplicateKey() throws Exception {
+        QMUX direct = NameRegistrar.get("mux.mux-direct", 10000L);
+        direct.request(createMsg("000007"), 500L, this, "Handback Seven");
+        assertThrows(ISOException.class, () -> direct.request(createMsg("000007"), 500L, this, null));
+        assertNotNull(sp.in("send-direct", 500L));
+        assertNull(sp.inp("send-direct"), "Duplicate request should not be sent");
+        Thread.sleep(1000L);
+        assertTrue(expiredCalled, "expired has not been called after 1 second");
+    }
+
+    @Test
+    public void testRequestAsync() throws Exception {
+        CompletableFuture<ISOMsg> f = mux.requestAsync(createMsg("000008"), Duration.ofSeconds(1));
+        ISOMsg m = (ISOMsg) sp.in("send", 500L);
+        assertNotNull(m, "Message not received by pseudo-channel");
+        m.setResponseMTI();
+        sp.out("receive", m);
+        ISOMsg r = f.get(1, TimeUnit.SECONDS);
+        assertNotNull(r, "Response not received");
+        assertEquals("0810", r.getMTI());
+
+        f = mux.requestAsync(createMsg("000009"), Duration.ofMillis(100));
+        assertNull(f.get(1, TimeUnit.SECONDS), "Expired request should complete with null");
+    }
+
+    @Test
+    public void testRequestAsyncWithoutTimeout() throws Exception {
+        QMUX direct = NameRegistrar.get("mux.mux-direct", 10000L);
+        CompletableFuture<ISOMsg> f = direct.requestAsync(createMsg("000010"), Duration.ZERO);
+        assertNull(f.get(1, TimeUnit.SECONDS), "request without timeout should complete with null");
+        assertNotNull(sp.in("send-direct", 500L), "Message not sent");
+
+        direct.request(createMsg("000011"), 0L, this, "Handback Eleven");
+        assertNotNull(sp.in("send-direct", 500L), "Message not sent");
+        assertTrue(expiredCalled, "request without timeout should expire right away");
+        assertEquals(0, direct.getRXPending(), "pending entry should be released");
+    }
+
     @AfterAll
     public static void tearDown() throws Exception {
         Thread.sleep(2000L); // let the thing run
@@ -0,0 +1,121 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.space;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jpos.iso.ISOUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the {@link TSpaceTestCase} suite against {@link CSpace}, plus
+ * CSpace specific wakeup and concurrency tests.
+ */
+@SuppressWarnings("unchecked")
+public class CSpaceTestCase extends TSpaceTestCase {
+    @Override
+    protected LocalSpace<Object, Object> createSpace() {
+        return new CSpace<Object, Object>();
+    }
+
+    @Override
+    protected void gc() {
+        ((CSpace) sp).gc();
+    }
+
+    @Override
+    protected String getKeysAsString() {
+        return ((CSpace) sp).getKeysAsString();
+    }
+
+    @Test
+    public void testEachTakerGetsOneEntry() throws Exception {
+        int takers = 20;
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(takers);
+        for (int i=0; i<takers; i++) {
+            Thread.ofVirtual().start(() -> {
+                if (sp.in("testTakers_Key", 5000L) != null)
+                    taken.incrementAndGet();
+                done.countDown();
+            });
+        }
+        ISOUtil.sleep(100L);
+        for (int i=0; i<takers; i++)
+            sp.out("testTakers_Key", i);
+        assertTrue(done.await(5, TimeUnit.SECONDS), "takers did not finish");
+        assertEquals(takers, taken.get());
+        assertNull(sp.rdp("testTakers_Key"));
+    }
+
+    @Test
+    public void testOtherKeysDoNotWakeWaiter() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        Thread t = Thread.ofVirtual().start(() -> {
+            sp.rd("testWait_Key");
+            done.countDown();
+        });
+        ISOUtil.sleep(50L);
+        for (int i=0; i<1000; i++)
+            sp.out("testWait_Other", i);
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS), "waiter should still be blocked");
+        assertEquals(Thread.State.WAITING, t.getState());
+        sp.out("testWait_Key", "ABC");
+        assertTrue(done.await(1, TimeUnit.SECONDS), "waiter not released");
+        while (sp.inp("testWait_Other") != null)
+            ;
+    }
+
+    @Test
+    public void testConcurrentProducersConsumers() throws Exception {
+        int threads = 8;
+        int count = 10_000;
+        AtomicInteger sum = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads * 2);
+        for (int t=0; t<threads; t++) {
+            String k = "testPC_Key" + (t % 2);
+            Thread.ofVirtual().start(() -> {
+                for (int i=0; i<count; i++)
+                    sp.out(k, 1, 60000L);
+                done.countDown();
+            });
+            Thread.ofVirtual().start(() -> {
+                for (int i=0; i<count; i++)
+                    sum.addAndGet((Integer) sp.in(k));
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS), "producers/consumers did not finish");
+        assertEquals(threads * count, sum.get());
+        assertEquals("", getKeysAsString());
+    }
+
+    @Test
+    public void testFactoryTransientScheme() {
+        Space s = SpaceFactory.getSpace("transient:CSpaceTestCase");
+        assertTrue(s instanceof CSpace, "transient: should create a CSpace");
+        assertTrue(SpaceFactory.getSpace("cspace:CSpaceTestCase") instanceof CSpace, "cspace: should create a CSpace");
+        assertTrue(SpaceFactory.getSpace("tspace:CSpaceTestCase") instanceof TSpace);
+    }
+}
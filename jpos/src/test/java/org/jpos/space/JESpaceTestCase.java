@@ -39,6 +39,9 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @SuppressWarnings("unchecked")
 public class JESpaceTestCase {
@@ -140,6 +143,17 @@ public class JESpaceTestCase {
         assertNull (sp.rdp ("PUSH"));
     }
     @Test
+    public void testBatch() {
+        sp.outAll ("BATCH", Arrays.asList ("ONE", "TWO", "THREE"));
+        sp.out ("BATCH", "FOUR");
+        assertEquals (Arrays.asList ("ONE", "TWO"), sp.inp ("BATCH", 2));
+        List<Object> l = new ArrayList<>();
+        assertEquals (2, sp.drainTo ("BATCH", l, 10, 100L));
+        assertEquals (Arrays.asList ("THREE", "FOUR"), l);
+        assertEquals (0, sp.drainTo ("BATCH", l, 10, 100L));
+        assertNull (sp.rdp ("BATCH"));
+    }
+    @Test
     @DisabledIfEnvironmentVariable(named = "GITHUB_ACTIONS", matches = "true")
     public void testOutExpire() {
         // JESpace uses transactional Berkeley DB operations, so use wider expiration gaps
@@ -0,0 +1,232 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.space;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("unchecked")
+public class JournalSpaceTest {
+    @TempDir
+    Path dir;
+    JournalSpace<String,Object> sp;
+
+    private JournalSpace<String,Object> open (String params) {
+        return sp = new JournalSpace<>("test", dir + params);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (sp != null)
+            sp.close();
+    }
+
+    @Test
+    public void testOutInp() {
+        open("");
+        sp.out("K", "1");
+        sp.out("K", "2");
+        sp.push("K", "0");
+        assertEquals(3, sp.size("K"));
+        assertEquals("0", sp.rdp("K"));
+        assertEquals("0", sp.inp("K"));
+        assertEquals("1", sp.in("K", 100L));
+        assertEquals("2", sp.inp("K"));
+        assertNull(sp.inp("K"));
+        assertNull(sp.in("K", 50L));
+        assertTrue(sp.getKeySet().isEmpty());
+    }
+
+    @Test
+    public void testTemplateAndPut() {
+        open("");
+        sp.out("K", "1");
+        sp.out("K", "2");
+        sp.out("K", "3");
+        assertEquals("2", sp.inp(new ObjectTemplate("K", "2")));
+        sp.put("K", "4");
+        assertEquals(1, sp.size("K"));
+        assertEquals("4", sp.inp("K"));
+    }
+
+    @Test
+    public void testReplay() {
+        open("");
+        sp.out("A", "1");
+        sp.out("A", "2");
+        sp.push("A", "0");
+        sp.out("B", "x");
+        sp.out("C", "gone");
+        sp.inp("C");
+        sp.inp(new ObjectTemplate("A", "1"));
+        sp.close();
+
+        open("");
+        assertEquals(2, sp.size("A"));
+        assertEquals("0", sp.inp("A"));
+        sp.push("A", "-1");
+        sp.out("A", "3");
+        assertEquals("x", sp.rdp("B"));
+        assertNull(sp.rdp("C"));
+        sp.close();
+
+        open("");
+        assertEquals("-1", sp.inp("A"));
+        assertEquals("2", sp.inp("A"));
+        assertEquals("3", sp.inp("A"));
+        assertNull(sp.inp("A"));
+    }
+
+    @Test
+    public void testReplace() {
+        open("");
+        sp.out("CTX", "old");
+        sp.out("STATE", 1);
+        Map<String,Object> m = new HashMap<>();
+        m.put("CTX", "new");
+        m.put("STATE", null);
+        sp.replace(m);
+        sp.close();
+
+        open("");
+        assertEquals(1, sp.size("CTX"));
+        assertEquals("new", sp.rdp("CTX"));
+        assertNull(sp.rdp("STATE"));
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws Exception {
+        open("");
+        sp.out("K", "1");
+        sp.out("K", "2");
+        sp.close();
+
+        // flip the last byte of the second record
+        File[] files = dir.toFile().listFiles((d, n) -> n.endsWith(".jnl"));
+        assertEquals(1, files.length);
+        try (RandomAccessFile raf = new RandomAccessFile(files[0], "rw")) {
+            long end = 0L;
+            for (long pos = 0L; ; ) {
+                raf.seek(pos);
+                int len = raf.readInt();
+                if (len == 0)
+                    break;
+                end = pos + 8 + len;
+                pos = end;
+            }
+            raf.seek(end - 1);
+            int b = raf.read();
+            raf.seek(end - 1);
+            raf.write(b ^ 0xFF);
+        }
+
+        open("");
+        assertEquals("1", sp.inp("K"));
+        assertNull(sp.inp("K"));
+        sp.out("K", "3");
+        sp.close();
+
+        open("");
+        assertEquals("3", sp.inp("K"));
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        open("");
+        sp.out("K", "short", 50L);
+        sp.out("K", "long");
+        Thread.sleep(100L);
+        sp.close();
+
+        open("");
+        assertEquals(1, sp.size("K"));
+        assertEquals("long", sp.inp("K"));
+    }
+
+    @Test
+    public void testCompaction() {
+        open(",segment-size=4096");
+        sp.out("PINNED", "survives compaction");
+        for (int i=0; i<1000; i++) {
+            sp.out("K." + i, "value " + i);
+            assertEquals("value " + i, sp.inp("K." + i));
+        }
+        sp.gc();
+        sp.gc();
+        assertTrue(sp.getSegmentCount() <= 3, "segments=" + sp.getSegmentCount());
+        assertTrue(dir.toFile().listFiles().length <= 3);
+        sp.close();
+
+        open(",segment-size=4096");
+        assertEquals(Set.of("PINNED"), sp.getKeySet());
+        assertEquals("survives compaction", sp.inp("PINNED"));
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        open("");
+        int threads = 8;
+        int count = 200;
+        AtomicInteger taken = new AtomicInteger();
+        List<Thread> l = new ArrayList<>();
+        for (int t=0; t<threads; t++) {
+            String key = "K." + t;
+            l.add(Thread.ofVirtual().start(() -> {
+                for (int i=0; i<count; i++) {
+                    sp.out(key, i);
+                    if (sp.inp(key) != null)
+                        taken.incrementAndGet();
+                }
+                sp.out(key, "last");
+            }));
+        }
+        for (Thread t : l)
+            t.join();
+        assertEquals(threads * count, taken.get());
+        sp.close();
+
+        open("");
+        assertEquals(threads, sp.getKeySet().size());
+        for (int t=0; t<threads; t++)
+            assertEquals("last", sp.inp("K." + t));
+    }
+
+    @Test
+    public void testFactory() {
+        Space s = SpaceFactory.getSpace("journal:factorytest:" + dir);
+        assertInstanceOf(JournalSpace.class, s);
+        assertInstanceOf(PersistentSpace.class, s);
+        s.out("K", "V");
+        assertEquals("V", s.inp("K"));
+        ((JournalSpace) s).close();
+    }
+}
@@ -22,6 +22,9 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -121,6 +124,30 @@ public class LSpaceTest implements SpaceListener {
         assertNull(sp.rdp("testPut_Key"));
     }
 
+    /**
+     * Test batch operations
+     */
+    @Test
+    public void testBatch() throws InterruptedException {
+        sp.out("testBatch_Key", "0");
+        sp.outAll("testBatch_Key", Arrays.asList("1", "2", "3"));
+        assertEquals(Arrays.asList("0", "1"), sp.inp("testBatch_Key", 2));
+
+        List<Object> l = new ArrayList<>();
+        assertEquals(2, sp.drainTo("testBatch_Key", l, 10, 100L));
+        assertEquals(Arrays.asList("2", "3"), l);
+        assertTrue(sp.inp("testBatch_Key", 10).isEmpty());
+        assertFalse(sp.getKeySet().contains("testBatch_Key"));
+
+        l.clear();
+        Thread t = Thread.ofVirtual().start(() -> sp.drainTo("testBatch_Key", l, 10, 5000L));
+        Thread.sleep(50);
+        sp.outAll("testBatch_Key", Arrays.asList("4", "5"));
+        t.join(5000L);
+        assertEquals(Arrays.asList("4", "5"), l);
+        assertEquals(0, sp.drainTo("testBatch_Key", l, 10, 50L));
+    }
+
     /**
      * Test Template matching - same as TSpace
      */
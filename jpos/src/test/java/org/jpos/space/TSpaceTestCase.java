@@ -20,7 +20,10 @@ package org.jpos.space;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.jpos.iso.ISOUtil;
@@ -33,13 +36,25 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings("unchecked")
 public class TSpaceTestCase implements SpaceListener {
-    TSpace<String, Object> sp;
+    LocalSpace<Object, Object> sp;
     public static final int COUNT = 100000;
     Object notifiedValue = null;
 
     @BeforeEach
     public void setUp() {
-        sp = new TSpace<String, Object>();
+        sp = createSpace();
+    }
+
+    protected LocalSpace<Object, Object> createSpace() {
+        return new TSpace<Object, Object>();
+    }
+
+    protected void gc() {
+        ((TSpace) sp).gc();
+    }
+
+    protected String getKeysAsString() {
+        return ((TSpace) sp).getKeysAsString();
     }
 
     @AfterEach
@@ -48,7 +63,7 @@ public class TSpaceTestCase implements SpaceListener {
         for (Object key : keySet) {
             sp.inp(key);
         }
-        sp.gc();
+        gc();
         sp = null;
     }
 
@@ -140,10 +155,20 @@ public class TSpaceTestCase implements SpaceListener {
             Thread.sleep(75); // allow for low system timer accuracy
         } catch (InterruptedException e) {
         }
-        assertEquals("testGC_Key", sp.getKeysAsString());
-        sp.gc();
-        assertEquals("", sp.getKeysAsString());
-        sp.gc();
+        gc(); // expired entries may already be gone, gc() must not leave them behind
+        assertEquals("", getKeysAsString());
+        assertEquals(0, sp.size("testGC_Key"));
+        gc();
+    }
+
+    @Test
+    public void testExpiredEntriesAreRemovedUnread() {
+        for (int i = 0; i < 1000; i++)
+            sp.out("testExpiredUnread_Key" + i, "ABC", 50L);
+        sp.out("testExpiredUnread_Keep", "XYZ");
+        ISOUtil.sleep(50L + SpaceFactory.EXPIRY_RESOLUTION * 3);
+        assertEquals("testExpiredUnread_Keep", getKeysAsString());
+        assertEquals("XYZ", sp.inp("testExpiredUnread_Keep"));
     }
 
     @Test
@@ -314,6 +339,58 @@ public class TSpaceTestCase implements SpaceListener {
         assertTrue(elapsed >= 1000L && elapsed <= 2000L, "Invalid elapsed time " + elapsed);
         assertNull(obj, "Object should be null");
     }
+    @Test
+    public void testOutAll() {
+        sp.out("BATCH", "0");
+        sp.outAll("BATCH", Arrays.asList("1", "2", "3"));
+        assertEquals(4, sp.size("BATCH"));
+        assertEquals(Arrays.asList("0", "1", "2"), sp.inp("BATCH", 3));
+        assertEquals(Arrays.asList("3"), sp.inp("BATCH", 3));
+        assertTrue(sp.inp("BATCH", 3).isEmpty());
+        assertNull(sp.rdp("BATCH"));
+        assertThrows(NullPointerException.class, () -> sp.outAll("BATCH", Arrays.asList("1", null)));
+        assertNull(sp.rdp("BATCH"), "nothing written when a value is null");
+    }
+    @Test
+    public void testInpMaxSkipsExpired() throws Exception {
+        sp.out("BATCH", "1", 50L);
+        sp.out("BATCH", "2");
+        sp.out("BATCH", "3", 50L);
+        Thread.sleep(100L);
+        assertEquals(Arrays.asList("2"), sp.inp("BATCH", 10));
+        gc();
+        assertFalse(sp.getKeySet().contains("BATCH"));
+    }
+    @Test
+    public void testInpMaxTemplate() {
+        sp.outAll("BATCH", Arrays.asList("1", "2", "1", "3", "1"));
+        assertEquals(Arrays.asList("1", "1"), sp.inp(new ObjectTemplate("BATCH", "1"), 2));
+        assertEquals(Arrays.asList("2", "3", "1"), sp.inp("BATCH", 10));
+    }
+    @Test
+    public void testDrainTo() {
+        List<Object> l = new ArrayList<>();
+        assertEquals(0, sp.drainTo("BATCH", l, 10, 100L));
+        sp.outAll("BATCH", Arrays.asList("1", "2", "3"));
+        assertEquals(2, sp.drainTo("BATCH", l, 2, 100L));
+        assertEquals(1, sp.drainTo("BATCH", l, 2, 100L));
+        assertEquals(Arrays.asList("1", "2", "3"), l);
+        assertEquals(0, sp.drainTo("BATCH", l, 0, 100L));
+    }
+    @Test
+    public void testDrainToWaits() throws Exception {
+        List<Object> l = new ArrayList<>();
+        new Thread(() -> {
+            ISOUtil.sleep(100L);
+            sp.outAll("BATCH", Arrays.asList("1", "2"));
+        }).start();
+        Instant now = Instant.now();
+        int n = sp.drainTo("BATCH", l, 10, 5000L);
+        long elapsed = Duration.between(now, Instant.now()).toMillis();
+        assertEquals(2, n);
+        assertEquals(Arrays.asList("1", "2"), l);
+        assertTrue(elapsed >= 90L && elapsed < 5000L, "Invalid elapsed time " + elapsed);
+    }
     public void notify(Object key, Object value) {
         this.notifiedValue = value;
     }
@@ -0,0 +1,221 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import org.jpos.iso.ISOMsg;
+import org.jpos.util.Serializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.jpos.transaction.ContextConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContextCodecTest {
+    private static boolean codecFormat;
+
+    @BeforeAll
+    public static void setUp() {
+        codecFormat = Context.isCodecFormat();
+        Context.setCodecFormat(true);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        Context.setCodecFormat(codecFormat);
+    }
+
+    @Test
+    public void testBuiltinTypesRoundTrip() throws Exception {
+        ISOMsg m = new ISOMsg("0100");
+        m.set(2, "4111111111111111");
+        m.set(4, "000000010000");
+        m.set(52, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        TxnId txnId = TxnId.create(Instant.parse("2026-01-02T03:04:05Z"), 1, 12345L);
+        Instant now = Instant.now();
+
+        Context ctx = new Context();
+        ctx.put("STRING", "the quick brown fox", true);
+        ctx.put("LONG", 42L, true);
+        ctx.put("INTEGER", 7, true);
+        ctx.put("BOOLEAN", Boolean.TRUE, true);
+        ctx.put(AMOUNT, new BigDecimal("-1234.56"), true);
+        ctx.put("BYTES", new byte[] { 0, 1, 2 }, true);
+        ctx.put(REQUEST, m, true);
+        ctx.put("TXNID", txnId, true);
+        ctx.put(TIMESTAMP, now, true);
+        ctx.put("CURRENCY", Currency.getInstance("USD"), true); // Java serialization fallback
+        ctx.put("VOLATILE", "not persisted");
+
+        Context c = Serializer.serializeDeserialize(ctx);
+        assertEquals("the quick brown fox", c.get("STRING"));
+        assertEquals(42L, (Long) c.get("LONG"));
+        assertEquals(7, (Integer) c.get("INTEGER"));
+        assertEquals(Boolean.TRUE, c.get("BOOLEAN"));
+        assertEquals(new BigDecimal("-1234.56"), c.get(AMOUNT));
+        assertArrayEquals(new byte[] { 0, 1, 2 }, c.get("BYTES"));
+        ISOMsg m1 = c.get(REQUEST);
+        assertEquals("0100", m1.getMTI());
+        assertEquals("4111111111111111", m1.getString(2));
+        assertArrayEquals(m.getBytes(52), m1.getBytes(52));
+        assertEquals(txnId.id(), ((TxnId) c.get("TXNID")).id());
+        assertEquals(now, c.get(TIMESTAMP));
+        assertEquals(Currency.getInstance("USD"), c.get("CURRENCY"));
+        assertNull(c.get("VOLATILE"));
+        assertTrue(c.hasPersistedKey(REQUEST), "enum keys survive as enums");
+    }
+
+    @Test
+    public void testCustomCodec() throws Exception {
+        ContextCodec.register(ContextCodec.CUSTOM, Point.class, new ContextCodec.Codec<>() {
+            public void write(DataOutput out, Point p) throws IOException {
+                out.writeInt(p.x);
+                out.writeInt(p.y);
+            }
+            public Point read(DataInput in) throws IOException {
+                return new Point(in.readInt(), in.readInt());
+            }
+        });
+        Context ctx = new Context();
+        ctx.put("POINT", new Point(3, 4), true);
+        assertTrue(ctx.hasPersistedKey("POINT"), "registered types can be persisted without being Serializable");
+        Context c = Serializer.serializeDeserialize(ctx);
+        assertEquals(new Point(3, 4), c.get("POINT"));
+
+        assertThrows(IllegalArgumentException.class,
+          () -> ContextCodec.register(ContextCodec.CUSTOM, String.class, null), "tag already taken");
+        assertThrows(IllegalArgumentException.class,
+          () -> ContextCodec.register(1, String.class, null), "reserved tag");
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws Exception {
+        Context ctx = new Context();
+        ctx.put(AMOUNT, new BigDecimal("100.00"), true);
+        ctx.put("STAN", 123456L, true);
+        ctx.put(TIMESTAMP, Instant.now(), true);
+        ctx.put("RC", "00", true);
+        LegacyContext legacy = new LegacyContext();
+        legacy.merge(ctx);
+
+        int compact = Serializer.serialize(ctx).length;
+        int java = Serializer.serialize(legacy).length;
+        assertTrue(compact * 2 < java, "compact=" + compact + ", java=" + java);
+    }
+
+    @Test
+    public void testReadsLegacyFormat() throws Exception {
+        LegacyContext legacy = new LegacyContext();
+        legacy.put("RC", "00", true);
+        legacy.put("STAN", 123456L, true);
+        Context c = Serializer.serializeDeserialize(legacy);
+        assertEquals("00", c.get("RC"));
+        assertEquals(123456L, (Long) c.get("STAN"));
+        assertTrue(c.hasPersistedKey("STAN"));
+    }
+
+    @Test
+    public void testLegacyFormatReadableByPreviousVersions() throws Exception {
+        Context ctx = new Context();
+        ctx.put("RC", "00", true);
+        ctx.put("STAN", 123456L, true);
+        ctx.put("POINT", new Point(1, 2), true); // not Serializable, codec only
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Context.setCodecFormat(false);
+        try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+            ctx.writeExternal(out);
+        } finally {
+            Context.setCodecFormat(true);
+        }
+        // what Context.readExternal did before the codec format
+        Map<String,Object> entries = new HashMap<>();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            assertEquals(0, in.readByte());
+            int size = in.readInt();
+            for (int i=0; i<size; i++)
+                entries.put((String) in.readObject(), in.readObject());
+        }
+        assertEquals(Map.of("RC", "00", "STAN", 123456L), entries);
+    }
+
+    @Test
+    public void testStrictRejectsJavaSerialization() throws Exception {
+        Context known = new Context();
+        known.put("RC", "00", true);
+        known.put(AMOUNT, new BigDecimal("100.00"), true);
+        Context java = new Context();
+        java.put("CURRENCY", Currency.getInstance("USD"), true);
+        byte[] javaBytes = Serializer.serialize(java);
+        LegacyContext legacy = new LegacyContext();
+        legacy.put("RC", "00", true);
+
+        ContextCodec.setStrict(true);
+        try {
+            Context c = Serializer.serializeDeserialize(known);
+            assertEquals("00", c.get("RC"));
+            assertEquals(new BigDecimal("100.00"), c.get(AMOUNT));
+            assertThrows(IOException.class, () -> Serializer.deserialize(javaBytes));
+            assertThrows(IOException.class, () -> Serializer.serializeDeserialize(legacy));
+
+            Context.setCodecFormat(false);
+            try {
+                assertEquals("00", Serializer.serializeDeserialize(known).get("RC"), "strict mode writes the codec format");
+            } finally {
+                Context.setCodecFormat(true);
+            }
+        } finally {
+            ContextCodec.setStrict(false);
+        }
+        assertEquals(Currency.getInstance("USD"), ((Context) Serializer.deserialize(javaBytes)).get("CURRENCY"));
+    }
+
+    record Point(int x, int y) { }
+
+    /** Writes the version 0 format, Java serialized entries. */
+    public static class LegacyContext extends Context {
+        public LegacyContext() { }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeByte(0);
+            Context c = clone();
+            var keys = c.getMap().keySet().stream().filter(c::hasPersistedKey).toList();
+            out.writeInt(keys.size());
+            for (Object k : keys) {
+                out.writeObject(k.toString());
+                out.writeObject((Serializable) c.get(k));
+            }
+        }
+    }
+}
@@ -33,16 +33,21 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jpos.iso.ISOUtil;
 import org.jpos.log.AuditLogEvent;
 import org.jpos.log.AuditLogEventRegistry;
 import org.jpos.log.evt.ContextEvt;
@@ -168,20 +173,40 @@ public class ContextTest {
     }
 
     @Test
-    public void testGetThrowsNullPointerException() throws Throwable {
+    public void testGetWithTimeoutOnEmptyContext() throws Throwable {
         Context context = new Context();
-        try {
-            context.get("", 49L);
-            fail("Expected NullPointerException to be thrown");
-        } catch (NullPointerException ex) {
-            if (isJavaVersionAtMost(JAVA_14)) {
-                assertNull(ex.getMessage(), "ex.getMessage()");
-            } else {
-                assertEquals("Cannot invoke \"java.util.Map.get(Object)\" because \"this.map\" is null", ex.getMessage(), "ex.getMessage()");
-            }
-        }
+        assertNull(context.get("", 49L), "result");
+    }
+
+    @Test
+    public void testGetWaitsForPut() throws Throwable {
+        Context context = new Context();
+        CompletableFuture<String> async = context.getAsync("LATE");
+        assertFalse(async.isDone());
+        Thread.ofVirtual().start(() -> {
+            ISOUtil.sleep(50L);
+            context.put("LATE", "value");
+        });
+        assertEquals("value", context.get("LATE", 5000L));
+        assertEquals("value", async.get(1, TimeUnit.SECONDS));
+        assertTrue(context.getAsync("LATE").isDone());
     }
-    
+
+    @Test
+    public void testInsertionOrderAndNulls() {
+        Context context = new Context();
+        context.put("C", "1");
+        context.put(ContextConstants.REQUEST, "2");
+        context.put("A", null);
+        context.put(null, "4");
+        context.put("C", "5"); // update keeps position
+        assertEquals(Arrays.asList("C", ContextConstants.REQUEST, "A", null), new ArrayList<>(context.getMap().keySet()));
+        assertEquals("5", context.get("C"));
+        assertTrue(context.hasKey("A"));
+        assertEquals("4", context.remove(null));
+        assertFalse(context.hasKey(null));
+    }
+
     @Test
     public void testLog1() throws Throwable {
         new Context().log("");
@@ -0,0 +1,38 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completes its prepare phase "ASYNC-DELAY" milliseconds later, on another thread.
+ */
+public class TestAsyncParticipant implements AsyncParticipant {
+    public CompletionStage<Integer> prepareAsync (long id, Serializable o) {
+        Context ctx = (Context) o;
+        Long delay = ctx.get ("ASYNC-DELAY");
+        return CompletableFuture.supplyAsync (() -> {
+            ctx.put ("ASYNC", Thread.currentThread().getName());
+            return PREPARED | READONLY | NO_JOIN;
+        }, CompletableFuture.delayedExecutor (delay != null ? delay : 0L, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import org.jpos.core.Configurable;
+import org.jpos.core.Configuration;
+import org.jpos.iso.ISOUtil;
+
+import java.io.Serializable;
+
+/**
+ * Sleeps "delay" milliseconds and then places "key" in the Context, unless
+ * the Context's "ABORT-KEY" entry names that key, in which case it aborts.
+ */
+public class TestProvideParticipant implements TransactionParticipant, Configurable {
+    Configuration cfg;
+    public int prepare (long id, Serializable o) {
+        Context ctx = (Context) o;
+        String key = cfg.get ("key");
+        ISOUtil.sleep (cfg.getLong ("delay"));
+        if (key.equals (ctx.getString ("ABORT-KEY")))
+            return ABORTED;
+        ctx.put (key, Thread.currentThread().getName());
+        return PREPARED;
+    }
+    public void commit (long id, Serializable o) {
+        ((Context) o).put (cfg.get ("key") + ".commit", Boolean.TRUE);
+    }
+    public void abort  (long id, Serializable o) {
+        ((Context) o).put (cfg.get ("key") + ".abort", Boolean.TRUE);
+    }
+    public void setConfiguration (Configuration cfg) {
+        this.cfg = cfg;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jpos.transaction;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks that contexts carrying the same "KEY" are prepared in "SEQ" order.
+ */
+public class TestSequenceParticipant implements TransactionParticipant {
+    private final Map<Object,Integer> last = new ConcurrentHashMap<>();
+
+    public int prepare (long id, Serializable o) {
+        Context ctx = (Context) o;
+        int seq = ctx.get ("SEQ");
+        Integer previous = last.put (ctx.get ("KEY"), seq);
+        if (previous != null && previous + 1 != seq)
+            ctx.put ("OUT_OF_ORDER", previous);
+        ctx.put ("TXNID", id);
+        return PREPARED | READONLY | NO_JOIN;
+    }
+    public void commit (long id, Serializable o) { }
+    public void abort  (long id, Serializable o) { }
+}
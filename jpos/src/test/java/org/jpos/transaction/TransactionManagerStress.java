@@ -62,7 +62,8 @@ public class TransactionManagerStress {
 
         sp = SpaceFactory.getSpace("lspace:txnmgrtest");
         Files.walk(Paths.get("build/resources/test/org/jpos/transaction")).forEach( s -> {
-            if (Files.isRegularFile(s)) {
+            // only deploy the stress TM, so it doesn't linger on the queues used by TransactionManagerTestCase
+            if (Files.isRegularFile(s) && s.getFileName().toString().matches("00_logger.xml|10_txnmgr_stress.xml")) {
                 try {
                     Files.copy(s, deployDir.resolve(s.getFileName()), REPLACE_EXISTING);
                 } catch (IOException e) {
@@ -18,11 +18,22 @@
 
 package org.jpos.transaction;
 
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.jpos.iso.ISOUtil;
 import org.jpos.q2.Q2;
+import org.jpos.space.JournalSpace;
+import org.jpos.space.LocalSpace;
 import org.jpos.space.Space;
 import org.jpos.space.SpaceFactory;
+import org.jpos.transaction.participant.Delay;
 import org.jpos.util.Caller;
+import org.jpos.util.LogEvent;
+import org.jpos.util.LogListener;
+import org.jpos.util.Logger;
+import org.jpos.util.NameRegistrar;
 import org.jpos.util.ThroughputControl;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
@@ -31,11 +42,21 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.jpos.transaction.ContextConstants.TIMESTAMP;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 @SuppressWarnings("unchecked")
@@ -45,6 +66,14 @@ public class TransactionManagerTestCase {
     public static String QUEUE = "TXNMGRTEST";
     public static String QUEUE_EMPTY = "TXNMGRTEST.EMPTY";
     public static String QUEUE_DELAY = "TXNMGRTEST.DELAY";
+    public static String QUEUE_ADMISSION = "TXNMGRTEST.ADMISSION";
+    public static String QUEUE_JOURNAL = "TXNMGRTEST.JOURNAL";
+    public static String QUEUE_SLOW = "TXNMGRTEST.SLOW";
+    public static String QUEUE_LANES = "TXNMGRTEST.LANES";
+    public static String QUEUE_ASYNC = "TXNMGRTEST.ASYNC";
+    public static String QUEUE_PARALLEL = "TXNMGRTEST.PARALLEL";
+    public static String QUEUE_RETRY = "TXNMGRTEST.RETRY";
+    public static String QUEUE_SAMPLED = "TXNMGRTEST.SAMPLED";
 
     @BeforeAll
     public static void setUp (@TempDir Path deployDir) throws IOException {
@@ -146,6 +175,258 @@ public class TransactionManagerTestCase {
     }
 
 
+    @Test
+    public void testAdmissionAtMaxSessions() throws Exception {
+        // max-sessions=1: every context has to wait for the previous session to end
+        Context[] ctxs = new Context[10];
+        Instant start = Instant.now();
+        for (int i=0; i<ctxs.length; i++) {
+            ctxs[i] = new Context();
+            ctxs[i].put(TIMESTAMP, Instant.now());
+            ctxs[i].put("DELAY-0", 10L);
+            sp.out(QUEUE_ADMISSION, ctxs[i]);
+        }
+        for (Context ctx : ctxs)
+            assertEquals("00", ctx.get("RC", 5000L));
+        long elapsed = Duration.between(start, Instant.now()).toMillis();
+        assertTrue(elapsed < 800L, "sessions should be dispatched as soon as a slot frees up, elapsed=" + elapsed);
+
+        TransactionManager tm = NameRegistrar.get("txnmgr-admission");
+        assertNotNull(tm.getMetrics().metrics().get("queue-wait"));
+    }
+
+    @Test
+    public void testJournalPersistentSpace() throws Exception {
+        Context[] ctxs = new Context[20];
+        for (int i=0; i<ctxs.length; i++) {
+            ctxs[i] = new Context();
+            ctxs[i].put("DELAY-0", 5L);
+            ctxs[i].put("persistent", "value " + i, true);
+            sp.out(QUEUE_JOURNAL, ctxs[i]);
+        }
+        for (Context ctx : ctxs)
+            assertEquals("00", ctx.get("RC", 5000L));
+
+        TransactionManager tm = NameRegistrar.get("txnmgr-journal");
+        assertInstanceOf(JournalSpace.class, tm.getPersistentSpace());
+        JournalSpace psp = (JournalSpace) tm.getPersistentSpace();
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!psp.getKeySet().isEmpty() && System.currentTimeMillis() < deadline)
+            ISOUtil.sleep(10L); // the last transactions may still be purging
+        assertEquals(Set.of(), psp.getKeySet(), "completed transactions should be purged from the journal");
+    }
+
+    @Test
+    public void testParticipantMetricsAndSlowEvent(@TempDir Path dir) throws Exception {
+        Path jfr = dir.resolve("slow.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jpos.TMSlow");
+            recording.start();
+            Context fast = new Context();
+            fast.put("DELAY-0", 0L);
+            sp.out(QUEUE_SLOW, fast);
+            assertEquals("00", fast.get("RC", 5000L));
+            Context slow = new Context();
+            slow.put("DELAY-0", 50L);
+            slow.put("CARD", "4111");
+            sp.out(QUEUE_SLOW, slow);
+            assertEquals("00", slow.get("RC", 5000L));
+            recording.stop();
+            recording.dump(jfr);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(jfr).stream()
+          .filter(e -> "jpos.TMSlow".equals(e.getEventType().getName()))
+          .toList();
+        assertEquals(1, events.size(), "only the slow Delay should be reported");
+        String delay = Caller.shortClassName(Delay.class.getName());
+        RecordedEvent e = events.get(0);
+        assertEquals("txnmgr-slow:" + delay, e.getString("name"));
+        assertEquals("prepare", e.getString("phase"));
+        assertTrue(e.getString("keys").contains("CARD"), e.getString("keys"));
+
+        Timer timer = q2.getMeterRegistry().find("jpos.tm.op")
+          .tags("name", "txnmgr-slow", "group", "slow", "participant", delay, "phase", "prepare")
+          .timer();
+        assertNotNull(timer);
+        assertEquals(2L, timer.count());
+        TransactionManager tm = NameRegistrar.get("txnmgr-slow");
+        assertEquals(2L, tm.getMetrics().metrics().get(delay + "-prepare").getTotalCount());
+    }
+
+    @Test
+    public void testLanesPreserveOrderPerKey() throws Exception {
+        int keys = 8;
+        Context[] ctxs = new Context[keys * 20];
+        for (int i=0; i<ctxs.length; i++) {
+            ctxs[i] = new Context();
+            ctxs[i].put("KEY", "TERMINAL-" + (i % keys));
+            ctxs[i].put("SEQ", i / keys);
+            ctxs[i].put("DELAY-0", (long) (i % 3));
+            sp.out(QUEUE_LANES, ctxs[i]);
+        }
+        Set<Long> lanesUsed = new HashSet<>();
+        for (int i=0; i<ctxs.length; i++) {
+            Context ctx = ctxs[i];
+            assertEquals("00", ctx.get("RC", 5000L));
+            assertNull(ctx.get("OUT_OF_ORDER"), "out of order " + ctx.get("KEY"));
+            long lane = ctx.<Long>get("TXNID") % 4;
+            assertEquals(ctxs[i % keys].<Long>get("TXNID") % 4, lane, "same key, same lane");
+            lanesUsed.add(lane);
+        }
+        assertTrue(lanesUsed.size() > 1, "contexts should spread across lanes");
+
+        TransactionManager tm = NameRegistrar.get("txnmgr-lanes");
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (tm.getInTransit() > 0 && System.currentTimeMillis() < deadline)
+            ISOUtil.sleep(10L);
+        assertEquals(0L, tm.getInTransit());
+        assertEquals(ctxs.length, tm.getHead() - 4L, "head is aggregated across lanes");
+    }
+
+    @Test
+    public void testLaneRunsOtherKeysConcurrently() {
+        // find two keys routed to the same lane
+        String slowKey = "SLOW-0";
+        String fastKey = null;
+        for (int i=1; fastKey == null; i++) {
+            String k = "FAST-" + i;
+            if (laneOf(k, 4) == laneOf(slowKey, 4))
+                fastKey = k;
+        }
+        Context slow = new Context();
+        slow.put("KEY", slowKey);
+        slow.put("SEQ", 0);
+        slow.put("DELAY-0", 2000L);
+        sp.out(QUEUE_LANES, slow);
+        Context fast = new Context();
+        fast.put("KEY", fastKey);
+        fast.put("SEQ", 0);
+        fast.put("DELAY-0", 0L);
+        sp.out(QUEUE_LANES, fast);
+        Instant start = Instant.now();
+        assertEquals("00", fast.get("RC", 5000L));
+        assertTrue(Duration.between(start, Instant.now()).toMillis() < 1500L, "fast key waited for slow key");
+        assertEquals(fast.<Long>get("TXNID") % 4, slow.<Long>get("TXNID", 5000L) % 4, "same lane");
+        assertEquals("00", slow.get("RC", 5000L));
+    }
+
+    private static int laneOf (String key, int lanes) {
+        int h = key.hashCode();
+        return Math.floorMod (h ^ (h >>> 16), lanes);
+    }
+
+    @Test
+    public void testAsyncParticipantReleasesSession() {
+        // max-sessions=1: parked transactions must not hold the only session
+        Context[] ctxs = new Context[20];
+        Instant start = Instant.now();
+        for (int i=0; i<ctxs.length; i++) {
+            ctxs[i] = new Context();
+            ctxs[i].put("ASYNC-DELAY", 200L);
+            sp.out(QUEUE_ASYNC, ctxs[i]);
+        }
+        for (Context ctx : ctxs) {
+            assertEquals("00", ctx.get("RC", 5000L));
+            assertNotNull(ctx.get("ASYNC"));
+        }
+        long elapsed = Duration.between(start, Instant.now()).toMillis();
+        assertTrue(elapsed < 2000L, "continuations should run concurrently, elapsed=" + elapsed);
+    }
+
+    @Test
+    public void testParallelGroup() {
+        Context ctx = new Context();
+        Instant start = Instant.now();
+        ctx.put(TIMESTAMP, start);
+        sp.out(QUEUE_PARALLEL, ctx);
+        assertEquals("00", ctx.get("RC", 5000L));
+        long elapsed = Duration.between(start, Instant.now()).toMillis();
+        assertTrue(elapsed < 450L, "independent participants should run concurrently, elapsed=" + elapsed);
+        assertNotNull(ctx.get("DECISION"), "DECISION runs once its requires are provided");
+        assertEquals(Boolean.TRUE, ctx.get("FRAUD.commit", 1000L));
+        assertEquals(Boolean.TRUE, ctx.get("LIMITS.commit", 1000L));
+    }
+
+    @Test
+    public void testParallelGroupAbort() {
+        Context ctx = new Context();
+        ctx.put("ABORT-KEY", "LIMITS");
+        sp.out(QUEUE_PARALLEL, ctx);
+        assertEquals("01", ctx.get("RC", 5000L));
+        assertNull(ctx.get("DECISION"), "DECISION depends on the aborted LIMITS");
+        assertEquals(Boolean.TRUE, ctx.get("FRAUD.abort", 1000L));
+        assertEquals(Boolean.TRUE, ctx.get("BALANCE.abort", 1000L));
+    }
+
+    @Test
+    public void testRetryBackoff() {
+        Context ctx = new Context();
+        ctx.put("RETRY", 3);
+        Instant start = Instant.now();
+        sp.out(QUEUE_RETRY, ctx);
+        assertNotNull(ctx.get("DONE", 5000L));
+        assertEquals(3, (Integer) ctx.get(TransactionManager.RETRY_ATTEMPTS));
+        // 50 + 100 + 200ms, less up to 20% jitter
+        assertTrue(Duration.between(start, Instant.now()).toMillis() >= 280L, "retries should back off");
+    }
+
+    @Test
+    public void testRetryIndexIsCompacted() throws Exception {
+        TransactionManager tm = NameRegistrar.get("txnmgr-retry");
+        LocalSpace psp = (LocalSpace) tm.getPersistentSpace();
+        List<Context> contexts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Context ctx = new Context();
+            ctx.put("RETRY", 1);
+            contexts.add(ctx);
+            sp.out(QUEUE_RETRY, ctx);
+        }
+        for (Context ctx : contexts)
+            assertNotNull(ctx.get("DONE", 5000L));
+        assertEquals(0, tm.getRetryDepth());
+        // released keys are kept until they outnumber the pending ones (with a slack of 32)
+        long deadline = System.currentTimeMillis() + 1000L;
+        while (psp.size(TransactionManager.RETRY_QUEUE) > 32 && System.currentTimeMillis() < deadline)
+            ISOUtil.sleep(5L);
+        assertTrue(psp.size(TransactionManager.RETRY_QUEUE) <= 32,
+          "index should have been compacted, size=" + psp.size(TransactionManager.RETRY_QUEUE));
+    }
+
+    @Test
+    public void testRetryMaxAttempts() throws Exception {
+        Context ctx = new Context();
+        ctx.put("RETRY", 10);
+        sp.out(QUEUE_RETRY, ctx);
+        assertNull(ctx.get("DONE", 2000L), "context should have been discarded");
+        assertEquals(4, (Integer) ctx.get(TransactionManager.RETRY_ATTEMPTS));
+        TransactionManager tm = NameRegistrar.get("txnmgr-retry");
+        assertEquals(0, tm.getRetryDepth());
+    }
+
+    @Test
+    public void testLogSampling() {
+        List<LogEvent> events = new CopyOnWriteArrayList<>();
+        LogListener listener = ev -> { events.add(ev); return ev; };
+        Logger logger = Logger.getLogger(QUEUE_SAMPLED);
+        logger.addListener(listener);
+        try {
+            Context ctx = new Context();
+            ctx.put(TIMESTAMP, Instant.now());
+            sp.out(QUEUE_SAMPLED, ctx);
+            assertEquals("00", ctx.get("RC", 5000L));
+
+            Context aborted = new Context();
+            aborted.put("ABORT-KEY", "SAMPLED");
+            sp.out(QUEUE_SAMPLED, aborted);
+            assertEquals("01", aborted.get("RC", 5000L));
+            ISOUtil.sleep(100L);
+            assertEquals(1, events.size(), "only the aborted transaction should be logged");
+            assertEquals("abort", events.get(0).getTag());
+        } finally {
+            logger.removeListener(listener);
+        }
+    }
+
     @Test
     public void testEmptyTM() {
         Context ctx = new Context();
@@ -31,7 +31,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,6 +63,17 @@ public class QueryHostTest implements TransactionConstants, MUX {
         assertFalse (ctx.getResult().hasFailures(), "Should not have failures");
     }
 
+    @Test
+    public void testSimpleQueryAsync() throws Exception {
+        Context ctx = new Context();
+        ctx.put(ContextConstants.REQUEST.toString(), createDummyRequest());
+        ctx.put(ContextConstants.DESTINATION.toString(), "TEST");
+        int action = queryHost.prepareAsync(1L, ctx).toCompletableFuture().get(1L, TimeUnit.SECONDS);
+        assertEquals(PREPARED | READONLY | NO_JOIN, action);
+        assertNotNull (ctx.get(ContextConstants.RESPONSE.toString()));
+        assertFalse (ctx.getResult().hasFailures(), "Should not have failures");
+    }
+
     @Test
     public void testNoRequest() throws Exception {
         Context ctx = new Context();
@@ -115,6 +128,23 @@ public class QueryHostTest implements TransactionConstants, MUX {
         assertEquals(8877, queryHost.resolveTimeout(ctx));
     }
 
+    @Test
+    public void testDeadline() throws Exception {
+        Context ctx = new Context();
+        cfg.put("continuations", "no");
+        queryHost.setConfiguration(cfg);
+        ctx.put(ContextConstants.REQUEST.toString(), createDummyRequest());
+        ctx.put(ContextConstants.DESTINATION.toString(), "TEST");
+        ctx.put(ContextConstants.DEADLINE.toString(), Instant.now().minusMillis(1L));
+        assertEquals(FAIL, queryHost.prepare(1L, ctx));
+        assertNull (ctx.get(ContextConstants.RESPONSE.toString()));
+        assertEquals(CMF.HOST_UNREACHABLE, ctx.getResult().failure().getIrc());
+
+        ctx = new Context();
+        ctx.put(ContextConstants.DEADLINE.toString(), System.currentTimeMillis() + 2000L);
+        assertTrue(queryHost.resolveDeadline(ctx) > System.currentTimeMillis());
+    }
+
     @Override
     public ISOMsg request(ISOMsg m, long timeout) throws ISOException {
         ISOMsg r = (ISOMsg) m.clone();
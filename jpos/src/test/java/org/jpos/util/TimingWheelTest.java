@@ -0,0 +1,126 @@
+/*
+ * jPOS Project [http://jpos.org]
+ * Copyright (C) 2000-2026 jPOS Software SRL
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jpos.util;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void testExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(10L);
+        long base = System.nanoTime();
+        wheel.schedule("A", base + 15 * MS);
+        wheel.schedule("B", base + 35 * MS);
+        assertEquals(2, wheel.size());
+        assertTrue(wheel.expire(base + 14 * MS).isEmpty(), "nothing due yet");
+        assertEquals(List.of("A"), wheel.expire(base + 16 * MS));
+        assertTrue(wheel.expire(base + 30 * MS).isEmpty(), "B is due later within the tick");
+        assertEquals(List.of("B"), wheel.expire(base + 40 * MS));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1L);
+        long base = System.nanoTime();
+        TimingWheel.Entry<String> a = wheel.schedule("A", base + 5 * MS);
+        wheel.schedule("B", base + 5 * MS);
+        assertEquals("A", a.getItem());
+        assertTrue(wheel.cancel(a));
+        assertFalse(wheel.cancel(a), "already cancelled");
+        assertFalse(wheel.cancel(null));
+        assertEquals(List.of("B"), wheel.expire(base + 10 * MS));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPastDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(100L);
+        long base = System.nanoTime();
+        wheel.expire(base + 1000 * MS);
+        wheel.schedule("A", base);
+        assertEquals(List.of("A"), wheel.expire(base + 1000 * MS));
+    }
+
+    @Test
+    public void testCascade() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1L);
+        long base = System.nanoTime();
+        long[] ticks = { 1, 255, 256, 257, 65535, 65536, 65537, 70000, 16777300 };
+        for (long t : ticks)
+            wheel.schedule(t, base + t * MS);
+        int fired = 0;
+        for (long t : ticks) {
+            assertTrue(wheel.expire(base + t * MS - MS / 2).isEmpty(), "fired early at " + t);
+            assertEquals(List.of(t), wheel.expire(base + t * MS + MS / 2), "tick " + t);
+            fired++;
+        }
+        assertEquals(ticks.length, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRandomSchedule() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1L);
+        Random rnd = new Random(42L);
+        long base = System.nanoTime();
+        long[] deadlines = new long[10_000];
+        Set<Integer> cancelled = new HashSet<>();
+        for (int i=0; i<deadlines.length; i++) {
+            deadlines[i] = base + (long) rnd.nextInt(200_000) * MS + rnd.nextInt((int) MS);
+            TimingWheel.Entry<Integer> e = wheel.schedule(i, deadlines[i]);
+            if (i % 10 == 0) {
+                wheel.cancel(e);
+                cancelled.add(i);
+            }
+        }
+        Set<Integer> fired = new HashSet<>();
+        long end = base + 201_000 * MS;
+        long now = base;
+        do {
+            now = Math.min(now + rnd.nextInt(5000) * MS, end);
+            for (Integer i : wheel.expire(now)) {
+                assertFalse(cancelled.contains(i), "cancelled entry fired");
+                assertTrue(deadlines[i] - now <= 0, "fired early");
+                assertTrue(fired.add(i), "fired twice");
+            }
+            for (int i=0; i<deadlines.length; i++) {
+                if (deadlines[i] - now <= 0 && !cancelled.contains(i))
+                    assertTrue(fired.contains(i), "entry " + i + " not fired");
+            }
+        } while (now != end);
+        assertEquals(deadlines.length - cancelled.size(), fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testInvalidResolution() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(0L));
+    }
+}